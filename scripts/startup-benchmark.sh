@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Time-to-first-request of the default startup versus the prod profile with AOT and a CDS archive.
+# Needs the MySQL database from application.properties and a jar built with: ./mvnw -Paot package
+set -euo pipefail
+
+JAR=${JAR:-target/bankmanagementsystem-1-0.0.1-SNAPSHOT.jar}
+URL=${URL:-http://localhost:8080/api/accounts/1}
+READY_URL=${READY_URL:-http://localhost:8080/actuator/health/readiness}
+RUNS=${RUNS:-5}
+WORK=${WORK:-target/startup-benchmark}
+
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+APP_JAR="$WORK/app/$(basename "$JAR")"
+
+echo "Training CDS archive..."
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+     -Dspring.profiles.active=prod -jar "$APP_JAR" > "$WORK/training.log" 2>&1
+
+# Starts the application and prints milliseconds until the first successful request. The prod
+# profile only takes traffic once its readiness probe is up (after warm-up), so wait for that too.
+time_to_first_request() {
+    local probe=$1 start end pid
+    shift
+    start=$(date +%s%N)
+    "$@" > "$WORK/run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$probe" && curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited, see $WORK/run.log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+for mode in default fast; do
+    total=0
+    for ((i = 1; i <= RUNS; i++)); do
+        if [ "$mode" = default ]; then
+            ms=$(time_to_first_request "$URL" java -jar "$JAR")
+        else
+            ms=$(time_to_first_request "$READY_URL" java -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true \
+                     -Dspring.profiles.active=prod -jar "$APP_JAR")
+        fi
+        echo "$mode run $i: ${ms} ms"
+        total=$((total + ms))
+    done
+    echo "$mode average: $((total / RUNS)) ms"
+done
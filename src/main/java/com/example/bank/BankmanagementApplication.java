@@ -2,8 +2,10 @@ package com.example.bank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class BankmanagementApplication {
     public static void main(String[] args) {
         SpringApplication.run(BankmanagementApplication.class, args);
@@ -0,0 +1,51 @@
+package com.example.bank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bank.datagen")
+public class DataGeneratorProperties {
+
+    private int users = 1000;
+    private int accounts = 3000;
+    // Activity postings, not counting the opening deposits
+    private long transactions = 100_000;
+    private int historyDays = 365;
+    // 1 spreads activity evenly over accounts; higher values concentrate it on a few hot accounts
+    private double hotSkew = 3.0;
+    private int threads = 4;
+    private int chunkSize = 10_000;
+    private int rowsPerInsert = 1000;
+    private long seed = 42;
+    private String password = "datagen";
+    private boolean activityFeed = true;
+    private boolean outboxEvents = true;
+    private boolean exitWhenDone = true;
+
+    // Getters and setters
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+    public int getAccounts() { return accounts; }
+    public void setAccounts(int accounts) { this.accounts = accounts; }
+    public long getTransactions() { return transactions; }
+    public void setTransactions(long transactions) { this.transactions = transactions; }
+    public int getHistoryDays() { return historyDays; }
+    public void setHistoryDays(int historyDays) { this.historyDays = historyDays; }
+    public double getHotSkew() { return hotSkew; }
+    public void setHotSkew(double hotSkew) { this.hotSkew = hotSkew; }
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public int getRowsPerInsert() { return rowsPerInsert; }
+    public void setRowsPerInsert(int rowsPerInsert) { this.rowsPerInsert = rowsPerInsert; }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+    public boolean isActivityFeed() { return activityFeed; }
+    public void setActivityFeed(boolean activityFeed) { this.activityFeed = activityFeed; }
+    public boolean isOutboxEvents() { return outboxEvents; }
+    public void setOutboxEvents(boolean outboxEvents) { this.outboxEvents = outboxEvents; }
+    public boolean isExitWhenDone() { return exitWhenDone; }
+    public void setExitWhenDone(boolean exitWhenDone) { this.exitWhenDone = exitWhenDone; }
+}
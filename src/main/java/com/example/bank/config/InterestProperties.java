@@ -0,0 +1,30 @@
+package com.example.bank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bank.interest")
+public class InterestProperties {
+
+    // Annual rate per account type, e.g. 0.035 for 3.5%
+    private Map<String, BigDecimal> rates = new HashMap<>();
+    private int dayCountBasis = 365;
+    private int chunkSize = 1000;
+    private int threads = 4;
+    private int leaseSeconds = 120;
+
+    // Getters and setters
+    public Map<String, BigDecimal> getRates() { return rates; }
+    public void setRates(Map<String, BigDecimal> rates) { this.rates = rates; }
+    public int getDayCountBasis() { return dayCountBasis; }
+    public void setDayCountBasis(int dayCountBasis) { this.dayCountBasis = dayCountBasis; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public int getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+}
@@ -0,0 +1,86 @@
+package com.example.bank.config;
+
+import com.example.bank.service.RequestProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+// Hooks that feed the RequestProfiler: a filter around every request, a JDBC proxy around the
+// pool, an invocation listener on every Spring Data repository and a marker on response writes.
+// Opt-in with bank.profiling.enabled=true.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "bank.profiling.enabled", havingValue = "true")
+public class ProfilingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(RequestProfiler profiler) {
+        FilterRegistrationBean<RequestProfilingFilter> registration =
+                new FilterRegistrationBean<>(new RequestProfilingFilter(profiler));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Static so it is registered before the DataSource and repositories are created
+    @Bean
+    public static BeanPostProcessor profilingBeanPostProcessor(ObjectProvider<RequestProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            profiler.getObject().repositoryCalled(
+                                    invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName(),
+                                    invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? new ProfilingDataSource(dataSource, profiler.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    // Component scanning also finds this class, so it repeats the condition
+    @ControllerAdvice
+    @ConditionalOnProperty(name = "bank.profiling.enabled", havingValue = "true")
+    static class SerializationMarker implements ResponseBodyAdvice<Object> {
+
+        private final RequestProfiler profiler;
+
+        SerializationMarker(RequestProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            profiler.responseBodyWriteStarted();
+            return body;
+        }
+    }
+}
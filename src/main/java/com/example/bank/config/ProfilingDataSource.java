@@ -0,0 +1,131 @@
+package com.example.bank.config;
+
+import com.example.bank.service.RequestProfiler;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// DataSource wrapper that reports pool waits and statement execution times to the RequestProfiler.
+// Result sets are handed out unwrapped so row reads cost nothing extra. It replaces the pool bean,
+// so closing it closes the pool.
+final class ProfilingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final RequestProfiler profiler;
+
+    ProfilingDataSource(DataSource target, RequestProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long started = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        profiler.connectionAcquired(System.nanoTime() - started);
+        return wrap(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long started = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        profiler.connectionAcquired(System.nanoTime() - started);
+        return wrap(connection);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable pool) {
+            pool.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (connectionProxy, connectionMethod, connectionArgs) -> {
+            Object result = passThrough(connectionProxy, connection, connectionMethod, connectionArgs);
+            String name = connectionMethod.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return proxy(CallableStatement.class, statement, new StatementHandler(statement, (String) connectionArgs[0], profiler));
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, (String) connectionArgs[0], profiler));
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null, profiler));
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object passThrough(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return invoke(target, method, args);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final RequestProfiler profiler;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql, RequestProfiler profiler) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                    batchSql = (String) args[0];
+                }
+                return passThrough(proxy, target, method, args);
+            }
+            String sql;
+            if (name.endsWith("Batch")) {
+                sql = (preparedSql != null ? preparedSql : batchSql) + " [batch]";
+                batchSql = null;
+            } else {
+                sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            }
+            long started = System.nanoTime();
+            try {
+                return ProfilingDataSource.invoke(target, method, args);
+            } finally {
+                profiler.statementExecuted(sql, System.nanoTime() - started);
+            }
+        }
+    }
+}
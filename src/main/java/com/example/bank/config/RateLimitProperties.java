@@ -0,0 +1,49 @@
+package com.example.bank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bank.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxConcurrentRequests = 64;
+    private int maxTrackedAccounts = 100_000;
+    private Limit defaultLimit = new Limit();
+    private Map<String, Limit> accountTypes = new HashMap<>();
+
+    public Limit limitFor(String accountType) {
+        if (accountType != null) {
+            Limit limit = accountTypes.get(accountType);
+            if (limit != null) {
+                return limit;
+            }
+        }
+        return defaultLimit;
+    }
+
+    public static class Limit {
+        // Requests allowed in a burst, and the sustained rate they refill at
+        private int capacity = 20;
+        private double refillPerSecond = 5.0;
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+    }
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+    public int getMaxTrackedAccounts() { return maxTrackedAccounts; }
+    public void setMaxTrackedAccounts(int maxTrackedAccounts) { this.maxTrackedAccounts = maxTrackedAccounts; }
+    public Limit getDefaultLimit() { return defaultLimit; }
+    public void setDefaultLimit(Limit defaultLimit) { this.defaultLimit = defaultLimit; }
+    public Map<String, Limit> getAccountTypes() { return accountTypes; }
+    public void setAccountTypes(Map<String, Limit> accountTypes) { this.accountTypes = accountTypes; }
+}
@@ -0,0 +1,33 @@
+package com.example.bank.config;
+
+import com.example.bank.service.RequestProfiler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Outermost filter: the profile covers security, the handler and writing the response
+class RequestProfilingFilter extends OncePerRequestFilter {
+
+    private final RequestProfiler profiler;
+
+    RequestProfilingFilter(RequestProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestProfiler.Profile profile = profiler.begin(request.getMethod(), request.getRequestURI());
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            profiler.end(profile, status);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bank.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// The @Scheduled jobs (rollups, index catch-up, outbox purge, standing orders). The datagen profile
+// turns them off: they would read high-water marks while the generator commits chunks out of id order
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "bank.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
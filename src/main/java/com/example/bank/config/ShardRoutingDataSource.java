@@ -0,0 +1,27 @@
+package com.example.bank.config;
+
+import com.example.bank.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.List;
+
+// Hands out connections from the pool of the shard selected on the calling thread
+final class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    ShardRoutingDataSource(List<HikariDataSource> pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
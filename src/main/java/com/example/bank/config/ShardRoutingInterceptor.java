@@ -0,0 +1,53 @@
+package com.example.bank.config;
+
+import com.example.bank.service.ShardRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+// Routes requests naming an account, user, transaction, hold or payout in the path or query string to that id's
+// shard for the whole request, including serialization. Endpoints that take the id in the request
+// body open the scope themselves.
+final class ShardRoutingInterceptor implements HandlerInterceptor {
+
+    private static final List<String> ID_NAMES = List.of("accountId", "userId", "transactionId", "fromAccountId", "holdId", "payoutId");
+    private static final String SCOPE_ATTRIBUTE = ShardRoutingInterceptor.class.getName() + ".scope";
+
+    private final ShardRouter shardRouter;
+
+    ShardRoutingInterceptor(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        for (String name : ID_NAMES) {
+            String value = variables != null ? variables.get(name) : null;
+            if (value == null) {
+                value = request.getParameter(name);
+            }
+            if (value != null) {
+                try {
+                    request.setAttribute(SCOPE_ATTRIBUTE, shardRouter.forId(Long.parseLong(value.trim())));
+                } catch (NumberFormatException e) {
+                    // Left to the controller's own binding error
+                }
+                return true;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof ShardRouter.Scope scope) {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bank.config;
+
+import com.example.bank.model.Account;
+import com.example.bank.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Splits users, accounts and their postings over several databases: shard 0 is spring.datasource,
+// bank.sharding.shards lists the others. The DataSource bean routes every connection to the shard
+// chosen on the thread (ShardRouter), so repositories and JdbcTemplate code run unchanged inside a
+// shard. Before the application serves requests, each extra shard gets the schema treatment
+// (ddl-auto) shard 0 gets, and its identity columns are moved to the start of its id block.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "bank.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // Tables whose ids tell which shard a row lives on
+    private static final List<String> ID_TABLES = List.of("users", "accounts", "transactions", "transfer_sagas", "holds", "outbox_events", "standing_orders", "payouts");
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primary, ShardingProperties sharding, Environment environment,
+                                 @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        // An open-in-view EntityManager keeps its first connection for the whole request
+        if (openInView) {
+            throw new IllegalStateException("bank.sharding.enabled=true requires spring.jpa.open-in-view=false");
+        }
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(pool(binder, 0, primary.determineUrl(), primary.determineUsername(), primary.determinePassword()));
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            pools.add(pool(binder, pools.size(), shard.getUrl(), shard.getUsername(), shard.getPassword()));
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < pools.size(); shard++) {
+            targets.put(shard, pools.get(shard));
+        }
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource(pools);
+        dataSource.setTargetDataSources(targets);
+        dataSource.setDefaultTargetDataSource(pools.get(0));
+        return dataSource;
+    }
+
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(ShardRouter shardRouter, DataSource dataSource,
+                                                            EntityManagerFactoryBuilder entityManagerFactoryBuilder,
+                                                            ConfigurableListableBeanFactory beanFactory,
+                                                            @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return () -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+                ShardRouter.Scope scope = shardRouter.on(shard);
+                try (scope) {
+                    applySchema(shard, dataSource, entityManagerFactoryBuilder, beanFactory, ddlAuto);
+                    moveIdentities(jdbcTemplate, shardRouter.firstId(shard));
+                }
+            }
+        };
+    }
+
+    // Builds and closes a throwaway persistence unit on the shard so Hibernate creates, updates or
+    // validates its tables exactly as it does on shard 0; create and create-drop become update
+    private static void applySchema(int shard, DataSource dataSource, EntityManagerFactoryBuilder builder,
+                                    ConfigurableListableBeanFactory beanFactory, String ddlAuto) {
+        String action = switch (ddlAuto) {
+            case "create", "create-drop", "update" -> "update";
+            case "validate" -> "validate";
+            default -> null;
+        };
+        if (action == null) {
+            return;
+        }
+        LocalContainerEntityManagerFactoryBean factory = builder.dataSource(dataSource)
+                .packages(Account.class)
+                .persistenceUnit("shard-" + shard)
+                .properties(Map.of(
+                        "hibernate.hbm2ddl.auto", action,
+                        "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName(),
+                        "hibernate.resource.beans.container", new SpringBeanContainer(beanFactory)))
+                .build();
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+
+    private static void moveIdentities(JdbcTemplate jdbcTemplate, long firstId) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        for (String table : ID_TABLES) {
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (max != null && max >= firstId) {
+                continue;
+            }
+            jdbcTemplate.execute("H2".equals(product)
+                    ? "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + firstId
+                    : "ALTER TABLE " + table + " AUTO_INCREMENT = " + firstId);
+        }
+    }
+
+    private static HikariDataSource pool(Binder binder, int shard, String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setPoolName("bank-shard-" + shard);
+        return pool;
+    }
+}
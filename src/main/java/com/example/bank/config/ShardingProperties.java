@@ -0,0 +1,44 @@
+package com.example.bank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "bank.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    // Ids handed out by shard i are i * idBlockSize + 1 .. (i + 1) * idBlockSize
+    private long idBlockSize = 1_000_000_000_000L;
+    private long sagaRetryDelayMs = 5000;
+    // Shards after the first; shard 0 is spring.datasource
+    private List<Shard> shards = new ArrayList<>();
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+
+    public int shardCount() {
+        return enabled ? 1 + shards.size() : 1;
+    }
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getIdBlockSize() { return idBlockSize; }
+    public void setIdBlockSize(long idBlockSize) { this.idBlockSize = idBlockSize; }
+    public long getSagaRetryDelayMs() { return sagaRetryDelayMs; }
+    public void setSagaRetryDelayMs(long sagaRetryDelayMs) { this.sagaRetryDelayMs = sagaRetryDelayMs; }
+    public List<Shard> getShards() { return shards; }
+    public void setShards(List<Shard> shards) { this.shards = shards; }
+}
@@ -0,0 +1,38 @@
+package com.example.bank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+@ConfigurationProperties(prefix = "bank.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+    private int maxTrackedAccounts = 1_000_000;
+    private Rule perMinute = new Rule();
+    private Rule perHour = new Rule();
+    private Rule perDay = new Rule();
+
+    // Limits on outgoing postings of one account; zero or unset means unlimited
+    public static class Rule {
+        private int maxCount;
+        private BigDecimal maxAmount;
+
+        public int getMaxCount() { return maxCount; }
+        public void setMaxCount(int maxCount) { this.maxCount = maxCount; }
+        public BigDecimal getMaxAmount() { return maxAmount; }
+        public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+    }
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxTrackedAccounts() { return maxTrackedAccounts; }
+    public void setMaxTrackedAccounts(int maxTrackedAccounts) { this.maxTrackedAccounts = maxTrackedAccounts; }
+    public Rule getPerMinute() { return perMinute; }
+    public void setPerMinute(Rule perMinute) { this.perMinute = perMinute; }
+    public Rule getPerHour() { return perHour; }
+    public void setPerHour(Rule perHour) { this.perHour = perHour; }
+    public Rule getPerDay() { return perDay; }
+    public void setPerDay(Rule perDay) { this.perDay = perDay; }
+}
@@ -0,0 +1,53 @@
+package com.example.bank.config;
+
+import com.example.bank.service.ShardRouter;
+import com.example.bank.util.ScaledAmountModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final ShardRouter shardRouter;
+
+    public WebConfig(Jackson2ObjectMapperBuilder objectMapperBuilder, ShardRouter shardRouter) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (shardRouter.isEnabled()) {
+            registry.addInterceptor(new ShardRoutingInterceptor(shardRouter)).addPathPatterns("/api/**");
+        }
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Replace the default binary converters with ones that share the JSON settings
+        // and write amounts as scaled longs (cents)
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+
+        converters.add(new MappingJackson2CborHttpMessageConverter(binaryMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(binaryMapper(new SmileFactory())));
+    }
+
+    private ObjectMapper binaryMapper(JsonFactory factory) {
+        ObjectMapper mapper = objectMapperBuilder.factory(factory).build();
+        mapper.registerModule(new ScaledAmountModule());
+        return mapper;
+    }
+}
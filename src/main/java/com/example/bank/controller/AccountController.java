@@ -1,10 +1,17 @@
 package com.example.bank.controller;
 
 import com.example.bank.model.Account;
+import com.example.bank.model.Money;
 import com.example.bank.service.AccountService;
+import com.example.bank.service.AccountStatsService;
+import com.example.bank.service.AdmissionControl;
+import com.example.bank.service.BalanceHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,9 +22,16 @@ import java.util.Map;
 public class AccountController {
 
     private final AccountService accountService;
+    private final AdmissionControl admissionControl;
+    private final AccountStatsService accountStatsService;
+    private final BalanceHistoryService balanceHistoryService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AdmissionControl admissionControl,
+                             AccountStatsService accountStatsService, BalanceHistoryService balanceHistoryService) {
         this.accountService = accountService;
+        this.admissionControl = admissionControl;
+        this.accountStatsService = accountStatsService;
+        this.balanceHistoryService = balanceHistoryService;
     }
 
     @GetMapping("/user/{userId}")
@@ -32,6 +46,31 @@ public class AccountController {
         return ResponseEntity.ok(account);
     }
 
+    @GetMapping("/{accountId}/stats")
+    public ResponseEntity<Map<String, Object>> getAccountStats(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountStatsService.getAccountStats(accountId, granularity, from, to));
+    }
+
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<Map<String, Object>> getBalanceAsOf(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(balanceHistoryService.getBalanceAsOf(accountId, asOf != null ? asOf : LocalDateTime.now()));
+    }
+
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<Map<String, Object>> getUserStats(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountStatsService.getUserStats(userId, granularity, from, to));
+    }
+
     @PostMapping("/create")
     public ResponseEntity<Account> createAccount(@RequestParam Long userId) {
         Account account = accountService.createAccount(userId);
@@ -41,9 +80,10 @@ public class AccountController {
     @PostMapping("/{accountId}/deposit")
     public ResponseEntity<?> depositMoney(
         @PathVariable Long accountId,
-        @RequestParam Double amount) {
+        @RequestParam Money amount) {
         
-        try {
+        AdmissionControl.Permit permit = admissionControl.admit(accountId);
+        try (permit) {
             accountService.depositMoney(accountId, amount);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Successfully deposited $" + amount + " to account");
@@ -56,9 +96,10 @@ public class AccountController {
     @PostMapping("/{accountId}/withdraw")
     public ResponseEntity<?> withdrawMoney(
         @PathVariable Long accountId,
-        @RequestParam Double amount) {
+        @RequestParam Money amount) {
         
-        try {
+        AdmissionControl.Permit permit = admissionControl.admit(accountId);
+        try (permit) {
             accountService.withdrawMoney(accountId, amount);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Successfully withdrew $" + amount + " from account");
@@ -72,10 +113,11 @@ public class AccountController {
     public ResponseEntity<?> transferMoney(
         @RequestParam Long fromAccountId,
         @RequestParam Long toAccountId,
-        @RequestParam Double amount,
+        @RequestParam Money amount,
         @RequestParam(required = false) String description) {
         
-        try {
+        AdmissionControl.Permit permit = admissionControl.admit(fromAccountId);
+        try (permit) {
             String transferDescription = description != null ? description : "Fund Transfer";
             accountService.transferMoney(fromAccountId, toAccountId, amount, transferDescription);
             Map<String, String> response = new HashMap<>();
@@ -86,17 +128,16 @@ public class AccountController {
         }
     }
 
+    private static final Money DEMO_MONEY = Money.ofCents(500_000);
+
     @PostMapping("/user/{userId}/add-demo-money")
     public ResponseEntity<?> addDemoMoneyToAllUserAccounts(@PathVariable Long userId) {
         try {
-            // Add money to each account
-            List<Account> accounts = accountService.getAccountsByUserId(userId);
-            for (Account account : accounts) {
-                accountService.depositMoney(account.getId(), 5000.00);
-            }
+            // Credit every account of the user in one set-based update
+            int credited = accountService.depositToAllUserAccounts(userId, DEMO_MONEY, "Demo money deposit");
             
             Map<String, String> response = new HashMap<>();
-            response.put("message", "Added $5000 demo money to all accounts");
+            response.put("message", "Added $5000 demo money to " + credited + " accounts");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
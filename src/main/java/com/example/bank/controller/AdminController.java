@@ -1,10 +1,30 @@
 package com.example.bank.controller;
 
-import com.example.bank.service.AccountService;
+import com.example.bank.model.Account;
+import com.example.bank.model.InterestRun;
+import com.example.bank.service.AccountDirectory;
+import com.example.bank.service.AdmissionControl;
+import com.example.bank.service.BackgroundJob;
+import com.example.bank.service.BackgroundJobRunner;
+import com.example.bank.service.BulkOperationService;
+import com.example.bank.service.CrossShardTransfers;
+import com.example.bank.service.HoldIndex;
+import com.example.bank.service.InterestAccrualService;
+import com.example.bank.service.OutboxRelay;
+import com.example.bank.service.ReadCoalescer;
+import com.example.bank.service.ReconciliationService;
+import com.example.bank.service.RequestProfiler;
+import com.example.bank.service.StandingOrderScheduler;
+import com.example.bank.service.StripedBalanceService;
+import com.example.bank.service.TransactionSearchIndex;
+import com.example.bank.service.VelocityEngine;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,34 +32,162 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:8080")
 public class AdminController {
 
-    private final AccountService accountService;
+    private final BulkOperationService bulkOperationService;
+    private final BackgroundJobRunner jobRunner;
+    private final AdmissionControl admissionControl;
+    private final StripedBalanceService stripedBalanceService;
+    private final VelocityEngine velocityEngine;
+    private final TransactionSearchIndex searchIndex;
+    private final ReconciliationService reconciliationService;
+    private final InterestAccrualService interestAccrualService;
+    private final StandingOrderScheduler standingOrderScheduler;
+    private final OutboxRelay outboxRelay;
+    private final RequestProfiler requestProfiler;
+    private final CrossShardTransfers crossShardTransfers;
+    private final HoldIndex holdIndex;
+    private final AccountDirectory accountDirectory;
+    private final ReadCoalescer readCoalescer;
 
-    public AdminController(AccountService accountService) {
-        this.accountService = accountService;
+    public AdminController(BulkOperationService bulkOperationService,
+                           BackgroundJobRunner jobRunner,
+                           AdmissionControl admissionControl,
+                           StripedBalanceService stripedBalanceService,
+                           VelocityEngine velocityEngine,
+                           TransactionSearchIndex searchIndex,
+                           ReconciliationService reconciliationService,
+                           InterestAccrualService interestAccrualService,
+                           StandingOrderScheduler standingOrderScheduler,
+                           OutboxRelay outboxRelay,
+                           RequestProfiler requestProfiler,
+                           CrossShardTransfers crossShardTransfers,
+                           HoldIndex holdIndex,
+                           AccountDirectory accountDirectory,
+                           ReadCoalescer readCoalescer) {
+        this.bulkOperationService = bulkOperationService;
+        this.jobRunner = jobRunner;
+        this.admissionControl = admissionControl;
+        this.stripedBalanceService = stripedBalanceService;
+        this.velocityEngine = velocityEngine;
+        this.searchIndex = searchIndex;
+        this.reconciliationService = reconciliationService;
+        this.interestAccrualService = interestAccrualService;
+        this.standingOrderScheduler = standingOrderScheduler;
+        this.outboxRelay = outboxRelay;
+        this.requestProfiler = requestProfiler;
+        this.crossShardTransfers = crossShardTransfers;
+        this.holdIndex = holdIndex;
+        this.accountDirectory = accountDirectory;
+        this.readCoalescer = readCoalescer;
     }
 
     @PostMapping("/add-demo-money")
-    public ResponseEntity<?> addDemoMoneyToAllAccounts() {
-        try {
-            // This would require additional service methods
-            // For now, you can use the SQL approach
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Use the SQL scripts to add demo money to all accounts");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public ResponseEntity<BackgroundJob> addDemoMoneyToAllAccounts(
+            @RequestParam(defaultValue = "5000") BigDecimal amount,
+            @RequestParam(required = false) String accountType,
+            @RequestParam(required = false) String description) {
+        BackgroundJob job = bulkOperationService.creditAllAccounts(amount, accountType, description);
+        return ResponseEntity.accepted().body(job);
     }
 
     @PostMapping("/reset-demo-data")
-    public ResponseEntity<?> resetDemoData() {
-        try {
-            // This would reset all data and reload demo data
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Demo data reset functionality would go here");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
-    }
-}
\ No newline at end of file
+    public ResponseEntity<BackgroundJob> resetDemoData() {
+        BackgroundJob job = bulkOperationService.resetDemoData();
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @PostMapping("/reconciliation")
+    public ResponseEntity<BackgroundJob> startReconciliation(@RequestParam(defaultValue = "false") boolean repair) {
+        BackgroundJob job = reconciliationService.startReconciliation(repair);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @PostMapping("/interest/run")
+    public ResponseEntity<BackgroundJob> runInterestAccrual(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        BackgroundJob job = interestAccrualService.startAccrual(date != null ? date : LocalDate.now());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/interest/runs/{date}")
+    public ResponseEntity<InterestRun> getInterestRun(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(interestAccrualService.getRun(date));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<BackgroundJob>> getJobs() {
+        return ResponseEntity.ok(jobRunner.getJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BackgroundJob> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobRunner.getJob(jobId));
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<BackgroundJob> cancelJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobRunner.cancel(jobId));
+    }
+
+    @PostMapping("/accounts/{accountId}/striping")
+    public ResponseEntity<Account> setStriping(@PathVariable Long accountId,
+                                               @RequestParam(defaultValue = "true") boolean enabled) {
+        return ResponseEntity.ok(stripedBalanceService.setStriping(accountId, enabled));
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionMetrics() {
+        return ResponseEntity.ok(admissionControl.getMetrics());
+    }
+
+    @GetMapping("/velocity")
+    public ResponseEntity<Map<String, Object>> getVelocityMetrics() {
+        return ResponseEntity.ok(velocityEngine.getMetrics());
+    }
+
+    @GetMapping("/search-index")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(searchIndex.getStats());
+    }
+
+    @GetMapping("/standing-orders")
+    public ResponseEntity<Map<String, Object>> getStandingOrderStats() {
+        return ResponseEntity.ok(standingOrderScheduler.getStats());
+    }
+
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+
+    @GetMapping("/sharding")
+    public ResponseEntity<Map<String, Object>> getShardingStats() {
+        return ResponseEntity.ok(crossShardTransfers.getStats());
+    }
+
+    @GetMapping("/holds")
+    public ResponseEntity<Map<String, Object>> getHoldStats() {
+        return ResponseEntity.ok(holdIndex.getStats());
+    }
+
+    @GetMapping("/account-directory")
+    public ResponseEntity<Map<String, Object>> getAccountDirectoryStats() {
+        return ResponseEntity.ok(accountDirectory.getStats());
+    }
+
+    @GetMapping("/read-coalescing")
+    public ResponseEntity<Map<String, Object>> getReadCoalescingStats() {
+        return ResponseEntity.ok(readCoalescer.getStats());
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<Map<String, Object>> getSlowRequests() {
+        return ResponseEntity.ok(requestProfiler.getSlowRequests());
+    }
+
+    @DeleteMapping("/slow-requests")
+    public ResponseEntity<Void> clearSlowRequests() {
+        requestProfiler.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bank.controller;
+
+import com.example.bank.service.TransactionAnalyticsSnapshot;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "http://localhost:8080")
+public class AnalyticsController {
+
+    private final TransactionAnalyticsSnapshot snapshot;
+
+    public AnalyticsController(TransactionAnalyticsSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        return ResponseEntity.ok(snapshot.getSummary());
+    }
+
+    @GetMapping("/totals")
+    public ResponseEntity<Map<String, Object>> getTotalsByType(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(snapshot.totalsByType(from, to));
+    }
+
+    @GetMapping("/histogram")
+    public ResponseEntity<List<Map<String, Object>>> getAmountHistogram(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(snapshot.amountHistogram(from, to));
+    }
+
+    @GetMapping("/largest")
+    public ResponseEntity<List<Map<String, Object>>> getLargestTransactions(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(snapshot.largest(limit, from, to));
+    }
+
+    @GetMapping("/hourly")
+    public ResponseEntity<List<Map<String, Object>>> getHourlyVolume(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(snapshot.hourlyVolume(from, to));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.bank.controller;
 import com.example.bank.dto.LoginRequest;
 import com.example.bank.dto.RegisterRequest;
 import com.example.bank.model.User;
+import com.example.bank.service.ShardRouter;
 import com.example.bank.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,14 +17,17 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final ShardRouter shardRouter;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, ShardRouter shardRouter) {
         this.userService = userService;
+        this.shardRouter = shardRouter;
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        try {
+        ShardRouter.Scope shard = shardRouter.forEmail(request.getEmail());
+        try (shard) {
             User user = userService.registerUser(request);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "User registered successfully");
@@ -38,7 +42,8 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        try {
+        ShardRouter.Scope shard = shardRouter.forEmail(request.getEmail());
+        try (shard) {
             User user = userService.authenticateUser(request.getEmail(), request.getPassword());
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Login successful");
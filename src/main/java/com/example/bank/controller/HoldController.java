@@ -0,0 +1,86 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.HoldRequest;
+import com.example.bank.model.Hold;
+import com.example.bank.model.Money;
+import com.example.bank.service.AdmissionControl;
+import com.example.bank.service.HoldService;
+import com.example.bank.service.ShardRouter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "http://localhost:8080")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final AdmissionControl admissionControl;
+    private final ShardRouter shardRouter;
+
+    public HoldController(HoldService holdService, AdmissionControl admissionControl, ShardRouter shardRouter) {
+        this.holdService = holdService;
+        this.admissionControl = admissionControl;
+        this.shardRouter = shardRouter;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> placeHold(@RequestBody HoldRequest request) {
+        AdmissionControl.Permit permit = admissionControl.admit(request.getAccountId());
+        ShardRouter.Scope shard = shardRouter.forId(request.getAccountId());
+        try (permit; shard) {
+            Hold hold = holdService.placeHold(request);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Hold placed successfully");
+            response.put("hold", hold);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Without an amount the full hold is captured
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<?> captureHold(@PathVariable Long holdId, @RequestParam(required = false) String amount) {
+        try {
+            Hold hold = holdService.captureHold(holdId, amount != null ? Money.valueOf(amount) : null);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Hold captured successfully");
+            response.put("hold", hold);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<?> releaseHold(@PathVariable Long holdId) {
+        try {
+            Hold hold = holdService.releaseHold(holdId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Hold released successfully");
+            response.put("hold", hold);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{holdId}")
+    public ResponseEntity<?> getHold(@PathVariable Long holdId) {
+        try {
+            return ResponseEntity.ok(holdService.getHold(holdId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/account/{accountId}")
+    public ResponseEntity<List<Hold>> getActiveHolds(@PathVariable Long accountId) {
+        return ResponseEntity.ok(holdService.getActiveHolds(accountId));
+    }
+}
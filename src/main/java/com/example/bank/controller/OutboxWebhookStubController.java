@@ -0,0 +1,55 @@
+package com.example.bank.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Local receiver for the outbox webhook sink, for tests and demos. Counts what arrives and checks
+// that each account's events come in increasing outbox id order.
+@RestController
+@RequestMapping("/api/admin/outbox/webhook-stub")
+@ConditionalOnProperty(name = "bank.outbox.webhook-stub.enabled", havingValue = "true")
+public class OutboxWebhookStubController {
+
+    private final Map<Long, Long> lastIdByAccount = new HashMap<>();
+    private long batches;
+    private long events;
+    private long duplicates;
+    private long outOfOrder;
+    private long lastEventId;
+
+    @PostMapping
+    public synchronized ResponseEntity<Void> receive(@RequestBody List<Map<String, Object>> batch) {
+        batches++;
+        for (Map<String, Object> event : batch) {
+            long id = ((Number) event.get("id")).longValue();
+            long accountId = ((Number) event.get("accountId")).longValue();
+            Long previous = lastIdByAccount.put(accountId, id);
+            if (previous != null && previous == id) {
+                duplicates++;
+            } else if (previous != null && previous > id) {
+                outOfOrder++;
+            }
+            events++;
+            lastEventId = Math.max(lastEventId, id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public synchronized ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches);
+        stats.put("events", events);
+        stats.put("accounts", lastIdByAccount.size());
+        stats.put("duplicates", duplicates);
+        stats.put("outOfOrder", outOfOrder);
+        stats.put("lastEventId", lastEventId);
+        return ResponseEntity.ok(stats);
+    }
+}
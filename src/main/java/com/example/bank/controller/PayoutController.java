@@ -0,0 +1,54 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.PayoutRequest;
+import com.example.bank.model.Transaction;
+import com.example.bank.service.PayoutService;
+import com.example.bank.service.ShardRouter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/payouts")
+@CrossOrigin(origins = "http://localhost:8080")
+public class PayoutController {
+
+    private final PayoutService payoutService;
+    private final ShardRouter shardRouter;
+
+    public PayoutController(PayoutService payoutService, ShardRouter shardRouter) {
+        this.payoutService = payoutService;
+        this.shardRouter = shardRouter;
+    }
+
+    // Accepted right away; poll GET /api/payouts/{id} until the status is COMPLETED or FAILED
+    @PostMapping
+    public ResponseEntity<?> submitPayout(@RequestBody PayoutRequest request) {
+        ShardRouter.Scope shard = shardRouter.forId(request != null ? request.getSourceAccountId() : null);
+        try (shard) {
+            Map<String, Object> payout = payoutService.submitPayout(request);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Payout accepted");
+            response.put("payout", payout);
+            return ResponseEntity.accepted().body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{payoutId}")
+    public ResponseEntity<Map<String, Object>> getPayout(@PathVariable Long payoutId) {
+        return ResponseEntity.ok(payoutService.getPayoutStatus(payoutId));
+    }
+
+    @GetMapping("/{payoutId}/legs")
+    public ResponseEntity<List<Transaction>> getPayoutLegs(
+            @PathVariable Long payoutId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(payoutService.getPayoutLegs(payoutId, page, size));
+    }
+}
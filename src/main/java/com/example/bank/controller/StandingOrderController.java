@@ -0,0 +1,98 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.StandingOrderRequest;
+import com.example.bank.model.StandingOrder;
+import com.example.bank.service.ShardRouter;
+import com.example.bank.service.StandingOrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+@CrossOrigin(origins = "http://localhost:8080")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+    private final ShardRouter shardRouter;
+
+    public StandingOrderController(StandingOrderService standingOrderService, ShardRouter shardRouter) {
+        this.standingOrderService = standingOrderService;
+        this.shardRouter = shardRouter;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createStandingOrder(@RequestBody StandingOrderRequest request) {
+        ShardRouter.Scope shard = shardRouter.forId(request.getFromAccountId());
+        try (shard) {
+            StandingOrder order = standingOrderService.createStandingOrder(request);
+            return respond("Standing order created successfully", order);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StandingOrder> getStandingOrder(@PathVariable Long id) {
+        ShardRouter.Scope shard = shardRouter.forId(id);
+        try (shard) {
+            return ResponseEntity.ok(standingOrderService.getStandingOrderById(id));
+        }
+    }
+
+    @GetMapping("/account/{accountId}")
+    public ResponseEntity<List<StandingOrder>> getAccountStandingOrders(@PathVariable Long accountId) {
+        return ResponseEntity.ok(standingOrderService.getStandingOrdersByAccountId(accountId));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateStandingOrder(@PathVariable Long id, @RequestBody StandingOrderRequest request) {
+        ShardRouter.Scope shard = shardRouter.forId(id);
+        try (shard) {
+            StandingOrder order = standingOrderService.updateStandingOrder(id, request);
+            return respond("Standing order updated successfully", order);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<?> pauseStandingOrder(@PathVariable Long id) {
+        ShardRouter.Scope shard = shardRouter.forId(id);
+        try (shard) {
+            return respond("Standing order paused", standingOrderService.pauseStandingOrder(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resumeStandingOrder(@PathVariable Long id) {
+        ShardRouter.Scope shard = shardRouter.forId(id);
+        try (shard) {
+            return respond("Standing order resumed", standingOrderService.resumeStandingOrder(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelStandingOrder(@PathVariable Long id) {
+        ShardRouter.Scope shard = shardRouter.forId(id);
+        try (shard) {
+            return respond("Standing order cancelled", standingOrderService.cancelStandingOrder(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> respond(String message, StandingOrder order) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("standingOrder", order);
+        return ResponseEntity.ok(response);
+    }
+}
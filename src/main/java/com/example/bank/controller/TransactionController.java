@@ -1,13 +1,17 @@
 package com.example.bank.controller;
 
+import com.example.bank.model.Money;
 import com.example.bank.model.Transaction;
+import com.example.bank.service.AccountDirectory;
+import com.example.bank.service.AdmissionControl;
+import com.example.bank.service.ShardRouter;
 import com.example.bank.service.TransactionService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,15 +21,29 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:8080")
 public class TransactionController {
 
+    // Order used to merge lists read from several shards
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getTransactionDate).thenComparing(Transaction::getId).reversed();
+
     private final TransactionService transactionService;
+    private final AdmissionControl admissionControl;
+    private final ShardRouter shardRouter;
+    private final AccountDirectory accountDirectory;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, AdmissionControl admissionControl,
+                                 ShardRouter shardRouter, AccountDirectory accountDirectory) {
         this.transactionService = transactionService;
+        this.admissionControl = admissionControl;
+        this.shardRouter = shardRouter;
+        this.accountDirectory = accountDirectory;
     }
 
     @PostMapping("/transfer")
     public ResponseEntity<?> transfer(@RequestBody TransferRequest request) {
-        try {
+        // Account numbers are resolved first; a bad one is a 400, a shed request a 429, both from GlobalExceptionHandler
+        AdmissionControl.Permit permit = admissionControl.admit(resolveAccountNumbers(request).getFromAccountId());
+        ShardRouter.Scope shard = shardRouter.forId(request.getFromAccountId());
+        try (permit; shard) {
             Transaction transaction = transactionService.transfer(
                 request.getFromAccountId(),
                 request.getToAccountId(),
@@ -44,7 +62,9 @@ public class TransactionController {
 
     @PostMapping("/deposit")
     public ResponseEntity<?> deposit(@RequestBody DepositRequest request) {
-        try {
+        AdmissionControl.Permit permit = admissionControl.admit(resolveAccountNumber(request).getToAccountId());
+        ShardRouter.Scope shard = shardRouter.forId(request.getToAccountId());
+        try (permit; shard) {
             Transaction transaction = transactionService.deposit(
                 request.getToAccountId(),
                 request.getAmount(),
@@ -62,7 +82,9 @@ public class TransactionController {
 
     @PostMapping("/withdraw")
     public ResponseEntity<?> withdraw(@RequestBody WithdrawRequest request) {
-        try {
+        AdmissionControl.Permit permit = admissionControl.admit(resolveAccountNumber(request).getFromAccountId());
+        ShardRouter.Scope shard = shardRouter.forId(request.getFromAccountId());
+        try (permit; shard) {
             Transaction transaction = transactionService.withdraw(
                 request.getFromAccountId(),
                 request.getAmount(),
@@ -84,23 +106,39 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Postings after the token from the previous call (none for the full history) and the next token
+    @GetMapping("/account/{accountId}/changes")
+    public ResponseEntity<?> getAccountChanges(@PathVariable Long accountId,
+                                               @RequestParam(required = false) Long since) {
+        try {
+            return ResponseEntity.ok(transactionService.getAccountChanges(accountId, since));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Transaction>> getUserTransactions(@PathVariable Long userId) {
-        List<Transaction> transactions = transactionService.getTransactionsByUserId(userId);
+    public ResponseEntity<List<Transaction>> getUserTransactions(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<Transaction> transactions = transactionService.getTransactionsByUserId(userId, page, size);
         return ResponseEntity.ok(transactions);
     }
 
     @GetMapping("/recent")
     public ResponseEntity<List<Transaction>> getRecentTransactions(
             @RequestParam(defaultValue = "10") int count) {
-        List<Transaction> transactions = transactionService.getRecentTransactions(count);
+        List<Transaction> transactions = shardRouter.gather(
+                () -> transactionService.getRecentTransactions(count), NEWEST_FIRST, count);
         return ResponseEntity.ok(transactions);
     }
 
     @GetMapping("/type/{transactionType}")
     public ResponseEntity<List<Transaction>> getTransactionsByType(
             @PathVariable String transactionType) {
-        List<Transaction> transactions = transactionService.getTransactionsByType(transactionType);
+        List<Transaction> transactions = shardRouter.gather(
+                () -> transactionService.getTransactionsByType(transactionType), NEWEST_FIRST, Integer.MAX_VALUE);
         return ResponseEntity.ok(transactions);
     }
 
@@ -108,7 +146,23 @@ public class TransactionController {
     public ResponseEntity<List<Transaction>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Transaction> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
+        List<Transaction> transactions = shardRouter.gather(
+                () -> transactionService.getTransactionsByDateRange(startDate, endDate), NEWEST_FIRST, Integer.MAX_VALUE);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Transaction>> searchTransactions(
+            @RequestParam String q,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "50") int limit) {
+        // With an account the request is already routed to its shard
+        List<Transaction> transactions = accountId != null
+                ? transactionService.searchTransactions(q, accountId, startDate, endDate, limit)
+                : shardRouter.gather(() -> transactionService.searchTransactions(q, null, startDate, endDate, limit),
+                        NEWEST_FIRST, limit);
         return ResponseEntity.ok(transactions);
     }
 
@@ -120,15 +174,40 @@ public class TransactionController {
 
     @GetMapping("/all")
     public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
+        List<Transaction> transactions = shardRouter.gather(
+                transactionService::getAllTransactions, NEWEST_FIRST, Integer.MAX_VALUE);
         return ResponseEntity.ok(transactions);
     }
 
+    // An id given alongside a number wins; numbers go through the in-memory directory
+    private Long accountId(Long id, String accountNumber) {
+        return id != null || accountNumber == null ? id : accountDirectory.idOf(accountNumber);
+    }
+
+    private TransferRequest resolveAccountNumbers(TransferRequest request) {
+        request.setFromAccountId(accountId(request.getFromAccountId(), request.getFromAccountNumber()));
+        request.setToAccountId(accountId(request.getToAccountId(), request.getToAccountNumber()));
+        return request;
+    }
+
+    private DepositRequest resolveAccountNumber(DepositRequest request) {
+        request.setToAccountId(accountId(request.getToAccountId(), request.getToAccountNumber()));
+        return request;
+    }
+
+    private WithdrawRequest resolveAccountNumber(WithdrawRequest request) {
+        request.setFromAccountId(accountId(request.getFromAccountId(), request.getFromAccountNumber()));
+        return request;
+    }
+
     // DTO classes for request bodies
     public static class TransferRequest {
         private Long fromAccountId;
         private Long toAccountId;
-        private BigDecimal amount;
+        // Either side may name the account by number instead
+        private String fromAccountNumber;
+        private String toAccountNumber;
+        private Money amount;
         private String description;
 
         // Getters and setters
@@ -136,36 +215,46 @@ public class TransactionController {
         public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
         public Long getToAccountId() { return toAccountId; }
         public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public String getFromAccountNumber() { return fromAccountNumber; }
+        public void setFromAccountNumber(String fromAccountNumber) { this.fromAccountNumber = fromAccountNumber; }
+        public String getToAccountNumber() { return toAccountNumber; }
+        public void setToAccountNumber(String toAccountNumber) { this.toAccountNumber = toAccountNumber; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
     }
 
     public static class DepositRequest {
         private Long toAccountId;
-        private BigDecimal amount;
+        private String toAccountNumber;
+        private Money amount;
         private String description;
 
         // Getters and setters
         public Long getToAccountId() { return toAccountId; }
         public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public String getToAccountNumber() { return toAccountNumber; }
+        public void setToAccountNumber(String toAccountNumber) { this.toAccountNumber = toAccountNumber; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
     }
 
     public static class WithdrawRequest {
         private Long fromAccountId;
-        private BigDecimal amount;
+        private String fromAccountNumber;
+        private Money amount;
         private String description;
 
         // Getters and setters
         public Long getFromAccountId() { return fromAccountId; }
         public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public String getFromAccountNumber() { return fromAccountNumber; }
+        public void setFromAccountNumber(String fromAccountNumber) { this.fromAccountNumber = fromAccountNumber; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
     }
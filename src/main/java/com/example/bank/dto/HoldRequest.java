@@ -0,0 +1,24 @@
+package com.example.bank.dto;
+
+import com.example.bank.model.Money;
+
+public class HoldRequest {
+    private Long accountId;
+    private Money amount;
+    private String description;
+    // Falls back to bank.holds.default-ttl-minutes
+    private Integer expiresInMinutes;
+
+    // Constructors
+    public HoldRequest() {}
+
+    // Getters and Setters
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Integer getExpiresInMinutes() { return expiresInMinutes; }
+    public void setExpiresInMinutes(Integer expiresInMinutes) { this.expiresInMinutes = expiresInMinutes; }
+}
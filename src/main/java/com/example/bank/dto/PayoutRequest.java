@@ -0,0 +1,39 @@
+package com.example.bank.dto;
+
+import com.example.bank.model.Money;
+
+import java.util.List;
+
+public class PayoutRequest {
+    private Long sourceAccountId;
+    private String description;
+    private List<Leg> legs;
+
+    // Constructors
+    public PayoutRequest() {}
+
+    // Getters and Setters
+    public Long getSourceAccountId() { return sourceAccountId; }
+    public void setSourceAccountId(Long sourceAccountId) { this.sourceAccountId = sourceAccountId; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public List<Leg> getLegs() { return legs; }
+    public void setLegs(List<Leg> legs) { this.legs = legs; }
+
+    public static class Leg {
+        private Long toAccountId;
+        private Money amount;
+
+        public Leg() {}
+
+        public Leg(Long toAccountId, Money amount) {
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+        }
+
+        public Long getToAccountId() { return toAccountId; }
+        public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bank.dto;
+
+import com.example.bank.model.Money;
+
+import java.time.LocalDateTime;
+
+public class StandingOrderRequest {
+    private Long fromAccountId;
+    private Long toAccountId;
+    private Money amount;
+    private String description;
+    private String frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+
+    // Constructors
+    public StandingOrderRequest() {}
+
+    // Getters and Setters
+    public Long getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+    public LocalDateTime getStartAt() { return startAt; }
+    public void setStartAt(LocalDateTime startAt) { this.startAt = startAt; }
+    public LocalDateTime getEndAt() { return endAt; }
+    public void setEndAt(LocalDateTime endAt) { this.endAt = endAt; }
+}
@@ -1,17 +1,17 @@
 package com.example.bank.dto;
 
-import java.math.BigDecimal;
+import com.example.bank.model.Money;
 
 public class TransferRequest {
     private Long fromAccountId;
     private Long toAccountId;
-    private BigDecimal amount;
+    private Money amount;
     private String description;
 
     // Constructors
     public TransferRequest() {}
     
-    public TransferRequest(Long fromAccountId, Long toAccountId, BigDecimal amount, String description) {
+    public TransferRequest(Long fromAccountId, Long toAccountId, Money amount, String description) {
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
         this.amount = amount;
@@ -23,8 +23,8 @@ public class TransferRequest {
     public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
     public Long getToAccountId() { return toAccountId; }
     public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.bank.event;
+
+// Published when an account is created; AccountDirectory maps its number once the insert has committed
+public class AccountOpenedEvent {
+    private final Long accountId;
+    private final String accountNumber;
+
+    public AccountOpenedEvent(Long accountId, String accountNumber) {
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+    }
+
+    // Getters
+    public Long getAccountId() { return accountId; }
+    public String getAccountNumber() { return accountNumber; }
+}
@@ -0,0 +1,13 @@
+package com.example.bank.event;
+
+// Published when the debit side of a cross-shard transfer has been written with its saga
+public class CrossShardTransferStartedEvent {
+    private final Long sagaId;
+
+    public CrossShardTransferStartedEvent(Long sagaId) {
+        this.sagaId = sagaId;
+    }
+
+    // Getters
+    public Long getSagaId() { return sagaId; }
+}
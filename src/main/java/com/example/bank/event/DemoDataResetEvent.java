@@ -0,0 +1,16 @@
+package com.example.bank.event;
+
+import java.time.LocalDateTime;
+
+// Published once the demo reset has cleared every table and the seed has committed; in-memory
+// indexes built from the old rows rebuild from the database
+public class DemoDataResetEvent {
+    private final LocalDateTime resetAt;
+
+    public DemoDataResetEvent(LocalDateTime resetAt) {
+        this.resetAt = resetAt;
+    }
+
+    // Getters
+    public LocalDateTime getResetAt() { return resetAt; }
+}
@@ -0,0 +1,35 @@
+package com.example.bank.event;
+
+import com.example.bank.model.Hold;
+import com.example.bank.model.Money;
+
+import java.time.LocalDateTime;
+
+// Published when a hold is placed (active) or captured, released or expired (no longer active)
+public class HoldChangedEvent {
+    private final Long holdId;
+    private final Long accountId;
+    private final Money amount;
+    private final LocalDateTime expiresAt;
+    private final boolean active;
+
+    public HoldChangedEvent(Long holdId, Long accountId, Money amount, LocalDateTime expiresAt, boolean active) {
+        this.holdId = holdId;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+        this.active = active;
+    }
+
+    public static HoldChangedEvent of(Hold hold) {
+        return new HoldChangedEvent(hold.getId(), hold.getAccountId(), hold.getAmount(), hold.getExpiresAt(),
+                "ACTIVE".equals(hold.getStatus()));
+    }
+
+    // Getters
+    public Long getHoldId() { return holdId; }
+    public Long getAccountId() { return accountId; }
+    public Money getAmount() { return amount; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public boolean isActive() { return active; }
+}
@@ -0,0 +1,21 @@
+package com.example.bank.event;
+
+import java.time.LocalDateTime;
+
+// Published when a standing order's status or next execution time changes
+public class StandingOrderChangedEvent {
+    private final Long standingOrderId;
+    private final String status;
+    private final LocalDateTime nextExecutionAt;
+
+    public StandingOrderChangedEvent(Long standingOrderId, String status, LocalDateTime nextExecutionAt) {
+        this.standingOrderId = standingOrderId;
+        this.status = status;
+        this.nextExecutionAt = nextExecutionAt;
+    }
+
+    // Getters
+    public Long getStandingOrderId() { return standingOrderId; }
+    public String getStatus() { return status; }
+    public LocalDateTime getNextExecutionAt() { return nextExecutionAt; }
+}
@@ -0,0 +1,24 @@
+package com.example.bank.event;
+
+import com.example.bank.model.Transaction;
+import jakarta.persistence.PostPersist;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener (resolved as a Spring bean by Hibernate) that turns every inserted
+// Transaction into a TransactionPostedEvent. Listeners that need the commit use
+// @TransactionalEventListener.
+@Component
+public class TransactionEventPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void transactionPersisted(Transaction transaction) {
+        eventPublisher.publishEvent(TransactionPostedEvent.of(transaction));
+    }
+}
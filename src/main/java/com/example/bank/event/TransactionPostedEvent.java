@@ -0,0 +1,48 @@
+package com.example.bank.event;
+
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+
+import java.time.LocalDateTime;
+
+// Snapshot of a persisted transaction row, published inside the posting's database transaction
+public class TransactionPostedEvent {
+    private final Long transactionId;
+    private final Long fromAccountId;
+    private final Long toAccountId;
+    private final Money amount;
+    private final String transactionType;
+    private final String description;
+    private final LocalDateTime transactionDate;
+
+    public TransactionPostedEvent(Long transactionId, Long fromAccountId, Long toAccountId, Money amount,
+                                  String transactionType, String description, LocalDateTime transactionDate) {
+        this.transactionId = transactionId;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.transactionType = transactionType;
+        this.description = description;
+        this.transactionDate = transactionDate;
+    }
+
+    public static TransactionPostedEvent of(Transaction transaction) {
+        return new TransactionPostedEvent(
+                transaction.getId(),
+                transaction.getFromAccount() != null ? transaction.getFromAccount().getId() : null,
+                transaction.getToAccount() != null ? transaction.getToAccount().getId() : null,
+                transaction.getAmount(),
+                transaction.getTransactionType(),
+                transaction.getDescription(),
+                transaction.getTransactionDate());
+    }
+
+    // Getters
+    public Long getTransactionId() { return transactionId; }
+    public Long getFromAccountId() { return fromAccountId; }
+    public Long getToAccountId() { return toAccountId; }
+    public Money getAmount() { return amount; }
+    public String getTransactionType() { return transactionType; }
+    public String getDescription() { return description; }
+    public LocalDateTime getTransactionDate() { return transactionDate; }
+}
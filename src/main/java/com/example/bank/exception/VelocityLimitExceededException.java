@@ -0,0 +1,16 @@
+package com.example.bank.exception;
+
+public class VelocityLimitExceededException extends ApiException {
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+
+    public VelocityLimitExceededException(String reason) {
+        super("Velocity limit exceeded: " + reason);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
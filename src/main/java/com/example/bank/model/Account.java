@@ -1,7 +1,6 @@
 package com.example.bank.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -14,9 +13,13 @@ public class Account {
     @Column(name = "account_number", unique = true, nullable = false)
     private String accountNumber;
     
-    @Column(nullable = false)
-    private BigDecimal balance;
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money balance;
     
+    // Money the account was loaded with that no posting explains; set by seed and import scripts only
+    @Column(name = "opening_balance", updatable = false, columnDefinition = "DECIMAL(15,2) DEFAULT 0.00 NOT NULL")
+    private Money openingBalance = Money.ZERO;
+
     @Column(name = "account_type", nullable = false)
     private String accountType;
     
@@ -26,10 +29,22 @@ public class Account {
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+    
+    // Striped accounts take credits into account_balance_buckets instead of this row
+    @Column(nullable = false)
+    private boolean striped;
+    
+    // Sum of the bucket balances, loaded by the service layer for striped accounts
+    @Transient
+    private Money bucketBalance = Money.ZERO;
+
+    // Sum of the active holds, filled in by the service layer from the HoldIndex
+    @Transient
+    private Money heldBalance = Money.ZERO;
 
     // Constructors, getters, and setters...
     public Account() {
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.createdAt = LocalDateTime.now();
     }
     
@@ -47,8 +62,12 @@ public class Account {
     public String getAccountNumber() { return accountNumber; }
     public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
     
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    // The balance always reads as the total; writes keep the bucket share out of the row
+    public Money getBalance() { return bucketBalance.isZero() ? balance : balance.plus(bucketBalance); }
+    public void setBalance(Money balance) { this.balance = bucketBalance.isZero() ? balance : balance.minus(bucketBalance); }
+    
+    public Money getOpeningBalance() { return openingBalance; }
+    public void setOpeningBalance(Money openingBalance) { this.openingBalance = openingBalance; }
     
     public String getAccountType() { return accountType; }
     public void setAccountType(String accountType) { this.accountType = accountType; }
@@ -58,4 +77,16 @@ public class Account {
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public boolean isStriped() { return striped; }
+    public void setStriped(boolean striped) { this.striped = striped; }
+    
+    public void setBucketBalance(Money bucketBalance) { this.bucketBalance = bucketBalance; }
+    public void addBucketBalance(Money amount) { this.bucketBalance = this.bucketBalance.plus(amount); }
+    
+    public Money getHeldBalance() { return heldBalance; }
+    public void setHeldBalance(Money heldBalance) { this.heldBalance = heldBalance; }
+    
+    // What can be spent: the ledger balance less active holds
+    public Money getAvailableBalance() { return getBalance().minus(heldBalance); }
 }
\ No newline at end of file
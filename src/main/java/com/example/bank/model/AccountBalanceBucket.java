@@ -0,0 +1,46 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "account_balance_buckets",
+       uniqueConstraints = @UniqueConstraint(columnNames = { "account_id", "bucket_no" }))
+public class AccountBalanceBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "bucket_no", nullable = false)
+    private int bucketNo;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    // Constructors
+    public AccountBalanceBucket() {
+        this.balance = BigDecimal.ZERO;
+    }
+
+    public AccountBalanceBucket(Long accountId, int bucketNo) {
+        this();
+        this.accountId = accountId;
+        this.bucketNo = bucketNo;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public int getBucketNo() { return bucketNo; }
+    public void setBucketNo(int bucketNo) { this.bucketNo = bucketNo; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
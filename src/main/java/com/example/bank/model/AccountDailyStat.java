@@ -0,0 +1,49 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Daily rollup of one account's postings, maintained incrementally by AccountStatsServiceImpl
+@Entity
+@Table(name = "account_daily_stats",
+       uniqueConstraints = @UniqueConstraint(columnNames = { "account_id", "stat_date" }))
+public class AccountDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal inflow;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal outflow;
+
+    @Column(name = "txn_count", nullable = false)
+    private long txnCount;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public BigDecimal getInflow() { return inflow; }
+    public void setInflow(BigDecimal inflow) { this.inflow = inflow; }
+
+    public BigDecimal getOutflow() { return outflow; }
+    public void setOutflow(BigDecimal outflow) { this.outflow = outflow; }
+
+    public long getTxnCount() { return txnCount; }
+    public void setTxnCount(long txnCount) { this.txnCount = txnCount; }
+}
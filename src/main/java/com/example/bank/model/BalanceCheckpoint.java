@@ -0,0 +1,53 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ledger balance of one account over every posting dated at or before checkpointAt, maintained by
+// BalanceHistoryServiceImpl. Postings dated after checkpointAt with ids up to the next checkpoint's
+// replayToId are all that an as-of query has to replay on top of it.
+@Entity
+@Table(name = "balance_checkpoints",
+       indexes = @Index(name = "idx_balance_checkpoints_account_time", columnList = "account_id, checkpoint_at"))
+public class BalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "checkpoint_at", nullable = false)
+    private LocalDateTime checkpointAt;
+
+    // Highest posting id of the account folded in when the checkpoint was cut
+    @Column(name = "transaction_id", nullable = false)
+    private long transactionId;
+
+    // Highest posting id dated at or before checkpointAt, including postings that arrived late
+    @Column(name = "replay_to_id", nullable = false)
+    private long replayToId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public LocalDateTime getCheckpointAt() { return checkpointAt; }
+    public void setCheckpointAt(LocalDateTime checkpointAt) { this.checkpointAt = checkpointAt; }
+
+    public long getTransactionId() { return transactionId; }
+    public void setTransactionId(long transactionId) { this.transactionId = transactionId; }
+
+    public long getReplayToId() { return replayToId; }
+    public void setReplayToId(long replayToId) { this.replayToId = replayToId; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
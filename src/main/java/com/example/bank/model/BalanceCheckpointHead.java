@@ -0,0 +1,50 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running ledger balance of one account over the postings the checkpoint job has folded in so far;
+// it becomes the next balance_checkpoints row once enough postings have accumulated
+@Entity
+@Table(name = "balance_checkpoint_heads")
+public class BalanceCheckpointHead {
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    @Column(name = "last_posted_at", nullable = false)
+    private LocalDateTime lastPostedAt;
+
+    // Postings folded in since the last checkpoint was cut
+    @Column(nullable = false)
+    private int postings;
+
+    @Column(name = "checkpoint_at")
+    private LocalDateTime checkpointAt;
+
+    // Getters and Setters
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+
+    public long getLastTransactionId() { return lastTransactionId; }
+    public void setLastTransactionId(long lastTransactionId) { this.lastTransactionId = lastTransactionId; }
+
+    public LocalDateTime getLastPostedAt() { return lastPostedAt; }
+    public void setLastPostedAt(LocalDateTime lastPostedAt) { this.lastPostedAt = lastPostedAt; }
+
+    public int getPostings() { return postings; }
+    public void setPostings(int postings) { this.postings = postings; }
+
+    public LocalDateTime getCheckpointAt() { return checkpointAt; }
+    public void setCheckpointAt(LocalDateTime checkpointAt) { this.checkpointAt = checkpointAt; }
+}
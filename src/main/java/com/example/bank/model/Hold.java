@@ -0,0 +1,82 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Funds reserved on an account ahead of settlement. An ACTIVE hold lowers the available balance
+// but not the ledger balance; capturing it posts a withdrawal of the captured amount. A hold ends
+// CAPTURED, RELEASED or EXPIRED.
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "idx_holds_status_expiry", columnList = "status, expires_at"),
+        @Index(name = "idx_holds_account", columnList = "account_id, status")
+})
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+
+    @Column(name = "captured_amount", precision = 15, scale = 2)
+    private Money capturedAmount;
+
+    // Posting written by the capture
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    private String description;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public Hold() {
+        this.createdAt = LocalDateTime.now();
+        this.status = "ACTIVE";
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public Money getCapturedAmount() { return capturedAmount; }
+    public void setCapturedAmount(Money capturedAmount) { this.capturedAmount = capturedAmount; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,73 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "interest_runs")
+public class InterestRun {
+    @Id
+    @Column(name = "run_date")
+    private LocalDate runDate;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "accounts_credited", nullable = false)
+    private long accountsCredited;
+
+    @Column(name = "total_interest", nullable = false)
+    private BigDecimal totalInterest;
+
+    // Runner holding the run; its lease lapses when heartbeat_at stops moving
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    // Constructors
+    public InterestRun() {
+        this.startedAt = LocalDateTime.now();
+        this.status = "RUNNING";
+        this.totalInterest = BigDecimal.ZERO;
+    }
+
+    public InterestRun(LocalDate runDate) {
+        this();
+        this.runDate = runDate;
+    }
+
+    // Getters and Setters
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getAccountsCredited() { return accountsCredited; }
+    public void setAccountsCredited(long accountsCredited) { this.accountsCredited = accountsCredited; }
+
+    public BigDecimal getTotalInterest() { return totalInterest; }
+    public void setTotalInterest(BigDecimal totalInterest) { this.totalInterest = totalInterest; }
+
+    public String getClaimToken() { return claimToken; }
+    public void setClaimToken(String claimToken) { this.claimToken = claimToken; }
+
+    public LocalDateTime getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+}
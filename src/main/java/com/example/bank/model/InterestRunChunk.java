@@ -0,0 +1,56 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Checkpoint row, committed in the same transaction as the chunk's interest postings
+@Entity
+@Table(name = "interest_run_chunks", uniqueConstraints = @UniqueConstraint(name = "idx_interest_run_chunks_run_date",
+        columnNames = { "run_date", "first_account_id" }))
+public class InterestRunChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "first_account_id", nullable = false)
+    private Long firstAccountId;
+
+    @Column(name = "last_account_id", nullable = false)
+    private Long lastAccountId;
+
+    @Column(name = "accounts_credited", nullable = false)
+    private int accountsCredited;
+
+    @Column(name = "total_interest", nullable = false)
+    private BigDecimal totalInterest;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+
+    public Long getFirstAccountId() { return firstAccountId; }
+    public void setFirstAccountId(Long firstAccountId) { this.firstAccountId = firstAccountId; }
+
+    public Long getLastAccountId() { return lastAccountId; }
+    public void setLastAccountId(Long lastAccountId) { this.lastAccountId = lastAccountId; }
+
+    public int getAccountsCredited() { return accountsCredited; }
+    public void setAccountsCredited(int accountsCredited) { this.accountsCredited = accountsCredited; }
+
+    public BigDecimal getTotalInterest() { return totalInterest; }
+    public void setTotalInterest(BigDecimal totalInterest) { this.totalInterest = totalInterest; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
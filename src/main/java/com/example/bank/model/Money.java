@@ -0,0 +1,162 @@
+package com.example.bank.model;
+
+import com.example.bank.exception.ApiException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Immutable amount held as a long number of cents (scale 2, like the DECIMAL(15,2) columns).
+// Arithmetic and comparisons never touch BigDecimal; overflow is checked on every operation
+// and reported instead of wrapping. Stored through MoneyConverter, serialized as a JSON number.
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    // Largest magnitude a DECIMAL(15,2) column holds
+    private static final long MAX_CENTS = 999_999_999_999_999L;
+
+    // For range guards in set-based SQL, which add to balances without loading them
+    public static final Money COLUMN_MAX = new Money(MAX_CENTS);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ApiException("Amounts must fit in " + SCALE + " decimal places and 64 bits");
+        }
+    }
+
+    // Parses "12", "12.5", "-0.05" etc. directly into cents; also used for request parameters
+    public static Money valueOf(String text) {
+        if (text == null || text.isBlank()) {
+            throw new ApiException("Amount is required");
+        }
+        String value = text.trim();
+        int i = 0;
+        boolean negative = false;
+        if (value.charAt(0) == '-' || value.charAt(0) == '+') {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+        long cents = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new ApiException("Invalid amount: " + value);
+            }
+            if (fractionDigits >= 0 && ++fractionDigits > SCALE) {
+                if (c != '0') {
+                    throw new ApiException("Amounts have at most " + SCALE + " decimal places");
+                }
+                continue;
+            }
+            digits = true;
+            cents = addExact(multiplyExact(cents, 10), c - '0');
+        }
+        if (!digits) {
+            throw new ApiException("Invalid amount: " + value);
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            cents = multiplyExact(cents, 10);
+        }
+        return ofCents(negative ? -cents : cents);
+    }
+
+    public long getCents() { return cents; }
+
+    public Money plus(Money other) {
+        return ofCents(addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(subtractExact(0, cents));
+    }
+
+    public boolean isPositive() { return cents > 0; }
+    public boolean isNegative() { return cents < 0; }
+    public boolean isZero() { return cents == 0; }
+    public boolean isLessThan(Money other) { return cents < other.cents; }
+
+    // True when the amount can be written to a DECIMAL(15,2) column
+    public boolean fitsColumn() {
+        return cents <= MAX_CENTS && cents >= -MAX_CENTS;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        long units = Math.abs(cents / 100);
+        long fraction = Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    private static long addExact(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ApiException("Amount out of range");
+        }
+    }
+
+    private static long subtractExact(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ApiException("Amount out of range");
+        }
+    }
+
+    private static long multiplyExact(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ApiException("Amount out of range");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Change event for one posting, written in the posting's own database transaction and relayed to the
+// outbox sinks in delivery order: deliverySeq is stamped by the relay once the row has committed.
+// accountId is the ordering key: the debited account, or the credited one.
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_transaction", columnList = "transaction_id", unique = true),
+        @Index(name = "idx_outbox_events_created", columnList = "created_at"),
+        @Index(name = "idx_outbox_events_delivery", columnList = "delivery_seq")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "from_account_id")
+    private Long fromAccountId;
+
+    @Column(name = "to_account_id")
+    private Long toAccountId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+
+    @Column(name = "transaction_type", nullable = false)
+    private String transactionType;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDateTime transactionDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "delivery_seq")
+    private Long deliverySeq;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public Long getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
+
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public String getTransactionType() { return transactionType; }
+    public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+
+    public LocalDateTime getTransactionDate() { return transactionDate; }
+    public void setTransactionDate(LocalDateTime transactionDate) { this.transactionDate = transactionDate; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getDeliverySeq() { return deliverySeq; }
+    public void setDeliverySeq(Long deliverySeq) { this.deliverySeq = deliverySeq; }
+}
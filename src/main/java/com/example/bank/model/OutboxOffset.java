@@ -0,0 +1,28 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Position of one outbox consumer (sink): every event up to lastEventId has been delivered to it
+@Entity
+@Table(name = "outbox_offsets")
+public class OutboxOffset {
+    @Id
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public String getConsumer() { return consumer; }
+    public void setConsumer(String consumer) { this.consumer = consumer; }
+
+    public long getLastEventId() { return lastEventId; }
+    public void setLastEventId(long lastEventId) { this.lastEventId = lastEventId; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,77 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One debit of sourceAccountId spread over legCount credits. The debit and the legs are TRANSFER rows
+// carrying this id: the debit from the source with no target, each leg to its target with no source.
+@Entity
+@Table(name = "payouts")
+public class Payout {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_account_id", nullable = false)
+    private Long sourceAccountId;
+
+    private String description;
+
+    @Column(name = "leg_count", nullable = false)
+    private int legCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    private Money totalAmount;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "legs_posted", nullable = false)
+    private int legsPosted;
+
+    @Column(name = "failure_reason", length = 1000)
+    private String failureReason;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public Payout() {
+        this.createdAt = LocalDateTime.now();
+        this.status = "QUEUED";
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getSourceAccountId() { return sourceAccountId; }
+    public void setSourceAccountId(Long sourceAccountId) { this.sourceAccountId = sourceAccountId; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public int getLegCount() { return legCount; }
+    public void setLegCount(int legCount) { this.legCount = legCount; }
+
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getLegsPosted() { return legsPosted; }
+    public void setLegsPosted(int legsPosted) { this.legsPosted = legsPosted; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,130 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Recurring transfer. Occurrence n is always derived from startAt so monthly orders anchored on
+// the 31st do not drift after a short month.
+@Entity
+@Table(name = "standing_orders",
+       indexes = @Index(name = "idx_standing_orders_due", columnList = "status, next_execution_at"))
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_account_id", nullable = false)
+    private Long fromAccountId;
+
+    @Column(name = "to_account_id", nullable = false)
+    private Long toAccountId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+
+    private String description;
+
+    // ONCE, DAILY, WEEKLY or MONTHLY
+    @Column(nullable = false)
+    private String frequency;
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    @Column(name = "next_execution_at")
+    private LocalDateTime nextExecutionAt;
+
+    @Column(name = "execution_count", nullable = false)
+    private int executionCount;
+
+    @Column(name = "failure_count", nullable = false)
+    private int failureCount;
+
+    @Column(name = "last_executed_at")
+    private LocalDateTime lastExecutedAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    // ACTIVE, PAUSED, COMPLETED, FAILED or CANCELLED
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public StandingOrder() {
+        this.status = "ACTIVE";
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime occurrence(int n) {
+        switch (frequency) {
+            case "DAILY": return startAt.plusDays(n);
+            case "WEEKLY": return startAt.plusWeeks(n);
+            case "MONTHLY": return startAt.plusMonths(n);
+            default: return n == 0 ? startAt : null;
+        }
+    }
+
+    // Moves past the current occurrence (executed or given up on) and completes the order when none is left
+    public void advance() {
+        executionCount++;
+        failureCount = 0;
+        nextExecutionAt = occurrence(executionCount);
+        if (nextExecutionAt == null || (endAt != null && nextExecutionAt.isAfter(endAt))) {
+            nextExecutionAt = null;
+            status = "COMPLETED";
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
+
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+
+    public LocalDateTime getStartAt() { return startAt; }
+    public void setStartAt(LocalDateTime startAt) { this.startAt = startAt; }
+
+    public LocalDateTime getEndAt() { return endAt; }
+    public void setEndAt(LocalDateTime endAt) { this.endAt = endAt; }
+
+    public LocalDateTime getNextExecutionAt() { return nextExecutionAt; }
+    public void setNextExecutionAt(LocalDateTime nextExecutionAt) { this.nextExecutionAt = nextExecutionAt; }
+
+    public int getExecutionCount() { return executionCount; }
+    public void setExecutionCount(int executionCount) { this.executionCount = executionCount; }
+
+    public int getFailureCount() { return failureCount; }
+    public void setFailureCount(int failureCount) { this.failureCount = failureCount; }
+
+    public LocalDateTime getLastExecutedAt() { return lastExecutedAt; }
+    public void setLastExecutedAt(LocalDateTime lastExecutedAt) { this.lastExecutedAt = lastExecutedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,21 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+
+// High-water mark of the daily stats rollup: every transaction id up to it is reflected in the stats tables
+@Entity
+@Table(name = "stats_rollup_state")
+public class StatsRollupState {
+    @Id
+    private String name;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getLastTransactionId() { return lastTransactionId; }
+    public void setLastTransactionId(long lastTransactionId) { this.lastTransactionId = lastTransactionId; }
+}
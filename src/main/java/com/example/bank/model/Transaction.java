@@ -1,11 +1,18 @@
 package com.example.bank.model;
 
+import com.example.bank.event.TransactionEventPublisher;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_payout", columnList = "payout_id"),
+        @Index(name = "idx_transactions_posting_batch", columnList = "posting_batch"),
+        @Index(name = "idx_transactions_commit_seq", columnList = "commit_seq"),
+        @Index(name = "idx_transactions_from_commit", columnList = "from_account_id, commit_seq"),
+        @Index(name = "idx_transactions_to_commit", columnList = "to_account_id, commit_seq")
+})
+@EntityListeners(TransactionEventPublisher.class)
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,12 +26,13 @@ public class Transaction {
     @JoinColumn(name = "to_account_id")
     private Account toAccount;
     
-    @Column(nullable = false)
-    private BigDecimal amount;
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
     
     @Column(name = "transaction_type", nullable = false)
     private String transactionType;
     
+    @Column(columnDefinition = "TEXT")
     private String description;
     
     @Column(name = "transaction_date", nullable = false)
@@ -32,6 +40,19 @@ public class Transaction {
     
     @Column(nullable = false)
     private String status;
+    
+    // Set on the legs of a payout; null for every other posting
+    @Column(name = "payout_id")
+    private Long payoutId;
+
+    // Commit order, stamped by PostingSequencer once the posting is visible; null until then
+    @Column(name = "commit_seq", insertable = false, updatable = false)
+    private Long commitSeq;
+
+    // Tags the rows of one set-based INSERT ... SELECT so its feed and outbox rows can be written for
+    // exactly those rows; null for postings saved through JPA
+    @Column(name = "posting_batch", insertable = false, updatable = false)
+    private Long postingBatch;
 
     // Constructors, getters, and setters...
     public Transaction() {
@@ -39,7 +60,7 @@ public class Transaction {
         this.status = "COMPLETED";
     }
     
-    public Transaction(Account fromAccount, Account toAccount, BigDecimal amount, 
+    public Transaction(Account fromAccount, Account toAccount, Money amount, 
                       String transactionType, String description) {
         this();
         this.fromAccount = fromAccount;
@@ -59,8 +80,8 @@ public class Transaction {
     public Account getToAccount() { return toAccount; }
     public void setToAccount(Account toAccount) { this.toAccount = toAccount; }
     
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
     
     public String getTransactionType() { return transactionType; }
     public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
@@ -73,4 +94,13 @@ public class Transaction {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    
+    public Long getPayoutId() { return payoutId; }
+    public void setPayoutId(Long payoutId) { this.payoutId = payoutId; }
+    
+    public Long getCommitSeq() { return commitSeq; }
+    public void setCommitSeq(Long commitSeq) { this.commitSeq = commitSeq; }
+    
+    public Long getPostingBatch() { return postingBatch; }
+    public void setPostingBatch(Long postingBatch) { this.postingBatch = postingBatch; }
 }
\ No newline at end of file
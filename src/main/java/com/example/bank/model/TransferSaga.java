@@ -0,0 +1,91 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A transfer between accounts on different shards, kept on the source shard. It is written in the
+// same transaction as the debit, so a debit without its saga (or the reverse) cannot exist. PENDING
+// sagas are driven to COMPLETED (credit applied on the target shard) or COMPENSATED (debit refunded).
+@Entity
+@Table(name = "transfer_sagas", indexes = @Index(name = "idx_transfer_sagas_status", columnList = "status, updated_at"))
+public class TransferSaga {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_account_id", nullable = false)
+    private Long sourceAccountId;
+
+    @Column(name = "target_account_id", nullable = false)
+    private Long targetAccountId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+
+    private String description;
+
+    @Column(name = "debit_transaction_id", nullable = false)
+    private Long debitTransactionId;
+
+    @Column(name = "credit_transaction_id")
+    private Long creditTransactionId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TransferSaga() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        this.status = "PENDING";
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getSourceAccountId() { return sourceAccountId; }
+    public void setSourceAccountId(Long sourceAccountId) { this.sourceAccountId = sourceAccountId; }
+
+    public Long getTargetAccountId() { return targetAccountId; }
+    public void setTargetAccountId(Long targetAccountId) { this.targetAccountId = targetAccountId; }
+
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getDebitTransactionId() { return debitTransactionId; }
+    public void setDebitTransactionId(Long debitTransactionId) { this.debitTransactionId = debitTransactionId; }
+
+    public Long getCreditTransactionId() { return creditTransactionId; }
+    public void setCreditTransactionId(Long creditTransactionId) { this.creditTransactionId = creditTransactionId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
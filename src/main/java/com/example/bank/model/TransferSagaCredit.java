@@ -0,0 +1,40 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Kept on the target shard of a cross-shard transfer, in the transaction that applies the credit.
+// The saga id is the key, so a retried credit step finds it and does not credit twice.
+@Entity
+@Table(name = "transfer_saga_credits")
+public class TransferSagaCredit {
+    @Id
+    @Column(name = "saga_id")
+    private Long sagaId;
+
+    @Column(name = "credit_transaction_id", nullable = false)
+    private Long creditTransactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TransferSagaCredit() {
+    }
+
+    public TransferSagaCredit(Long sagaId, Long creditTransactionId) {
+        this.sagaId = sagaId;
+        this.creditTransactionId = creditTransactionId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getSagaId() { return sagaId; }
+    public void setSagaId(Long sagaId) { this.sagaId = sagaId; }
+
+    public Long getCreditTransactionId() { return creditTransactionId; }
+    public void setCreditTransactionId(Long creditTransactionId) { this.creditTransactionId = creditTransactionId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
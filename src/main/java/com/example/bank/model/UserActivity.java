@@ -0,0 +1,38 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One feed row per user affected by a posting; transfers between a user's own accounts get a single row
+@Entity
+@Table(name = "user_activity", indexes = {
+        @Index(name = "idx_user_activity_feed", columnList = "user_id, activity_date, id"),
+        @Index(name = "idx_user_activity_transaction", columnList = "transaction_id")
+})
+public class UserActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDateTime activityDate;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public LocalDateTime getActivityDate() { return activityDate; }
+    public void setActivityDate(LocalDateTime activityDate) { this.activityDate = activityDate; }
+}
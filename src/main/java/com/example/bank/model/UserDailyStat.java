@@ -0,0 +1,49 @@
+package com.example.bank.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Daily rollup across all accounts of one user; transfers between the user's own accounts are left out
+@Entity
+@Table(name = "user_daily_stats",
+       uniqueConstraints = @UniqueConstraint(columnNames = { "user_id", "stat_date" }))
+public class UserDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal inflow;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal outflow;
+
+    @Column(name = "txn_count", nullable = false)
+    private long txnCount;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public BigDecimal getInflow() { return inflow; }
+    public void setInflow(BigDecimal inflow) { this.inflow = inflow; }
+
+    public BigDecimal getOutflow() { return outflow; }
+    public void setOutflow(BigDecimal outflow) { this.outflow = outflow; }
+
+    public long getTxnCount() { return txnCount; }
+    public void setTxnCount(long txnCount) { this.txnCount = txnCount; }
+}
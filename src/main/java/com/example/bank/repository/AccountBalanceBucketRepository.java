@@ -0,0 +1,35 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.AccountBalanceBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceBucketRepository extends JpaRepository<AccountBalanceBucket, Long> {
+
+    List<AccountBalanceBucket> findByAccountId(Long accountId);
+
+    // Credit one bucket in place; only that bucket row is locked
+    @Modifying
+    @Query("UPDATE AccountBalanceBucket b SET b.balance = b.balance + :amount WHERE b.accountId = :accountId AND b.bucketNo = :bucketNo")
+    int credit(@Param("accountId") Long accountId, @Param("bucketNo") int bucketNo, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT COALESCE(SUM(b.balance), 0) FROM AccountBalanceBucket b WHERE b.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") Long accountId);
+
+    // Buckets of one account locked for folding into the account row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountBalanceBucket b WHERE b.accountId = :accountId ORDER BY b.bucketNo")
+    List<AccountBalanceBucket> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    @Query("SELECT DISTINCT b.accountId FROM AccountBalanceBucket b WHERE b.balance <> 0")
+    List<Long> findAccountIdsWithPendingCredits();
+}
@@ -1,9 +1,15 @@
 package com.example.bank.repository;
 
 import com.example.bank.model.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +18,16 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUserId(Long userId);
     Optional<Account> findByAccountNumber(String accountNumber);
     boolean existsByAccountNumber(String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT a.accountType FROM Account a WHERE a.id = :id")
+    Optional<String> findAccountTypeById(@Param("id") Long id);
+
+    // Set-based credit of every account a user owns; native because balance is a converted Money attribute
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE accounts SET balance = balance + :amount WHERE user_id = :userId", nativeQuery = true)
+    int creditAllByUserId(@Param("userId") Long userId, @Param("amount") BigDecimal amount);
 }
\ No newline at end of file
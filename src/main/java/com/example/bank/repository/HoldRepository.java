@@ -0,0 +1,24 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.Hold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.id = :id")
+    Optional<Hold> findByIdForUpdate(@Param("id") Long id);
+
+    List<Hold> findByStatus(String status);
+
+    List<Hold> findByAccountIdAndStatusOrderByCreatedAtDesc(Long accountId, String status);
+}
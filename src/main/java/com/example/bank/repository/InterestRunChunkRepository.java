@@ -0,0 +1,22 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.InterestRunChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface InterestRunChunkRepository extends JpaRepository<InterestRunChunk, Long> {
+    List<InterestRunChunk> findByRunDateOrderByFirstAccountId(LocalDate runDate);
+
+    @Query("SELECT COALESCE(SUM(c.accountsCredited), 0) FROM InterestRunChunk c WHERE c.runDate = :runDate")
+    long sumAccountsCreditedByRunDate(@Param("runDate") LocalDate runDate);
+
+    @Query("SELECT COALESCE(SUM(c.totalInterest), 0) FROM InterestRunChunk c WHERE c.runDate = :runDate")
+    BigDecimal sumTotalInterestByRunDate(@Param("runDate") LocalDate runDate);
+}
@@ -0,0 +1,13 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.InterestRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface InterestRunRepository extends JpaRepository<InterestRun, LocalDate> {
+    List<InterestRun> findByStatus(String status);
+}
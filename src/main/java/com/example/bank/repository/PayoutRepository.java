@@ -0,0 +1,22 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.Payout;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayoutRepository extends JpaRepository<Payout, Long> {
+    List<Payout> findByStatusIn(Collection<String> statuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payout p WHERE p.id = :id")
+    Optional<Payout> findByIdForUpdate(@Param("id") Long id);
+}
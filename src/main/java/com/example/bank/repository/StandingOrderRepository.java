@@ -0,0 +1,23 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.StandingOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    List<StandingOrder> findByFromAccountIdOrderByIdDesc(Long fromAccountId);
+
+    // Claims an order for execution so a due entry is never posted twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM StandingOrder o WHERE o.id = :id")
+    Optional<StandingOrder> findByIdForUpdate(@Param("id") Long id);
+}
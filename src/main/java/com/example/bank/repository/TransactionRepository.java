@@ -4,6 +4,7 @@ import com.example.bank.model.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,21 +16,36 @@ import java.util.List;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Both accounts and their owners are loaded in the same statement instead of one query per account
+    String SELECT_WITH_DETAILS = "SELECT t FROM Transaction t " +
+            "LEFT JOIN FETCH t.fromAccount fa LEFT JOIN FETCH fa.user " +
+            "LEFT JOIN FETCH t.toAccount ta LEFT JOIN FETCH ta.user ";
+    
     // Find transactions by account (either as sender or receiver)
     List<Transaction> findByFromAccountIdOrToAccountId(Long fromAccountId, Long toAccountId);
     
     // Find transactions by multiple accounts
     List<Transaction> findByFromAccountIdInOrToAccountIdIn(List<Long> fromAccountIds, List<Long> toAccountIds);
     
+    // A user's activity feed, newest first: one index range scan on user_activity (user_id, activity_date, id)
+    @Query("SELECT t FROM UserActivity f JOIN Transaction t ON t.id = f.transactionId " +
+           "LEFT JOIN FETCH t.fromAccount fa LEFT JOIN FETCH fa.user " +
+           "LEFT JOIN FETCH t.toAccount ta LEFT JOIN FETCH ta.user " +
+           "WHERE f.userId = :userId ORDER BY f.activityDate DESC, f.id DESC")
+    List<Transaction> findActivityFeedByUserId(@Param("userId") Long userId, Pageable pageable);
+    
     // Find transactions by type
-    List<Transaction> findByTransactionTypeOrderByTransactionDateDesc(String transactionType);
+    @Query(SELECT_WITH_DETAILS + "WHERE t.transactionType = :transactionType ORDER BY t.transactionDate DESC")
+    List<Transaction> findByTransactionTypeOrderByTransactionDateDesc(@Param("transactionType") String transactionType);
     
     // Find transactions by account and type
     List<Transaction> findByFromAccountIdAndTransactionType(Long fromAccountId, String transactionType);
     List<Transaction> findByToAccountIdAndTransactionType(Long toAccountId, String transactionType);
     
     // Find transactions by date range
-    List<Transaction> findByTransactionDateBetweenOrderByTransactionDateDesc(LocalDateTime startDate, LocalDateTime endDate);
+    @Query(SELECT_WITH_DETAILS + "WHERE t.transactionDate BETWEEN :startDate AND :endDate ORDER BY t.transactionDate DESC")
+    List<Transaction> findByTransactionDateBetweenOrderByTransactionDateDesc(@Param("startDate") LocalDateTime startDate,
+                                                                           @Param("endDate") LocalDateTime endDate);
     
     // Find transactions by account and date range
     List<Transaction> findByFromAccountIdOrToAccountIdAndTransactionDateBetweenOrderByTransactionDateDesc(
@@ -38,14 +54,54 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Find recent transactions with pagination
     Page<Transaction> findAllByOrderByTransactionDateDesc(Pageable pageable);
     
+    @Query(SELECT_WITH_DETAILS + "ORDER BY t.transactionDate DESC")
+    List<Transaction> findRecentWithDetails(Pageable pageable);
+    
+    @Query(SELECT_WITH_DETAILS + "ORDER BY t.transactionDate DESC")
+    List<Transaction> findAllWithDetails();
+    
     // Custom query for transaction statistics
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.toAccount.id = :accountId AND t.transactionType = 'DEPOSIT'")
+    @Query(value = "SELECT SUM(amount) FROM transactions WHERE to_account_id = :accountId AND transaction_type = 'DEPOSIT'", nativeQuery = true)
     BigDecimal sumDepositsByAccount(@Param("accountId") Long accountId);
     
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.fromAccount.id = :accountId AND t.transactionType = 'WITHDRAWAL'")
+    @Query(value = "SELECT SUM(amount) FROM transactions WHERE from_account_id = :accountId AND transaction_type = 'WITHDRAWAL'", nativeQuery = true)
     BigDecimal sumWithdrawalsByAccount(@Param("accountId") Long accountId);
     
     // Find transactions with account details eagerly loaded
-    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.fromAccount LEFT JOIN FETCH t.toAccount WHERE t.fromAccount.id = :accountId OR t.toAccount.id = :accountId ORDER BY t.transactionDate DESC")
+    @Query(SELECT_WITH_DETAILS + "WHERE t.fromAccount.id = :accountId OR t.toAccount.id = :accountId ORDER BY t.transactionDate DESC")
     List<Transaction> findTransactionsByAccountWithDetails(@Param("accountId") Long accountId);
+    
+    // Delta sync: each side of an account's postings after a commit_seq, one index range scan per side
+    @Query(SELECT_WITH_DETAILS + "WHERE t.fromAccount.id = :accountId AND t.commitSeq > :sinceSeq ORDER BY t.commitSeq")
+    List<Transaction> findOutgoingSince(@Param("accountId") Long accountId, @Param("sinceSeq") Long sinceSeq, Pageable pageable);
+    
+    @Query(SELECT_WITH_DETAILS + "WHERE t.toAccount.id = :accountId AND t.commitSeq > :sinceSeq ORDER BY t.commitSeq")
+    List<Transaction> findIncomingSince(@Param("accountId") Long accountId, @Param("sinceSeq") Long sinceSeq, Pageable pageable);
+    
+    // Sequenced again, so readers that page by commit_seq see the posting's new status
+    @Modifying
+    @Query(value = "UPDATE transactions SET commit_seq = NULL WHERE id = :id", nativeQuery = true)
+    int resequence(@Param("id") Long id);
+    
+    // Legs of one payout in posting order, without its debit of the source
+    @Query(SELECT_WITH_DETAILS + "WHERE t.payoutId = :payoutId AND t.fromAccount IS NULL ORDER BY t.id")
+    List<Transaction> findByPayoutIdWithDetails(@Param("payoutId") Long payoutId, Pageable pageable);
+    
+    // Search candidates from the description index, filtered by account and date
+    @Query(SELECT_WITH_DETAILS + "WHERE t.id IN :ids " +
+           "AND (:accountId IS NULL OR t.fromAccount.id = :accountId OR t.toAccount.id = :accountId) " +
+           "AND (:startDate IS NULL OR t.transactionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR t.transactionDate <= :endDate) ORDER BY t.id DESC")
+    List<Transaction> findSearchMatches(@Param("ids") List<Long> ids, @Param("accountId") Long accountId,
+                                        @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                                        Pageable pageable);
+    
+    // One DEPOSIT row per account of the user, written in a single statement and tagged with the batch
+    @Modifying
+    @Query(value = "INSERT INTO transactions (from_account_id, to_account_id, amount, transaction_type, description, transaction_date, status, posting_batch) " +
+                   "SELECT NULL, id, :amount, 'DEPOSIT', :description, :postedAt, 'COMPLETED', :batch FROM accounts WHERE user_id = :userId",
+           nativeQuery = true)
+    int insertDepositsForUser(@Param("userId") Long userId, @Param("amount") BigDecimal amount,
+                              @Param("description") String description, @Param("postedAt") LocalDateTime postedAt,
+                              @Param("batch") long batch);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.TransferSagaCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransferSagaCreditRepository extends JpaRepository<TransferSagaCredit, Long> {
+}
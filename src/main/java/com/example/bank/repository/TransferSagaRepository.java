@@ -0,0 +1,26 @@
+package com.example.bank.repository;
+
+import com.example.bank.model.TransferSaga;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransferSagaRepository extends JpaRepository<TransferSaga, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TransferSaga s WHERE s.id = :id")
+    Optional<TransferSaga> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT s.id FROM TransferSaga s WHERE s.status = :status AND s.updatedAt < :before ORDER BY s.id")
+    List<Long> findIdsByStatusUpdatedBefore(@Param("status") String status, @Param("before") LocalDateTime before);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,202 @@
+package com.example.bank.service;
+
+import com.example.bank.event.AccountOpenedEvent;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.util.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+// Account number -> account id for every shard, so requests naming accounts by number resolve without
+// a query. Keys are the ten digits of "ACC##########" as a long in a primitive open-addressing map
+// (key and value in one long array, about 19 bytes an account right after a reload; see
+// LongLongHashMap). Lookups take an optimistic read and only fall back to the read lock when a
+// write raced them. A new account is mapped once its insert has committed; numbers this
+// instance has not seen yet (e.g. created by another instance) are looked up on the shards once and
+// remembered, and so are numbers that were not found, for miss-ttl-ms, so repeated unknown numbers
+// do not query every shard each time.
+@Component
+public class AccountDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountDirectory.class);
+    private static final String PREFIX = "ACC";
+    private static final int DIGITS = 10;
+    private static final long MISSING = -1L;
+    // Misses remembered at most; the set is dropped when full
+    private static final int MAX_MISSES = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final long missTtlNanos;
+    private final StampedLock lock = new StampedLock();
+    private final Map<Long, Long> misses = new ConcurrentHashMap<>();
+    private LongLongHashMap ids = new LongLongHashMap();
+
+    public AccountDirectory(AccountRepository accountRepository, JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                            @Value("${bank.directory.miss-ttl-ms:10000}") long missTtlMillis) {
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.missTtlNanos = TimeUnit.MILLISECONDS.toNanos(missTtlMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            total += shardRouter.inShard(shard, true, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts", Long.class));
+        }
+        LongLongHashMap loaded = new LongLongHashMap((int) Math.min(total, Integer.MAX_VALUE / 2));
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.inShard(shard, true, () -> {
+                jdbcTemplate.query("SELECT id, account_number FROM accounts", rs -> {
+                    long key = keyOf(rs.getString(2));
+                    if (key != MISSING) {
+                        loaded.put(key, rs.getLong(1));
+                    }
+                });
+                return null;
+            });
+        }
+        long stamp = lock.writeLock();
+        try {
+            ids = loaded;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        misses.clear();
+        log.info("Account directory loaded {} accounts in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountOpened(AccountOpenedEvent event) {
+        add(event.getAccountNumber(), event.getAccountId());
+    }
+
+    public void add(String accountNumber, Long accountId) {
+        long key = keyOf(accountNumber);
+        if (key == MISSING || accountId == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            ids.put(key, accountId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        misses.remove(key);
+    }
+
+    public boolean contains(String accountNumber) {
+        long key = keyOf(accountNumber);
+        return key != MISSING && lookup(key) != MISSING;
+    }
+
+    public Long idOf(String accountNumber) {
+        long key = keyOf(accountNumber);
+        if (key == MISSING) {
+            throw new ApiException("Invalid account number: " + accountNumber);
+        }
+        long id = lookup(key);
+        if (id != MISSING) {
+            return id;
+        }
+        Long missedUntil = misses.get(key);
+        if (missedUntil != null && missedUntil - System.nanoTime() > 0) {
+            throw new ApiException("Account not found with number: " + accountNumber);
+        }
+        List<Account> found = shardRouter.gather(() -> accountRepository.findByAccountNumber(accountNumber.trim().toUpperCase(Locale.ROOT))
+                .map(List::of).orElse(List.of()));
+        if (found.isEmpty()) {
+            if (misses.size() >= MAX_MISSES) {
+                misses.clear();
+            }
+            misses.put(key, System.nanoTime() + missTtlNanos);
+            // The account may have committed and been added while the shards were queried
+            if (contains(accountNumber)) {
+                misses.remove(key);
+            }
+            throw new ApiException("Account not found with number: " + accountNumber);
+        }
+        add(found.get(0).getAccountNumber(), found.get(0).getId());
+        return found.get(0).getId();
+    }
+
+    public Map<String, Object> getStats() {
+        long stamp = lock.readLock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("accounts", ids.size());
+            stats.put("memoryBytes", ids.memoryBytes());
+            stats.put("rememberedMisses", misses.size());
+            return stats;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long lookup(long key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long id = ids.get(key, MISSING);
+                if (lock.validate(stamp)) {
+                    return id;
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // Read the arrays halfway through a resize; retried under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return ids.get(key, MISSING);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The ten digits after the prefix, parsed without allocating; MISSING for anything else
+    private static long keyOf(String accountNumber) {
+        if (accountNumber == null) {
+            return MISSING;
+        }
+        int start = 0;
+        int end = accountNumber.length();
+        while (start < end && accountNumber.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && accountNumber.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start != PREFIX.length() + DIGITS || !accountNumber.regionMatches(true, start, PREFIX, 0, PREFIX.length())) {
+            return MISSING;
+        }
+        long key = 0;
+        for (int i = start + PREFIX.length(); i < end; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return MISSING;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
@@ -1,14 +1,17 @@
 package com.example.bank.service;
 
 import com.example.bank.model.Account;
+import com.example.bank.model.Money;
 
 import java.util.List;
 
 public interface AccountService {
     Account createAccount(Long userId);
     Account getAccountById(Long id);
+    Account getAccountForDebit(Long id);
     List<Account> getAccountsByUserId(Long userId);
-    void depositMoney(Long accountId, Double amount);
-    void withdrawMoney(Long accountId, Double amount);
-    void transferMoney(Long fromAccountId, Long toAccountId, Double amount, String description);
+    void depositMoney(Long accountId, Money amount);
+    void withdrawMoney(Long accountId, Money amount);
+    void transferMoney(Long fromAccountId, Long toAccountId, Money amount, String description);
+    int depositToAllUserAccounts(Long userId, Money amount, String description);
 }
\ No newline at end of file
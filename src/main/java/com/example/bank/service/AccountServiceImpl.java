@@ -1,55 +1,99 @@
 package com.example.bank.service;
 
+import com.example.bank.event.AccountOpenedEvent;
 import com.example.bank.exception.ApiException;
 import com.example.bank.model.Account;
+import com.example.bank.model.Money;
 import com.example.bank.model.Transaction;
 import com.example.bank.model.User;
 import com.example.bank.repository.AccountRepository;
 import com.example.bank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
+    private static final Money INITIAL_BALANCE = Money.ofCents(500_000); // $5000 demo money
+
     private final AccountRepository accountRepository;
     private final UserService userService;
     private final TransactionRepository transactionRepository;
+    private final StripedBalanceService stripedBalanceService;
+    private final VelocityEngine velocityEngine;
+    private final UserActivityFeed userActivityFeed;
+    private final TransactionOutbox transactionOutbox;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransfers crossShardTransfers;
+    private final HoldIndex holdIndex;
+    private final AccountDirectory accountDirectory;
+    private final ReadCoalescer readCoalescer;
+    private final ApplicationEventPublisher eventPublisher;
     private final Random random = new Random();
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public AccountServiceImpl(AccountRepository accountRepository, 
                             UserService userService,
-                            TransactionRepository transactionRepository) {
+                            TransactionRepository transactionRepository,
+                            StripedBalanceService stripedBalanceService,
+                            VelocityEngine velocityEngine,
+                            UserActivityFeed userActivityFeed,
+                            TransactionOutbox transactionOutbox,
+                            ShardRouter shardRouter,
+                            CrossShardTransfers crossShardTransfers,
+                            HoldIndex holdIndex,
+                            AccountDirectory accountDirectory,
+                            ReadCoalescer readCoalescer,
+                            ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
         this.userService = userService;
         this.transactionRepository = transactionRepository;
+        this.stripedBalanceService = stripedBalanceService;
+        this.velocityEngine = velocityEngine;
+        this.userActivityFeed = userActivityFeed;
+        this.transactionOutbox = transactionOutbox;
+        this.shardRouter = shardRouter;
+        this.crossShardTransfers = crossShardTransfers;
+        this.holdIndex = holdIndex;
+        this.accountDirectory = accountDirectory;
+        this.readCoalescer = readCoalescer;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Account createAccount(Long userId) {
         User user = userService.getUserById(userId);
         
+        // The directory spans all shards, the repository check covers accounts it has not seen
         String accountNumber;
         do {
             accountNumber = generateAccountNumber();
-        } while (accountRepository.existsByAccountNumber(accountNumber));
+        } while (accountDirectory.contains(accountNumber) || accountRepository.existsByAccountNumber(accountNumber));
         
         // Create account with initial demo money
         Account account = new Account(accountNumber, "SAVINGS", user);
-        BigDecimal initialBalance = BigDecimal.valueOf(5000.00); // $5000 demo money
-        account.setBalance(initialBalance);
+        account.setBalance(INITIAL_BALANCE);
         
         Account savedAccount = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountOpenedEvent(savedAccount.getId(), savedAccount.getAccountNumber()));
         
         // Create a deposit transaction record
         try {
             Transaction depositTransaction = new Transaction();
             depositTransaction.setToAccount(savedAccount);
-            depositTransaction.setAmount(initialBalance);
+            depositTransaction.setAmount(INITIAL_BALANCE);
             depositTransaction.setTransactionType("DEPOSIT");
             depositTransaction.setDescription("Initial account opening bonus");
             transactionRepository.save(depositTransaction);
@@ -63,31 +107,52 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Account getAccountById(Long id) {
-        return accountRepository.findById(id)
-                .orElseThrow(() -> new ApiException("Account not found"));
+        return readCoalescer.read("getAccountById", Collections.singletonList(id), () -> {
+            Account account = accountRepository.findById(id)
+                    .orElseThrow(() -> new ApiException("Account not found"));
+            stripedBalanceService.loadBucketBalance(account);
+            account.setHeldBalance(holdIndex.heldAmount(id));
+            return account;
+        });
+    }
+
+    // Loaded with the row lock, so the balance and hold check on the debit path cannot race a
+    // concurrent debit or hold on the account
+    @Override
+    public Account getAccountForDebit(Long id) {
+        Account account = entityManager.find(Account.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (account == null) {
+            throw new ApiException("Account not found");
+        }
+        account.setHeldBalance(holdIndex.heldAmount(id));
+        return account;
     }
 
     @Override
     public List<Account> getAccountsByUserId(Long userId) {
-        return accountRepository.findByUserId(userId);
+        List<Account> accounts = accountRepository.findByUserId(userId);
+        for (Account account : accounts) {
+            stripedBalanceService.loadBucketBalance(account);
+            account.setHeldBalance(holdIndex.heldAmount(account.getId()));
+        }
+        return accounts;
     }
 
     @Override
     @Transactional
-    public void depositMoney(Long accountId, Double amount) {
-        if (amount <= 0) {
+    public void depositMoney(Long accountId, Money amount) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Deposit amount must be positive");
         }
         
         Account account = getAccountById(accountId);
-        BigDecimal newBalance = account.getBalance().add(BigDecimal.valueOf(amount));
-        account.setBalance(newBalance);
+        stripedBalanceService.credit(account, amount);
         accountRepository.save(account);
         
         // Create transaction record
         Transaction transaction = new Transaction();
         transaction.setToAccount(account);
-        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setAmount(amount);
         transaction.setTransactionType("DEPOSIT");
         transaction.setDescription("Cash deposit");
         transactionRepository.save(transaction);
@@ -95,25 +160,26 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     @Transactional
-    public void withdrawMoney(Long accountId, Double amount) {
-        if (amount <= 0) {
+    public void withdrawMoney(Long accountId, Money amount) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Withdrawal amount must be positive");
         }
+        velocityEngine.reserve(accountId, amount);
         
-        Account account = getAccountById(accountId);
+        Account account = getAccountForDebit(accountId);
+        stripedBalanceService.prepareDebit(account);
         
-        if (account.getBalance().compareTo(BigDecimal.valueOf(amount)) < 0) {
+        if (holdIndex.available(account).isLessThan(amount)) {
             throw new ApiException("Insufficient balance for withdrawal");
         }
         
-        BigDecimal newBalance = account.getBalance().subtract(BigDecimal.valueOf(amount));
-        account.setBalance(newBalance);
+        account.setBalance(account.getBalance().minus(amount));
         accountRepository.save(account);
         
         // Create withdrawal transaction record
         Transaction transaction = new Transaction();
         transaction.setFromAccount(account);
-        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setAmount(amount);
         transaction.setTransactionType("WITHDRAWAL");
         transaction.setDescription("Cash withdrawal");
         transactionRepository.save(transaction);
@@ -121,25 +187,32 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     @Transactional
-    public void transferMoney(Long fromAccountId, Long toAccountId, Double amount, String description) {
-        if (amount <= 0) {
+    public void transferMoney(Long fromAccountId, Long toAccountId, Money amount, String description) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Transfer amount must be positive");
         }
         
         if (fromAccountId.equals(toAccountId)) {
             throw new ApiException("Cannot transfer to the same account");
         }
+        velocityEngine.reserve(fromAccountId, amount);
+        
+        if (shardRouter.isCrossShard(fromAccountId, toAccountId)) {
+            crossShardTransfers.begin(getAccountForDebit(fromAccountId), toAccountId, amount, description);
+            return;
+        }
         
-        Account fromAccount = getAccountById(fromAccountId);
+        Account fromAccount = getAccountForDebit(fromAccountId);
         Account toAccount = getAccountById(toAccountId);
+        stripedBalanceService.prepareDebit(fromAccount);
         
-        if (fromAccount.getBalance().compareTo(BigDecimal.valueOf(amount)) < 0) {
+        if (holdIndex.available(fromAccount).isLessThan(amount)) {
             throw new ApiException("Insufficient balance for transfer");
         }
         
         // Update balances
-        fromAccount.setBalance(fromAccount.getBalance().subtract(BigDecimal.valueOf(amount)));
-        toAccount.setBalance(toAccount.getBalance().add(BigDecimal.valueOf(amount)));
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+        stripedBalanceService.credit(toAccount, amount);
         
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
@@ -148,12 +221,31 @@ public class AccountServiceImpl implements AccountService {
         Transaction transaction = new Transaction();
         transaction.setFromAccount(fromAccount);
         transaction.setToAccount(toAccount);
-        transaction.setAmount(BigDecimal.valueOf(amount));
+        transaction.setAmount(amount);
         transaction.setTransactionType("TRANSFER");
         transaction.setDescription(description != null ? description : "Fund Transfer");
         transactionRepository.save(transaction);
     }
 
+    @Override
+    @Transactional
+    public int depositToAllUserAccounts(Long userId, Money amount, String description) {
+        if (amount == null || !amount.isPositive()) {
+            throw new ApiException("Deposit amount must be positive");
+        }
+        
+        BigDecimal depositAmount = amount.toBigDecimal();
+        int credited = accountRepository.creditAllByUserId(userId, depositAmount);
+        if (credited > 0) {
+            long batch = UserActivityFeed.newPostingBatch();
+            transactionRepository.insertDepositsForUser(userId, depositAmount,
+                    description != null ? description : "Demo money deposit", LocalDateTime.now(), batch);
+            userActivityFeed.recordBatch(batch);
+            transactionOutbox.appendBatch(batch);
+        }
+        return credited;
+    }
+
     private String generateAccountNumber() {
         return String.format("ACC%010d", random.nextInt(1000000000));
     }
@@ -0,0 +1,9 @@
+package com.example.bank.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface AccountStatsService {
+    Map<String, Object> getAccountStats(Long accountId, String granularity, LocalDate from, LocalDate to);
+    Map<String, Object> getUserStats(Long userId, String granularity, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,363 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// Per-account and per-user inflow/outflow statistics served from daily rollup tables. An incremental
+// job folds new postings into the daily rows behind a high-water commit_seq (see PostingSequencer), so
+// a posting that commits late is folded in when it is sequenced rather than skipped; weekly and monthly
+// buckets are summed from the daily rows, and closing balances are derived backwards from the
+// current balance, so a query never touches the transactions table beyond the not-yet-rolled-up tail.
+// A cross-shard debit is rolled up once, after it leaves PENDING and is sequenced again. Each shard
+// rolls up its own postings into its own daily tables, behind its own mark.
+@Service
+public class AccountStatsServiceImpl implements AccountStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountStatsServiceImpl.class);
+    private static final String STATE_NAME = "daily_stats";
+    private static final long MAX_RANGE_DAYS = 3660;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountService accountService;
+    private final UserService userService;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+
+    public AccountStatsServiceImpl(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   AccountService accountService,
+                                   UserService userService,
+                                   ShardRouter shardRouter,
+                                   @Value("${bank.stats.rollup-batch-size:50000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountService = accountService;
+        this.userService = userService;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Map<String, Object> getAccountStats(Long accountId, String granularity, LocalDate from, LocalDate to) {
+        Account account = accountService.getAccountById(accountId);
+        Range range = Range.of(granularity, from, to);
+        long rolledUpTo = highWaterMark();
+
+        // What the balance carries but the daily rows do not yet: unsequenced postings, those past the
+        // mark, and cross-shard debits still PENDING
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(CASE WHEN to_account_id = ? THEN amount ELSE 0 END), 0) - " +
+                "COALESCE(SUM(CASE WHEN from_account_id = ? THEN amount ELSE 0 END), 0) " +
+                "FROM transactions WHERE (from_account_id = ? OR to_account_id = ?) " +
+                "AND (commit_seq IS NULL OR commit_seq > ? OR status = 'PENDING')",
+                (rs, rowNum) -> toCents(rs.getBigDecimal(1)),
+                accountId, accountId, accountId, accountId, rolledUpTo);
+        long closing = account.getBalance().getCents() - Objects.requireNonNullElse(pending, 0L)
+                - netAfter("account_daily_stats", "account_id", accountId, range.to);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accountId", accountId);
+        response.putAll(buildBuckets("account_daily_stats", "account_id", accountId, range, closing, rolledUpTo));
+        return response;
+    }
+
+    @Override
+    public Map<String, Object> getUserStats(Long userId, String granularity, LocalDate from, LocalDate to) {
+        userService.getUserById(userId);
+        Range range = Range.of(granularity, from, to);
+        long rolledUpTo = highWaterMark();
+
+        long balance = 0;
+        for (Account account : accountService.getAccountsByUserId(userId)) {
+            balance += account.getBalance().getCents();
+        }
+        // Transfers between the user's own accounts cancel out here as they do in the rollup
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(CASE WHEN ta.user_id = ? THEN t.amount ELSE 0 END), 0) - " +
+                "COALESCE(SUM(CASE WHEN fa.user_id = ? THEN t.amount ELSE 0 END), 0) " +
+                "FROM transactions t LEFT JOIN accounts fa ON fa.id = t.from_account_id " +
+                "LEFT JOIN accounts ta ON ta.id = t.to_account_id " +
+                "WHERE (fa.user_id = ? OR ta.user_id = ?) AND (t.commit_seq IS NULL OR t.commit_seq > ? OR t.status = 'PENDING')",
+                (rs, rowNum) -> toCents(rs.getBigDecimal(1)),
+                userId, userId, userId, userId, rolledUpTo);
+        long closing = balance - Objects.requireNonNullElse(pending, 0L)
+                - netAfter("user_daily_stats", "user_id", userId, range.to);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.putAll(buildBuckets("user_daily_stats", "user_id", userId, range, closing, rolledUpTo));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.stats.rollup-interval-ms:10000}")
+    public void rollUp() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                rollUpShard(shard);
+            } catch (RuntimeException e) {
+                log.warn("Stats rollup on shard {} failed, retrying next run", shard, e);
+            }
+        }
+    }
+
+    private void rollUpShard(int shard) {
+        if (jdbcTemplate.queryForList("SELECT name FROM stats_rollup_state WHERE name = ?", String.class, STATE_NAME).isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO stats_rollup_state (name, last_transaction_id) VALUES (?, 0)", STATE_NAME);
+            } catch (DuplicateKeyException e) {
+                // Another instance created it first
+            }
+        }
+        int total = 0;
+        Integer rolled;
+        do {
+            rolled = transactionTemplate.execute(status -> rollUpBatch());
+            total += rolled != null ? rolled : 0;
+        } while (rolled != null && rolled == batchSize);
+        if (total > 0) {
+            log.debug("Rolled {} transactions into daily stats on shard {}", total, shard);
+        }
+    }
+
+    // Folds the next batch of sequenced transactions into the daily tables; the state row lock keeps
+    // concurrent instances from applying the same batch twice. last_transaction_id holds a commit_seq.
+    private int rollUpBatch() {
+        List<Long> state = jdbcTemplate.queryForList(
+                "SELECT last_transaction_id FROM stats_rollup_state WHERE name = ? FOR UPDATE", Long.class, STATE_NAME);
+        if (state.isEmpty()) {
+            return 0;
+        }
+        long from = state.get(0);
+
+        Map<DailyKey, long[]> accountDeltas = new HashMap<>();
+        Map<DailyKey, long[]> userDeltas = new HashMap<>();
+        long[] last = { from, 0 };
+        jdbcTemplate.query(
+                "SELECT t.commit_seq, t.from_account_id, t.to_account_id, t.amount, t.transaction_date, fa.user_id, ta.user_id, t.status " +
+                "FROM transactions t LEFT JOIN accounts fa ON fa.id = t.from_account_id " +
+                "LEFT JOIN accounts ta ON ta.id = t.to_account_id " +
+                "WHERE t.commit_seq > ? ORDER BY t.commit_seq LIMIT ?",
+                rs -> {
+                    last[0] = rs.getLong(1);
+                    last[1]++;
+                    if ("PENDING".equals(rs.getString(8))) {
+                        return;
+                    }
+                    Timestamp postedAt = rs.getTimestamp(5);
+                    long amount = toCents(rs.getBigDecimal(4));
+                    LocalDate day = postedAt.toLocalDateTime().toLocalDate();
+                    long fromAccount = rs.getLong(2);
+                    boolean hasFrom = !rs.wasNull();
+                    long toAccount = rs.getLong(3);
+                    boolean hasTo = !rs.wasNull();
+                    long fromUser = rs.getLong(6);
+                    boolean hasFromUser = !rs.wasNull();
+                    long toUser = rs.getLong(7);
+                    boolean hasToUser = !rs.wasNull();
+
+                    if (hasFrom) {
+                        add(accountDeltas, fromAccount, day, 0, amount);
+                    }
+                    if (hasTo) {
+                        add(accountDeltas, toAccount, day, amount, 0);
+                    }
+                    boolean internal = hasFromUser && hasToUser && fromUser == toUser;
+                    if (hasFromUser && !internal) {
+                        add(userDeltas, fromUser, day, 0, amount);
+                    }
+                    if (hasToUser && !internal) {
+                        add(userDeltas, toUser, day, amount, 0);
+                    }
+                },
+                from, batchSize);
+
+        if (last[1] == 0) {
+            return 0;
+        }
+        apply("account_daily_stats", "account_id", accountDeltas);
+        apply("user_daily_stats", "user_id", userDeltas);
+        jdbcTemplate.update("UPDATE stats_rollup_state SET last_transaction_id = ? WHERE name = ?", last[0], STATE_NAME);
+        return (int) last[1];
+    }
+
+    private void apply(String table, String keyColumn, Map<DailyKey, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {
+                BigDecimal.valueOf(delta[0], 2), BigDecimal.valueOf(delta[1], 2), delta[2], key.id, Date.valueOf(key.day) }));
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE " + table + " SET inflow = inflow + ?, outflow = outflow + ?, txn_count = txn_count + ? " +
+                "WHERE " + keyColumn + " = ? AND stat_date = ?", rows);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] row = rows.get(i);
+                inserts.add(new Object[] { row[3], row[4], row[0], row[1], row[2] });
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + table + " (" + keyColumn + ", stat_date, inflow, outflow, txn_count) VALUES (?, ?, ?, ?, ?)",
+                    inserts);
+        }
+    }
+
+    private long highWaterMark() {
+        List<Long> state = jdbcTemplate.queryForList(
+                "SELECT last_transaction_id FROM stats_rollup_state WHERE name = ?", Long.class, STATE_NAME);
+        return state.isEmpty() ? 0 : state.get(0);
+    }
+
+    private long netAfter(String table, String keyColumn, long key, LocalDate after) {
+        BigDecimal net = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(inflow - outflow), 0) FROM " + table + " WHERE " + keyColumn + " = ? AND stat_date > ?",
+                BigDecimal.class, key, Date.valueOf(after));
+        return toCents(net);
+    }
+
+    private Map<String, Object> buildBuckets(String table, String keyColumn, long key, Range range,
+                                             long closingAtEnd, long rolledUpTo) {
+        Map<LocalDate, long[]> daily = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT stat_date, inflow, outflow, txn_count FROM " + table +
+                " WHERE " + keyColumn + " = ? AND stat_date BETWEEN ? AND ?",
+                rs -> {
+                    daily.put(rs.getDate(1).toLocalDate(), new long[] {
+                            toCents(rs.getBigDecimal(2)), toCents(rs.getBigDecimal(3)), rs.getLong(4) });
+                },
+                key, Date.valueOf(range.from), Date.valueOf(range.to));
+
+        List<LocalDate> starts = new ArrayList<>();
+        List<long[]> totals = new ArrayList<>();
+        for (LocalDate start = range.from; !start.isAfter(range.to); start = range.next(start)) {
+            long[] total = new long[3];
+            for (LocalDate day = start; day.isBefore(range.next(start)); day = day.plusDays(1)) {
+                long[] values = daily.get(day);
+                if (values != null) {
+                    total[0] += values[0];
+                    total[1] += values[1];
+                    total[2] += values[2];
+                }
+            }
+            starts.add(start);
+            totals.add(total);
+        }
+
+        // Walk back from the balance at the end of the range
+        List<Map<String, Object>> buckets = new ArrayList<>(starts.size());
+        long closing = closingAtEnd;
+        for (int i = starts.size() - 1; i >= 0; i--) {
+            long[] total = totals.get(i);
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("periodStart", starts.get(i));
+            bucket.put("periodEnd", range.next(starts.get(i)).minusDays(1));
+            bucket.put("inflow", BigDecimal.valueOf(total[0], 2));
+            bucket.put("outflow", BigDecimal.valueOf(total[1], 2));
+            bucket.put("count", total[2]);
+            bucket.put("closingBalance", BigDecimal.valueOf(closing, 2));
+            buckets.add(bucket);
+            closing -= total[0] - total[1];
+        }
+        Collections.reverse(buckets);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", range.granularity);
+        result.put("from", range.from);
+        result.put("to", range.to);
+        result.put("asOfCommitSeq", rolledUpTo);
+        result.put("buckets", buckets);
+        return result;
+    }
+
+    private static void add(Map<DailyKey, long[]> deltas, long id, LocalDate day, long inflow, long outflow) {
+        long[] delta = deltas.computeIfAbsent(new DailyKey(id, day), key -> new long[3]);
+        delta[0] += inflow;
+        delta[1] += outflow;
+        delta[2]++;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private record DailyKey(long id, LocalDate day) {}
+
+    // Requested range widened to whole buckets
+    private static final class Range {
+        final String granularity;
+        final LocalDate from;
+        final LocalDate to;
+
+        private Range(String granularity, LocalDate from, LocalDate to) {
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+        }
+
+        static Range of(String granularity, LocalDate from, LocalDate to) {
+            String unit = granularity != null ? granularity.toLowerCase(Locale.ROOT) : "day";
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start;
+            switch (unit) {
+                case "day":
+                    start = from != null ? from : end.minusDays(29);
+                    break;
+                case "week":
+                    start = (from != null ? from : end.minusWeeks(11)).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                    end = end.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+                    break;
+                case "month":
+                    start = (from != null ? from : end.minusMonths(11)).withDayOfMonth(1);
+                    end = end.with(TemporalAdjusters.lastDayOfMonth());
+                    break;
+                default:
+                    throw new ApiException("Granularity must be day, week or month");
+            }
+            if (start.isAfter(end)) {
+                throw new ApiException("Start date must not be after the end date");
+            }
+            if (ChronoUnit.DAYS.between(start, end) > MAX_RANGE_DAYS) {
+                throw new ApiException("Statistics range cannot exceed " + MAX_RANGE_DAYS + " days");
+            }
+            return new Range(unit, start, end);
+        }
+
+        LocalDate next(LocalDate start) {
+            switch (granularity) {
+                case "week": return start.plusWeeks(1);
+                case "month": return start.plusMonths(1);
+                default: return start.plusDays(1);
+            }
+        }
+    }
+}
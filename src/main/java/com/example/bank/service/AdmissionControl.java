@@ -0,0 +1,163 @@
+package com.example.bank.service;
+
+import com.example.bank.config.RateLimitProperties;
+import com.example.bank.exception.RateLimitExceededException;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.util.TokenBucket;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sheds money-movement requests before they reach the database: a token bucket per
+// account plus a global cap on requests in flight. An account's first request is charged to a
+// bucket with the default limit, so ids nobody uses again cost no query; its type is looked up on
+// its next admitted request and the type's limit applies from then on. A full map evicts the
+// sampled bucket nearest to idle rather than grow without bound.
+@Component
+public class AdmissionControl {
+
+    // Buckets looked at per eviction
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final RateLimitProperties properties;
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final Map<Long, Tracked> buckets = new ConcurrentHashMap<>();
+    private final Semaphore inFlight;
+    private final Permit noopPermit = new Permit(null);
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shedByAccountLimit = new LongAdder();
+    private final LongAdder shedByConcurrencyLimit = new LongAdder();
+    private final LongAdder bucketEvictions = new LongAdder();
+
+    public AdmissionControl(RateLimitProperties properties, AccountRepository accountRepository, ShardRouter shardRouter) {
+        this.properties = properties;
+        this.accountRepository = accountRepository;
+        this.shardRouter = shardRouter;
+        this.inFlight = new Semaphore(properties.getMaxConcurrentRequests());
+    }
+
+    public Permit admit(Long accountId) {
+        if (!properties.isEnabled()) {
+            return noopPermit;
+        }
+
+        if (accountId != null) {
+            admitAccount(accountId);
+        }
+
+        if (!inFlight.tryAcquire()) {
+            shedByConcurrencyLimit.increment();
+            throw new RateLimitExceededException("Server is busy, please retry", 1L);
+        }
+        admitted.increment();
+        return new Permit(inFlight);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("admitted", admitted.sum());
+        metrics.put("shedByAccountLimit", shedByAccountLimit.sum());
+        metrics.put("shedByConcurrencyLimit", shedByConcurrencyLimit.sum());
+        metrics.put("inFlight", properties.getMaxConcurrentRequests() - inFlight.availablePermits());
+        metrics.put("trackedAccounts", buckets.size());
+        metrics.put("bucketEvictions", bucketEvictions.sum());
+        return metrics;
+    }
+
+    private void admitAccount(Long accountId) {
+        long now = System.nanoTime();
+        Tracked tracked = buckets.get(accountId);
+        boolean seen = tracked != null;
+        if (!seen) {
+            tracked = track(accountId, now);
+        }
+
+        long waitNanos = tracked.bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            shedByAccountLimit.increment();
+            throw new RateLimitExceededException("Too many requests for account " + accountId,
+                    Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+
+        // Only after a token was taken, and once per tracked account; an unknown id keeps the default
+        if (seen && !tracked.typed) {
+            String accountType = shardRouter.inShard(shardRouter.shardOfId(accountId), true,
+                    () -> accountRepository.findAccountTypeById(accountId).orElse(null));
+            RateLimitProperties.Limit limit = properties.limitFor(accountType);
+            TokenBucket bucket = limit == properties.getDefaultLimit()
+                    ? tracked.bucket : new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond());
+            buckets.replace(accountId, tracked, new Tracked(bucket, true));
+        }
+    }
+
+    private Tracked track(Long accountId, long now) {
+        if (buckets.size() >= properties.getMaxTrackedAccounts()) {
+            evictOne(now);
+        }
+        RateLimitProperties.Limit defaults = properties.getDefaultLimit();
+        Tracked created = new Tracked(new TokenBucket(defaults.getCapacity(), defaults.getRefillPerSecond()), false);
+        Tracked existing = buckets.putIfAbsent(accountId, created);
+        return existing != null ? existing : created;
+    }
+
+    // Drops the idle buckets among a sample, or else the one with the least refill left
+    private void evictOne(long now) {
+        Long nearestIdle = null;
+        long leastDebt = Long.MAX_VALUE;
+        int sampled = 0;
+        for (Iterator<Map.Entry<Long, Tracked>> entries = buckets.entrySet().iterator();
+             entries.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<Long, Tracked> entry = entries.next();
+            long debt = entry.getValue().bucket.debtNanos(now);
+            if (debt == 0) {
+                entries.remove();
+                bucketEvictions.increment();
+                nearestIdle = null;
+                leastDebt = 0;
+            } else if (debt < leastDebt) {
+                nearestIdle = entry.getKey();
+                leastDebt = debt;
+            }
+        }
+        if (nearestIdle != null && buckets.remove(nearestIdle) != null) {
+            bucketEvictions.increment();
+        }
+    }
+
+    private static final class Tracked {
+        final TokenBucket bucket;
+        // Whether the bucket carries the account type's limit
+        final boolean typed;
+
+        Tracked(TokenBucket bucket, boolean typed) {
+            this.bucket = bucket;
+            this.typed = typed;
+        }
+    }
+
+    public static class Permit implements AutoCloseable {
+        private final Semaphore semaphore;
+        private boolean released;
+
+        Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (semaphore != null && !released) {
+                released = true;
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bank.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BackgroundJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id;
+    private final String type;
+    private final LocalDateTime createdAt;
+    private final AtomicLong processed = new AtomicLong();
+    private volatile Status status = Status.QUEUED;
+    private volatile long total;
+    private volatile boolean cancelRequested;
+    private volatile String message;
+    private volatile Object result;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public BackgroundJob(String id, String type) {
+        this.id = id;
+        this.type = type;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // State transitions used by BackgroundJobRunner
+    void markRunning() {
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    void markFinished(Status status, String message) {
+        this.status = status;
+        if (message != null) {
+            this.message = message;
+        }
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    // Progress reporting used by the job body
+    public void addProcessed(long count) { processed.addAndGet(count); }
+    public void setTotal(long total) { this.total = total; }
+    public void setMessage(String message) { this.message = message; }
+    public void setResult(Object result) { this.result = result; }
+    public boolean isCancelRequested() { return cancelRequested; }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public Status getStatus() { return status; }
+    public long getProcessed() { return processed.get(); }
+    public long getTotal() { return total; }
+    public String getMessage() { return message; }
+    public Object getResult() { return result; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+
+    public double getProgress() {
+        long currentTotal = total;
+        if (currentTotal <= 0) {
+            return isFinished() ? 100.0 : 0.0;
+        }
+        return Math.min(100.0, processed.get() * 100.0 / currentTotal);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Component
+public class BackgroundJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundJobRunner.class);
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private final Map<String, BackgroundJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "bank-job-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BackgroundJob submit(String type, Consumer<BackgroundJob> work) {
+        pruneFinishedJobs();
+
+        BackgroundJob job = new BackgroundJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+
+        executor.submit(() -> {
+            if (job.isCancelRequested()) {
+                job.markFinished(BackgroundJob.Status.CANCELLED, "Cancelled before start");
+                return;
+            }
+            job.markRunning();
+            try {
+                work.accept(job);
+                job.markFinished(job.isCancelRequested() ? BackgroundJob.Status.CANCELLED
+                                                         : BackgroundJob.Status.COMPLETED, null);
+            } catch (Exception e) {
+                log.error("Background job {} ({}) failed", job.getId(), type, e);
+                job.markFinished(BackgroundJob.Status.FAILED, e.getMessage());
+            }
+        });
+        return job;
+    }
+
+    public BackgroundJob getJob(String jobId) {
+        BackgroundJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ApiException("Job not found: " + jobId);
+        }
+        return job;
+    }
+
+    public List<BackgroundJob> getJobs() {
+        List<BackgroundJob> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(BackgroundJob::getCreatedAt).reversed());
+        return result;
+    }
+
+    public BackgroundJob cancel(String jobId) {
+        BackgroundJob job = getJob(jobId);
+        job.requestCancel();
+        return job;
+    }
+
+    private void pruneFinishedJobs() {
+        if (jobs.size() < MAX_RETAINED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(BackgroundJob::isFinished)
+                .sorted(Comparator.comparing(BackgroundJob::getCreatedAt))
+                .limit(jobs.size() - MAX_RETAINED_JOBS + 1L)
+                .map(BackgroundJob::getId)
+                .toList()
+                .forEach(jobs::remove);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(BackgroundJob::requestCancel);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bank.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface BalanceHistoryService {
+    Map<String, Object> getBalanceAsOf(Long accountId, LocalDateTime asOf);
+}
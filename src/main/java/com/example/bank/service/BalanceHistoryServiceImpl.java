@@ -0,0 +1,420 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import com.example.bank.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Point-in-time ledger balances from per-account checkpoints. An incremental job walks settled
+// postings in id order behind a high-water mark, like the daily stats rollup, and keeps a running
+// balance per account in balance_checkpoint_heads. Every N postings, and at an account's first
+// posting of a new day, the head is cut into a checkpoint: the balance over all postings dated at or
+// before checkpoint_at. A posting that turns up dated at or before an existing checkpoint is added to
+// that checkpoint and every later one, and raises their replay_to_id so the replay below finds it.
+//
+// The balance at T is then the latest checkpoint at or before T (one index probe) plus the postings
+// dated after it and up to T, all of which have ids between its transaction_id and the next
+// checkpoint's replay_to_id: a range scan of about N postings on the account's posting indexes.
+// Every posting counts whatever its status, since a PENDING debit has already left the account and
+// a reversal posts its own credit.
+//
+// Balances do not start from zero: seeded and imported accounts carry money no posting explains. When
+// an account's head is created, its opening balance (current balance and buckets less every committed
+// posting, read in one statement) is written as a checkpoint dated before its first posting, and the
+// head starts from it. Accounts that have no head yet are derived backwards from the current balance.
+@Service
+public class BalanceHistoryServiceImpl implements BalanceHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceHistoryServiceImpl.class);
+    private static final String STATE_NAME = "balance_checkpoints";
+    private static final int IN_LIST_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    private final int everyPostings;
+    private final long settleSeconds;
+
+    public BalanceHistoryServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                     AccountRepository accountRepository,
+                                     ShardRouter shardRouter,
+                                     @Value("${bank.checkpoints.batch-size:50000}") int batchSize,
+                                     @Value("${bank.checkpoints.every-postings:500}") int everyPostings,
+                                     @Value("${bank.checkpoints.settle-seconds:60}") long settleSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.everyPostings = Math.max(1, everyPostings);
+        this.settleSeconds = settleSeconds;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBalanceAsOf(Long accountId, LocalDateTime asOf) {
+        if (asOf == null) {
+            throw new ApiException("asOf is required");
+        }
+        if (!accountRepository.existsById(accountId)) {
+            throw new ApiException("Account not found");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountId", accountId)
+                .addValue("asOf", Timestamp.valueOf(asOf));
+
+        List<Object[]> before = jdbcTemplate.query(
+                "SELECT checkpoint_at, transaction_id, balance FROM balance_checkpoints " +
+                "WHERE account_id = :accountId AND checkpoint_at <= :asOf ORDER BY checkpoint_at DESC, id DESC LIMIT 1",
+                params, (rs, rowNum) -> new Object[] { rs.getTimestamp(1), rs.getLong(2), toCents(rs.getBigDecimal(3)) });
+        List<Long> after = jdbcTemplate.queryForList(
+                "SELECT replay_to_id FROM balance_checkpoints " +
+                "WHERE account_id = :accountId AND checkpoint_at > :asOf ORDER BY checkpoint_at, id LIMIT 1",
+                params, Long.class);
+
+        // Every folded account has its opening checkpoint, so none at all means nothing is folded yet
+        if (before.isEmpty() && after.isEmpty()) {
+            return balanceBackwards(accountId, asOf, params);
+        }
+
+        Timestamp checkpointAt = before.isEmpty() ? null : (Timestamp) before.get(0)[0];
+        params.addValue("fromId", before.isEmpty() ? 0L : before.get(0)[1])
+                .addValue("toId", after.isEmpty() ? Long.MAX_VALUE : after.get(0))
+                .addValue("checkpointAt", checkpointAt);
+        String window = "id > :fromId AND id <= :toId AND transaction_date <= :asOf" +
+                (checkpointAt != null ? " AND transaction_date > :checkpointAt" : "");
+        long[] replay = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), COALESCE(SUM(delta), 0) FROM (" +
+                "SELECT amount AS delta FROM transactions WHERE to_account_id = :accountId AND " + window +
+                " UNION ALL " +
+                "SELECT -amount AS delta FROM transactions WHERE from_account_id = :accountId AND " + window +
+                ") replay",
+                params, (rs, rowNum) -> new long[] { rs.getLong(1), toCents(rs.getBigDecimal(2)) });
+
+        long balance = (before.isEmpty() ? 0 : (long) before.get(0)[2]) + replay[1];
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accountId", accountId);
+        response.put("asOf", asOf);
+        response.put("balance", Money.ofCents(balance));
+        response.put("checkpointAt", checkpointAt != null ? checkpointAt.toLocalDateTime() : null);
+        response.put("replayedPostings", replay[0]);
+        return response;
+    }
+
+    // No posting of the account has been folded yet, so the few it has are replayed back from the
+    // current balance
+    private Map<String, Object> balanceBackwards(Long accountId, LocalDateTime asOf, MapSqlParameterSource params) {
+        long[] current = jdbcTemplate.queryForObject(
+                "SELECT a.balance + COALESCE((SELECT SUM(b.balance) FROM account_balance_buckets b WHERE b.account_id = a.id), 0), " +
+                "(SELECT COUNT(*) FROM transactions t WHERE (t.to_account_id = a.id OR t.from_account_id = a.id) AND t.transaction_date > :asOf), " +
+                "COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.to_account_id = a.id AND t.transaction_date > :asOf), 0) - " +
+                "COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.from_account_id = a.id AND t.transaction_date > :asOf), 0) " +
+                "FROM accounts a WHERE a.id = :accountId",
+                params, (rs, rowNum) -> new long[] { toCents(rs.getBigDecimal(1)), rs.getLong(2), toCents(rs.getBigDecimal(3)) });
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accountId", accountId);
+        response.put("asOf", asOf);
+        response.put("balance", Money.ofCents(current[0] - current[2]));
+        response.put("checkpointAt", null);
+        response.put("replayedPostings", current[1]);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.checkpoints.interval-ms:10000}")
+    public void checkpoint() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int current = shard;
+            try {
+                ShardRouter.Scope scope = shardRouter.on(current);
+                try (scope) {
+                    createState();
+                }
+                long total = 0;
+                int folded;
+                do {
+                    folded = shardRouter.inShard(current, false, this::checkpointBatch);
+                    total += folded;
+                } while (folded == batchSize);
+                if (total > 0) {
+                    log.debug("Folded {} postings into balance checkpoints on shard {}", total, current);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Balance checkpoints on shard {} failed, retrying next run", current, e);
+            }
+        }
+    }
+
+    private void createState() {
+        Map<String, Object> name = Map.of("name", STATE_NAME);
+        if (jdbcTemplate.queryForList("SELECT name FROM stats_rollup_state WHERE name = :name", name, String.class).isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO stats_rollup_state (name, last_transaction_id) VALUES (:name, 0)", name);
+            } catch (DuplicateKeyException e) {
+                // Another instance created it first
+            }
+        }
+    }
+
+    // Folds the next batch of settled postings into the heads and cuts the checkpoints that fall due;
+    // the state row lock keeps concurrent instances from folding the same batch twice
+    private int checkpointBatch() {
+        Map<String, Object> name = Map.of("name", STATE_NAME);
+        List<Long> state = jdbcTemplate.queryForList(
+                "SELECT last_transaction_id FROM stats_rollup_state WHERE name = :name FOR UPDATE", name, Long.class);
+        if (state.isEmpty()) {
+            return 0;
+        }
+        // Same settle window as the stats rollup: a lower id may still belong to an uncommitted transaction
+        Timestamp settledBefore = Timestamp.valueOf(LocalDateTime.now().minusSeconds(settleSeconds));
+        List<Posting> postings = new ArrayList<>();
+        boolean[] unsettled = { false };
+        jdbcTemplate.query(
+                "SELECT id, from_account_id, to_account_id, amount, transaction_date FROM transactions " +
+                "WHERE id > :from ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("from", state.get(0)).addValue("limit", batchSize),
+                rs -> {
+                    Timestamp postedAt = rs.getTimestamp(5);
+                    if (unsettled[0] || !postedAt.before(settledBefore)) {
+                        unsettled[0] = true;
+                        return;
+                    }
+                    long fromAccount = rs.getLong(2);
+                    boolean hasFrom = !rs.wasNull();
+                    long toAccount = rs.getLong(3);
+                    boolean hasTo = !rs.wasNull();
+                    postings.add(new Posting(rs.getLong(1), hasFrom ? fromAccount : null, hasTo ? toAccount : null,
+                            toCents(rs.getBigDecimal(4)), postedAt.toLocalDateTime()));
+                });
+        if (postings.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Head> heads = loadHeads(postings);
+        List<Cut> cuts = new ArrayList<>();
+        heads.values().forEach(head -> cuts.addAll(head.cuts));
+        List<MapSqlParameterSource> lateAdjustments = new ArrayList<>();
+        for (Posting posting : postings) {
+            if (posting.toAccount != null) {
+                fold(heads.get(posting.toAccount), posting, posting.cents, cuts, lateAdjustments);
+            }
+            if (posting.fromAccount != null) {
+                fold(heads.get(posting.fromAccount), posting, -posting.cents, cuts, lateAdjustments);
+            }
+        }
+
+        // Checkpoints cut in this batch already include their late postings, so adjust before inserting
+        if (!lateAdjustments.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE balance_checkpoints SET balance = balance + :delta, replay_to_id = GREATEST(replay_to_id, :transactionId) " +
+                    "WHERE account_id = :accountId AND checkpoint_at >= :postedAt",
+                    lateAdjustments.toArray(new SqlParameterSource[0]));
+        }
+        if (!cuts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO balance_checkpoints (account_id, checkpoint_at, transaction_id, replay_to_id, balance) " +
+                    "VALUES (:accountId, :checkpointAt, :transactionId, :replayToId, :balance)",
+                    cuts.stream().map(Cut::params).toArray(SqlParameterSource[]::new));
+        }
+        saveHeads(heads.values());
+
+        long last = postings.get(postings.size() - 1).id;
+        jdbcTemplate.update("UPDATE stats_rollup_state SET last_transaction_id = :last WHERE name = :name",
+                new MapSqlParameterSource("last", last).addValue("name", STATE_NAME));
+        // A partial batch means the tail is unsettled or exhausted; wait for the next run either way
+        return unsettled[0] ? 0 : postings.size();
+    }
+
+    private void fold(Head head, Posting posting, long delta, List<Cut> cuts, List<MapSqlParameterSource> lateAdjustments) {
+        if (head.postings > 0 && (head.postings >= everyPostings
+                || posting.postedAt.toLocalDate().isAfter(head.lastPostedAt.toLocalDate()))) {
+            Cut cut = new Cut(head.accountId, head.lastPostedAt, head.lastTransactionId, head.balance);
+            cuts.add(cut);
+            head.cuts.add(cut);
+            head.checkpointAt = head.lastPostedAt;
+            head.postings = 0;
+        }
+        if (head.checkpointAt != null && !posting.postedAt.isAfter(head.checkpointAt)) {
+            // Dated at or before checkpoints that are already cut
+            for (Cut cut : head.cuts) {
+                if (!cut.checkpointAt.isBefore(posting.postedAt)) {
+                    cut.balance += delta;
+                    cut.replayToId = Math.max(cut.replayToId, posting.id);
+                }
+            }
+            lateAdjustments.add(new MapSqlParameterSource("delta", BigDecimal.valueOf(delta, 2))
+                    .addValue("transactionId", posting.id)
+                    .addValue("accountId", head.accountId)
+                    .addValue("postedAt", Timestamp.valueOf(posting.postedAt)));
+        }
+        head.balance += delta;
+        head.lastTransactionId = posting.id;
+        if (head.lastPostedAt == null || posting.postedAt.isAfter(head.lastPostedAt)) {
+            head.lastPostedAt = posting.postedAt;
+        }
+        head.postings++;
+    }
+
+    private Map<Long, Head> loadHeads(List<Posting> postings) {
+        Map<Long, Head> heads = new HashMap<>();
+        for (Posting posting : postings) {
+            if (posting.fromAccount != null) {
+                heads.computeIfAbsent(posting.fromAccount, Head::new);
+            }
+            if (posting.toAccount != null) {
+                heads.computeIfAbsent(posting.toAccount, Head::new);
+            }
+        }
+        List<Long> accountIds = new ArrayList<>(heads.keySet());
+        for (int i = 0; i < accountIds.size(); i += IN_LIST_SIZE) {
+            List<Long> chunk = accountIds.subList(i, Math.min(i + IN_LIST_SIZE, accountIds.size()));
+            jdbcTemplate.query(
+                    "SELECT account_id, balance, last_transaction_id, last_posted_at, postings, checkpoint_at " +
+                    "FROM balance_checkpoint_heads WHERE account_id IN (:ids)",
+                    Map.of("ids", chunk),
+                    rs -> {
+                        Head head = heads.get(rs.getLong(1));
+                        head.stored = true;
+                        head.balance = toCents(rs.getBigDecimal(2));
+                        head.lastTransactionId = rs.getLong(3);
+                        head.lastPostedAt = rs.getTimestamp(4).toLocalDateTime();
+                        head.postings = rs.getInt(5);
+                        Timestamp checkpointAt = rs.getTimestamp(6);
+                        head.checkpointAt = checkpointAt != null ? checkpointAt.toLocalDateTime() : null;
+                    });
+        }
+
+        List<Long> opening = heads.values().stream().filter(head -> !head.stored).map(head -> head.accountId).toList();
+        for (int i = 0; i < opening.size(); i += IN_LIST_SIZE) {
+            openHeads(heads, opening.subList(i, Math.min(i + IN_LIST_SIZE, opening.size())));
+        }
+        return heads;
+    }
+
+    // First fold for these accounts: none of their postings is in a checkpoint yet, so the opening balance
+    // is what the current balance holds beyond the sum of all their committed postings
+    private void openHeads(Map<Long, Head> heads, List<Long> accountIds) {
+        jdbcTemplate.query(
+                "SELECT a.id, a.created_at, " +
+                "a.balance + COALESCE((SELECT SUM(b.balance) FROM account_balance_buckets b WHERE b.account_id = a.id), 0) - " +
+                "COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.to_account_id = a.id), 0) + " +
+                "COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.from_account_id = a.id), 0), " +
+                "(SELECT MIN(t.transaction_date) FROM transactions t WHERE t.to_account_id = a.id), " +
+                "(SELECT MIN(t.transaction_date) FROM transactions t WHERE t.from_account_id = a.id) " +
+                "FROM accounts a WHERE a.id IN (:ids)",
+                Map.of("ids", accountIds),
+                rs -> {
+                    Head head = heads.get(rs.getLong(1));
+                    // Opened when the account was created, or just before its first posting if that is dated earlier
+                    LocalDateTime openedAt = earliest(rs.getTimestamp(2), rs.getTimestamp(4), rs.getTimestamp(5));
+                    if (openedAt == null) {
+                        return;
+                    }
+                    LocalDateTime checkpointAt = openedAt.minusSeconds(1);
+                    head.balance = toCents(rs.getBigDecimal(3));
+                    Cut cut = new Cut(head.accountId, checkpointAt, 0, head.balance);
+                    head.cuts.add(cut);
+                    head.checkpointAt = checkpointAt;
+                });
+    }
+
+    private void saveHeads(Iterable<Head> heads) {
+        List<SqlParameterSource> updates = new ArrayList<>();
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        for (Head head : heads) {
+            MapSqlParameterSource params = new MapSqlParameterSource("accountId", head.accountId)
+                    .addValue("balance", BigDecimal.valueOf(head.balance, 2))
+                    .addValue("lastTransactionId", head.lastTransactionId)
+                    .addValue("lastPostedAt", Timestamp.valueOf(head.lastPostedAt))
+                    .addValue("postings", head.postings)
+                    .addValue("checkpointAt", head.checkpointAt != null ? Timestamp.valueOf(head.checkpointAt) : null);
+            (head.stored ? updates : inserts).add(params);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE balance_checkpoint_heads SET balance = :balance, last_transaction_id = :lastTransactionId, " +
+                    "last_posted_at = :lastPostedAt, postings = :postings, checkpoint_at = :checkpointAt WHERE account_id = :accountId",
+                    updates.toArray(new SqlParameterSource[0]));
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO balance_checkpoint_heads (account_id, balance, last_transaction_id, last_posted_at, postings, checkpoint_at) " +
+                    "VALUES (:accountId, :balance, :lastTransactionId, :lastPostedAt, :postings, :checkpointAt)",
+                    inserts.toArray(new SqlParameterSource[0]));
+        }
+    }
+
+    private static LocalDateTime earliest(Timestamp... times) {
+        LocalDateTime earliest = null;
+        for (Timestamp time : times) {
+            if (time != null && (earliest == null || time.toLocalDateTime().isBefore(earliest))) {
+                earliest = time.toLocalDateTime();
+            }
+        }
+        return earliest;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private record Posting(long id, Long fromAccount, Long toAccount, long cents, LocalDateTime postedAt) {}
+
+    private static final class Head {
+        final long accountId;
+        // Checkpoints cut from this head in the current batch, not yet inserted
+        final List<Cut> cuts = new ArrayList<>();
+        boolean stored;
+        long balance;
+        long lastTransactionId;
+        LocalDateTime lastPostedAt;
+        int postings;
+        LocalDateTime checkpointAt;
+
+        Head(long accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    private static final class Cut {
+        final long accountId;
+        final LocalDateTime checkpointAt;
+        final long transactionId;
+        long replayToId;
+        long balance;
+
+        Cut(long accountId, LocalDateTime checkpointAt, long transactionId, long balance) {
+            this.accountId = accountId;
+            this.checkpointAt = checkpointAt;
+            this.transactionId = transactionId;
+            this.replayToId = transactionId;
+            this.balance = balance;
+        }
+
+        MapSqlParameterSource params() {
+            return new MapSqlParameterSource("accountId", accountId)
+                    .addValue("checkpointAt", Timestamp.valueOf(checkpointAt))
+                    .addValue("transactionId", transactionId)
+                    .addValue("replayToId", replayToId)
+                    .addValue("balance", BigDecimal.valueOf(balance, 2));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bank.service;
+
+import java.math.BigDecimal;
+
+public interface BulkOperationService {
+    BackgroundJob creditAllAccounts(BigDecimal amount, String accountType, String description);
+    BackgroundJob resetDemoData();
+}
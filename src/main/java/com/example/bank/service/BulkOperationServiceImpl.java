@@ -0,0 +1,246 @@
+package com.example.bank.service;
+
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class BulkOperationServiceImpl implements BulkOperationService {
+
+    // Child tables first so foreign keys never block a chunk
+    private static final List<String> RESET_TABLES = List.of("user_activity", "outbox_events", "account_daily_stats", "user_daily_stats", "balance_checkpoints", "balance_checkpoint_heads", "interest_run_chunks", "standing_orders", "account_balance_buckets", "transfer_saga_credits", "transfer_sagas", "holds", "transactions", "payouts", "accounts", "users");
+    // Tables keyed by something other than id; the chunked delete walks this column instead
+    private static final Map<String, String> KEY_COLUMNS = Map.of(
+            "balance_checkpoint_heads", "account_id",
+            "transfer_saga_credits", "saga_id");
+    private static final String SEED_SCRIPT = "demo-seed.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final BackgroundJobRunner jobRunner;
+    private final UserActivityFeed userActivityFeed;
+    private final TransactionOutbox transactionOutbox;
+    private final AccountDirectory accountDirectory;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public BulkOperationServiceImpl(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  DataSource dataSource,
+                                  BackgroundJobRunner jobRunner,
+                                  UserActivityFeed userActivityFeed,
+                                  TransactionOutbox transactionOutbox,
+                                  AccountDirectory accountDirectory,
+                                  ShardRouter shardRouter,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${bank.bulk.chunk-size:10000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+        this.jobRunner = jobRunner;
+        this.userActivityFeed = userActivityFeed;
+        this.transactionOutbox = transactionOutbox;
+        this.accountDirectory = accountDirectory;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BackgroundJob creditAllAccounts(BigDecimal amount, String accountType, String description) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ApiException("Credit amount must be greater than zero");
+        }
+        // Refused rather than rounded, like every other amount
+        Money credit = Money.of(amount);
+        if (!credit.fitsColumn()) {
+            throw new ApiException("Credit amount exceeds the balance limit");
+        }
+        String filter = accountType != null && !accountType.isBlank() ? accountType.trim().toUpperCase() : null;
+        String creditDescription = description != null ? description : "Demo money deposit";
+
+        return jobRunner.submit("BULK_CREDIT", job -> runBulkCredit(job, credit.toBigDecimal(), filter, creditDescription));
+    }
+
+    @Override
+    public BackgroundJob resetDemoData() {
+        return jobRunner.submit("RESET_DEMO_DATA", this::runReset);
+    }
+
+    // Shard by shard; each chunk commits on its own shard
+    private void runBulkCredit(BackgroundJob job, BigDecimal amount, String accountType, String description) {
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                Long count = accountType != null
+                        ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts WHERE account_type = ?", Long.class, accountType)
+                        : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts", Long.class);
+                total += count != null ? count : 0;
+            }
+        }
+        job.setTotal(total);
+        if (total == 0) {
+            job.setMessage("No accounts to credit");
+            return;
+        }
+
+        // One timestamp for the whole run so every posting of the job can be found together
+        Timestamp postedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                if (!creditShard(job, amount, accountType, description, postedAt)) {
+                    job.setMessage("Cancelled after crediting " + job.getProcessed() + " accounts");
+                    return;
+                }
+            }
+        }
+        job.setMessage("Credited " + job.getProcessed() + " accounts with $" + amount);
+    }
+
+    // Returns false when the job was cancelled
+    private boolean creditShard(BackgroundJob job, BigDecimal amount, String accountType, String description, Timestamp postedAt) {
+        long[] idRange = idRange("accounts", "id");
+        if (idRange == null) {
+            return true;
+        }
+        String typeClause = accountType != null ? " AND account_type = ?" : "";
+        String updateSql = "UPDATE accounts SET balance = balance + ? WHERE id BETWEEN ? AND ?" + typeClause +
+                " AND balance <= ? - ?";
+        String insertSql = "INSERT INTO transactions (from_account_id, to_account_id, amount, transaction_type, " +
+                "description, transaction_date, status, posting_batch) " +
+                "SELECT NULL, id, ?, 'DEPOSIT', ?, ?, 'COMPLETED', ? FROM accounts WHERE id BETWEEN ? AND ?" + typeClause;
+
+        for (long low = idRange[0]; low <= idRange[1]; low += chunkSize) {
+            if (job.isCancelRequested()) {
+                return false;
+            }
+            long high = Math.min(low + chunkSize - 1, idRange[1]);
+            long batch = UserActivityFeed.newPostingBatch();
+
+            List<Object> updateArgs = chunkArgs(List.of(amount), low, high, accountType);
+            updateArgs.add(Money.COLUMN_MAX.toBigDecimal());
+            updateArgs.add(amount);
+            List<Object> insertArgs = chunkArgs(List.of(amount, description, postedAt, batch), low, high, accountType);
+            long first = low;
+
+            Integer credited = transactionTemplate.execute(status -> {
+                int updated = jdbcTemplate.update(updateSql, updateArgs.toArray());
+                int posted = jdbcTemplate.update(insertSql, insertArgs.toArray());
+                // An account the range guard skipped would get a posting without the money; fail the chunk instead
+                if (updated != posted) {
+                    throw new ApiException((posted - updated) + " accounts between ids " + first + " and " + high
+                            + " cannot take the credit without exceeding the balance limit");
+                }
+                userActivityFeed.recordBatch(batch);
+                transactionOutbox.appendBatch(batch);
+                return updated;
+            });
+            job.addProcessed(credited != null ? credited : 0);
+        }
+        return true;
+    }
+
+    // Every shard is cleared; the seed goes to shard 0
+    private void runReset(BackgroundJob job) {
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                for (String table : RESET_TABLES) {
+                    Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+                    total += rows != null ? rows : 0;
+                }
+            }
+        }
+        job.setTotal(total);
+
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                if (!clearShard(job)) {
+                    return;
+                }
+            }
+        }
+
+        ShardRouter.Scope seedShard = shardRouter.on(0);
+        try (seedShard) {
+            transactionTemplate.executeWithoutResult(status ->
+                    new ResourceDatabasePopulator(new ClassPathResource(SEED_SCRIPT)).execute(dataSource));
+        }
+        userActivityFeed.backfill();
+        // Drops the numbers of the deleted accounts and any remembered misses; the seed's accounts are read back
+        accountDirectory.reload();
+        eventPublisher.publishEvent(new DemoDataResetEvent(LocalDateTime.now()));
+        job.setMessage("Demo data reset and reloaded");
+    }
+
+    // Returns false when the job was cancelled
+    private boolean clearShard(BackgroundJob job) {
+        for (String table : RESET_TABLES) {
+            String keyColumn = KEY_COLUMNS.getOrDefault(table, "id");
+            long[] idRange = idRange(table, keyColumn);
+            if (idRange == null) {
+                continue;
+            }
+            String deleteSql = "DELETE FROM " + table + " WHERE " + keyColumn + " BETWEEN ? AND ?";
+            for (long low = idRange[0]; low <= idRange[1]; low += chunkSize) {
+                if (job.isCancelRequested()) {
+                    job.setMessage("Cancelled while clearing " + table + "; demo data was not reloaded");
+                    return false;
+                }
+                Object[] bounds = { low, Math.min(low + chunkSize - 1, idRange[1]) };
+                Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(deleteSql, bounds));
+                job.addProcessed(deleted != null ? deleted : 0);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM interest_runs");
+            jdbcTemplate.update("DELETE FROM stats_rollup_state");
+        });
+        return true;
+    }
+
+    private long[] idRange(String table, String keyColumn) {
+        return jdbcTemplate.query("SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM " + table, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            long min = rs.getLong(1);
+            if (rs.wasNull()) {
+                return null;
+            }
+            return new long[] { min, rs.getLong(2) };
+        });
+    }
+
+    private List<Object> chunkArgs(List<Object> leading, long low, long high, String accountType) {
+        List<Object> args = new ArrayList<>(leading);
+        args.add(low);
+        args.add(high);
+        if (accountType != null) {
+            args.add(accountType);
+        }
+        return args;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.bank.service;
+
+import com.example.bank.config.ShardingProperties;
+import com.example.bank.event.CrossShardTransferStartedEvent;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.example.bank.model.TransferSaga;
+import com.example.bank.model.TransferSagaCredit;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.TransferSagaCreditRepository;
+import com.example.bank.repository.TransferSagaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Transfers between accounts on different shards, run as a saga kept on the source shard:
+//  1. in the caller's transaction on the source shard: the debit, a PENDING posting and the saga row
+//  2. after that commits, on the target shard: the credit, its posting and a transfer_saga_credits
+//     row keyed by the saga id, which makes the step safe to repeat
+//  3. back on the source shard: the saga and its debit posting become COMPLETED
+// If the target shard refuses the credit (account missing, balance limit) the debit is refunded with
+// a reversal posting instead. Sagas left PENDING by a crash or an unreachable shard are picked up by
+// resumePending until they end one way or the other.
+@Component
+public class CrossShardTransfers {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossShardTransfers.class);
+
+    private final ShardRouter shardRouter;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferSagaRepository sagaRepository;
+    private final TransferSagaCreditRepository creditRepository;
+    private final StripedBalanceService stripedBalanceService;
+    private final HoldIndex holdIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long retryDelayMillis;
+
+    public CrossShardTransfers(ShardRouter shardRouter,
+                               AccountRepository accountRepository,
+                               TransactionRepository transactionRepository,
+                               TransferSagaRepository sagaRepository,
+                               TransferSagaCreditRepository creditRepository,
+                               StripedBalanceService stripedBalanceService,
+                               HoldIndex holdIndex,
+                               ApplicationEventPublisher eventPublisher,
+                               ShardingProperties properties) {
+        this.shardRouter = shardRouter;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.sagaRepository = sagaRepository;
+        this.creditRepository = creditRepository;
+        this.stripedBalanceService = stripedBalanceService;
+        this.holdIndex = holdIndex;
+        this.eventPublisher = eventPublisher;
+        this.retryDelayMillis = properties.getSagaRetryDelayMs();
+    }
+
+    // Step 1; runs in the caller's transaction, which must be on the source account's shard
+    public Transaction begin(Account fromAccount, Long toAccountId, Money amount, String description) {
+        String targetNumber = shardRouter.inShard(shardRouter.shardOfId(toAccountId), true, () ->
+                accountRepository.findById(toAccountId).map(Account::getAccountNumber).orElse(null));
+        if (targetNumber == null) {
+            throw new ApiException("Account not found");
+        }
+
+        stripedBalanceService.prepareDebit(fromAccount);
+        if (holdIndex.available(fromAccount).isLessThan(amount)) {
+            throw new ApiException("Insufficient balance in account " + fromAccount.getAccountNumber());
+        }
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+
+        String text = description != null ? description : "Fund transfer";
+        Transaction debit = new Transaction();
+        debit.setFromAccount(fromAccount);
+        debit.setAmount(amount);
+        debit.setTransactionType("TRANSFER");
+        debit.setDescription(text + " (to " + targetNumber + ")");
+        debit.setStatus("PENDING");
+        transactionRepository.save(debit);
+
+        TransferSaga saga = new TransferSaga();
+        saga.setSourceAccountId(fromAccount.getId());
+        saga.setTargetAccountId(toAccountId);
+        saga.setAmount(amount);
+        saga.setDescription(text + " (from " + fromAccount.getAccountNumber() + ")");
+        saga.setDebitTransactionId(debit.getId());
+        sagaRepository.save(saga);
+
+        eventPublisher.publishEvent(new CrossShardTransferStartedEvent(saga.getId()));
+        return debit;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransferStarted(CrossShardTransferStartedEvent event) {
+        advance(event.getSagaId());
+    }
+
+    @Scheduled(fixedDelayString = "${bank.sharding.saga-retry-interval-ms:5000}")
+    public void resumePending() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusNanos(retryDelayMillis * 1_000_000);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            try {
+                List<Long> sagaIds = shardRouter.inShard(shard, true, () ->
+                        sagaRepository.findIdsByStatusUpdatedBefore("PENDING", before));
+                sagaIds.forEach(this::advance);
+            } catch (RuntimeException e) {
+                log.warn("Could not resume transfer sagas on shard {}", shard, e);
+            }
+        }
+    }
+
+    // Steps 2 and 3, or the refund; a saga that hits an unreachable shard stays PENDING for the retry
+    public void advance(Long sagaId) {
+        int sourceShard = shardRouter.shardOfId(sagaId);
+        try {
+            TransferSaga saga = shardRouter.inShard(sourceShard, true, () -> sagaRepository.findById(sagaId).orElse(null));
+            if (saga == null || !"PENDING".equals(saga.getStatus())) {
+                return;
+            }
+            Long creditTransactionId;
+            try {
+                creditTransactionId = shardRouter.inShard(shardRouter.shardOfId(saga.getTargetAccountId()), false,
+                        () -> credit(saga));
+            } catch (ApiException e) {
+                // Refused and rolled back on the target shard, so the money never arrived there
+                shardRouter.inShard(sourceShard, false, () -> compensate(sagaId, e.getMessage()));
+                return;
+            }
+            shardRouter.inShard(sourceShard, false, () -> complete(sagaId, creditTransactionId));
+        } catch (RuntimeException e) {
+            log.warn("Transfer saga {} stays pending and will be retried", sagaId, e);
+            try {
+                shardRouter.inShard(sourceShard, false, () -> recordFailure(sagaId, e.getMessage()));
+            } catch (RuntimeException ignored) {
+                // The source shard is unreachable too; the retry finds the saga unchanged
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shards", shardRouter.getShardCount());
+        long pending = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            pending += shardRouter.inShard(shard, true, () -> sagaRepository.countByStatus("PENDING"));
+        }
+        stats.put("pendingSagas", pending);
+        return stats;
+    }
+
+    private Long credit(TransferSaga saga) {
+        Optional<TransferSagaCredit> applied = creditRepository.findById(saga.getId());
+        if (applied.isPresent()) {
+            return applied.get().getCreditTransactionId();
+        }
+        Account toAccount = accountRepository.findByIdForUpdate(saga.getTargetAccountId())
+                .orElseThrow(() -> new ApiException("Account not found"));
+        stripedBalanceService.credit(toAccount, saga.getAmount());
+
+        Transaction posting = new Transaction();
+        posting.setToAccount(toAccount);
+        posting.setAmount(saga.getAmount());
+        posting.setTransactionType("TRANSFER");
+        posting.setDescription(saga.getDescription());
+        posting.setStatus("COMPLETED");
+        transactionRepository.save(posting);
+        creditRepository.save(new TransferSagaCredit(saga.getId(), posting.getId()));
+        return posting.getId();
+    }
+
+    private TransferSaga complete(Long sagaId, Long creditTransactionId) {
+        TransferSaga saga = sagaRepository.findByIdForUpdate(sagaId).orElseThrow();
+        if ("PENDING".equals(saga.getStatus())) {
+            saga.setCreditTransactionId(creditTransactionId);
+            finish(saga, "COMPLETED", "COMPLETED", null);
+        }
+        return saga;
+    }
+
+    private TransferSaga compensate(Long sagaId, String reason) {
+        TransferSaga saga = sagaRepository.findByIdForUpdate(sagaId).orElseThrow();
+        if (!"PENDING".equals(saga.getStatus())) {
+            return saga;
+        }
+        Account fromAccount = accountRepository.findByIdForUpdate(saga.getSourceAccountId())
+                .orElseThrow(() -> new ApiException("Account not found"));
+        stripedBalanceService.credit(fromAccount, saga.getAmount());
+
+        Transaction reversal = new Transaction();
+        reversal.setToAccount(fromAccount);
+        reversal.setAmount(saga.getAmount());
+        reversal.setTransactionType("TRANSFER");
+        reversal.setDescription("Reversal of transfer " + saga.getDebitTransactionId() + ": " + reason);
+        reversal.setStatus("COMPLETED");
+        transactionRepository.save(reversal);
+        finish(saga, "COMPENSATED", "REVERSED", reason);
+        return saga;
+    }
+
+    private void finish(TransferSaga saga, String sagaStatus, String debitStatus, String reason) {
+        saga.setStatus(sagaStatus);
+        saga.setLastError(truncate(reason));
+        saga.setUpdatedAt(LocalDateTime.now());
+        transactionRepository.findById(saga.getDebitTransactionId()).ifPresent(debit -> {
+            debit.setStatus(debitStatus);
+            transactionRepository.resequence(debit.getId());
+        });
+    }
+
+    private TransferSaga recordFailure(Long sagaId, String error) {
+        TransferSaga saga = sagaRepository.findByIdForUpdate(sagaId).orElseThrow();
+        if ("PENDING".equals(saga.getStatus())) {
+            saga.setAttempts(saga.getAttempts() + 1);
+            saga.setLastError(truncate(error));
+            saga.setUpdatedAt(LocalDateTime.now());
+        }
+        return saga;
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bank.service;
+
+import com.example.bank.event.HoldChangedEvent;
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.util.TimingWheel;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Active holds kept in memory: the held total per account, so the available-balance check on the
+// debit path is a map lookup, and a timing wheel (1s / 1min / 1h levels) of expiry deadlines that
+// HoldServiceImpl drains every second. A placed hold is added before its transaction commits, while
+// the account row is still locked, so the next hold or debit on the account already sees it; it is
+// taken out again if the commit fails. Captured, released and expired holds leave after commit.
+@Component
+public class HoldIndex {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final Map<Long, ActiveHold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Long> heldCents = new ConcurrentHashMap<>();
+    // Both guarded by the wheel
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis(), 60, 60, 24);
+    private final List<Long> overdue = new ArrayList<>();
+
+    public Money heldAmount(Long accountId) {
+        Long cents = heldCents.get(accountId);
+        return cents != null ? Money.ofCents(cents) : Money.ZERO;
+    }
+
+    // Ledger balance minus active holds
+    public Money available(Account account) {
+        return account.getBalance().minus(heldAmount(account.getId()));
+    }
+
+    public void add(Long holdId, Long accountId, Money amount, LocalDateTime expiresAt) {
+        if (holds.putIfAbsent(holdId, new ActiveHold(accountId, amount.getCents())) != null) {
+            return;
+        }
+        heldCents.merge(accountId, amount.getCents(), Long::sum);
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            if (!wheel.schedule(deadline, holdId)) {
+                overdue.add(holdId);
+            }
+        }
+    }
+
+    public void remove(Long holdId) {
+        ActiveHold hold = holds.remove(holdId);
+        if (hold != null) {
+            heldCents.computeIfPresent(hold.accountId, (accountId, cents) -> cents == hold.cents ? null : cents - hold.cents);
+        }
+    }
+
+    // Active holds whose deadline has passed
+    public List<Long> pollExpired(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        synchronized (wheel) {
+            expired.addAll(overdue);
+            overdue.clear();
+            wheel.advance(nowMillis, expired::add);
+        }
+        expired.removeIf(holdId -> !holds.containsKey(holdId));
+        return expired;
+    }
+
+    // Forgets every hold; expiry entries still on the wheel are dropped when they come due
+    public void clear() {
+        synchronized (wheel) {
+            holds.clear();
+            heldCents.clear();
+            overdue.clear();
+        }
+    }
+
+    // Offered again on the next poll, e.g. after the expiry could not be written
+    public void retryLater(Long holdId) {
+        synchronized (wheel) {
+            overdue.add(holdId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeHolds", holds.size());
+        stats.put("accountsWithHolds", heldCents.size());
+        synchronized (wheel) {
+            stats.put("pendingExpiries", wheel.size() + overdue.size());
+        }
+        return stats;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onHoldPlaced(HoldChangedEvent event) {
+        if (event.isActive()) {
+            add(event.getHoldId(), event.getAccountId(), event.getAmount(), event.getExpiresAt());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onHoldRolledBack(HoldChangedEvent event) {
+        if (event.isActive()) {
+            remove(event.getHoldId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHoldFinished(HoldChangedEvent event) {
+        if (!event.isActive()) {
+            remove(event.getHoldId());
+        }
+    }
+
+    private static final class ActiveHold {
+        final long accountId;
+        final long cents;
+
+        ActiveHold(long accountId, long cents) {
+            this.accountId = accountId;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.HoldRequest;
+import com.example.bank.model.Hold;
+import com.example.bank.model.Money;
+
+import java.util.List;
+
+public interface HoldService {
+    Hold placeHold(HoldRequest request);
+    Hold captureHold(Long holdId, Money amount);
+    Hold releaseHold(Long holdId);
+    Hold getHold(Long holdId);
+    List<Hold> getActiveHolds(Long accountId);
+}
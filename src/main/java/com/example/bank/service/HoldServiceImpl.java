@@ -0,0 +1,210 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.HoldRequest;
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.event.HoldChangedEvent;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.model.Hold;
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.HoldRepository;
+import com.example.bank.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class HoldServiceImpl implements HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldServiceImpl.class);
+
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final StripedBalanceService stripedBalanceService;
+    private final HoldIndex holdIndex;
+    private final VelocityEngine velocityEngine;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultTtlMinutes;
+    private final int maxTtlMinutes;
+
+    public HoldServiceImpl(HoldRepository holdRepository,
+                           AccountRepository accountRepository,
+                           TransactionRepository transactionRepository,
+                           StripedBalanceService stripedBalanceService,
+                           HoldIndex holdIndex,
+                           VelocityEngine velocityEngine,
+                           ShardRouter shardRouter,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${bank.holds.default-ttl-minutes:10080}") int defaultTtlMinutes,
+                           @Value("${bank.holds.max-ttl-minutes:43200}") int maxTtlMinutes) {
+        this.holdRepository = holdRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.stripedBalanceService = stripedBalanceService;
+        this.holdIndex = holdIndex;
+        this.velocityEngine = velocityEngine;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.defaultTtlMinutes = defaultTtlMinutes;
+        this.maxTtlMinutes = maxTtlMinutes;
+    }
+
+    // Holds that expired while the application was down are expired on the first tick
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        List<Hold> active = shardRouter.gather(() -> holdRepository.findByStatus("ACTIVE"));
+        for (Hold hold : active) {
+            holdIndex.add(hold.getId(), hold.getAccountId(), hold.getAmount(), hold.getExpiresAt());
+        }
+        log.info("Loaded {} active holds", active.size());
+    }
+
+    @EventListener(DemoDataResetEvent.class)
+    public void onDemoDataReset() {
+        holdIndex.clear();
+        loadActiveHolds();
+    }
+
+    @Override
+    @Transactional
+    public Hold placeHold(HoldRequest request) {
+        if (request.getAccountId() == null) {
+            throw new ApiException("Account ID cannot be null");
+        }
+        if (request.getAmount() == null || !request.getAmount().isPositive()) {
+            throw new ApiException("Hold amount must be greater than zero");
+        }
+        int ttlMinutes = request.getExpiresInMinutes() != null ? request.getExpiresInMinutes() : defaultTtlMinutes;
+        if (ttlMinutes <= 0 || ttlMinutes > maxTtlMinutes) {
+            throw new ApiException("Holds expire after 1 to " + maxTtlMinutes + " minutes");
+        }
+
+        // The row lock serializes holds on the account until the index has this one
+        Account account = accountRepository.findByIdForUpdate(request.getAccountId())
+                .orElseThrow(() -> new ApiException("Account not found"));
+        stripedBalanceService.prepareDebit(account);
+        if (holdIndex.available(account).isLessThan(request.getAmount())) {
+            throw new ApiException("Insufficient available balance in account " + account.getAccountNumber());
+        }
+
+        Hold hold = new Hold();
+        hold.setAccountId(account.getId());
+        hold.setAmount(request.getAmount());
+        hold.setDescription(request.getDescription());
+        hold.setExpiresAt(hold.getCreatedAt().plusMinutes(ttlMinutes));
+        holdRepository.save(hold);
+        eventPublisher.publishEvent(HoldChangedEvent.of(hold));
+        return hold;
+    }
+
+    // Settles up to the held amount; whatever is not captured is released with the hold
+    @Override
+    @Transactional
+    public Hold captureHold(Long holdId, Money amount) {
+        Hold hold = activeHold(holdId);
+        Money captured = amount != null ? amount : hold.getAmount();
+        if (!captured.isPositive()) {
+            throw new ApiException("Capture amount must be greater than zero");
+        }
+        if (hold.getAmount().isLessThan(captured)) {
+            throw new ApiException("Capture exceeds the held amount of " + hold.getAmount());
+        }
+
+        Account account = accountRepository.findByIdForUpdate(hold.getAccountId())
+                .orElseThrow(() -> new ApiException("Account not found"));
+        stripedBalanceService.prepareDebit(account);
+        // The money was reserved by the hold itself, so only the ledger balance is checked
+        if (account.getBalance().isLessThan(captured)) {
+            throw new ApiException("Insufficient balance in account " + account.getAccountNumber());
+        }
+        account.setBalance(account.getBalance().minus(captured));
+        // Counts towards the account's velocity windows, but a hold already authorized is not refused
+        velocityEngine.charge(account.getId(), captured);
+
+        Transaction transaction = new Transaction();
+        transaction.setFromAccount(account);
+        transaction.setAmount(captured);
+        transaction.setTransactionType("WITHDRAWAL");
+        transaction.setDescription("Capture of hold #" + hold.getId()
+                + (hold.getDescription() != null ? ": " + hold.getDescription() : ""));
+        transaction.setStatus("COMPLETED");
+        transactionRepository.save(transaction);
+
+        hold.setCapturedAmount(captured);
+        hold.setTransactionId(transaction.getId());
+        return finish(hold, "CAPTURED");
+    }
+
+    @Override
+    @Transactional
+    public Hold releaseHold(Long holdId) {
+        return finish(activeHold(holdId), "RELEASED");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Hold getHold(Long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new ApiException("Hold not found with id: " + holdId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Hold> getActiveHolds(Long accountId) {
+        return holdRepository.findByAccountIdAndStatusOrderByCreatedAtDesc(accountId, "ACTIVE");
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void expireDue() {
+        for (Long holdId : holdIndex.pollExpired(System.currentTimeMillis())) {
+            try {
+                shardRouter.inShard(shardRouter.shardOfId(holdId), false, () -> expire(holdId));
+            } catch (RuntimeException e) {
+                log.warn("Hold {} could not be expired, retrying", holdId, e);
+                holdIndex.retryLater(holdId);
+            }
+        }
+    }
+
+    private Hold expire(Long holdId) {
+        Hold hold = holdRepository.findByIdForUpdate(holdId).orElse(null);
+        if (hold == null || !"ACTIVE".equals(hold.getStatus())) {
+            // Already finished elsewhere; only the index still had it
+            holdIndex.remove(holdId);
+            return hold;
+        }
+        return finish(hold, "EXPIRED");
+    }
+
+    private Hold activeHold(Long holdId) {
+        Hold hold = holdRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new ApiException("Hold not found with id: " + holdId));
+        if (!"ACTIVE".equals(hold.getStatus())) {
+            throw new ApiException("Hold " + holdId + " is " + hold.getStatus());
+        }
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ApiException("Hold " + holdId + " has expired");
+        }
+        return hold;
+    }
+
+    private Hold finish(Hold hold, String status) {
+        hold.setStatus(status);
+        hold.setFinishedAt(LocalDateTime.now());
+        eventPublisher.publishEvent(HoldChangedEvent.of(hold));
+        return hold;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bank.service;
+
+import com.example.bank.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Change-event stream for in-process subscribers. Subscribers run on the relay thread and see every
+// batch in outbox order; with sharding each shard's relay thread calls them, possibly at the same time.
+// One that throws is logged and does not hold back the others.
+@Component
+public class InProcessOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessOutboxSink.class);
+
+    private final List<Consumer<List<OutboxEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Close the returned handle to unsubscribe
+    public AutoCloseable subscribe(Consumer<List<OutboxEvent>> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        List<OutboxEvent> batch = Collections.unmodifiableList(events);
+        for (Consumer<List<OutboxEvent>> subscriber : subscribers) {
+            try {
+                subscriber.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("Outbox subscriber {} failed on events {}..{}", subscriber,
+                        events.get(0).getId(), events.get(events.size() - 1).getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bank.service;
+
+import com.example.bank.model.InterestRun;
+
+import java.time.LocalDate;
+
+public interface InterestAccrualService {
+    BackgroundJob startAccrual(LocalDate runDate);
+    InterestRun getRun(LocalDate runDate);
+}
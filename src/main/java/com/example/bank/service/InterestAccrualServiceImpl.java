@@ -0,0 +1,465 @@
+package com.example.bank.service;
+
+import com.example.bank.config.InterestProperties;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.InterestRun;
+import com.example.bank.model.InterestRunChunk;
+import com.example.bank.repository.InterestRunChunkRepository;
+import com.example.bank.repository.InterestRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Daily interest accrual. Accounts are walked in keyset order and credited in chunks on a
+// worker pool; each chunk commits its postings together with a checkpoint row, so a
+// restarted run skips exactly the chunks that already committed. A run is worked on by one runner at
+// a time: the runner claims the run row with a token and a lease, and every chunk commits only if the
+// run row still carries that token, so a runner that lost its claim cannot post a chunk twice.
+// Every shard keeps its own run row and checkpoints for its own accounts; a runner works each shard
+// it could claim, and the run counts as completed once every shard's row is.
+@Service
+public class InterestAccrualServiceImpl implements InterestAccrualService {
+
+    private static final Logger log = LoggerFactory.getLogger(InterestAccrualServiceImpl.class);
+    private static final String RUNNING = "RUNNING";
+
+    private final InterestProperties properties;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InterestRunRepository runRepository;
+    private final InterestRunChunkRepository chunkRepository;
+    private final BackgroundJobRunner jobRunner;
+    private final UserActivityFeed userActivityFeed;
+    private final TransactionOutbox transactionOutbox;
+    private final ShardRouter shardRouter;
+
+    public InterestAccrualServiceImpl(InterestProperties properties,
+                                    NamedParameterJdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    InterestRunRepository runRepository,
+                                    InterestRunChunkRepository chunkRepository,
+                                    BackgroundJobRunner jobRunner,
+                                    UserActivityFeed userActivityFeed,
+                                    TransactionOutbox transactionOutbox,
+                                    ShardRouter shardRouter) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.jobRunner = jobRunner;
+        this.userActivityFeed = userActivityFeed;
+        this.transactionOutbox = transactionOutbox;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public BackgroundJob startAccrual(LocalDate runDate) {
+        if (runDate == null) {
+            throw new ApiException("Run date cannot be null");
+        }
+        // Shard -> claim token; shards another runner holds are left to it
+        Map<Integer, String> tokens = new LinkedHashMap<>();
+        boolean completed = true;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                String token = claimRun(runDate);
+                if (token != null) {
+                    tokens.put(shard, token);
+                } else if (!runRepository.findById(runDate).map(run -> "COMPLETED".equals(run.getStatus())).orElse(false)) {
+                    completed = false;
+                }
+            }
+        }
+        if (tokens.isEmpty()) {
+            if (completed) {
+                return jobRunner.submit("INTEREST_ACCRUAL",
+                        job -> job.setMessage("Interest for " + runDate + " was already accrued"));
+            }
+            throw new ApiException("Interest run for " + runDate + " is already in progress");
+        }
+        try {
+            return jobRunner.submit("INTEREST_ACCRUAL", job -> {
+                try {
+                    accrue(job, runDate, tokens);
+                } finally {
+                    releaseRuns(runDate, tokens);
+                }
+            });
+        } catch (RuntimeException e) {
+            releaseRuns(runDate, tokens);
+            throw e;
+        }
+    }
+
+    @Override
+    public InterestRun getRun(LocalDate runDate) {
+        List<InterestRun> runs = shardRouter.gather(() -> runRepository.findById(runDate).map(List::of).orElse(List.of()));
+        if (runs.isEmpty()) {
+            throw new ApiException("No interest run for " + runDate);
+        }
+        return combine(runDate, runs);
+    }
+
+    @Scheduled(cron = "${bank.interest.cron:0 30 1 * * *}")
+    public void scheduledAccrual() {
+        try {
+            startAccrual(LocalDate.now());
+        } catch (ApiException e) {
+            log.info("Scheduled interest accrual skipped: {}", e.getMessage());
+        }
+    }
+
+    // Resume runs that were interrupted by a crash or shutdown; runs another node is still working on
+    // keep their claim and are left alone
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        List<LocalDate> runDates = shardRouter.gather(() -> runRepository.findByStatus(RUNNING)).stream()
+                .map(InterestRun::getRunDate)
+                .distinct()
+                .toList();
+        for (LocalDate runDate : runDates) {
+            log.info("Resuming interrupted interest run for {}", runDate);
+            try {
+                startAccrual(runDate);
+            } catch (ApiException e) {
+                log.info("Interest run for {} not resumed: {}", runDate, e.getMessage());
+            }
+        }
+    }
+
+    // Creates the run row, or takes over one that is not completed and whose lease has lapsed. Returns
+    // the claim token, or null when the run is completed or another runner holds it.
+    private String claimRun(LocalDate runDate) {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource("runDate", runDate)
+                .addValue("token", token)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("staleBefore", Timestamp.valueOf(now.minusSeconds(properties.getLeaseSeconds())));
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO interest_runs (run_date, status, started_at, accounts_credited, total_interest, " +
+                    "claim_token, heartbeat_at) VALUES (:runDate, 'RUNNING', :now, 0, 0, :token, :now)", params);
+            return token;
+        } catch (DuplicateKeyException e) {
+            int claimed = jdbcTemplate.update(
+                    "UPDATE interest_runs SET status = 'RUNNING', claim_token = :token, heartbeat_at = :now " +
+                    "WHERE run_date = :runDate AND status <> 'COMPLETED' " +
+                    "AND (claim_token IS NULL OR heartbeat_at IS NULL OR heartbeat_at < :staleBefore)", params);
+            return claimed == 1 ? token : null;
+        }
+    }
+
+    // Cancelled and failed runs stay RUNNING but give up the claim, so they can be rerun right away
+    private void releaseRuns(LocalDate runDate, Map<Integer, String> tokens) {
+        tokens.forEach((shard, token) -> {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                jdbcTemplate.update(
+                        "UPDATE interest_runs SET claim_token = NULL WHERE run_date = :runDate AND claim_token = :token",
+                        new MapSqlParameterSource("runDate", runDate).addValue("token", token));
+            }
+        });
+    }
+
+    private void accrue(BackgroundJob job, LocalDate runDate, Map<Integer, String> tokens) {
+        Map<String, BigDecimal> dailyRates = dailyRates();
+        if (dailyRates.isEmpty()) {
+            finishRuns(runDate, tokens);
+            job.setMessage("No interest rates configured");
+            return;
+        }
+
+        MapSqlParameterSource typeParams = new MapSqlParameterSource("types", new ArrayList<>(dailyRates.keySet()));
+        Map<Integer, List<InterestRunChunk>> completed = new HashMap<>();
+        long eligible = 0;
+        for (int shard : tokens.keySet()) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                Long count = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM accounts WHERE account_type IN (:types)", typeParams, Long.class);
+                eligible += count != null ? count : 0;
+                List<InterestRunChunk> chunks = chunkRepository.findByRunDateOrderByFirstAccountId(runDate);
+                chunks.forEach(chunk -> job.addProcessed(chunk.getAccountsCredited()));
+                completed.put(shard, chunks);
+            }
+        }
+        job.setTotal(eligible);
+
+        Timestamp postedAt = Timestamp.valueOf(LocalDateTime.now());
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getThreads());
+        Semaphore inFlight = new Semaphore(properties.getThreads() * 2);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (Map.Entry<Integer, String> claim : tokens.entrySet()) {
+                ShardRouter.Scope scope = shardRouter.on(claim.getKey());
+                try (scope) {
+                    walk(job, claim.getKey(), runDate, claim.getValue(), typeParams, completed.get(claim.getKey()),
+                            dailyRates, postedAt, workers, inFlight, futures);
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interest accrual interrupted", e);
+        } finally {
+            workers.shutdown();
+        }
+
+        if (job.isCancelRequested()) {
+            job.setMessage("Cancelled; rerun " + runDate + " to resume from the last checkpoint");
+            return;
+        }
+        InterestRun finished = finishRuns(runDate, tokens);
+        job.setResult(finished);
+        job.setMessage("Credited interest of $" + finished.getTotalInterest() + " to "
+                + finished.getAccountsCredited() + " accounts for " + runDate);
+    }
+
+    // Reads the shard's eligible accounts in keyset order and hands them to the workers in chunks
+    private void walk(BackgroundJob job, int shard, LocalDate runDate, String token, MapSqlParameterSource typeParams,
+                      List<InterestRunChunk> completed, Map<String, BigDecimal> dailyRates, Timestamp postedAt,
+                      ExecutorService workers, Semaphore inFlight,
+                      List<CompletableFuture<Void>> futures) throws InterruptedException {
+        long lastId = 0;
+        List<Long> pending = new ArrayList<>();
+        while (!job.isCancelRequested()) {
+            MapSqlParameterSource params = new MapSqlParameterSource("types", typeParams.getValue("types"))
+                    .addValue("lastId", lastId)
+                    .addValue("limit", properties.getChunkSize());
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM accounts WHERE id > :lastId AND account_type IN (:types) ORDER BY id LIMIT :limit",
+                    params, Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            for (Long id : ids) {
+                if (isCovered(completed, id)) {
+                    submitChunk(pending, shard, runDate, token, dailyRates, postedAt, job, workers, inFlight, futures);
+                    continue;
+                }
+                pending.add(id);
+                if (pending.size() >= properties.getChunkSize()) {
+                    submitChunk(pending, shard, runDate, token, dailyRates, postedAt, job, workers, inFlight, futures);
+                }
+            }
+        }
+        if (!job.isCancelRequested()) {
+            submitChunk(pending, shard, runDate, token, dailyRates, postedAt, job, workers, inFlight, futures);
+        }
+    }
+
+    private void submitChunk(List<Long> pending, int shard, LocalDate runDate, String token, Map<String, BigDecimal> dailyRates,
+                             Timestamp postedAt, BackgroundJob job, ExecutorService workers,
+                             Semaphore inFlight, List<CompletableFuture<Void>> futures) throws InterruptedException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> chunk = new ArrayList<>(pending);
+        pending.clear();
+
+        // Bounded hand-off so the keyset reader never runs far ahead of the workers
+        inFlight.acquire();
+        futures.add(CompletableFuture.runAsync(() -> {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                int credited = processChunk(chunk, runDate, token, dailyRates, postedAt);
+                job.addProcessed(credited);
+            } finally {
+                inFlight.release();
+            }
+        }, workers));
+    }
+
+    private int processChunk(List<Long> accountIds, LocalDate runDate, String token,
+                             Map<String, BigDecimal> dailyRates, Timestamp postedAt) {
+        Integer credited = transactionTemplate.execute(status -> {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", accountIds);
+            Map<Long, BigDecimal> bucketTotals = new HashMap<>();
+            jdbcTemplate.query(
+                    "SELECT account_id, SUM(balance) FROM account_balance_buckets WHERE account_id IN (:ids) GROUP BY account_id",
+                    ids, rs -> { bucketTotals.put(rs.getLong(1), rs.getBigDecimal(2)); });
+
+            List<MapSqlParameterSource> balanceUpdates = new ArrayList<>();
+            List<MapSqlParameterSource> postings = new ArrayList<>();
+            BigDecimal[] chunkTotal = { BigDecimal.ZERO };
+            String description = "Interest accrual " + runDate;
+            jdbcTemplate.query(
+                    "SELECT id, balance, account_type, user_id FROM accounts WHERE id IN (:ids)",
+                    ids, rs -> {
+                        long accountId = rs.getLong(1);
+                        BigDecimal balance = rs.getBigDecimal(2).add(bucketTotals.getOrDefault(accountId, BigDecimal.ZERO));
+                        BigDecimal dailyRate = dailyRates.get(rs.getString(3));
+                        if (dailyRate == null || balance.signum() <= 0) {
+                            return;
+                        }
+                        BigDecimal interest = balance.multiply(dailyRate).setScale(2, RoundingMode.HALF_EVEN);
+                        if (interest.signum() <= 0) {
+                            return;
+                        }
+                        chunkTotal[0] = chunkTotal[0].add(interest);
+                        balanceUpdates.add(new MapSqlParameterSource("amount", interest).addValue("id", accountId));
+                        postings.add(new MapSqlParameterSource("amount", interest)
+                                .addValue("toAccountId", accountId)
+                                .addValue("description", description)
+                                .addValue("postedAt", postedAt)
+                                .addValue("userId", rs.getLong(4)));
+                    });
+
+            if (!balanceUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + :amount WHERE id = :id",
+                        balanceUpdates.toArray(new MapSqlParameterSource[0]));
+                GeneratedKeyHolder keys = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO transactions (from_account_id, to_account_id, amount, transaction_type, " +
+                        "description, transaction_date, status) " +
+                        "VALUES (NULL, :toAccountId, :amount, 'INTEREST', :description, :postedAt, 'COMPLETED')",
+                        postings.toArray(new MapSqlParameterSource[0]), keys, new String[] { "id" });
+
+                List<Object[]> feedRows = new ArrayList<>();
+                List<Long> transactionIds = new ArrayList<>();
+                List<Map<String, Object>> keyList = keys.getKeyList();
+                for (int i = 0; i < keyList.size(); i++) {
+                    long transactionId = ((Number) keyList.get(i).values().iterator().next()).longValue();
+                    feedRows.add(new Object[] { postings.get(i).getValue("userId"), transactionId, postedAt });
+                    transactionIds.add(transactionId);
+                }
+                userActivityFeed.record(feedRows);
+                transactionOutbox.append(transactionIds);
+            }
+
+            InterestRunChunk checkpoint = new InterestRunChunk();
+            checkpoint.setRunDate(runDate);
+            checkpoint.setFirstAccountId(accountIds.get(0));
+            checkpoint.setLastAccountId(accountIds.get(accountIds.size() - 1));
+            checkpoint.setAccountsCredited(balanceUpdates.size());
+            checkpoint.setTotalInterest(chunkTotal[0]);
+            checkpoint.setCompletedAt(LocalDateTime.now());
+            chunkRepository.save(checkpoint);
+
+            // Last statement before commit, so the run row lock is held only for the commit itself;
+            // a runner whose claim was taken over rolls the whole chunk back here
+            int held = jdbcTemplate.update(
+                    "UPDATE interest_runs SET heartbeat_at = :now WHERE run_date = :runDate AND claim_token = :token",
+                    new MapSqlParameterSource("runDate", runDate)
+                            .addValue("token", token)
+                            .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+            if (held == 0) {
+                throw new ApiException("Interest run for " + runDate + " was taken over by another runner");
+            }
+            return balanceUpdates.size();
+        });
+        return credited != null ? credited : 0;
+    }
+
+    private InterestRun finishRuns(LocalDate runDate, Map<Integer, String> tokens) {
+        List<InterestRun> runs = new ArrayList<>();
+        tokens.forEach((shard, token) -> {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                runs.add(finishRun(runDate, token));
+            }
+        });
+        return combine(runDate, runs);
+    }
+
+    private InterestRun finishRun(LocalDate runDate, String token) {
+        int finished = jdbcTemplate.update(
+                "UPDATE interest_runs SET status = 'COMPLETED', finished_at = :now, claim_token = NULL, " +
+                "accounts_credited = :accountsCredited, total_interest = :totalInterest " +
+                "WHERE run_date = :runDate AND claim_token = :token",
+                new MapSqlParameterSource("runDate", runDate)
+                        .addValue("token", token)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .addValue("accountsCredited", chunkRepository.sumAccountsCreditedByRunDate(runDate))
+                        .addValue("totalInterest", chunkRepository.sumTotalInterestByRunDate(runDate)));
+        if (finished == 0) {
+            throw new ApiException("Interest run for " + runDate + " was taken over by another runner");
+        }
+        return runRepository.findById(runDate).orElseThrow();
+    }
+
+    // One shard's run row as is, or the shards' rows added up; completed once every one of them is
+    private static InterestRun combine(LocalDate runDate, List<InterestRun> runs) {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        InterestRun combined = new InterestRun(runDate);
+        combined.setStatus("COMPLETED");
+        for (InterestRun run : runs) {
+            if (!"COMPLETED".equals(run.getStatus())) {
+                combined.setStatus(run.getStatus());
+            }
+            if (run.getStartedAt() != null && run.getStartedAt().isBefore(combined.getStartedAt())) {
+                combined.setStartedAt(run.getStartedAt());
+            }
+            if (run.getFinishedAt() != null
+                    && (combined.getFinishedAt() == null || run.getFinishedAt().isAfter(combined.getFinishedAt()))) {
+                combined.setFinishedAt(run.getFinishedAt());
+            }
+            combined.setAccountsCredited(combined.getAccountsCredited() + run.getAccountsCredited());
+            combined.setTotalInterest(combined.getTotalInterest().add(run.getTotalInterest()));
+        }
+        if (!"COMPLETED".equals(combined.getStatus())) {
+            combined.setFinishedAt(null);
+        }
+        return combined;
+    }
+
+    private Map<String, BigDecimal> dailyRates() {
+        Map<String, BigDecimal> dailyRates = new HashMap<>();
+        BigDecimal basis = BigDecimal.valueOf(properties.getDayCountBasis());
+        properties.getRates().forEach((type, annualRate) -> {
+            if (annualRate != null && annualRate.signum() > 0) {
+                dailyRates.put(type, annualRate.divide(basis, 12, RoundingMode.HALF_EVEN));
+            }
+        });
+        return dailyRates;
+    }
+
+    // Completed chunks cover every eligible account between their first and last id
+    private static boolean isCovered(List<InterestRunChunk> completed, long accountId) {
+        int low = 0;
+        int high = completed.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            InterestRunChunk chunk = completed.get(mid);
+            if (accountId < chunk.getFirstAccountId()) {
+                high = mid - 1;
+            } else if (accountId > chunk.getLastAccountId()) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.bank.service;
+
+import com.example.bank.event.TransactionPostedEvent;
+import com.example.bank.model.Money;
+import com.example.bank.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains outbox_events to every OutboxSink. Each sink has its own worker thread and offset in
+// outbox_offsets on every shard, so a slow webhook never holds back the file or in-process streams and
+// a busy shard never holds back the others. Workers are woken
+// right after a posting commits and otherwise poll every poll-interval-ms, which bounds the end-to-end
+// latency.
+//
+// Ids are handed out at insert but become visible at commit, so reading by id would have to guess
+// whether a missing id is still committing or was rolled back. Instead events go out in delivery_seq
+// order, which PostingSequencer stamps on committed rows only, every stamp above the ones before on
+// the shard, so each consumer sees a gap-free prefix of each shard however late a posting commits. Postings on one account commit
+// in posting order, so its events keep that order. The workers drive the sequencer.
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(rs.getLong(1));
+        event.setTransactionId(rs.getLong(2));
+        event.setAccountId(rs.getLong(3));
+        event.setFromAccountId(rs.getObject(4, Long.class));
+        event.setToAccountId(rs.getObject(5, Long.class));
+        event.setAmount(Money.of(rs.getBigDecimal(6)));
+        event.setTransactionType(rs.getString(7));
+        event.setTransactionDate(rs.getTimestamp(8).toLocalDateTime());
+        event.setCreatedAt(rs.getTimestamp(9).toLocalDateTime());
+        event.setDeliverySeq(rs.getLong(10));
+        return event;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostingSequencer postingSequencer;
+    private final ShardRouter shardRouter;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long maxBackoffMillis;
+    private final long retentionHours;
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PostingSequencer postingSequencer,
+                       ShardRouter shardRouter,
+                       List<OutboxSink> sinks,
+                       @Value("${bank.outbox.batch-size:500}") int batchSize,
+                       @Value("${bank.outbox.poll-interval-ms:250}") long pollIntervalMillis,
+                       @Value("${bank.outbox.max-backoff-ms:30000}") long maxBackoffMillis,
+                       @Value("${bank.outbox.retention-hours:24}") long retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postingSequencer = postingSequencer;
+        this.shardRouter = shardRouter;
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.retentionHours = retentionHours;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            for (OutboxSink sink : sinks) {
+                long offset = shardRouter.inShard(shard, true, () -> loadOffset(sink.getName()));
+                Worker worker = new Worker(sink, shard, offset);
+                Thread thread = new Thread(worker, "bank-outbox-" + sink.getName() + (shardRouter.isEnabled() ? "-" + shard : ""));
+                thread.setDaemon(true);
+                worker.thread = thread;
+                workers.add(worker);
+                thread.start();
+            }
+        }
+        log.info("Outbox relay started for sinks {}", sinks.stream().map(OutboxSink::getName).toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionPosted(TransactionPostedEvent event) {
+        for (Worker worker : workers) {
+            worker.wake();
+        }
+    }
+
+    // Events every consumer has passed are dropped once older than the retention period
+    @Scheduled(fixedDelayString = "${bank.outbox.purge-interval-ms:60000}")
+    public void purge() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int current = shard;
+            List<Worker> shardWorkers = workers.stream().filter(worker -> worker.shard == current).toList();
+            if (shardWorkers.isEmpty()) {
+                continue;
+            }
+            long delivered = shardWorkers.stream().mapToLong(worker -> worker.offset).min().orElse(0);
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                purge(shard, delivered);
+            }
+        }
+    }
+
+    private void purge(int shard, long delivered) {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        Long first = jdbcTemplate.queryForObject("SELECT MIN(id) FROM outbox_events", Long.class);
+        Long last = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM outbox_events WHERE delivery_seq <= ? AND created_at < ?", Long.class, delivered, cutoff);
+        if (first == null || last == null) {
+            return;
+        }
+        long chunk = batchSize * 10L;
+        long total = 0;
+        for (long low = first; low <= last; low += chunk) {
+            total += jdbcTemplate.update(
+                    "DELETE FROM outbox_events WHERE id BETWEEN ? AND ? AND delivery_seq <= ? AND created_at < ?",
+                    low, Math.min(low + chunk - 1, last), delivered, cutoff);
+        }
+        if (total > 0) {
+            log.info("Purged {} delivered outbox events on shard {}", total, shard);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        List<Long> newest = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            newest.add(shardRouter.inShard(shard, true, () ->
+                    jdbcTemplate.queryForObject("SELECT COALESCE(MAX(delivery_seq), 0) FROM outbox_events", Long.class)));
+        }
+        stats.put("newestDeliverySeq", shardRouter.isEnabled() ? newest : newest.get(0));
+        List<Map<String, Object>> consumers = new ArrayList<>();
+        for (Worker worker : workers) {
+            Long shardNewest = newest.get(worker.shard);
+            Map<String, Object> consumer = new LinkedHashMap<>();
+            consumer.put("sink", worker.sink.getName());
+            consumer.put("shard", worker.shard);
+            consumer.put("offset", worker.offset);
+            consumer.put("behind", shardNewest != null ? Math.max(0, shardNewest - worker.offset) : 0);
+            consumer.put("delivered", worker.delivered.get());
+            consumer.put("batches", worker.batches.get());
+            consumer.put("failures", worker.failures.get());
+            consumer.put("lastLatencyMs", worker.lastLatencyMillis);
+            consumer.put("maxLatencyMs", worker.maxLatencyMillis);
+            consumer.put("lastError", worker.lastError);
+            consumers.add(consumer);
+        }
+        stats.put("consumers", consumers);
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        for (Worker worker : workers) {
+            worker.running = false;
+            worker.thread.interrupt();
+        }
+    }
+
+    // A new consumer starts at the oldest retained event
+    private long loadOffset(String consumer) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT last_event_id FROM outbox_offsets WHERE consumer = ?", Long.class, consumer);
+        if (!offsets.isEmpty()) {
+            return offsets.get(0);
+        }
+        Long oldest = jdbcTemplate.queryForObject("SELECT MIN(delivery_seq) FROM outbox_events", Long.class);
+        return oldest != null ? oldest - 1 : 0;
+    }
+
+    // Stamps what has committed since the last pass and wakes every worker when there is something new
+    private int sequence() {
+        int stamped = postingSequencer.sequence();
+        if (stamped > 0) {
+            for (Worker worker : workers) {
+                worker.wake();
+            }
+        }
+        return stamped;
+    }
+
+    private void saveOffset(String consumer, long offset) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update("UPDATE outbox_offsets SET last_event_id = ?, updated_at = ? WHERE consumer = ?",
+                offset, now, consumer) == 0) {
+            jdbcTemplate.update("INSERT INTO outbox_offsets (consumer, last_event_id, updated_at) VALUES (?, ?, ?)",
+                    consumer, offset, now);
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final OutboxSink sink;
+        final int shard;
+        final Semaphore wakeups = new Semaphore(0);
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        volatile long offset;
+        volatile boolean running = true;
+        volatile long lastLatencyMillis;
+        volatile long maxLatencyMillis;
+        volatile String lastError;
+        Thread thread;
+        int consecutiveFailures;
+
+        Worker(OutboxSink sink, int shard, long offset) {
+            this.sink = sink;
+            this.shard = shard;
+            this.offset = offset;
+        }
+
+        void wake() {
+            if (wakeups.availablePermits() == 0) {
+                wakeups.release();
+            }
+        }
+
+        // The thread stays on its shard, so the reads and offset writes below go there
+        @Override
+        public void run() {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                loop();
+            }
+        }
+
+        private void loop() {
+            while (running) {
+                try {
+                    int stamped = sequence();
+                    if (drain() == batchSize || stamped >= postingSequencer.getBatchSize()) {
+                        continue;
+                    }
+                    wakeups.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    wakeups.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    lastError = e.getMessage();
+                    long backoff = Math.min(maxBackoffMillis, pollIntervalMillis << Math.min(consecutiveFailures++, 16));
+                    log.warn("Outbox sink {} failed on shard {} after event {}, retrying in {} ms",
+                            sink.getName(), shard, offset, backoff, e);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Delivers the next batch; returns how many events were read
+        private int drain() throws Exception {
+            List<OutboxEvent> events = jdbcTemplate.query(
+                    "SELECT id, transaction_id, account_id, from_account_id, to_account_id, amount, transaction_type, " +
+                    "transaction_date, created_at, delivery_seq FROM outbox_events WHERE delivery_seq > ? " +
+                    "ORDER BY delivery_seq LIMIT ?",
+                    EVENT_MAPPER, offset, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            sink.publish(events);
+            OutboxEvent newest = events.get(events.size() - 1);
+            saveOffset(sink.getName(), newest.getDeliverySeq());
+            offset = newest.getDeliverySeq();
+            consecutiveFailures = 0;
+            lastError = null;
+            delivered.addAndGet(events.size());
+            batches.incrementAndGet();
+
+            long now = System.currentTimeMillis();
+            lastLatencyMillis = Math.max(0, now - newest.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            maxLatencyMillis = Math.max(maxLatencyMillis, lastLatencyMillis);
+            return events.size();
+        }
+    }
+}
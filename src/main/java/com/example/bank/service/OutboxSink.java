@@ -0,0 +1,12 @@
+package com.example.bank.service;
+
+import com.example.bank.model.OutboxEvent;
+
+import java.util.List;
+
+// Destination of the outbox relay. Each sink is a consumer with its own offset; batches arrive in
+// outbox id order and a failed batch is retried as a whole, so delivery is at-least-once.
+public interface OutboxSink {
+    String getName();
+    void publish(List<OutboxEvent> events) throws Exception;
+}
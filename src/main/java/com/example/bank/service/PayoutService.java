@@ -0,0 +1,13 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.PayoutRequest;
+import com.example.bank.model.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+public interface PayoutService {
+    Map<String, Object> submitPayout(PayoutRequest request);
+    Map<String, Object> getPayoutStatus(Long payoutId);
+    List<Transaction> getPayoutLegs(Long payoutId, int page, int size);
+}
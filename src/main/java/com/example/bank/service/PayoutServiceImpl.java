@@ -0,0 +1,400 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.PayoutRequest;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.Payout;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.PayoutRepository;
+import com.example.bank.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One-to-many payouts (payroll), run as a background job in the manner of a cross-shard transfer saga:
+//  1. every target account is checked, then one transaction locks the source, checks the whole total,
+//     debits it with a PENDING posting and marks the payout RUNNING
+//  2. each chunk of chunk-size legs commits on its own: the legs are credited in target id order and
+//     posted in JDBC batches, and payouts.legs_posted moves forward in the same transaction
+//  3. the debit posting becomes COMPLETED together with the payout
+// No lock or undo log is held across the whole payout. A payout that is cancelled, fails or is cut off
+// by a restart keeps its committed legs and the rest of the total goes back to the source with a
+// reversal posting, in the transaction that ends the payout, so the source is never short of it.
+// A payout lives and runs on its source account's shard, so every target must be on that shard too.
+@Service
+public class PayoutServiceImpl implements PayoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutServiceImpl.class);
+    private static final int MAX_LEGS_PAGE_SIZE = 1000;
+
+    private final PayoutRepository payoutRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final StripedBalanceService stripedBalanceService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BackgroundJobRunner jobRunner;
+    private final UserActivityFeed userActivityFeed;
+    private final TransactionOutbox transactionOutbox;
+    private final HoldIndex holdIndex;
+    private final ShardRouter shardRouter;
+    private final int maxLegs;
+    private final int chunkSize;
+    private final Map<Long, BackgroundJob> running = new ConcurrentHashMap<>();
+
+    public PayoutServiceImpl(PayoutRepository payoutRepository,
+                             AccountRepository accountRepository,
+                             TransactionRepository transactionRepository,
+                             AccountService accountService,
+                             StripedBalanceService stripedBalanceService,
+                             NamedParameterJdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             BackgroundJobRunner jobRunner,
+                             UserActivityFeed userActivityFeed,
+                             TransactionOutbox transactionOutbox,
+                             HoldIndex holdIndex,
+                             ShardRouter shardRouter,
+                             @Value("${bank.payouts.max-legs:100000}") int maxLegs,
+                             @Value("${bank.payouts.chunk-size:1000}") int chunkSize) {
+        this.payoutRepository = payoutRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountService = accountService;
+        this.stripedBalanceService = stripedBalanceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobRunner = jobRunner;
+        this.userActivityFeed = userActivityFeed;
+        this.transactionOutbox = transactionOutbox;
+        this.holdIndex = holdIndex;
+        this.shardRouter = shardRouter;
+        this.maxLegs = maxLegs;
+        this.chunkSize = chunkSize;
+    }
+
+    // Legs only live in memory, so a payout caught by a restart cannot carry on past its committed
+    // chunks; what it had not paid out goes back to the source
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedPayouts() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                for (Payout payout : payoutRepository.findByStatusIn(List.of("QUEUED", "RUNNING"))) {
+                    Money refunded = settle(payout.getId(), "FAILED", "Interrupted by a restart after "
+                            + payout.getLegsPosted() + " of " + payout.getLegCount() + " legs were posted");
+                    log.warn("Payout {} was interrupted by a restart and marked failed; ${} refunded", payout.getId(), refunded);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> submitPayout(PayoutRequest request) {
+        if (request == null || request.getSourceAccountId() == null) {
+            throw new ApiException("Source account ID cannot be null");
+        }
+        List<PayoutRequest.Leg> legs = request.getLegs();
+        if (legs == null || legs.isEmpty()) {
+            throw new ApiException("A payout needs at least one leg");
+        }
+        if (legs.size() > maxLegs) {
+            throw new ApiException("A payout has at most " + maxLegs + " legs");
+        }
+
+        Long sourceAccountId = request.getSourceAccountId();
+        Account source = accountService.getAccountById(sourceAccountId);
+        Money total = Money.ZERO;
+        for (int i = 0; i < legs.size(); i++) {
+            PayoutRequest.Leg leg = legs.get(i);
+            if (leg == null || leg.getToAccountId() == null) {
+                throw new ApiException("Leg " + (i + 1) + " has no target account");
+            }
+            if (leg.getToAccountId().equals(sourceAccountId)) {
+                throw new ApiException("Leg " + (i + 1) + " pays the source account");
+            }
+            if (shardRouter.isCrossShard(sourceAccountId, leg.getToAccountId())) {
+                throw new ApiException("Leg " + (i + 1) + " pays an account on another shard than the source");
+            }
+            if (leg.getAmount() == null || !leg.getAmount().isPositive()) {
+                throw new ApiException("Leg " + (i + 1) + " amount must be greater than zero");
+            }
+            total = total.plus(leg.getAmount());
+        }
+        if (!total.fitsColumn()) {
+            throw new ApiException("Payout total out of range");
+        }
+        // Early answer for the common case; the job checks again under the row lock before it debits
+        if (!source.isStriped() && holdIndex.available(source).isLessThan(total)) {
+            throw new ApiException("Insufficient balance in account " + source.getAccountNumber());
+        }
+
+        Payout payout = new Payout();
+        payout.setSourceAccountId(sourceAccountId);
+        payout.setDescription(request.getDescription() != null ? request.getDescription() : "Payout");
+        payout.setLegCount(legs.size());
+        payout.setTotalAmount(total);
+        Payout saved = payoutRepository.save(payout);
+
+        List<PayoutRequest.Leg> snapshot = List.copyOf(legs);
+        Money payoutTotal = total;
+        int shard = shardRouter.shardOfId(sourceAccountId);
+        jobRunner.submit("PAYOUT", job -> {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                run(job, saved, snapshot, payoutTotal);
+            }
+        });
+        return toStatus(saved);
+    }
+
+    @Override
+    public Map<String, Object> getPayoutStatus(Long payoutId) {
+        return toStatus(findPayout(payoutId));
+    }
+
+    @Override
+    public List<Transaction> getPayoutLegs(Long payoutId, int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_LEGS_PAGE_SIZE) {
+            throw new ApiException("Page must be non-negative and size between 1 and " + MAX_LEGS_PAGE_SIZE);
+        }
+        findPayout(payoutId);
+        return transactionRepository.findByPayoutIdWithDetails(payoutId, PageRequest.of(page, size));
+    }
+
+    private void run(BackgroundJob job, Payout payout, List<PayoutRequest.Leg> legs, Money total) {
+        Long payoutId = payout.getId();
+        running.put(payoutId, job);
+        job.setTotal(legs.size());
+        int posted = 0;
+        try {
+            Map<Long, Long> owners = owners(legs);
+            String sourceNumber = transactionTemplate.execute(status -> reserve(payoutId, total));
+            Timestamp postedAt = Timestamp.valueOf(LocalDateTime.now());
+            String legDescription = payout.getDescription() + " (from " + sourceNumber + ")";
+            for (int from = 0; from < legs.size(); from += chunkSize) {
+                if (job.isCancelRequested()) {
+                    String message = "Cancelled after " + posted + " of " + legs.size() + " legs were posted";
+                    Money refunded = settle(payoutId, "CANCELLED", message);
+                    job.setMessage(message + "; $" + refunded + " refunded");
+                    return;
+                }
+                List<PayoutRequest.Leg> chunk = legs.subList(from, Math.min(from + chunkSize, legs.size()));
+                int postedAfter = from + chunk.size();
+                transactionTemplate.executeWithoutResult(status ->
+                        postChunk(chunk, payoutId, owners, legDescription, postedAt, postedAfter));
+                posted = postedAfter;
+                job.addProcessed(chunk.size());
+            }
+            transactionTemplate.executeWithoutResult(status -> complete(payoutId));
+            job.setMessage("Paid " + legs.size() + " legs, $" + total + " in total");
+        } catch (RuntimeException e) {
+            String reason = e.getMessage() + " (" + posted + " of " + legs.size() + " legs were posted)";
+            try {
+                settle(payoutId, "FAILED", reason);
+            } catch (RuntimeException settleFailure) {
+                // Still RUNNING with its debit in place; the next startup refunds it
+                log.error("Could not settle failed payout {}", payoutId, settleFailure);
+            }
+            throw e;
+        } finally {
+            running.remove(payoutId);
+        }
+    }
+
+    // Owner of every target account, so a missing one fails the payout before any leg posts
+    private Map<Long, Long> owners(List<PayoutRequest.Leg> legs) {
+        Map<Long, Long> owners = new HashMap<>();
+        for (int from = 0; from < legs.size(); from += chunkSize) {
+            List<PayoutRequest.Leg> chunk = legs.subList(from, Math.min(from + chunkSize, legs.size()));
+            Set<Long> targetIds = new HashSet<>();
+            for (PayoutRequest.Leg leg : chunk) {
+                targetIds.add(leg.getToAccountId());
+            }
+            jdbcTemplate.query("SELECT id, user_id FROM accounts WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", targetIds), rs -> { owners.put(rs.getLong(1), rs.getLong(2)); });
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!owners.containsKey(chunk.get(i).getToAccountId())) {
+                    throw new ApiException("Leg " + (from + i + 1) + ": account not found with id: " + chunk.get(i).getToAccountId());
+                }
+            }
+        }
+        return owners;
+    }
+
+    // Step 1: the whole total comes off the source in one update, checked once under the row lock
+    private String reserve(Long payoutId, Money total) {
+        Payout payout = payoutRepository.findByIdForUpdate(payoutId)
+                .orElseThrow(() -> new ApiException("Payout not found with id: " + payoutId));
+        Account source = accountRepository.findByIdForUpdate(payout.getSourceAccountId())
+                .orElseThrow(() -> new ApiException("Account not found with id: " + payout.getSourceAccountId()));
+        stripedBalanceService.prepareDebit(source);
+        if (holdIndex.available(source).isLessThan(total)) {
+            throw new ApiException("Insufficient balance in account " + source.getAccountNumber());
+        }
+        source.setBalance(source.getBalance().minus(total));
+
+        Transaction debit = new Transaction();
+        debit.setFromAccount(source);
+        debit.setAmount(total);
+        debit.setTransactionType("TRANSFER");
+        debit.setDescription(payout.getDescription() + " (payout " + payoutId + ", " + payout.getLegCount() + " legs)");
+        debit.setStatus("PENDING");
+        debit.setPayoutId(payoutId);
+        transactionRepository.save(debit);
+        payout.setStatus("RUNNING");
+        return source.getAccountNumber();
+    }
+
+    // Step 2, one committed chunk. Targets are credited in id order, so chunks of concurrent payouts
+    // lock their rows in the same order, and a credit that would leave the balance column's range
+    // (or finds the account gone) fails the chunk.
+    private void postChunk(List<PayoutRequest.Leg> chunk, Long payoutId, Map<Long, Long> owners, String description,
+                           Timestamp postedAt, int postedAfter) {
+        List<PayoutRequest.Leg> ordered = new ArrayList<>(chunk);
+        ordered.sort(Comparator.comparing(PayoutRequest.Leg::getToAccountId));
+        List<MapSqlParameterSource> credits = new ArrayList<>(ordered.size());
+        List<MapSqlParameterSource> postings = new ArrayList<>(ordered.size());
+        for (PayoutRequest.Leg leg : ordered) {
+            credits.add(new MapSqlParameterSource("amount", leg.getAmount().toBigDecimal())
+                    .addValue("id", leg.getToAccountId())
+                    .addValue("max", Money.COLUMN_MAX.toBigDecimal()));
+            postings.add(new MapSqlParameterSource("amount", leg.getAmount().toBigDecimal())
+                    .addValue("toAccountId", leg.getToAccountId())
+                    .addValue("description", description)
+                    .addValue("postedAt", postedAt)
+                    .addValue("payoutId", payoutId));
+        }
+
+        int[] credited = jdbcTemplate.batchUpdate(
+                "UPDATE accounts SET balance = balance + :amount WHERE id = :id AND balance <= :max - :amount",
+                credits.toArray(new MapSqlParameterSource[0]));
+        for (int i = 0; i < credited.length; i++) {
+            if (credited[i] == 0) {
+                throw new ApiException("Account " + ordered.get(i).getToAccountId()
+                        + " is gone or cannot take the credit without exceeding the balance limit");
+            }
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (from_account_id, to_account_id, amount, transaction_type, " +
+                "description, transaction_date, status, payout_id) " +
+                "VALUES (NULL, :toAccountId, :amount, 'TRANSFER', :description, :postedAt, 'COMPLETED', :payoutId)",
+                postings.toArray(new MapSqlParameterSource[0]), keys, new String[] { "id" });
+
+        List<Object[]> feedRows = new ArrayList<>(ordered.size());
+        List<Long> transactionIds = new ArrayList<>(ordered.size());
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < keyList.size(); i++) {
+            long transactionId = ((Number) keyList.get(i).values().iterator().next()).longValue();
+            feedRows.add(new Object[] { owners.get(ordered.get(i).getToAccountId()), transactionId, postedAt });
+            transactionIds.add(transactionId);
+        }
+        userActivityFeed.record(feedRows);
+        transactionOutbox.append(transactionIds);
+
+        jdbcTemplate.update("UPDATE payouts SET legs_posted = :posted WHERE id = :id",
+                new MapSqlParameterSource("posted", postedAfter).addValue("id", payoutId));
+    }
+
+    // Step 3
+    private void complete(Long payoutId) {
+        Payout payout = payoutRepository.findByIdForUpdate(payoutId)
+                .orElseThrow(() -> new ApiException("Payout not found with id: " + payoutId));
+        finishDebit(payoutId, "COMPLETED");
+        payout.setStatus("COMPLETED");
+        payout.setFinishedAt(LocalDateTime.now());
+    }
+
+    // Ends a payout that did not complete. One that had debited its source gets back what its committed
+    // legs did not pay out; one still QUEUED never moved money. Returns the amount refunded.
+    private Money settle(Long payoutId, String status, String reason) {
+        return transactionTemplate.execute(tx -> {
+            Payout payout = payoutRepository.findByIdForUpdate(payoutId)
+                    .orElseThrow(() -> new ApiException("Payout not found with id: " + payoutId));
+            Money refunded = Money.ZERO;
+            if ("RUNNING".equals(payout.getStatus())) {
+                Money paid = Money.of(jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE payout_id = :id AND from_account_id IS NULL",
+                        new MapSqlParameterSource("id", payoutId), BigDecimal.class));
+                refunded = payout.getTotalAmount().minus(paid);
+                if (refunded.isPositive()) {
+                    Account source = accountRepository.findByIdForUpdate(payout.getSourceAccountId())
+                            .orElseThrow(() -> new ApiException("Account not found with id: " + payout.getSourceAccountId()));
+                    stripedBalanceService.credit(source, refunded);
+
+                    Transaction reversal = new Transaction();
+                    reversal.setToAccount(source);
+                    reversal.setAmount(refunded);
+                    reversal.setTransactionType("TRANSFER");
+                    reversal.setDescription("Reversal of the unpaid part of payout " + payoutId + ": " + reason);
+                    reversal.setStatus("COMPLETED");
+                    transactionRepository.save(reversal);
+                }
+                finishDebit(payoutId, paid.isZero() ? "REVERSED" : "COMPLETED");
+            } else if (!"QUEUED".equals(payout.getStatus())) {
+                return refunded;
+            }
+            payout.setStatus(status);
+            payout.setFailureReason(reason);
+            payout.setFinishedAt(LocalDateTime.now());
+            return refunded;
+        });
+    }
+
+    // Sequenced again, so readers that page by commit_seq see the debit's new status
+    private void finishDebit(Long payoutId, String status) {
+        jdbcTemplate.update("UPDATE transactions SET status = :status, commit_seq = NULL " +
+                        "WHERE payout_id = :id AND from_account_id IS NOT NULL",
+                new MapSqlParameterSource("status", status).addValue("id", payoutId));
+    }
+
+    private Payout findPayout(Long payoutId) {
+        if (payoutId == null) {
+            throw new ApiException("Payout ID cannot be null");
+        }
+        return payoutRepository.findById(payoutId)
+                .orElseThrow(() -> new ApiException("Payout not found with id: " + payoutId));
+    }
+
+    // While the job runs its count is the legs of the chunks committed so far, the same as legs_posted
+    private Map<String, Object> toStatus(Payout payout) {
+        BackgroundJob job = running.get(payout.getId());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("payoutId", payout.getId());
+        status.put("sourceAccountId", payout.getSourceAccountId());
+        status.put("description", payout.getDescription());
+        status.put("status", payout.getStatus());
+        status.put("legCount", payout.getLegCount());
+        status.put("legsPosted", job != null ? job.getProcessed() : payout.getLegsPosted());
+        status.put("progress", job != null ? job.getProgress() : "COMPLETED".equals(payout.getStatus()) ? 100.0 : 0.0);
+        status.put("totalAmount", payout.getTotalAmount());
+        status.put("createdAt", payout.getCreatedAt());
+        status.put("finishedAt", payout.getFinishedAt());
+        status.put("failureReason", payout.getFailureReason());
+        return status;
+    }
+}
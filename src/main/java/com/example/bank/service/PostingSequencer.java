@@ -0,0 +1,97 @@
+package com.example.bank.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Numbers postings in the order they become visible. Ids are handed out at insert but a posting only
+// shows up at commit, so a reader paging by id cannot tell a missing id that is still committing from
+// one that was rolled back. Here every committed posting without a commit_seq gets one above every
+// number handed out before, in id order, together with its outbox event's delivery_seq. Stamping is
+// serialized on the shard's '_sequencer' row in outbox_offsets, so a reader paging by commit_seq sees a
+// gap-free prefix however late a posting commits. Before any late commit commit_seq equals id.
+// OutboxRelay drives it; a posting whose status changes later is sequenced again.
+@Component
+public class PostingSequencer {
+
+    private static final String SEQUENCER = "_sequencer";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    // One stamping pass at a time per instance; the others just read what it stamped
+    private final ReentrantLock sequencing = new ReentrantLock();
+
+    public PostingSequencer(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter,
+                            @Value("${bank.sequencer.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() { return batchSize; }
+
+    // Stamps the next committed, unsequenced postings of every shard; returns how many
+    public int sequence() {
+        if (!sequencing.tryLock()) {
+            return 0;
+        }
+        try {
+            int stamped = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardRouter.Scope scope = shardRouter.on(shard);
+                try (scope) {
+                    Integer count = transactionTemplate.execute(status -> sequenceShard());
+                    stamped += count != null ? count : 0;
+                }
+            }
+            return stamped;
+        } finally {
+            sequencing.unlock();
+        }
+    }
+
+    // A stamp is the id itself unless that is not above the last stamp
+    private int sequenceShard() {
+        List<Long> last = jdbcTemplate.queryForList(
+                "SELECT last_event_id FROM outbox_offsets WHERE consumer = ? FOR UPDATE", Long.class, SEQUENCER);
+        if (last.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO outbox_offsets (consumer, last_event_id, updated_at) VALUES (?, 0, ?)",
+                        SEQUENCER, Timestamp.valueOf(LocalDateTime.now()));
+            } catch (DuplicateKeyException e) {
+                // Another instance created it first; it stamps this round
+            }
+            return 0;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE commit_seq IS NULL ORDER BY id LIMIT ?", Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long seq = last.get(0);
+        List<Object[]> stamps = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            seq = Math.max(seq + 1, id);
+            stamps.add(new Object[] { seq, id });
+        }
+        jdbcTemplate.batchUpdate("UPDATE transactions SET commit_seq = ? WHERE id = ? AND commit_seq IS NULL", stamps);
+        // An event is delivered once, at the posting's first number
+        jdbcTemplate.batchUpdate("UPDATE outbox_events SET delivery_seq = ? WHERE transaction_id = ? AND delivery_seq IS NULL", stamps);
+        jdbcTemplate.update("UPDATE outbox_offsets SET last_event_id = ?, updated_at = ? WHERE consumer = ?",
+                seq, Timestamp.valueOf(LocalDateTime.now()), SEQUENCER);
+        return ids.size();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bank.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Single-flight for identical concurrent reads: the first caller of a method and arguments (on the
+// current shard) runs the read in a read-only transaction, and callers arriving while it runs wait for
+// it and get the same result or exception. The entry goes away the moment the read finishes, so a
+// caller arriving afterwards always runs a fresh read; nothing is cached. Callers inside a transaction
+// read through their own connection as before, so they keep their snapshot and may modify what
+// they load. Shared results go to every waiting caller and must not be modified.
+@Component
+public class ReadCoalescer {
+
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(PlatformTransactionManager transactionManager,
+                         @Value("${bank.coalescing.enabled:true}") boolean enabled) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(String method, List<?> args, Supplier<T> read) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return read.get();
+        }
+        LongAdder[] count = counters.computeIfAbsent(method, name -> new LongAdder[] { new LongAdder(), new LongAdder() });
+        Key key = new Key(method, ShardRouter.currentShard(), args);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            count[1].increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        count[0].increment();
+        T result;
+        try {
+            result = readOnly.execute(status -> read.get());
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        // Removed before completing, so no caller can pick up the result once it is out
+        inFlight.remove(key, mine);
+        mine.complete(result);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("inFlight", inFlight.size());
+        long executed = 0;
+        long coalesced = 0;
+        Map<String, Object> methods = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder[]> entry : new TreeMap<>(counters).entrySet()) {
+            long methodExecuted = entry.getValue()[0].sum();
+            long methodCoalesced = entry.getValue()[1].sum();
+            Map<String, Object> method = new LinkedHashMap<>();
+            method.put("executed", methodExecuted);
+            method.put("coalesced", methodCoalesced);
+            method.put("coalescedRatio", ratio(methodCoalesced, methodExecuted + methodCoalesced));
+            methods.put(entry.getKey(), method);
+            executed += methodExecuted;
+            coalesced += methodCoalesced;
+        }
+        stats.put("executed", executed);
+        stats.put("coalesced", coalesced);
+        stats.put("coalescedRatio", ratio(coalesced, executed + coalesced));
+        stats.put("methods", methods);
+        return stats;
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private record Key(String method, Integer shard, List<?> args) {}
+}
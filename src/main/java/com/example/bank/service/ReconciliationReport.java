@@ -0,0 +1,52 @@
+package com.example.bank.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReconciliationReport {
+
+    private final boolean repairMode;
+    private long transactionsScanned;
+    private long accountsChecked;
+    private long discrepancyCount;
+    private BigDecimal totalAbsoluteDrift = BigDecimal.ZERO;
+    private long accountsRepaired;
+    private final List<Discrepancy> discrepancies = new ArrayList<>();
+
+    public ReconciliationReport(boolean repairMode) {
+        this.repairMode = repairMode;
+    }
+
+    public static class Discrepancy {
+        private final Long accountId;
+        private final BigDecimal recordedBalance;
+        private final BigDecimal expectedBalance;
+
+        public Discrepancy(Long accountId, BigDecimal recordedBalance, BigDecimal expectedBalance) {
+            this.accountId = accountId;
+            this.recordedBalance = recordedBalance;
+            this.expectedBalance = expectedBalance;
+        }
+
+        // Getters
+        public Long getAccountId() { return accountId; }
+        public BigDecimal getRecordedBalance() { return recordedBalance; }
+        public BigDecimal getExpectedBalance() { return expectedBalance; }
+        public BigDecimal getDifference() { return recordedBalance.subtract(expectedBalance); }
+    }
+
+    // Getters and setters
+    public boolean isRepairMode() { return repairMode; }
+    public long getTransactionsScanned() { return transactionsScanned; }
+    public void setTransactionsScanned(long transactionsScanned) { this.transactionsScanned = transactionsScanned; }
+    public long getAccountsChecked() { return accountsChecked; }
+    public void setAccountsChecked(long accountsChecked) { this.accountsChecked = accountsChecked; }
+    public long getDiscrepancyCount() { return discrepancyCount; }
+    public void setDiscrepancyCount(long discrepancyCount) { this.discrepancyCount = discrepancyCount; }
+    public BigDecimal getTotalAbsoluteDrift() { return totalAbsoluteDrift; }
+    public void setTotalAbsoluteDrift(BigDecimal totalAbsoluteDrift) { this.totalAbsoluteDrift = totalAbsoluteDrift; }
+    public long getAccountsRepaired() { return accountsRepaired; }
+    public void setAccountsRepaired(long accountsRepaired) { this.accountsRepaired = accountsRepaired; }
+    public List<Discrepancy> getDiscrepancies() { return discrepancies; }
+}
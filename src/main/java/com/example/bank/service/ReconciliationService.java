@@ -0,0 +1,5 @@
+package com.example.bank.service;
+
+public interface ReconciliationService {
+    BackgroundJob startReconciliation(boolean repair);
+}
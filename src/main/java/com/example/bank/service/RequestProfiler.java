@@ -0,0 +1,183 @@
+package com.example.bank.service;
+
+import com.example.bank.util.TopNBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-request timing breakdown: total time, connection waits, SQL statements, repository calls
+// and response serialization, collected on the request thread by the hooks in ProfilingConfig.
+// Only the slowest requests of the last window-minutes are kept. Nothing is hooked in unless
+// bank.profiling.enabled is true.
+@Component
+public class RequestProfiler {
+
+    private final ThreadLocal<Profile> current = new ThreadLocal<>();
+    private final TopNBuffer<Profile> slowest;
+    private final boolean enabled;
+    private final int windowMinutes;
+    private final int maxSqlPerRequest;
+    private final LongAdder profiled = new LongAdder();
+
+    public RequestProfiler(@Value("${bank.profiling.enabled:false}") boolean enabled,
+                           @Value("${bank.profiling.slow-requests:50}") int slowRequests,
+                           @Value("${bank.profiling.window-minutes:15}") int windowMinutes,
+                           @Value("${bank.profiling.max-sql-per-request:10}") int maxSqlPerRequest) {
+        this.enabled = enabled;
+        this.windowMinutes = windowMinutes;
+        this.maxSqlPerRequest = maxSqlPerRequest;
+        this.slowest = new TopNBuffer<>(slowRequests, windowMinutes * 60_000L);
+    }
+
+    public Profile begin(String method, String path) {
+        Profile profile = new Profile(method, path);
+        current.set(profile);
+        return profile;
+    }
+
+    public void end(Profile profile, int status) {
+        current.remove();
+        profile.finish(status);
+        profiled.increment();
+        slowest.offer(profile.totalNanos, profile.finishedAtMillis, profile);
+    }
+
+    public void connectionAcquired(long nanos) {
+        Profile profile = current.get();
+        if (profile != null) {
+            profile.connections++;
+            profile.connectionWaitNanos += nanos;
+        }
+    }
+
+    public void statementExecuted(String sql, long nanos) {
+        Profile profile = current.get();
+        if (profile != null) {
+            profile.statements++;
+            profile.statementNanos += nanos;
+            long[] totals = profile.sql.get(sql);
+            if (totals == null && profile.sql.size() < maxSqlPerRequest) {
+                totals = new long[2];
+                profile.sql.put(sql, totals);
+            }
+            if (totals != null) {
+                totals[0]++;
+                totals[1] += nanos;
+            }
+        }
+    }
+
+    public void repositoryCalled(String name, long nanos) {
+        Profile profile = current.get();
+        if (profile != null) {
+            long[] totals = profile.repositoryCalls.computeIfAbsent(name, key -> new long[2]);
+            totals[0]++;
+            totals[1] += nanos;
+        }
+    }
+
+    // Everything from the first response body write to the end of the request counts as serialization
+    public void responseBodyWriteStarted() {
+        Profile profile = current.get();
+        if (profile != null && profile.serializationStartNanos == 0) {
+            profile.serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    public Map<String, Object> getSlowRequests() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("windowMinutes", windowMinutes);
+        result.put("requestsProfiled", profiled.sum());
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Profile profile : slowest.snapshot(System.currentTimeMillis())) {
+            requests.add(profile.toMap());
+        }
+        result.put("requests", requests);
+        return result;
+    }
+
+    public void clear() {
+        slowest.clear();
+    }
+
+    // Written only by the request thread; published to readers through TopNBuffer once finished
+    public static final class Profile {
+        private final String method;
+        private final String path;
+        private final String thread;
+        private final long startNanos = System.nanoTime();
+        private final long startedAtMillis = System.currentTimeMillis();
+        private final Map<String, long[]> sql = new LinkedHashMap<>();
+        private final Map<String, long[]> repositoryCalls = new LinkedHashMap<>();
+        private int status;
+        private long finishedAtMillis;
+        private long totalNanos;
+        private int connections;
+        private long connectionWaitNanos;
+        private int statements;
+        private long statementNanos;
+        private long serializationStartNanos;
+        private long serializationNanos;
+
+        private Profile(String method, String path) {
+            this.method = method;
+            this.path = path;
+            this.thread = Thread.currentThread().getName();
+        }
+
+        private void finish(int status) {
+            long now = System.nanoTime();
+            this.status = status;
+            this.totalNanos = now - startNanos;
+            this.finishedAtMillis = System.currentTimeMillis();
+            if (serializationStartNanos != 0) {
+                serializationNanos = now - serializationStartNanos;
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("method", method);
+            map.put("path", path);
+            map.put("status", status);
+            map.put("thread", thread);
+            map.put("startedAt", LocalDateTime.ofInstant(Instant.ofEpochMilli(startedAtMillis), ZoneId.systemDefault()));
+            map.put("totalMs", millis(totalNanos));
+            map.put("connections", connections);
+            map.put("connectionWaitMs", millis(connectionWaitNanos));
+            map.put("statements", statements);
+            map.put("statementMs", millis(statementNanos));
+            map.put("serializationMs", millis(serializationNanos));
+            map.put("repositoryCalls", breakdown(repositoryCalls, "repositoryMethod"));
+            map.put("sql", breakdown(sql, "sql"));
+            return map;
+        }
+
+        private static List<Map<String, Object>> breakdown(Map<String, long[]> totals, String label) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            totals.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                    .forEach(entry -> {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        row.put(label, entry.getKey());
+                        row.put("count", entry.getValue()[0]);
+                        row.put("totalMs", millis(entry.getValue()[1]));
+                        rows.add(row);
+                    });
+            return rows;
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 1_000.0) / 1_000.0;
+        }
+    }
+}
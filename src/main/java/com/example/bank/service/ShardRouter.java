@@ -0,0 +1,152 @@
+package com.example.bank.service;
+
+import com.example.bank.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// Maps ids and emails to shards and carries the shard of the current work on the thread, where the
+// routing DataSource (ShardingConfig) reads it. Every shard hands out user, account, transaction and
+// saga ids from its own block, so those ids name their shard. A user is created on the shard its
+// email hashes to and keeps its accounts and their postings there. With sharding off there is a
+// single shard and scopes do nothing.
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final long idBlockSize;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate newReadOnlyTransaction;
+    private final Scope noopScope = new Scope(null, false);
+
+    public ShardRouter(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.shardCount = properties.shardCount();
+        this.idBlockSize = properties.getIdBlockSize();
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newReadOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.newReadOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newReadOnlyTransaction.setReadOnly(true);
+    }
+
+    // Shard for connections opened on this thread; null means shard 0
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public boolean isEnabled() { return shardCount > 1; }
+    public int getShardCount() { return shardCount; }
+
+    public int shardOfId(Long id) {
+        if (!isEnabled() || id == null || id <= 0) {
+            return 0;
+        }
+        return (int) Math.min((id - 1) / idBlockSize, shardCount - 1);
+    }
+
+    public int shardOfEmail(String email) {
+        if (!isEnabled() || email == null) {
+            return 0;
+        }
+        return Math.floorMod(email.trim().toLowerCase(Locale.ROOT).hashCode(), shardCount);
+    }
+
+    public boolean isCrossShard(Long firstId, Long secondId) {
+        return isEnabled() && shardOfId(firstId) != shardOfId(secondId);
+    }
+
+    public long firstId(int shard) {
+        return shard * idBlockSize + 1;
+    }
+
+    // Routes connections opened on this thread until closed. A transaction that already has its
+    // connection keeps it, so open the scope before calling into a transactional service.
+    public Scope on(int shard) {
+        if (!isEnabled()) {
+            return noopScope;
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return new Scope(previous, true);
+    }
+
+    public Scope forId(Long id) {
+        return on(shardOfId(id));
+    }
+
+    public Scope forEmail(String email) {
+        return on(shardOfEmail(email));
+    }
+
+    // Runs the work in a transaction of its own on the shard; a caller's transaction is suspended
+    public <T> T inShard(int shard, boolean readOnly, Supplier<T> work) {
+        Scope scope = on(shard);
+        try (scope) {
+            return (readOnly ? newReadOnlyTransaction : newTransaction).execute(status -> work.get());
+        }
+    }
+
+    // Runs a read on every shard and concatenates the results in shard order
+    public <T> List<T> gather(Supplier<List<T>> query) {
+        if (!isEnabled()) {
+            return query.get();
+        }
+        List<T> results = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            results.addAll(inShard(shard, true, query));
+        }
+        return results;
+    }
+
+    // Same, merged into one list in the given order and cut to limit; a single shard's list is returned as is
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (!isEnabled()) {
+            return query.get();
+        }
+        List<T> results = gather(query);
+        results.sort(order);
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    // Keeps the ids that live on the shard this thread is routed to
+    public long[] onCurrentShard(long[] ids) {
+        if (!isEnabled()) {
+            return ids;
+        }
+        Integer current = CURRENT.get();
+        int shard = current != null ? current : 0;
+        return Arrays.stream(ids).filter(id -> shardOfId(id) == shard).toArray();
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Integer previous;
+        private final boolean active;
+
+        Scope(Integer previous, boolean active) {
+            this.previous = previous;
+            this.active = active;
+        }
+
+        @Override
+        public void close() {
+            if (!active) {
+                return;
+            }
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
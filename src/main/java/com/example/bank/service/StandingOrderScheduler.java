@@ -0,0 +1,308 @@
+package com.example.bank.service;
+
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.event.StandingOrderChangedEvent;
+import com.example.bank.model.StandingOrder;
+import com.example.bank.repository.StandingOrderRepository;
+import com.example.bank.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the standing orders due in the next few minutes in a timing wheel (1s / 1min / 1h levels).
+// Only that window is read from the database (every shard's), and the read is repeated as the window
+// slides, so the table is never polled row by row. An order lives on its source account's shard and
+// runs there. Orders created or changed inside the loaded window are
+// pushed into the wheel after commit.
+@Component
+public class StandingOrderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(StandingOrderScheduler.class);
+    private static final long TICK_MILLIS = 1000;
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long windowMillis;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+
+    private final TimingWheel<ScheduledRun> wheel;
+    // Live deadline per order; wheel entries that no longer match are stale and ignored
+    private final Map<Long, Long> scheduled = new HashMap<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService executor;
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile long loadedUntil;
+    private volatile boolean ready;
+
+    public StandingOrderScheduler(StandingOrderRepository standingOrderRepository,
+                                  TransactionService transactionService,
+                                  TransactionTemplate transactionTemplate,
+                                  JdbcTemplate jdbcTemplate,
+                                  ShardRouter shardRouter,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${bank.standing-orders.window-seconds:300}") long windowSeconds,
+                                  @Value("${bank.standing-orders.batch-size:100}") int batchSize,
+                                  @Value("${bank.standing-orders.threads:2}") int threads,
+                                  @Value("${bank.standing-orders.max-retries:5}") int maxRetries,
+                                  @Value("${bank.standing-orders.retry-backoff-seconds:60}") long retryBackoffSeconds,
+                                  @Value("${bank.standing-orders.max-retry-backoff-seconds:21600}") long maxRetryBackoffSeconds) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.transactionService = transactionService;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.windowMillis = windowSeconds * 1000;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofSeconds(retryBackoffSeconds);
+        this.maxRetryBackoff = Duration.ofSeconds(maxRetryBackoffSeconds);
+        this.wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis(), 60, 60, 24);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bank-standing-order-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadWindow(System.currentTimeMillis() + windowMillis);
+        ready = true;
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        if (!ready) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now + windowMillis / 2 >= loadedUntil) {
+            loadWindow(now + windowMillis);
+        }
+
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(now, run -> {
+                Long deadline = scheduled.get(run.orderId);
+                if (deadline != null && deadline == run.deadline) {
+                    scheduled.remove(run.orderId);
+                    inFlight.add(run.orderId);
+                    due.add(run.orderId);
+                }
+            });
+        }
+
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<Long> batch = due.subList(i, Math.min(i + batchSize, due.size()));
+            executor.submit(() -> executeBatch(batch));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStandingOrderChanged(StandingOrderChangedEvent event) {
+        LocalDateTime next = event.getNextExecutionAt();
+        if ("ACTIVE".equals(event.getStatus()) && next != null && toMillis(next) < loadedUntil) {
+            schedule(event.getStandingOrderId(), toMillis(next), true);
+            return;
+        }
+        // Paused, finished or moved past the window; a later window load picks it up again if due
+        synchronized (this) {
+            scheduled.remove(event.getStandingOrderId());
+        }
+    }
+
+    // Orders of the old data are forgotten; wheel entries left for them no longer match and are skipped
+    @EventListener(DemoDataResetEvent.class)
+    public void onDemoDataReset() {
+        synchronized (this) {
+            scheduled.clear();
+        }
+        loadWindow(System.currentTimeMillis() + windowMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("scheduled", scheduled.size());
+            stats.put("wheelEntries", wheel.size());
+        }
+        stats.put("inFlight", inFlight.size());
+        stats.put("loadedUntil", LocalDateTime.ofInstant(Instant.ofEpochMilli(loadedUntil), ZoneId.systemDefault()));
+        stats.put("executed", executed.get());
+        stats.put("failed", failed.get());
+        stats.put("skippedOccurrences", skipped.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Overdue orders (e.g. missed while the application was down) are included and fire on the next tick
+    private void loadWindow(long until) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.inShard(shard, true, () -> {
+                jdbcTemplate.query(
+                        "SELECT id, next_execution_at FROM standing_orders WHERE status = 'ACTIVE' AND next_execution_at < ?",
+                        rs -> {
+                            schedule(rs.getLong(1), rs.getTimestamp(2).getTime(), false);
+                        },
+                        new Timestamp(until));
+                return null;
+            });
+        }
+        loadedUntil = until;
+    }
+
+    private synchronized void schedule(long orderId, long deadline, boolean changed) {
+        // A window reload may still see the old row of an order that is executing right now
+        if (!changed && inFlight.contains(orderId)) {
+            return;
+        }
+        Long current = scheduled.get(orderId);
+        if (current != null && current == deadline) {
+            return;
+        }
+        long effective = Math.max(deadline, wheel.getCurrentTime() + 1);
+        scheduled.put(orderId, effective);
+        wheel.schedule(effective, new ScheduledRun(orderId, effective));
+    }
+
+    private void executeBatch(List<Long> orderIds) {
+        for (Long orderId : orderIds) {
+            ShardRouter.Scope scope = shardRouter.forId(orderId);
+            try (scope) {
+                execute(orderId);
+            } catch (Exception e) {
+                log.error("Standing order {} could not be processed", orderId, e);
+            } finally {
+                inFlight.remove(orderId);
+            }
+        }
+    }
+
+    private void execute(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StandingOrder order = claim(orderId, now);
+                if (order == null) {
+                    return;
+                }
+                String description = "Standing order #" + order.getId()
+                        + (order.getDescription() != null ? ": " + order.getDescription() : "");
+                transactionService.transfer(order.getFromAccountId(), order.getToAccountId(), order.getAmount(), description);
+                order.setLastExecutedAt(now);
+                order.setLastError(null);
+                order.advance();
+                publish(order);
+                executed.incrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            // The posting rolled back; record the failure and retry with backoff in a fresh transaction
+            failed.incrementAndGet();
+            transactionTemplate.executeWithoutResult(status -> {
+                StandingOrder order = claim(orderId, now);
+                if (order != null) {
+                    recordFailure(order, e.getMessage(), now);
+                    publish(order);
+                }
+            });
+        }
+    }
+
+    // Locks the order and returns it only if it is still active and due
+    private StandingOrder claim(Long orderId, LocalDateTime now) {
+        StandingOrder order = standingOrderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || !"ACTIVE".equals(order.getStatus()) || order.getNextExecutionAt() == null
+                || order.getNextExecutionAt().isAfter(now)) {
+            return null;
+        }
+        return order;
+    }
+
+    private void recordFailure(StandingOrder order, String error, LocalDateTime now) {
+        String lastError = error != null && error.length() > 255 ? error.substring(0, 255) : error;
+        int failures = order.getFailureCount() + 1;
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(failures - 1, 20));
+        if (backoff.compareTo(maxRetryBackoff) > 0) {
+            backoff = maxRetryBackoff;
+        }
+        LocalDateTime retryAt = now.plus(backoff);
+        LocalDateTime followingOccurrence = order.occurrence(order.getExecutionCount() + 1);
+
+        if (failures > maxRetries || (followingOccurrence != null && !retryAt.isBefore(followingOccurrence))) {
+            // Give up on this occurrence; recurring orders carry on with the next one
+            skipped.incrementAndGet();
+            if ("ONCE".equals(order.getFrequency())) {
+                order.setStatus("FAILED");
+                order.setNextExecutionAt(null);
+            } else {
+                order.advance();
+            }
+        } else {
+            order.setFailureCount(failures);
+            order.setNextExecutionAt(retryAt);
+        }
+        order.setLastError(lastError);
+    }
+
+    private void publish(StandingOrder order) {
+        standingOrderRepository.save(order);
+        eventPublisher.publishEvent(new StandingOrderChangedEvent(
+                order.getId(), order.getStatus(), order.getNextExecutionAt()));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class ScheduledRun {
+        final long orderId;
+        final long deadline;
+
+        ScheduledRun(long orderId, long deadline) {
+            this.orderId = orderId;
+            this.deadline = deadline;
+        }
+    }
+}
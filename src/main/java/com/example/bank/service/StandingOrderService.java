@@ -0,0 +1,16 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.StandingOrderRequest;
+import com.example.bank.model.StandingOrder;
+
+import java.util.List;
+
+public interface StandingOrderService {
+    StandingOrder createStandingOrder(StandingOrderRequest request);
+    StandingOrder getStandingOrderById(Long id);
+    List<StandingOrder> getStandingOrdersByAccountId(Long accountId);
+    StandingOrder updateStandingOrder(Long id, StandingOrderRequest request);
+    StandingOrder pauseStandingOrder(Long id);
+    StandingOrder resumeStandingOrder(Long id);
+    StandingOrder cancelStandingOrder(Long id);
+}
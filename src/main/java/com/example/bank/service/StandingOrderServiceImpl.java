@@ -0,0 +1,165 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.StandingOrderRequest;
+import com.example.bank.event.StandingOrderChangedEvent;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import com.example.bank.model.StandingOrder;
+import com.example.bank.repository.StandingOrderRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+@Transactional
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    private static final Set<String> FREQUENCIES = Set.of("ONCE", "DAILY", "WEEKLY", "MONTHLY");
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final AccountService accountService;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StandingOrderServiceImpl(StandingOrderRepository standingOrderRepository,
+                                    AccountService accountService,
+                                    ShardRouter shardRouter,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.accountService = accountService;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public StandingOrder createStandingOrder(StandingOrderRequest request) {
+        if (request.getFromAccountId() == null || request.getToAccountId() == null) {
+            throw new ApiException("Source and target account IDs are required");
+        }
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
+            throw new ApiException("Cannot create a standing order to the same account");
+        }
+        validateAmount(request.getAmount());
+        String frequency = request.getFrequency() != null ? request.getFrequency().toUpperCase(Locale.ROOT) : "MONTHLY";
+        if (!FREQUENCIES.contains(frequency)) {
+            throw new ApiException("Frequency must be one of " + FREQUENCIES);
+        }
+
+        // Both accounts must exist; the order is kept on the source account's shard
+        Long toAccountId = request.getToAccountId();
+        accountService.getAccountById(request.getFromAccountId());
+        if (shardRouter.isCrossShard(request.getFromAccountId(), toAccountId)) {
+            shardRouter.inShard(shardRouter.shardOfId(toAccountId), true, () -> accountService.getAccountById(toAccountId));
+        } else {
+            accountService.getAccountById(toAccountId);
+        }
+
+        StandingOrder order = new StandingOrder();
+        order.setFromAccountId(request.getFromAccountId());
+        order.setToAccountId(request.getToAccountId());
+        order.setAmount(request.getAmount());
+        order.setDescription(request.getDescription());
+        order.setFrequency(frequency);
+        order.setStartAt(request.getStartAt() != null ? request.getStartAt() : LocalDateTime.now());
+        order.setEndAt(request.getEndAt());
+        if (order.getEndAt() != null && order.getEndAt().isBefore(order.getStartAt())) {
+            throw new ApiException("End date must be after the start date");
+        }
+        order.setNextExecutionAt(order.getStartAt());
+        return saveAndPublish(order);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StandingOrder getStandingOrderById(Long id) {
+        return standingOrderRepository.findById(id)
+                .orElseThrow(() -> new ApiException("Standing order not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StandingOrder> getStandingOrdersByAccountId(Long accountId) {
+        return standingOrderRepository.findByFromAccountIdOrderByIdDesc(accountId);
+    }
+
+    @Override
+    public StandingOrder updateStandingOrder(Long id, StandingOrderRequest request) {
+        StandingOrder order = getOpenOrder(id);
+        if (request.getAmount() != null) {
+            validateAmount(request.getAmount());
+            order.setAmount(request.getAmount());
+        }
+        if (request.getDescription() != null) {
+            order.setDescription(request.getDescription());
+        }
+        if (request.getEndAt() != null) {
+            if (request.getEndAt().isBefore(order.getStartAt())) {
+                throw new ApiException("End date must be after the start date");
+            }
+            order.setEndAt(request.getEndAt());
+            if (order.getNextExecutionAt() != null && order.getNextExecutionAt().isAfter(order.getEndAt())) {
+                order.setNextExecutionAt(null);
+                order.setStatus("COMPLETED");
+            }
+        }
+        return saveAndPublish(order);
+    }
+
+    @Override
+    public StandingOrder pauseStandingOrder(Long id) {
+        StandingOrder order = getOpenOrder(id);
+        order.setStatus("PAUSED");
+        return saveAndPublish(order);
+    }
+
+    @Override
+    public StandingOrder resumeStandingOrder(Long id) {
+        StandingOrder order = getOpenOrder(id);
+        if (!"PAUSED".equals(order.getStatus())) {
+            return order;
+        }
+        order.setStatus("ACTIVE");
+        // Occurrences missed while paused are skipped rather than posted in a burst
+        LocalDateTime now = LocalDateTime.now();
+        while ("ACTIVE".equals(order.getStatus()) && order.getNextExecutionAt().isBefore(now)
+                && !"ONCE".equals(order.getFrequency())) {
+            order.advance();
+        }
+        return saveAndPublish(order);
+    }
+
+    @Override
+    public StandingOrder cancelStandingOrder(Long id) {
+        StandingOrder order = getOpenOrder(id);
+        order.setStatus("CANCELLED");
+        order.setNextExecutionAt(null);
+        return saveAndPublish(order);
+    }
+
+    private StandingOrder getOpenOrder(Long id) {
+        StandingOrder order = standingOrderRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ApiException("Standing order not found"));
+        if (!"ACTIVE".equals(order.getStatus()) && !"PAUSED".equals(order.getStatus())) {
+            throw new ApiException("Standing order is " + order.getStatus().toLowerCase(Locale.ROOT));
+        }
+        return order;
+    }
+
+    private StandingOrder saveAndPublish(StandingOrder order) {
+        StandingOrder saved = standingOrderRepository.save(order);
+        eventPublisher.publishEvent(new StandingOrderChangedEvent(
+                saved.getId(), saved.getStatus(), saved.getNextExecutionAt()));
+        return saved;
+    }
+
+    private void validateAmount(Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            throw new ApiException("Standing order amount must be greater than zero");
+        }
+    }
+}
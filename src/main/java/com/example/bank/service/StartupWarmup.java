@@ -0,0 +1,132 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs before the readiness state flips to ACCEPTING_TRAFFIC: loads the most active accounts and
+// drives the transfer path a few times inside rolled-back transactions, so the first real requests
+// do not pay for connection setup, Hibernate/Jackson metadata and interpreted bytecode.
+@Component
+@ConditionalOnProperty(prefix = "bank.warmup", name = "enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final Money WARMUP_AMOUNT = Money.ofCents(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final int hotAccounts;
+    private final int transferIterations;
+
+    public StartupWarmup(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         AccountService accountService,
+                         TransactionService transactionService,
+                         ObjectMapper objectMapper,
+                         @Value("${bank.warmup.hot-accounts:500}") int hotAccounts,
+                         @Value("${bank.warmup.transfer-iterations:200}") int transferIterations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+        this.hotAccounts = hotAccounts;
+        this.transferIterations = transferIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        List<Long> accountIds = findHotAccounts();
+        List<Account> loaded = preload(accountIds);
+        int transfers = exerciseTransfers(loaded);
+        log.info("Warm-up finished in {} ms: {} hot accounts loaded, {} rolled-back transfers",
+                System.currentTimeMillis() - started, loaded.size(), transfers);
+    }
+
+    // Accounts with the most postings over the last week, topped up with the lowest ids on a quiet database
+    private List<Long> findHotAccounts() {
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT from_account_id FROM transactions WHERE from_account_id IS NOT NULL AND transaction_date >= ? " +
+                "GROUP BY from_account_id ORDER BY COUNT(*) DESC LIMIT ?",
+                Long.class, Timestamp.valueOf(LocalDateTime.now().minusDays(7)), hotAccounts));
+        if (ids.size() < hotAccounts) {
+            for (Long id : jdbcTemplate.queryForList("SELECT id FROM accounts ORDER BY id LIMIT ?", Long.class, hotAccounts)) {
+                if (ids.size() >= hotAccounts) {
+                    break;
+                }
+                if (!ids.contains(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private List<Account> preload(List<Long> accountIds) {
+        List<Account> loaded = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            for (Long id : accountIds) {
+                try {
+                    loaded.add(accountService.getAccountById(id));
+                } catch (RuntimeException e) {
+                    log.debug("Warm-up skipped account {}: {}", id, e.getMessage());
+                }
+            }
+        });
+        return loaded;
+    }
+
+    // Nothing is committed: velocity, search and other after-commit listeners never see these postings
+    private int exerciseTransfers(List<Account> accounts) {
+        List<Account> funded = accounts.stream()
+                .filter(account -> !account.getBalance().isLessThan(WARMUP_AMOUNT))
+                .toList();
+        if (funded.isEmpty() || accounts.size() < 2) {
+            return 0;
+        }
+        int completed = 0;
+        for (int i = 0; i < transferIterations; i++) {
+            Account from = funded.get(i % funded.size());
+            Account to = accounts.get((i + 1) % accounts.size());
+            if (from.getId().equals(to.getId())) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    Transaction transaction = transactionService.transfer(from.getId(), to.getId(), WARMUP_AMOUNT, "warm-up");
+                    try {
+                        objectMapper.writeValueAsBytes(transaction);
+                    } catch (Exception e) {
+                        log.debug("Warm-up serialization failed: {}", e.getMessage());
+                    }
+                });
+                completed++;
+            } catch (RuntimeException e) {
+                log.debug("Warm-up transfer {} -> {} failed: {}", from.getId(), to.getId(), e.getMessage());
+            }
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+
+public interface StripedBalanceService {
+    void loadBucketBalance(Account account);
+    void credit(Account account, Money amount);
+    void prepareDebit(Account account);
+    Account setStriping(Long accountId, boolean enabled);
+    int compactAll();
+}
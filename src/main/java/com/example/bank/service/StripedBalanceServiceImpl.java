@@ -0,0 +1,159 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.model.AccountBalanceBucket;
+import com.example.bank.model.Money;
+import com.example.bank.repository.AccountBalanceBucketRepository;
+import com.example.bank.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class StripedBalanceServiceImpl implements StripedBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(StripedBalanceServiceImpl.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int bucketCount;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StripedBalanceServiceImpl(AccountRepository accountRepository,
+                                   AccountBalanceBucketRepository bucketRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ShardRouter shardRouter,
+                                   @Value("${bank.striping.buckets:16}") int bucketCount) {
+        this.accountRepository = accountRepository;
+        this.bucketRepository = bucketRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.bucketCount = bucketCount;
+    }
+
+    @Override
+    public void loadBucketBalance(Account account) {
+        if (account.isStriped()) {
+            account.setBucketBalance(Money.of(bucketRepository.sumBalanceByAccountId(account.getId())));
+        }
+    }
+
+    @Override
+    public void credit(Account account, Money amount) {
+        if (!account.isStriped()) {
+            // The row is written back whole, so it is locked and re-read first like a debit's; a set-based
+            // writer adding to it in SQL either committed before and is seen here, or waits for this one
+            lockForUpdate(account);
+        }
+        Money balance = account.getBalance().plus(amount);
+        if (!balance.fitsColumn()) {
+            throw new ApiException("Balance limit exceeded for account " + account.getAccountNumber());
+        }
+        if (!account.isStriped()) {
+            account.setBalance(balance);
+            return;
+        }
+
+        // A random bucket per credit spreads concurrent writers over bucketCount rows
+        int bucketNo = ThreadLocalRandom.current().nextInt(bucketCount);
+        if (bucketRepository.credit(account.getId(), bucketNo, amount.toBigDecimal()) == 0
+                && bucketRepository.credit(account.getId(), 0, amount.toBigDecimal()) == 0) {
+            throw new ApiException("Balance buckets missing for account " + account.getAccountNumber());
+        }
+        account.addBucketBalance(amount);
+    }
+
+    @Override
+    public void prepareDebit(Account account) {
+        // Reserve: lock the account row so debits and holds on it serialize and the available-balance
+        // check sees the balance and holds as of the lock
+        lockForUpdate(account);
+        if (!account.isStriped()) {
+            return;
+        }
+
+        // Buckets only grow outside compaction, which takes the same row lock first
+        account.setBucketBalance(Money.of(bucketRepository.sumBalanceByAccountId(account.getId())));
+    }
+
+    // Callers that loaded the row locked keep it as loaded
+    private void lockForUpdate(Account account) {
+        if (entityManager.getLockMode(account) != LockModeType.PESSIMISTIC_WRITE) {
+            entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Account setStriping(Long accountId, boolean enabled) {
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ApiException("Account not found"));
+
+        if (enabled) {
+            Set<Integer> existing = new HashSet<>();
+            for (AccountBalanceBucket bucket : bucketRepository.findByAccountId(accountId)) {
+                existing.add(bucket.getBucketNo());
+            }
+            for (int bucketNo = 0; bucketNo < bucketCount; bucketNo++) {
+                if (!existing.contains(bucketNo)) {
+                    bucketRepository.save(new AccountBalanceBucket(accountId, bucketNo));
+                }
+            }
+        } else {
+            foldBuckets(account);
+        }
+
+        account.setStriped(enabled);
+        loadBucketBalance(account);
+        return account;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${bank.striping.compaction-interval-ms:5000}")
+    public int compactAll() {
+        int compacted = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                for (Long accountId : bucketRepository.findAccountIdsWithPendingCredits()) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                accountRepository.findByIdForUpdate(accountId).ifPresent(this::foldBuckets));
+                        compacted++;
+                    } catch (Exception e) {
+                        log.warn("Compaction of balance buckets for account {} failed", accountId, e);
+                    }
+                }
+            }
+        }
+        return compacted;
+    }
+
+    // Moves every bucket balance into the account row; caller holds the account row lock
+    private void foldBuckets(Account account) {
+        Money folded = Money.ZERO;
+        for (AccountBalanceBucket bucket : bucketRepository.findByAccountIdForUpdate(account.getId())) {
+            folded = folded.plus(Money.of(bucket.getBalance()));
+            bucket.setBalance(BigDecimal.ZERO);
+        }
+        account.setBucketBalance(Money.ZERO);
+        account.setBalance(account.getBalance().plus(folded));
+    }
+}
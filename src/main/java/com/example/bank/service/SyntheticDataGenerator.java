@@ -0,0 +1,539 @@
+package com.example.bank.service;
+
+import com.example.bank.config.DataGeneratorProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fills the database with users, accounts and postings at performance-test volumes
+// (--spring.profiles.active=datagen, sizes under bank.datagen). Every account opens with a deposit,
+// then activity postings are drawn with log-normal amounts and a power-law choice of accounts, so a
+// few hot accounts see most of the traffic; posting dates rise with the id over the history window.
+//
+// Generation is deterministic per chunk of postings, which allows two passes: the first replays the
+// history in posting order on running balances, the second inserts accounts with their final balances
+// and then the same postings again, chunk by chunk from parallel producers using multi-row INSERTs. An
+// account the history would take below zero opens with enough more to stay at or above zero throughout,
+// so every balance equals the sum of its postings at every point in time. Ids are assigned here, after
+// the highest existing ones, and the user activity feed and outbox event rows are written alongside, as
+// the posting paths do. Meant for an idle, unsharded database; the datagen profile turns scheduled jobs
+// off, so no rollup or index reads a high-water mark while chunks commit out of id order.
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // Above every number createAccount draws, so generated accounts never collide with real ones
+    private static final long ACCOUNT_NUMBER_BASE = 1_000_000_000L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long OPENING_STREAM = 0;
+    private static final long ACTIVITY_STREAM = 1;
+    private static final long OPENING_WINDOW_MILLIS = 3_600_000;
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAWAL = 1;
+    private static final int TRANSFER = 2;
+    private static final String[] TYPES = { "DEPOSIT", "WITHDRAWAL", "TRANSFER" };
+    private static final String[][] DESCRIPTIONS = {
+            { "Salary payment", "Cash deposit", "Refund from merchant", "Mobile check deposit", "Interest payout" },
+            { "ATM withdrawal", "Card payment groceries", "Utility bill payment", "Fuel station", "Online shopping" },
+            { "Rent transfer", "Payment to friend", "Invoice settlement", "Savings transfer", "Shared dinner split" }
+    };
+    private static final String[] FIRST_NAMES = { "Alex", "Sam", "Maria", "John", "Priya", "Chen", "Fatima", "Lucas", "Amara", "Noah" };
+    private static final String[] LAST_NAMES = { "Smith", "Garcia", "Kumar", "Wang", "Okafor", "Silva", "Novak", "Haddad", "Berg", "Tanaka" };
+
+    private static final String USER_COLUMNS = "users (id, first_name, last_name, email, password, phone, created_at)";
+    private static final String ACCOUNT_COLUMNS = "accounts (id, account_number, balance, account_type, user_id, created_at, striped)";
+    private static final String TRANSACTION_COLUMNS = "transactions (id, from_account_id, to_account_id, amount, transaction_type, description, transaction_date, status)";
+    private static final String ACTIVITY_COLUMNS = "user_activity (user_id, transaction_id, activity_date)";
+    private static final String OUTBOX_COLUMNS = "outbox_events (transaction_id, account_id, from_account_id, to_account_id, amount, transaction_type, transaction_date, created_at)";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ShardRouter shardRouter;
+    private final DataGeneratorProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    public SyntheticDataGenerator(DataSource dataSource,
+                                  JdbcTemplate jdbcTemplate,
+                                  PasswordEncoder passwordEncoder,
+                                  ShardRouter shardRouter,
+                                  DataGeneratorProperties properties,
+                                  ConfigurableApplicationContext context) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    public void generate() {
+        if (shardRouter.isEnabled()) {
+            throw new IllegalStateException("The data generator writes one database; run it with bank.sharding.enabled=false");
+        }
+        if (properties.getUsers() <= 0 || properties.getAccounts() <= 0 || properties.getTransactions() < 0) {
+            throw new IllegalStateException("bank.datagen.users and accounts must be positive, transactions not negative");
+        }
+        Plan plan = new Plan(properties, nextId("users"), nextId("accounts"), nextId("transactions"),
+                System.currentTimeMillis());
+        log.info("Generating {} users, {} accounts and {} activity postings with {} threads",
+                plan.users, plan.accounts, plan.transactions, properties.getThreads());
+
+        long started = System.currentTimeMillis();
+        long[] openings = new long[plan.accounts];
+        long[] balances = computeBalances(plan, openings);
+        long raised = 0;
+        for (int account = 0; account < plan.accounts; account++) {
+            raised += openings[account] > plan.openingCents(account) ? 1 : 0;
+        }
+
+        writeUsers(plan);
+        writeAccounts(plan, balances);
+        writeOpeningDeposits(plan, openings);
+        writeActivity(plan);
+        restartIdentities();
+
+        long rows = plan.users + 2L * plan.accounts + plan.transactions;
+        long millis = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Generated {} rows (plus the activity feed) in {} s, {} rows/min; {} accounts needed a larger opening deposit",
+                rows, millis / 1000, rows * 60_000 / millis, raised);
+    }
+
+    // Pass 1: the activity in posting order on running balances. A debit that would take an account below
+    // zero raises its opening deposit by the shortfall; openings receives the deposits, the result is the
+    // final balances. Running balances need the order, so this pass is single-threaded; it does no I/O.
+    private long[] computeBalances(Plan plan, long[] openings) {
+        long started = System.currentTimeMillis();
+        long[] balances = new long[plan.accounts];
+        for (int account = 0; account < plan.accounts; account++) {
+            openings[account] = plan.openingCents(account);
+            balances[account] = openings[account];
+        }
+        PostingSink replay = (id, from, to, cents, type, description, time) -> {
+            if (from >= 0) {
+                long after = balances[from] - cents;
+                if (after < 0) {
+                    openings[from] -= after;
+                    after = 0;
+                }
+                balances[from] = after;
+            }
+            if (to >= 0) {
+                balances[to] += cents;
+            }
+        };
+        try {
+            for (long chunk = 0; chunk < plan.activityChunks(); chunk++) {
+                plan.activity(chunk, replay);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replaying balances failed: " + e.getMessage(), e);
+        }
+        log.info("Replaying balances: {} chunks in {} ms", plan.activityChunks(), System.currentTimeMillis() - started);
+        return balances;
+    }
+
+    private void writeUsers(Plan plan) {
+        String passwordHash = passwordEncoder.encode(properties.getPassword());
+        Timestamp createdAt = new Timestamp(plan.historyStart - 86_400_000L);
+        long chunks = (plan.users + plan.chunkSize - 1) / plan.chunkSize;
+        forEachChunk("Writing users", chunks, (chunk, connection) -> {
+            try (MultiRowInsert users = new MultiRowInsert(connection, USER_COLUMNS, 7, plan.rowsPerInsert)) {
+                long end = Math.min(plan.users, (chunk + 1) * plan.chunkSize);
+                for (long user = chunk * plan.chunkSize; user < end; user++) {
+                    long id = plan.firstUserId + user;
+                    users.add(id, FIRST_NAMES[(int) (user % FIRST_NAMES.length)],
+                            LAST_NAMES[(int) ((user / FIRST_NAMES.length) % LAST_NAMES.length)],
+                            "datagen.user" + id + "@example.com", passwordHash,
+                            String.format("555%07d", id % 10_000_000), createdAt);
+                }
+            }
+        });
+    }
+
+    private void writeAccounts(Plan plan, long[] balances) {
+        Timestamp createdAt = new Timestamp(plan.historyStart - OPENING_WINDOW_MILLIS);
+        long chunks = (plan.accounts + plan.chunkSize - 1) / plan.chunkSize;
+        forEachChunk("Writing accounts", chunks, (chunk, connection) -> {
+            try (MultiRowInsert accounts = new MultiRowInsert(connection, ACCOUNT_COLUMNS, 7, plan.rowsPerInsert)) {
+                long end = Math.min(plan.accounts, (chunk + 1) * plan.chunkSize);
+                for (int account = (int) (chunk * plan.chunkSize); account < end; account++) {
+                    long id = plan.firstAccountId + account;
+                    accounts.add(id, String.format("ACC%010d", ACCOUNT_NUMBER_BASE + id),
+                            BigDecimal.valueOf(balances[account], 2), account % 3 == 0 ? "CHECKING" : "SAVINGS",
+                            plan.userIdOf(account), createdAt, false);
+                }
+            }
+        });
+    }
+
+    // In the hour before the history starts, so no account is debited before it is funded
+    private void writeOpeningDeposits(Plan plan, long[] openings) {
+        long chunks = (plan.accounts + plan.chunkSize - 1) / plan.chunkSize;
+        forEachChunk("Writing opening deposits", chunks, (chunk, connection) -> {
+            try (Postings postings = new Postings(connection, plan)) {
+                long end = Math.min(plan.accounts, (chunk + 1) * plan.chunkSize);
+                for (int account = (int) (chunk * plan.chunkSize); account < end; account++) {
+                    postings.add(plan.firstTransactionId + account, -1, account, openings[account], "DEPOSIT",
+                            "Initial account opening bonus", plan.historyStart - OPENING_WINDOW_MILLIS + account % OPENING_WINDOW_MILLIS);
+                }
+            }
+        });
+    }
+
+    // Pass 2: the postings of pass 1, regenerated chunk by chunk
+    private void writeActivity(Plan plan) {
+        forEachChunk("Writing activity postings", plan.activityChunks(), (chunk, connection) -> {
+            try (Postings postings = new Postings(connection, plan)) {
+                plan.activity(chunk, (id, from, to, cents, type, description, time) ->
+                        postings.add(id, from, to, cents, TYPES[type], DESCRIPTIONS[type][description], time));
+            }
+        });
+    }
+
+    // Runs work for chunks 0..chunks-1 on the configured number of threads, each committing per chunk
+    private void forEachChunk(String phase, long chunks, ChunkWork work) {
+        long started = System.currentTimeMillis();
+        AtomicLong next = new AtomicLong();
+        int threads = (int) Math.max(1, Math.min(properties.getThreads(), chunks));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> producers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                producers.add(CompletableFuture.runAsync(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        for (long chunk = next.getAndIncrement(); chunk < chunks; chunk = next.getAndIncrement()) {
+                            work.run(chunk, connection);
+                            connection.commit();
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        // Stops the other producers after their current chunk
+                        next.set(chunks);
+                        throw new IllegalStateException(phase + " failed: " + e.getMessage(), e);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(producers.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        log.info("{}: {} chunks in {} ms", phase, chunks, System.currentTimeMillis() - started);
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max != null ? max + 1 : 1;
+    }
+
+    // MySQL moves AUTO_INCREMENT past explicit ids by itself, H2 has to be told
+    private void restartIdentities() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(product)) {
+            return;
+        }
+        for (String table : List.of("users", "accounts", "transactions")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWork {
+        void run(long chunk, Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface PostingSink {
+        // from and to are account indexes, -1 for none
+        void accept(long id, int from, int to, long cents, int type, int description, long timeMillis) throws SQLException;
+    }
+
+    // Sizes, id bases and the deterministic draws shared by both passes
+    private static final class Plan {
+        final int users;
+        final int accounts;
+        final long transactions;
+        final int chunkSize;
+        final int rowsPerInsert;
+        final long firstUserId;
+        final long firstAccountId;
+        final long firstTransactionId;
+        final long now;
+        final long historyStart;
+        final boolean activityFeed;
+        final boolean outboxEvents;
+        private final double hotSkew;
+        // Hot accounts are mostly paid into (merchants, landlords); deposits and spending are spread more evenly
+        private final double spreadSkew;
+        private final long seed;
+        private final long hotStride;
+
+        Plan(DataGeneratorProperties properties, long firstUserId, long firstAccountId, long firstTransactionId, long now) {
+            this.users = properties.getUsers();
+            this.accounts = properties.getAccounts();
+            this.transactions = properties.getTransactions();
+            this.chunkSize = Math.max(1, properties.getChunkSize());
+            this.rowsPerInsert = Math.max(1, properties.getRowsPerInsert());
+            this.firstUserId = firstUserId;
+            this.firstAccountId = firstAccountId;
+            this.firstTransactionId = firstTransactionId;
+            this.now = now;
+            this.historyStart = now - properties.getHistoryDays() * 86_400_000L;
+            this.activityFeed = properties.isActivityFeed();
+            this.outboxEvents = properties.isOutboxEvents();
+            this.hotSkew = Math.max(1.0, properties.getHotSkew());
+            this.spreadSkew = Math.sqrt(hotSkew);
+            this.seed = properties.getSeed();
+            this.hotStride = strideFor(accounts);
+        }
+
+        long activityChunks() {
+            return (transactions + chunkSize - 1) / chunkSize;
+        }
+
+        long userIdOf(int account) {
+            return firstUserId + account % users;
+        }
+
+        long openingCents(int account) {
+            return logNormalCents(randomFor(OPENING_STREAM, account), 1500.0);
+        }
+
+        // Postings chunk*chunkSize.. of the activity, always the same for the same chunk and seed
+        void activity(long chunk, PostingSink sink) throws SQLException {
+            SplittableRandom random = randomFor(ACTIVITY_STREAM, chunk);
+            long span = now - 60_000 - historyStart;
+            long end = Math.min(transactions, (chunk + 1) * chunkSize);
+            for (long n = chunk * chunkSize; n < end; n++) {
+                long time = historyStart + (long) (span * ((double) n / Math.max(1, transactions)));
+                int roll = random.nextInt(100);
+                int description = random.nextInt(DESCRIPTIONS[0].length);
+                long id = firstTransactionId + accounts + n;
+                if (roll < 30) {
+                    sink.accept(id, -1, pick(random, spreadSkew), logNormalCents(random, 250.0), DEPOSIT, description, time);
+                } else if (roll < 60) {
+                    sink.accept(id, pick(random, spreadSkew), -1, logNormalCents(random, 60.0), WITHDRAWAL, description, time);
+                } else {
+                    int from = pick(random, spreadSkew);
+                    int to = pick(random, hotSkew);
+                    if (to == from) {
+                        to = (to + 1) % accounts;
+                    }
+                    if (to == from) {
+                        // A single account has nobody to pay
+                        sink.accept(id, -1, to, logNormalCents(random, 80.0), DEPOSIT, description, time);
+                    } else {
+                        sink.accept(id, from, to, logNormalCents(random, 80.0), TRANSFER, description, time);
+                    }
+                }
+            }
+        }
+
+        // Seeds one generator per account or chunk. Seeds must not differ by SplittableRandom's own step,
+        // or the streams would be the same sequence shifted, so they are hashed apart.
+        private SplittableRandom randomFor(long stream, long index) {
+            return new SplittableRandom(mix64(seed ^ mix64(index * 2 + stream)));
+        }
+
+        // Power-law rank, scattered over the accounts so the hot ones are not all owned by the first users
+        private int pick(SplittableRandom random, double skew) {
+            long rank = (long) (accounts * Math.pow(random.nextDouble(), skew));
+            return (int) ((Math.min(rank, accounts - 1) * hotStride) % accounts);
+        }
+
+        private static long logNormalCents(SplittableRandom random, double medianDollars) {
+            double dollars = medianDollars * Math.exp(random.nextGaussian());
+            return Math.max(100, Math.min(5_000_000, Math.round(dollars * 100)));
+        }
+
+        // A multiplier coprime with the account count, which makes rank -> index a permutation
+        private static long strideFor(int accounts) {
+            long stride = (GOLDEN >>> 33) % accounts;
+            while (stride < 1 || gcd(stride, accounts) != 1) {
+                stride = (stride + 1) % accounts;
+                if (accounts == 1) {
+                    return 1;
+                }
+            }
+            return stride;
+        }
+
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+    }
+
+    // Postings of one chunk with their activity feed and outbox event rows
+    private static final class Postings implements AutoCloseable {
+        private final Plan plan;
+        private final MultiRowInsert transactions;
+        private final MultiRowInsert activity;
+        private final MultiRowInsert outbox;
+        private final Timestamp createdAt;
+
+        Postings(Connection connection, Plan plan) throws SQLException {
+            this.plan = plan;
+            this.transactions = new MultiRowInsert(connection, TRANSACTION_COLUMNS, 8, plan.rowsPerInsert);
+            this.activity = plan.activityFeed
+                    ? new MultiRowInsert(connection, ACTIVITY_COLUMNS, 3, plan.rowsPerInsert, transactions) : null;
+            this.outbox = plan.outboxEvents
+                    ? new MultiRowInsert(connection, OUTBOX_COLUMNS, 8, plan.rowsPerInsert, transactions) : null;
+            this.createdAt = new Timestamp(plan.now);
+        }
+
+        void add(long id, int from, int to, long cents, String type, String description, long timeMillis) throws SQLException {
+            Timestamp date = new Timestamp(timeMillis);
+            Long fromId = from >= 0 ? plan.firstAccountId + from : null;
+            Long toId = to >= 0 ? plan.firstAccountId + to : null;
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            transactions.add(id, fromId, toId, amount, type, description, date, "COMPLETED");
+            if (outbox != null) {
+                outbox.add(id, fromId != null ? fromId : toId, fromId, toId, amount, type, date, createdAt);
+            }
+            if (activity == null) {
+                return;
+            }
+            long fromUser = from >= 0 ? plan.userIdOf(from) : -1;
+            long toUser = to >= 0 ? plan.userIdOf(to) : -1;
+            if (fromUser >= 0) {
+                activity.add(fromUser, id, date);
+            }
+            if (toUser >= 0 && toUser != fromUser) {
+                activity.add(toUser, id, date);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (activity != null) {
+                    activity.close();
+                }
+                if (outbox != null) {
+                    outbox.close();
+                }
+            } finally {
+                transactions.close();
+            }
+        }
+    }
+
+    // INSERT ... VALUES (...), (...) with rowsPerStatement rows; close() writes the remainder. Rows that
+    // reference another insert's pending rows (feed rows -> postings) have that one flushed first.
+    private static final class MultiRowInsert implements AutoCloseable {
+        private final Connection connection;
+        private final String table;
+        private final int columns;
+        private final int rowsPerStatement;
+        private final MultiRowInsert referenced;
+        private final Object[] values;
+        private PreparedStatement fullStatement;
+        private int rows;
+
+        MultiRowInsert(Connection connection, String table, int columns, int rowsPerStatement) {
+            this(connection, table, columns, rowsPerStatement, null);
+        }
+
+        MultiRowInsert(Connection connection, String table, int columns, int rowsPerStatement, MultiRowInsert referenced) {
+            this.connection = connection;
+            this.table = table;
+            this.columns = columns;
+            this.rowsPerStatement = rowsPerStatement;
+            this.referenced = referenced;
+            this.values = new Object[columns * rowsPerStatement];
+        }
+
+        void add(Object... row) throws SQLException {
+            System.arraycopy(row, 0, values, rows * columns, columns);
+            if (++rows == rowsPerStatement) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (rows == 0) {
+                return;
+            }
+            if (referenced != null) {
+                referenced.flush();
+            }
+            if (rows == rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = connection.prepareStatement(sql(rowsPerStatement));
+                }
+                execute(fullStatement);
+            } else {
+                try (PreparedStatement tail = connection.prepareStatement(sql(rows))) {
+                    execute(tail);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                if (fullStatement != null) {
+                    fullStatement.close();
+                }
+            }
+        }
+
+        private void execute(PreparedStatement statement) throws SQLException {
+            for (int i = 0; i < rows * columns; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.executeUpdate();
+            rows = 0;
+        }
+
+        private String sql(int rowCount) {
+            String row = "(" + "?, ".repeat(columns - 1) + "?)";
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES ");
+            for (int i = 0; i < rowCount; i++) {
+                sql.append(i == 0 ? "" : ", ").append(row);
+            }
+            return sql.toString();
+        }
+    }
+}
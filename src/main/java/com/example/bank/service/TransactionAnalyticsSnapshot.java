@@ -0,0 +1,481 @@
+package com.example.bank.service;
+
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.util.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Column-oriented copy of the transactions table for whole-book admin reports. Rows are appended in
+// commit_seq order (see PostingSequencer), so a posting that commits late is picked up rather than
+// skipped, to fixed-size segments of primitive arrays (25 bytes per row: long cents, int seconds,
+// byte type code, two int account indices, int id offset) and every report is a parallel scan over
+// the segments. Appends come from a single refresher thread; readers only see rows below the
+// published size, so no locking is needed on the read path. Each shard has its own columns, read in
+// commit_seq order from that shard, and reports add the shards' results up. A demo reset rebuilds it
+// from scratch.
+@Component
+public class TransactionAnalyticsSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionAnalyticsSnapshot.class);
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int BYTES_PER_ROW = 8 + 4 + 1 + 4 + 4 + 4;
+    // Timestamps are wall-clock seconds since 2000-01-01, which keeps them in an int until 2068
+    private static final long TIME_BASE = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final int NO_ACCOUNT = -1;
+    // Code 127 collects any transaction type beyond the first 127
+    private static final byte OTHER_TYPE = 127;
+    // Upper bounds in cents of the amount histogram buckets; the last bucket is open-ended
+    private static final long[] HISTOGRAM_BOUNDS = { 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000 };
+    private static final String[] HISTOGRAM_LABELS = {
+            "< $1", "$1 - $10", "$10 - $100", "$100 - $1K", "$1K - $10K", "$10K - $100K", "$100K - $1M", ">= $1M" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    // One per shard
+    private volatile Columns[] columns;
+    private volatile boolean ready;
+
+    public TransactionAnalyticsSnapshot(JdbcTemplate jdbcTemplate,
+                                        ShardRouter shardRouter,
+                                        @Value("${bank.analytics.refresh-batch-size:100000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.columns = newColumns();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        refresh();
+        ready = true;
+        log.info("Analytics snapshot loaded {} transactions in {} ms", size(columns), System.currentTimeMillis() - started);
+    }
+
+    @EventListener(DemoDataResetEvent.class)
+    public synchronized void onDemoDataReset() {
+        columns = newColumns();
+        refresh();
+    }
+
+    // Appends transactions sequenced since the last run. A cross-shard debit is left out while PENDING
+    // and appended once, when it is sequenced again with its final status.
+    @Scheduled(fixedDelayString = "${bank.analytics.refresh-interval-ms:15000}")
+    public synchronized void refresh() {
+        Columns[] shards = columns;
+        for (int shard = 0; shard < shards.length; shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                refresh(shards[shard]);
+            }
+        }
+    }
+
+    private void refresh(Columns target) {
+        int appended;
+        do {
+            int before = target.size;
+            jdbcTemplate.query(
+                    "SELECT id, amount, transaction_date, transaction_type, from_account_id, to_account_id, commit_seq " +
+                    "FROM transactions WHERE commit_seq > ? AND status <> 'PENDING' ORDER BY commit_seq LIMIT ?",
+                    rs -> {
+                        long from = rs.getLong(5);
+                        boolean hasFrom = !rs.wasNull();
+                        long to = rs.getLong(6);
+                        boolean hasTo = !rs.wasNull();
+                        target.append(rs.getLong(1),
+                                rs.getBigDecimal(2).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact(),
+                                (int) (rs.getTimestamp(3).toLocalDateTime().toEpochSecond(ZoneOffset.UTC) - TIME_BASE),
+                                rs.getString(4), hasFrom ? from : null, hasTo ? to : null, rs.getLong(7));
+                    },
+                    target.lastSeq, batchSize);
+            appended = target.size - before;
+        } while (appended == batchSize);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Map<String, Object> getSummary() {
+        Columns[] shards = columns;
+        long size = 0;
+        long accounts = 0;
+        long segments = 0;
+        long bytes = 0;
+        List<Long> lastSeqs = new ArrayList<>();
+        for (Columns c : shards) {
+            size += c.size;
+            accounts += c.accountCount;
+            segments += (c.size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS;
+            bytes += c.memoryBytes();
+            lastSeqs.add(c.lastSeq);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("ready", ready);
+        summary.put("transactions", size);
+        summary.put("accounts", accounts);
+        summary.put("lastCommitSeq", shards.length > 1 ? lastSeqs : lastSeqs.get(0));
+        summary.put("segments", segments);
+        summary.put("memoryBytes", bytes);
+        summary.put("bytesPerTransaction", size > 0 ? (double) bytes / size : 0);
+        return summary;
+    }
+
+    // Count and total amount per transaction type; type codes differ between shards, so totals are
+    // added up by name
+    public Map<String, Object> totalsByType(LocalDateTime from, LocalDateTime to) {
+        Map<String, long[]> byName = new LinkedHashMap<>();
+        for (Columns c : columns) {
+            long[] totals = totalsByType(c, from, to);
+            for (int code = 0; code <= OTHER_TYPE; code++) {
+                if (totals[code * 2] > 0) {
+                    long[] total = byName.computeIfAbsent(c.typeNames[code], name -> new long[2]);
+                    total[0] += totals[code * 2];
+                    total[1] += totals[code * 2 + 1];
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        byName.forEach((name, total) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", total[0]);
+            entry.put("amount", BigDecimal.valueOf(total[1], 2));
+            result.put(name, entry);
+        });
+        return result;
+    }
+
+    private static long[] totalsByType(Columns c, LocalDateTime from, LocalDateTime to) {
+        int lo = toSeconds(from, Integer.MIN_VALUE);
+        int hi = toSeconds(to, Integer.MAX_VALUE);
+        return scan(c, lo, hi, () -> new long[(OTHER_TYPE + 1) * 2], (segment, end, acc) -> {
+            byte[] types = segment.types;
+            long[] amounts = segment.amounts;
+            int[] times = segment.times;
+            for (int i = 0; i < end; i++) {
+                int t = times[i];
+                if (t >= lo && t < hi) {
+                    int code = types[i] & 0x7f;
+                    acc[code * 2]++;
+                    acc[code * 2 + 1] += amounts[i];
+                }
+            }
+        }, TransactionAnalyticsSnapshot::sum);
+    }
+
+    // Transaction counts and totals in decade-sized amount buckets
+    public List<Map<String, Object>> amountHistogram(LocalDateTime from, LocalDateTime to) {
+        int lo = toSeconds(from, Integer.MIN_VALUE);
+        int hi = toSeconds(to, Integer.MAX_VALUE);
+        int buckets = HISTOGRAM_LABELS.length;
+        long[] counts = scanAll(lo, hi, () -> new long[buckets * 2], (segment, end, acc) -> {
+            long[] amounts = segment.amounts;
+            int[] times = segment.times;
+            for (int i = 0; i < end; i++) {
+                int t = times[i];
+                if (t >= lo && t < hi) {
+                    long amount = amounts[i];
+                    int bucket = 0;
+                    while (bucket < HISTOGRAM_BOUNDS.length && amount >= HISTOGRAM_BOUNDS[bucket]) {
+                        bucket++;
+                    }
+                    acc[bucket * 2]++;
+                    acc[bucket * 2 + 1] += amount;
+                }
+            }
+        }, TransactionAnalyticsSnapshot::sum);
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("range", HISTOGRAM_LABELS[bucket]);
+            entry.put("count", counts[bucket * 2]);
+            entry.put("amount", BigDecimal.valueOf(counts[bucket * 2 + 1], 2));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // Volume per wall-clock hour of the day
+    public List<Map<String, Object>> hourlyVolume(LocalDateTime from, LocalDateTime to) {
+        int lo = toSeconds(from, Integer.MIN_VALUE);
+        int hi = toSeconds(to, Integer.MAX_VALUE);
+        long[] hours = scanAll(lo, hi, () -> new long[48], (segment, end, acc) -> {
+            long[] amounts = segment.amounts;
+            int[] times = segment.times;
+            for (int i = 0; i < end; i++) {
+                int t = times[i];
+                if (t >= lo && t < hi) {
+                    int hour = Math.floorMod(t, 86_400) / 3_600;
+                    acc[hour * 2]++;
+                    acc[hour * 2 + 1] += amounts[i];
+                }
+            }
+        }, TransactionAnalyticsSnapshot::sum);
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hour", hour);
+            entry.put("count", hours[hour * 2]);
+            entry.put("amount", BigDecimal.valueOf(hours[hour * 2 + 1], 2));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // The largest transactions by amount; each segment keeps its own top-N, then those are merged,
+    // and then the shards' lists
+    public List<Map<String, Object>> largest(int limit, LocalDateTime from, LocalDateTime to) {
+        int n = Math.max(1, Math.min(limit, 1000));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Columns c : columns) {
+            result.addAll(largest(c, n, from, to));
+        }
+        if (columns.length > 1) {
+            result.sort(Comparator.comparing((Map<String, Object> item) -> (BigDecimal) item.get("amount")).reversed());
+        }
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    private static List<Map<String, Object>> largest(Columns c, int n, LocalDateTime from, LocalDateTime to) {
+        int lo = toSeconds(from, Integer.MIN_VALUE);
+        int hi = toSeconds(to, Integer.MAX_VALUE);
+        // Row positions ordered by amount, smallest first so the heap head is the one to evict
+        Supplier<PriorityQueue<long[]>> heap = () -> new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        PriorityQueue<long[]> top = scan(c, lo, hi, heap, (segment, end, acc) -> {
+            long[] amounts = segment.amounts;
+            int[] times = segment.times;
+            for (int i = 0; i < end; i++) {
+                int t = times[i];
+                if (t >= lo && t < hi && (acc.size() < n || amounts[i] > acc.peek()[0])) {
+                    acc.offer(new long[] { amounts[i], ((long) segment.index << SEGMENT_BITS) | i });
+                    if (acc.size() > n) {
+                        acc.poll();
+                    }
+                }
+            }
+        }, (a, b) -> {
+            for (long[] entry : b) {
+                a.offer(entry);
+                if (a.size() > n) {
+                    a.poll();
+                }
+            }
+            return a;
+        });
+
+        List<long[]> ordered = new ArrayList<>(top);
+        ordered.sort((a, b) -> Long.compare(b[0], a[0]));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (long[] entry : ordered) {
+            int position = (int) entry[1];
+            Segment segment = c.segments[position >>> SEGMENT_BITS];
+            int row = position & (SEGMENT_SIZE - 1);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("transactionId", c.baseId + segment.idOffsets[row]);
+            item.put("amount", BigDecimal.valueOf(segment.amounts[row], 2));
+            item.put("transactionType", c.typeNames[segment.types[row] & 0x7f]);
+            item.put("fromAccountId", c.accountId(segment.fromAccounts[row]));
+            item.put("toAccountId", c.accountId(segment.toAccounts[row]));
+            item.put("transactionDate", LocalDateTime.ofEpochSecond(TIME_BASE + segment.times[row], 0, ZoneOffset.UTC));
+            result.add(item);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface SegmentScan<R> {
+        void scan(Segment segment, int end, R accumulator);
+    }
+
+    // Same over every shard's columns
+    private <R> R scanAll(int lo, int hi, Supplier<R> init, SegmentScan<R> body, BinaryOperator<R> merge) {
+        R result = null;
+        for (Columns c : columns) {
+            R shard = scan(c, lo, hi, init, body, merge);
+            result = result == null ? shard : merge.apply(result, shard);
+        }
+        return result;
+    }
+
+    // Scans the published rows of every segment overlapping [lo, hi) in parallel
+    private static <R> R scan(Columns c, int lo, int hi, Supplier<R> init, SegmentScan<R> body, BinaryOperator<R> merge) {
+        int size = c.size;
+        Segment[] segments = c.segments;
+        int segmentCount = (size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS;
+        return IntStream.range(0, segmentCount).parallel()
+                .mapToObj(index -> {
+                    R accumulator = init.get();
+                    Segment segment = segments[index];
+                    if (segment.maxTime >= lo && segment.minTime < hi) {
+                        body.scan(segment, Math.min(SEGMENT_SIZE, size - (index << SEGMENT_BITS)), accumulator);
+                    }
+                    return accumulator;
+                })
+                .reduce(merge)
+                .orElseGet(init);
+    }
+
+    private Columns[] newColumns() {
+        Columns[] shards = new Columns[shardRouter.getShardCount()];
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard] = new Columns();
+        }
+        return shards;
+    }
+
+    private static long size(Columns[] shards) {
+        long size = 0;
+        for (Columns c : shards) {
+            size += c.size;
+        }
+        return size;
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    private static int toSeconds(LocalDateTime time, int unbounded) {
+        if (time == null) {
+            return unbounded;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC) - TIME_BASE;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, seconds));
+    }
+
+    private static final class Segment {
+        final int index;
+        final long[] amounts = new long[SEGMENT_SIZE];
+        final int[] times = new int[SEGMENT_SIZE];
+        final byte[] types = new byte[SEGMENT_SIZE];
+        final int[] fromAccounts = new int[SEGMENT_SIZE];
+        final int[] toAccounts = new int[SEGMENT_SIZE];
+        final int[] idOffsets = new int[SEGMENT_SIZE];
+        volatile int minTime = Integer.MAX_VALUE;
+        volatile int maxTime = Integer.MIN_VALUE;
+
+        Segment(int index) {
+            this.index = index;
+        }
+    }
+
+    // One generation of the snapshot; replaced wholesale when the table is reset
+    private static final class Columns {
+        volatile Segment[] segments = new Segment[0];
+        volatile int size;
+        volatile long[] accountIds = new long[1024];
+        volatile int accountCount;
+        final String[] typeNames = new String[OTHER_TYPE + 1];
+        volatile int typeCount;
+        final LongLongHashMap accountIndex = new LongLongHashMap();
+        // Ids are stored as signed offsets from the first one; a late commit can be below it
+        long baseId = -1;
+        long lastSeq;
+
+        Columns() {
+            typeNames[OTHER_TYPE] = "OTHER";
+        }
+
+        void append(long id, long amountCents, int time, String type, Long fromAccount, Long toAccount, long seq) {
+            if (baseId < 0) {
+                baseId = id;
+            }
+            int row = size;
+            int segmentIndex = row >>> SEGMENT_BITS;
+            if (segmentIndex == segments.length) {
+                Segment[] grown = Arrays.copyOf(segments, segmentIndex + 1);
+                grown[segmentIndex] = new Segment(segmentIndex);
+                segments = grown;
+            }
+            Segment segment = segments[segmentIndex];
+            int offset = row & (SEGMENT_SIZE - 1);
+            segment.amounts[offset] = amountCents;
+            segment.times[offset] = time;
+            segment.types[offset] = typeCode(type);
+            segment.fromAccounts[offset] = accountIndex(fromAccount);
+            segment.toAccounts[offset] = accountIndex(toAccount);
+            segment.idOffsets[offset] = (int) (id - baseId);
+            if (time < segment.minTime) {
+                segment.minTime = time;
+            }
+            if (time > segment.maxTime) {
+                segment.maxTime = time;
+            }
+            lastSeq = seq;
+            // Publishes the row to readers
+            size = row + 1;
+        }
+
+        Long accountId(int index) {
+            return index == NO_ACCOUNT ? null : accountIds[index];
+        }
+
+        long memoryBytes() {
+            return (long) segments.length * SEGMENT_SIZE * BYTES_PER_ROW
+                    + (long) accountIds.length * Long.BYTES
+                    + accountIndex.memoryBytes();
+        }
+
+        private byte typeCode(String type) {
+            String name = type != null ? type : "UNKNOWN";
+            for (int code = 0; code < typeCount; code++) {
+                if (typeNames[code].equals(name)) {
+                    return (byte) code;
+                }
+            }
+            if (typeCount == OTHER_TYPE) {
+                return OTHER_TYPE;
+            }
+            typeNames[typeCount] = name;
+            return (byte) typeCount++;
+        }
+
+        private int accountIndex(Long accountId) {
+            if (accountId == null) {
+                return NO_ACCOUNT;
+            }
+            long index = accountIndex.get(accountId, NO_ACCOUNT);
+            if (index != NO_ACCOUNT) {
+                return (int) index;
+            }
+            int next = accountCount;
+            if (next == accountIds.length) {
+                accountIds = Arrays.copyOf(accountIds, next * 2);
+            }
+            accountIds[next] = accountId;
+            accountIndex.put(accountId, next);
+            accountCount = next + 1;
+            return next;
+        }
+    }
+}
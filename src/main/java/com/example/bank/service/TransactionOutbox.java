@@ -0,0 +1,69 @@
+package com.example.bank.service;
+
+import com.example.bank.event.TransactionPostedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Write side of the transactional outbox: one outbox_events row per posting, inserted on the posting's
+// own connection before it commits, so an event exists exactly when its transaction row does.
+// OutboxRelay reads the table; downstream systems no longer need to poll transactions.
+@Component
+public class TransactionOutbox {
+
+    private static final String INSERT_SELECT_SQL =
+            "INSERT INTO outbox_events (transaction_id, account_id, from_account_id, to_account_id, amount, " +
+            "transaction_type, transaction_date, created_at) " +
+            "SELECT t.id, COALESCE(t.from_account_id, t.to_account_id), t.from_account_id, t.to_account_id, " +
+            "t.amount, t.transaction_type, t.transaction_date, ? FROM transactions t ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTransactionPosted(TransactionPostedEvent event) {
+        if (event.getTransactionId() == null) {
+            return;
+        }
+        Long from = event.getFromAccountId();
+        Long to = event.getToAccountId();
+        jdbcTemplate.update(
+                "INSERT INTO outbox_events (transaction_id, account_id, from_account_id, to_account_id, amount, " +
+                "transaction_type, transaction_date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                event.getTransactionId(), from != null ? from : to, from, to,
+                event.getAmount() != null ? event.getAmount().toBigDecimal() : null,
+                event.getTransactionType(), Timestamp.valueOf(event.getTransactionDate()), now());
+    }
+
+    // For postings written outside JPA, by the ids the writer got back from its own inserts; each is a
+    // primary-key read of a row the caller's transaction wrote, so none belonging to another is touched
+    public void append(List<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = now();
+        List<Object[]> args = new ArrayList<>(transactionIds.size());
+        for (Long transactionId : transactionIds) {
+            args.add(new Object[] { createdAt, transactionId });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SELECT_SQL + "WHERE t.id = ?", args);
+    }
+
+    // For INSERT ... SELECT postings that bypass JPA; same contract as UserActivityFeed.recordBatch
+    public int appendBatch(long batch) {
+        return jdbcTemplate.update(INSERT_SELECT_SQL + "WHERE t.posting_batch = ? ORDER BY t.id", now(), batch);
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.bank.service;
+
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.event.TransactionPostedEvent;
+import com.example.bank.util.PostingList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Inverted index over Transaction.description: term -> compressed posting list of transaction ids.
+// Postings made through JPA are indexed as they commit; rows written outside it (bulk jobs, payouts,
+// SQL scripts) are picked up in commit_seq order (see PostingSequencer), so one that commits late is
+// not skipped. Ids name their shard, so one index covers every shard, each caught up behind its own
+// commit_seq. A demo reset rebuilds it from scratch.
+@Component
+public class TransactionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSearchIndex.class);
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int CATCH_UP_BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final int rebuildThreads;
+    private final ConcurrentSkipListMap<String, PostingList> terms = new ConcurrentSkipListMap<>();
+    // commit_seq indexed up to, per shard
+    private final AtomicLongArray indexedUpTo;
+    private volatile boolean ready;
+
+    public TransactionSearchIndex(JdbcTemplate jdbcTemplate,
+                                  ShardRouter shardRouter,
+                                  @Value("${bank.search.rebuild-threads:0}") int rebuildThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.indexedUpTo = new AtomicLongArray(shardRouter.getShardCount());
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public void index(long transactionId, String description) {
+        for (String term : tokenize(description)) {
+            terms.computeIfAbsent(term, key -> new PostingList()).add(transactionId);
+        }
+    }
+
+    // Terms are ANDed; a term ending in '*' matches every indexed term with that prefix.
+    // Matching ids come out newest first, decoded a block at a time as the caller pulls them.
+    public PostingList.Cursor search(String query) {
+        List<PostingList.Cursor> cursors = new ArrayList<>();
+        for (String raw : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            boolean prefix = raw.endsWith("*");
+            String cleaned = raw.replaceAll("[^\\p{L}\\p{Nd}]", "");
+            if (cleaned.isEmpty()) {
+                continue;
+            }
+            cursors.add(prefix ? prefixPostings(cleaned) : exactPostings(cleaned));
+        }
+        return cursors.isEmpty() ? PostingList.empty() : PostingList.intersection(cursors);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Map<String, Object> getStats() {
+        long postings = 0;
+        long bytes = 0;
+        for (PostingList list : terms.values()) {
+            postings += list.size();
+            bytes += list.memoryBytes();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("terms", terms.size());
+        stats.put("postings", postings);
+        stats.put("postingBytes", bytes);
+        stats.put("indexedUpToCommitSeq", shardRouter.isEnabled() ? indexedUpTo.toString() : indexedUpTo.get(0));
+        return stats;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionPosted(TransactionPostedEvent event) {
+        if (event.getTransactionId() != null) {
+            index(event.getTransactionId(), event.getDescription());
+        }
+    }
+
+    @EventListener(DemoDataResetEvent.class)
+    public synchronized void onDemoDataReset() {
+        ready = false;
+        terms.clear();
+        for (int shard = 0; shard < indexedUpTo.length(); shard++) {
+            indexedUpTo.set(shard, 0);
+        }
+        rebuild();
+    }
+
+    // Shards are loaded in shard order, which is id order
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                rebuild(shard);
+            }
+        }
+        ready = true;
+    }
+
+    // Partitions the id range across threads; each builds a local term map that is then
+    // merged in id order so posting lists are appended sequentially. The catch-up resumes from the
+    // commit_seq read before the scan, so whatever commits during it is picked up afterwards.
+    private void rebuild(int shard) {
+        long started = System.currentTimeMillis();
+        Long sequenced = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(commit_seq), 0) FROM transactions", Long.class);
+        indexedUpTo.accumulateAndGet(shard, sequenced != null ? sequenced : 0, Math::max);
+        long[] range = jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM transactions", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] { min, rs.getLong(2) };
+        });
+        if (range == null) {
+            return;
+        }
+
+        int partitions = (int) Math.max(1, Math.min(rebuildThreads, (range[1] - range[0]) / 10_000 + 1));
+        long span = (range[1] - range[0]) / partitions + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            List<CompletableFuture<Map<String, IdBuffer>>> futures = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                long low = range[0] + i * span;
+                long high = Math.min(range[1], low + span - 1);
+                futures.add(CompletableFuture.supplyAsync(() -> loadPartition(shard, low, high), executor));
+            }
+            for (CompletableFuture<Map<String, IdBuffer>> future : futures) {
+                future.join().forEach((term, ids) ->
+                        terms.computeIfAbsent(term, key -> new PostingList()).addAll(ids.ids, ids.size));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("Transaction search index rebuilt on shard {}: {} terms from ids {}..{} in {} ms",
+                shard, terms.size(), range[0], range[1], System.currentTimeMillis() - started);
+    }
+
+    // Picks up rows inserted outside JPA; those indexed at commit are added again, which is a no-op
+    @Scheduled(fixedDelayString = "${bank.search.catch-up-interval-ms:30000}")
+    public synchronized void catchUp() {
+        if (!ready) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                catchUp(shard);
+            }
+        }
+    }
+
+    private void catchUp(int shard) {
+        int read;
+        do {
+            Map<String, IdBuffer> local = new HashMap<>();
+            long[] last = { indexedUpTo.get(shard), 0 };
+            jdbcTemplate.query(
+                    "SELECT id, description, commit_seq FROM transactions WHERE commit_seq > ? ORDER BY commit_seq LIMIT ?",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        for (String term : tokenize(rs.getString(2))) {
+                            local.computeIfAbsent(term, key -> new IdBuffer()).add(id);
+                        }
+                        last[0] = rs.getLong(3);
+                        last[1]++;
+                    },
+                    last[0], CATCH_UP_BATCH_SIZE);
+            // Commit order is not id order, so each buffer is sorted before it is added
+            local.forEach((term, ids) -> {
+                Arrays.sort(ids.ids, 0, ids.size);
+                terms.computeIfAbsent(term, key -> new PostingList()).addAll(ids.ids, ids.size);
+            });
+            indexedUpTo.set(shard, last[0]);
+            read = (int) last[1];
+        } while (read == CATCH_UP_BATCH_SIZE);
+    }
+
+    private Map<String, IdBuffer> loadPartition(int shard, long low, long high) {
+        Map<String, IdBuffer> local = new HashMap<>();
+        ShardRouter.Scope scope = shardRouter.on(shard);
+        try (scope) {
+            jdbcTemplate.query(
+                    "SELECT id, description FROM transactions WHERE id BETWEEN ? AND ? AND description IS NOT NULL ORDER BY id",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        for (String term : tokenize(rs.getString(2))) {
+                            local.computeIfAbsent(term, key -> new IdBuffer()).add(id);
+                        }
+                    },
+                    low, high);
+        }
+        return local;
+    }
+
+    private PostingList.Cursor exactPostings(String term) {
+        PostingList list = terms.get(term);
+        return list != null ? list.descending() : PostingList.empty();
+    }
+
+    private PostingList.Cursor prefixPostings(String prefix) {
+        NavigableMap<String, PostingList> matches = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        List<PostingList.Cursor> cursors = new ArrayList<>(matches.size());
+        for (PostingList list : matches.values()) {
+            cursors.add(list.descending());
+        }
+        return cursors.isEmpty() ? PostingList.empty() : PostingList.union(cursors);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (token.length() >= MIN_TERM_LENGTH && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class IdBuffer {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package com.example.bank.service;
 
+import com.example.bank.model.Money;
 import com.example.bank.model.Transaction;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface TransactionService {
-    Transaction transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String description);
+    Transaction transfer(Long fromAccountId, Long toAccountId, Money amount, String description);
     List<Transaction> getTransactionsByAccountId(Long accountId);
-    List<Transaction> getTransactionsByUserId(Long userId);
-    Transaction deposit(Long toAccountId, BigDecimal amount, String description);
-    Transaction withdraw(Long fromAccountId, BigDecimal amount, String description);
+    Map<String, Object> getAccountChanges(Long accountId, Long sinceToken);
+    List<Transaction> getTransactionsByUserId(Long userId, int page, int size);
+    Transaction deposit(Long toAccountId, Money amount, String description);
+    Transaction withdraw(Long fromAccountId, Money amount, String description);
     List<Transaction> getAllTransactions();
     Transaction getTransactionById(Long transactionId);
     List<Transaction> getRecentTransactions(int count);
     List<Transaction> getTransactionsByType(String transactionType);
 	List<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    List<Transaction> searchTransactions(String query, Long accountId, LocalDateTime startDate, LocalDateTime endDate, int limit);
 }
\ No newline at end of file
@@ -2,43 +2,82 @@ package com.example.bank.service;
 
 import com.example.bank.exception.ApiException;
 import com.example.bank.model.Account;
+import com.example.bank.model.Money;
 import com.example.bank.model.Transaction;
 import com.example.bank.model.User;
 import com.example.bank.repository.TransactionRepository;
+import com.example.bank.util.PostingList;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int SEARCH_BATCH_SIZE = 500;
+    private static final int MAX_FEED_PAGE_SIZE = 500;
+
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
     private final UserService userService;
+    private final StripedBalanceService stripedBalanceService;
+    private final VelocityEngine velocityEngine;
+    private final TransactionSearchIndex searchIndex;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransfers crossShardTransfers;
+    private final HoldIndex holdIndex;
+    private final ReadCoalescer readCoalescer;
+    private final int changesPageSize;
 
     public TransactionServiceImpl(TransactionRepository transactionRepository,
                                 AccountService accountService,
-                                UserService userService) {
+                                UserService userService,
+                                StripedBalanceService stripedBalanceService,
+                                VelocityEngine velocityEngine,
+                                TransactionSearchIndex searchIndex,
+                                ShardRouter shardRouter,
+                                CrossShardTransfers crossShardTransfers,
+                                HoldIndex holdIndex,
+                                ReadCoalescer readCoalescer,
+                                @Value("${bank.sync.page-size:500}") int changesPageSize) {
         this.transactionRepository = transactionRepository;
         this.accountService = accountService;
         this.userService = userService;
+        this.stripedBalanceService = stripedBalanceService;
+        this.velocityEngine = velocityEngine;
+        this.searchIndex = searchIndex;
+        this.shardRouter = shardRouter;
+        this.crossShardTransfers = crossShardTransfers;
+        this.holdIndex = holdIndex;
+        this.readCoalescer = readCoalescer;
+        this.changesPageSize = changesPageSize;
     }
 
     @Override
     @Transactional
-    public Transaction transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String description) {
+    public Transaction transfer(Long fromAccountId, Long toAccountId, Money amount, String description) {
         // Validate input parameters
         validateTransferParameters(fromAccountId, toAccountId, amount);
+        velocityEngine.reserve(fromAccountId, amount);
+        
+        // Accounts on different shards cannot share a database transaction; a saga moves the money
+        if (shardRouter.isCrossShard(fromAccountId, toAccountId)) {
+            return crossShardTransfers.begin(accountService.getAccountForDebit(fromAccountId), toAccountId, amount, description);
+        }
         
         // Get accounts
-        Account fromAccount = accountService.getAccountById(fromAccountId);
+        Account fromAccount = accountService.getAccountForDebit(fromAccountId);
         Account toAccount = accountService.getAccountById(toAccountId);
         
         // Check if accounts belong to the same user (optional business rule)
@@ -46,15 +85,16 @@ public class TransactionServiceImpl implements TransactionService {
             description = (description != null ? description + " " : "") + "(Internal Transfer)";
         }
         
-        // Validate sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new ApiException("Insufficient balance in account " + fromAccount.getAccountNumber() + 
-                                 ". Available: $" + fromAccount.getBalance() + ", Required: $" + amount);
+        // Validate sufficient balance (striped accounts are checked against their total under a row lock);
+        // active holds come off the ledger balance without a query
+        stripedBalanceService.prepareDebit(fromAccount);
+        if (holdIndex.available(fromAccount).isLessThan(amount)) {
+            throw new ApiException("Insufficient balance in account " + fromAccount.getAccountNumber());
         }
         
         // Perform the transfer
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+        stripedBalanceService.credit(toAccount, amount);
         
         // Save account balances (this should be in a transactional method in AccountService)
         // For now, we'll assume AccountService handles this
@@ -74,12 +114,12 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
-    public Transaction deposit(Long toAccountId, BigDecimal amount, String description) {
+    public Transaction deposit(Long toAccountId, Money amount, String description) {
         // Validate input parameters
         if (toAccountId == null) {
             throw new ApiException("Target account ID cannot be null");
         }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Deposit amount must be greater than zero");
         }
         
@@ -87,7 +127,7 @@ public class TransactionServiceImpl implements TransactionService {
         Account toAccount = accountService.getAccountById(toAccountId);
         
         // Update account balance
-        toAccount.setBalance(toAccount.getBalance().add(amount));
+        stripedBalanceService.credit(toAccount, amount);
         
         // Create and save transaction record
         Transaction transaction = new Transaction();
@@ -103,26 +143,27 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
-    public Transaction withdraw(Long fromAccountId, BigDecimal amount, String description) {
+    public Transaction withdraw(Long fromAccountId, Money amount, String description) {
         // Validate input parameters
         if (fromAccountId == null) {
             throw new ApiException("Source account ID cannot be null");
         }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Withdrawal amount must be greater than zero");
         }
+        velocityEngine.reserve(fromAccountId, amount);
         
         // Get source account
-        Account fromAccount = accountService.getAccountById(fromAccountId);
+        Account fromAccount = accountService.getAccountForDebit(fromAccountId);
         
         // Check sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new ApiException("Insufficient balance for withdrawal. Available: $" + 
-                                 fromAccount.getBalance() + ", Requested: $" + amount);
+        stripedBalanceService.prepareDebit(fromAccount);
+        if (holdIndex.available(fromAccount).isLessThan(amount)) {
+            throw new ApiException("Insufficient balance for withdrawal");
         }
         
         // Update account balance
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
         
         // Create and save transaction record
         Transaction transaction = new Transaction();
@@ -136,47 +177,85 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.save(transaction);
     }
 
+    // SUPPORTS so that a caller without a transaction reaches the coalescer, which opens a read-only one
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Transaction> getTransactionsByAccountId(Long accountId) {
         if (accountId == null) {
             throw new ApiException("Account ID cannot be null");
         }
         
-        // Verify account exists
-        accountService.getAccountById(accountId);
-        
-        return transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId);
+        return readCoalescer.read("getTransactionsByAccountId", Collections.singletonList(accountId), () -> {
+            // Verify account exists
+            accountService.getAccountById(accountId);
+            
+            return transactionRepository.findTransactionsByAccountWithDetails(accountId);
+        });
+    }
+
+    // Postings of the account after the token in commit order, with its current balances and the token for
+    // the next call. The token is a commit_seq (see PostingSequencer): a posting only shows up once it is
+    // sequenced, and one that commits after a higher id is numbered above everything returned before it,
+    // so every page is final and a late commit is never skipped. A saga posting whose status changes is
+    // sequenced again and comes back with the new status; the client merges by id.
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAccountChanges(Long accountId, Long sinceToken) {
+        if (accountId == null) {
+            throw new ApiException("Account ID cannot be null");
+        }
+        long since = sinceToken != null ? Math.max(sinceToken, 0) : 0;
+        Account account = accountService.getAccountById(accountId);
+
+        PageRequest page = PageRequest.of(0, changesPageSize + 1);
+        List<Transaction> changes = new ArrayList<>(transactionRepository.findOutgoingSince(accountId, since, page));
+        for (Transaction incoming : transactionRepository.findIncomingSince(accountId, since, page)) {
+            // A transfer between the account and itself is on both sides
+            if (incoming.getFromAccount() == null || !accountId.equals(incoming.getFromAccount().getId())) {
+                changes.add(incoming);
+            }
+        }
+        changes.sort((a, b) -> Long.compare(a.getCommitSeq(), b.getCommitSeq()));
+        boolean hasMore = changes.size() > changesPageSize;
+        if (hasMore) {
+            changes = new ArrayList<>(changes.subList(0, changesPageSize));
+        }
+        long token = changes.isEmpty() ? since : changes.get(changes.size() - 1).getCommitSeq();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accountId", accountId);
+        result.put("balance", account.getBalance());
+        result.put("availableBalance", account.getAvailableBalance());
+        result.put("transactions", changes);
+        result.put("token", token);
+        result.put("hasMore", hasMore);
+        return result;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsByUserId(Long userId) {
+    public List<Transaction> getTransactionsByUserId(Long userId, int page, int size) {
         if (userId == null) {
             throw new ApiException("User ID cannot be null");
         }
+        if (page < 0 || size <= 0 || size > MAX_FEED_PAGE_SIZE) {
+            throw new ApiException("Page must be non-negative and size between 1 and " + MAX_FEED_PAGE_SIZE);
+        }
         
-        // Verify user exists
-        userService.getUserById(userId);
-        
-        // Get all accounts for the user
-        List<Account> userAccounts = accountService.getAccountsByUserId(userId);
-        List<Long> accountIds = userAccounts.stream()
-                .map(Account::getId)
-                .collect(Collectors.toList());
+        // Read the user's activity feed instead of OR-ing over every account they own
+        List<Transaction> transactions = transactionRepository.findActivityFeedByUserId(userId, PageRequest.of(page, size));
         
-        if (accountIds.isEmpty()) {
-            return List.of();
+        // Only an empty page needs to tell "no activity" apart from "no such user"
+        if (transactions.isEmpty()) {
+            userService.getUserById(userId);
         }
-        
-        // Get transactions where user's accounts are involved as either sender or receiver
-        return transactionRepository.findByFromAccountIdInOrToAccountIdIn(accountIds, accountIds);
+        return transactions;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll(Sort.by(Sort.Direction.DESC, "transactionDate"));
+        return transactionRepository.findAllWithDetails();
     }
 
     @Override
@@ -197,8 +276,7 @@ public class TransactionServiceImpl implements TransactionService {
             throw new ApiException("Count must be greater than zero");
         }
         
-        PageRequest pageRequest = PageRequest.of(0, count, Sort.by(Sort.Direction.DESC, "transactionDate"));
-        return transactionRepository.findAll(pageRequest).getContent();
+        return transactionRepository.findRecentWithDetails(PageRequest.of(0, count));
     }
 
     @Override
@@ -224,6 +302,45 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Transaction> searchTransactions(String query, Long accountId, LocalDateTime startDate,
+                                                LocalDateTime endDate, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new ApiException("Search query cannot be empty");
+        }
+        if (limit <= 0) {
+            throw new ApiException("Limit must be greater than zero");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new ApiException("Start date cannot be after end date");
+        }
+        
+        // Index hits come back newest first and are pulled in batches only until the limit is filled,
+        // never reading more rows than are still missing
+        PostingList.Cursor hits = searchIndex.search(query);
+        List<Transaction> results = new ArrayList<>();
+        long[] batch = new long[SEARCH_BATCH_SIZE];
+        while (hits.current() != PostingList.NONE && results.size() < limit) {
+            int size = 0;
+            for (; size < batch.length && hits.current() != PostingList.NONE; hits.advance()) {
+                batch[size++] = hits.current();
+            }
+            long[] candidates = shardRouter.onCurrentShard(Arrays.copyOf(batch, size));
+            if (candidates.length == 0) {
+                continue;
+            }
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                ids.add(id);
+            }
+            results.addAll(transactionRepository.findSearchMatches(ids, accountId, startDate, endDate,
+                    PageRequest.of(0, limit - results.size())));
+        }
+        
+        return results;
+    }
+
     @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByAccountAndDateRange(Long accountId, LocalDateTime startDate, LocalDateTime endDate) {
         if (accountId == null) {
@@ -241,38 +358,38 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Transactional(readOnly = true)
-    public BigDecimal getTotalDepositsByAccount(Long accountId) {
+    public Money getTotalDepositsByAccount(Long accountId) {
         List<Transaction> deposits = transactionRepository.findByToAccountIdAndTransactionType(accountId, "DEPOSIT");
         return deposits.stream()
                 .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(Money.ZERO, Money::plus);
     }
 
     @Transactional(readOnly = true)
-    public BigDecimal getTotalWithdrawalsByAccount(Long accountId) {
+    public Money getTotalWithdrawalsByAccount(Long accountId) {
         List<Transaction> withdrawals = transactionRepository.findByFromAccountIdAndTransactionType(accountId, "WITHDRAWAL");
         return withdrawals.stream()
                 .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(Money.ZERO, Money::plus);
     }
 
     @Transactional(readOnly = true)
-    public BigDecimal getTotalTransfersByAccount(Long accountId) {
+    public Money getTotalTransfersByAccount(Long accountId) {
         List<Transaction> outgoingTransfers = transactionRepository.findByFromAccountIdAndTransactionType(accountId, "TRANSFER");
-        BigDecimal outgoing = outgoingTransfers.stream()
+        Money outgoing = outgoingTransfers.stream()
                 .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(Money.ZERO, Money::plus);
         
         List<Transaction> incomingTransfers = transactionRepository.findByToAccountIdAndTransactionType(accountId, "TRANSFER");
-        BigDecimal incoming = incomingTransfers.stream()
+        Money incoming = incomingTransfers.stream()
                 .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .reduce(Money.ZERO, Money::plus);
         
-        return incoming.subtract(outgoing); // Net transfer amount
+        return incoming.minus(outgoing); // Net transfer amount
     }
 
     // Private helper methods
-    private void validateTransferParameters(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+    private void validateTransferParameters(Long fromAccountId, Long toAccountId, Money amount) {
         if (fromAccountId == null) {
             throw new ApiException("Source account ID cannot be null");
         }
@@ -282,39 +399,41 @@ public class TransactionServiceImpl implements TransactionService {
         if (fromAccountId.equals(toAccountId)) {
             throw new ApiException("Cannot transfer to the same account");
         }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new ApiException("Transfer amount must be greater than zero");
         }
     }
 
     // Method to get transaction summary for an account
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public TransactionSummary getTransactionSummary(Long accountId) {
-        BigDecimal totalDeposits = getTotalDepositsByAccount(accountId);
-        BigDecimal totalWithdrawals = getTotalWithdrawalsByAccount(accountId);
-        BigDecimal netTransfers = getTotalTransfersByAccount(accountId);
-        
-        return new TransactionSummary(totalDeposits, totalWithdrawals, netTransfers);
+        return readCoalescer.read("getTransactionSummary", Collections.singletonList(accountId), () -> {
+            Money totalDeposits = getTotalDepositsByAccount(accountId);
+            Money totalWithdrawals = getTotalWithdrawalsByAccount(accountId);
+            Money netTransfers = getTotalTransfersByAccount(accountId);
+            
+            return new TransactionSummary(totalDeposits, totalWithdrawals, netTransfers);
+        });
     }
 
     // Inner class for transaction summary
     public static class TransactionSummary {
-        private final BigDecimal totalDeposits;
-        private final BigDecimal totalWithdrawals;
-        private final BigDecimal netTransfers;
+        private final Money totalDeposits;
+        private final Money totalWithdrawals;
+        private final Money netTransfers;
 
-        public TransactionSummary(BigDecimal totalDeposits, BigDecimal totalWithdrawals, BigDecimal netTransfers) {
+        public TransactionSummary(Money totalDeposits, Money totalWithdrawals, Money netTransfers) {
             this.totalDeposits = totalDeposits;
             this.totalWithdrawals = totalWithdrawals;
             this.netTransfers = netTransfers;
         }
 
         // Getters
-        public BigDecimal getTotalDeposits() { return totalDeposits; }
-        public BigDecimal getTotalWithdrawals() { return totalWithdrawals; }
-        public BigDecimal getNetTransfers() { return netTransfers; }
-        public BigDecimal getNetAmount() { 
-            return totalDeposits.subtract(totalWithdrawals).add(netTransfers); 
+        public Money getTotalDeposits() { return totalDeposits; }
+        public Money getTotalWithdrawals() { return totalWithdrawals; }
+        public Money getNetTransfers() { return netTransfers; }
+        public Money getNetAmount() { 
+            return totalDeposits.minus(totalWithdrawals).plus(netTransfers); 
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.bank.service;
+
+import com.example.bank.event.TransactionPostedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fan-out-on-write feed: every posting adds one user_activity row per distinct owning user, in the
+// posting's own database transaction, so reading a user's history is a single (user_id, date, id) index scan.
+@Component
+public class UserActivityFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityFeed.class);
+
+    private static final String INSERT_SELECT_SQL =
+            "INSERT INTO user_activity (user_id, transaction_id, activity_date) " +
+            "SELECT DISTINCT a.user_id, t.id, t.transaction_date FROM transactions t " +
+            "JOIN accounts a ON a.id = t.from_account_id OR a.id = t.to_account_id ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    public UserActivityFeed(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    // Plain JDBC on the posting's connection, run just before it commits
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTransactionPosted(TransactionPostedEvent event) {
+        if (event.getTransactionId() == null) {
+            return;
+        }
+        Long from = event.getFromAccountId();
+        Long to = event.getToAccountId();
+        jdbcTemplate.update(
+                "INSERT INTO user_activity (user_id, transaction_id, activity_date) " +
+                "SELECT DISTINCT user_id, ?, ? FROM accounts WHERE id IN (?, ?)",
+                event.getTransactionId(), Timestamp.valueOf(event.getTransactionDate()),
+                from != null ? from : to, to != null ? to : from);
+    }
+
+    // Rows of (user_id, transaction_id, activity_date) for postings whose ids the writer already knows
+    public void record(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO user_activity (user_id, transaction_id, activity_date) VALUES (?, ?, ?)", rows);
+        }
+    }
+
+    // Tag for the rows of one set-based INSERT ... SELECT posting; random, so two writers never share one
+    public static long newPostingBatch() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    // For INSERT ... SELECT postings that bypass JPA: adds feed rows for the rows the caller's
+    // transaction tagged with the batch, found through the posting_batch index
+    public int recordBatch(long batch) {
+        return jdbcTemplate.update(INSERT_SELECT_SQL + "WHERE t.posting_batch = ?", batch);
+    }
+
+    // Catches up postings written before the feed existed or loaded by SQL scripts, on every shard in
+    // a transaction of its own
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int rows = shardRouter.inShard(shard, false, this::backfillShard);
+            if (rows > 0) {
+                log.info("Backfilled {} user activity rows on shard {}", rows, shard);
+            }
+        }
+    }
+
+    private int backfillShard() {
+        Long fedUpTo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(transaction_id), 0) FROM user_activity", Long.class);
+        return jdbcTemplate.update(INSERT_SELECT_SQL + "WHERE t.id > ? " +
+                "AND NOT EXISTS (SELECT 1 FROM user_activity f WHERE f.transaction_id = t.id)", fedUpTo != null ? fedUpTo : 0);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.bank.service;
+
+import com.example.bank.config.VelocityProperties;
+import com.example.bank.event.DemoDataResetEvent;
+import com.example.bank.exception.VelocityLimitExceededException;
+import com.example.bank.model.Money;
+import com.example.bank.util.SlidingWindowCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-account velocity limits on outgoing postings, evaluated from in-memory windows
+// so the posting path gains no queries
+@Component
+public class VelocityEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityEngine.class);
+
+    private final VelocityProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Map<Long, AccountWindows> windows = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LongAdder checks = new LongAdder();
+
+    public VelocityEngine(VelocityProperties properties, JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    // Checks the posting against the limits and counts it in the same step under the account's lock,
+    // so concurrent debits cannot all pass on the same totals. The reservation is taken back if the
+    // caller's transaction does not commit.
+    public void reserve(Long accountId, Money amount) {
+        reserve(accountId, amount, true);
+    }
+
+    // Counts a debit that is not itself subject to the limits (a hold capture), on the same terms
+    public void charge(Long accountId, Money amount) {
+        reserve(accountId, amount, false);
+    }
+
+    private void reserve(Long accountId, Money amount, boolean enforce) {
+        if (!properties.isEnabled() || accountId == null || amount == null) {
+            return;
+        }
+        if (enforce) {
+            checks.increment();
+        }
+        long amountCents = amount.getCents();
+        long now = System.currentTimeMillis() / 1000;
+
+        AccountWindows accountWindows;
+        String violation = null;
+        while (true) {
+            accountWindows = windowsOf(accountId);
+            synchronized (accountWindows) {
+                // Evicted between the lookup and the lock; take the instance now in the map
+                if (windows.get(accountId) != accountWindows) {
+                    continue;
+                }
+                if (enforce) {
+                    violation = evaluate(
+                            accountWindows.minute.count(now), accountWindows.minute.cents(now),
+                            accountWindows.hour.count(now), accountWindows.hour.cents(now),
+                            accountWindows.day.count(now), accountWindows.day.cents(now),
+                            amountCents);
+                }
+                if (violation == null) {
+                    accountWindows.add(now, amountCents);
+                }
+                break;
+            }
+        }
+
+        if (violation != null) {
+            rejections.computeIfAbsent(violation, key -> new LongAdder()).increment();
+            throw new VelocityLimitExceededException(violation);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            AccountWindows reserved = accountWindows;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (reserved) {
+                            reserved.remove(now, amountCents);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    // Payout legs are never reserved, so they are left out here as well. Every shard's postings are
+    // read; an account's all live on its own shard.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        long[] rows = new long[1];
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardRouter.Scope scope = shardRouter.on(shard);
+            try (scope) {
+                jdbcTemplate.query(
+                        "SELECT from_account_id, amount, transaction_date FROM transactions " +
+                        "WHERE from_account_id IS NOT NULL AND payout_id IS NULL AND transaction_date >= ?",
+                        rs -> {
+                            Timestamp date = rs.getTimestamp(3);
+                            record(rs.getLong(1), toCents(rs.getBigDecimal(2)), date != null ? date.toLocalDateTime() : null);
+                            rows[0]++;
+                        },
+                        Timestamp.valueOf(since));
+            }
+        }
+        log.info("Velocity windows rebuilt from {} postings for {} accounts in {} ms",
+                rows[0], windows.size(), System.currentTimeMillis() - started);
+    }
+
+    @EventListener(DemoDataResetEvent.class)
+    public void onDemoDataReset() {
+        windows.clear();
+        rebuild();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("checks", checks.sum());
+        metrics.put("trackedAccounts", windows.size());
+        Map<String, Long> rejected = new LinkedHashMap<>();
+        rejections.forEach((reason, counter) -> rejected.put(reason, counter.sum()));
+        metrics.put("rejections", rejected);
+        return metrics;
+    }
+
+    private void record(Long accountId, long amountCents, LocalDateTime postedAt) {
+        long epochSecond = postedAt != null
+                ? postedAt.atZone(ZoneId.systemDefault()).toEpochSecond()
+                : System.currentTimeMillis() / 1000;
+
+        AccountWindows accountWindows = windowsOf(accountId);
+        synchronized (accountWindows) {
+            accountWindows.add(epochSecond, amountCents);
+        }
+    }
+
+    private AccountWindows windowsOf(Long accountId) {
+        if (windows.size() >= properties.getMaxTrackedAccounts() && !windows.containsKey(accountId)) {
+            evictIdle();
+        }
+        return windows.computeIfAbsent(accountId, id -> new AccountWindows());
+    }
+
+    private String evaluate(int minuteCount, long minuteCents, int hourCount, long hourCents,
+                            int dayCount, long dayCents, long amountCents) {
+        String violation = violation("PER_MINUTE", properties.getPerMinute(), minuteCount, minuteCents, amountCents);
+        if (violation == null) {
+            violation = violation("PER_HOUR", properties.getPerHour(), hourCount, hourCents, amountCents);
+        }
+        if (violation == null) {
+            violation = violation("PER_DAY", properties.getPerDay(), dayCount, dayCents, amountCents);
+        }
+        return violation;
+    }
+
+    private String violation(String window, VelocityProperties.Rule rule, int count, long cents, long amountCents) {
+        if (rule.getMaxCount() > 0 && count + 1 > rule.getMaxCount()) {
+            return window + "_COUNT";
+        }
+        if (rule.getMaxAmount() != null && cents + amountCents > toCents(rule.getMaxAmount())) {
+            return window + "_AMOUNT";
+        }
+        return null;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis() / 1000;
+        windows.entrySet().removeIf(entry -> {
+            AccountWindows accountWindows = entry.getValue();
+            synchronized (accountWindows) {
+                return accountWindows.day.isEmpty(now);
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    // 60 x 1s for the minute window, 60 x 1min for the hour, 24 x 1h for the day
+    private static class AccountWindows {
+        final SlidingWindowCounter minute = new SlidingWindowCounter(60, 1);
+        final SlidingWindowCounter hour = new SlidingWindowCounter(60, 60);
+        final SlidingWindowCounter day = new SlidingWindowCounter(24, 3600);
+
+        void add(long epochSecond, long amountCents) {
+            minute.add(epochSecond, amountCents);
+            hour.add(epochSecond, amountCents);
+            day.add(epochSecond, amountCents);
+        }
+
+        void remove(long epochSecond, long amountCents) {
+            minute.remove(epochSecond, amountCents);
+            hour.remove(epochSecond, amountCents);
+            day.remove(epochSecond, amountCents);
+        }
+    }
+}
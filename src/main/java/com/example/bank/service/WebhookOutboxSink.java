@@ -0,0 +1,55 @@
+package com.example.bank.service;
+
+import com.example.bank.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as a JSON array; any non-2xx answer fails the batch and the relay retries it.
+// The default URL points at the local stub (OutboxWebhookStubController).
+@Component
+@ConditionalOnProperty(name = "bank.outbox.webhook.enabled", havingValue = "true")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookOutboxSink(ObjectMapper objectMapper,
+                             @Value("${bank.outbox.webhook.url:http://localhost:${server.port:8080}/api/admin/outbox/webhook-stub}") String url,
+                             @Value("${bank.outbox.webhook.timeout-ms:5000}") long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Outbox-Last-Event-Id", String.valueOf(events.get(events.size() - 1).getId()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + url + " answered " + response.statusCode());
+        }
+    }
+}
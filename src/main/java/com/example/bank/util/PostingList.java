@@ -0,0 +1,350 @@
+package com.example.bank.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Sorted set of ids stored as delta + varint bytes, with a small sorted tail that absorbs
+// out-of-order inserts until it is merged back in. Every BLOCK_SIZE-th encoded id starts a block
+// whose byte offset and preceding id are kept, so a cursor walks the list from the newest id down a
+// block at a time and skips blocks above its target without decoding them.
+public class PostingList {
+
+    // Returned by a cursor that has run out of ids; ids are positive
+    public static final long NONE = -1L;
+
+    private static final int TAIL_LIMIT = 64;
+    private static final int BLOCK_SIZE = 128;
+
+    private byte[] encoded = new byte[8];
+    private int encodedLength;
+    private int encodedCount;
+    private long lastEncoded;
+    private int[] blockOffsets = new int[1];
+    private long[] blockPrevious = new long[1];
+    private long[] tail = new long[4];
+    private int tailSize;
+
+    public synchronized void add(long id) {
+        int position = Arrays.binarySearch(tail, 0, tailSize, id);
+        if (position >= 0) {
+            return;
+        }
+        if (encodedCount > 0 && id == lastEncoded) {
+            return;
+        }
+        int insertAt = -position - 1;
+        if (tailSize == tail.length) {
+            tail = Arrays.copyOf(tail, tailSize * 2);
+        }
+        System.arraycopy(tail, insertAt, tail, insertAt + 1, tailSize - insertAt);
+        tail[insertAt] = id;
+        tailSize++;
+        if (tailSize >= TAIL_LIMIT) {
+            compact();
+        }
+    }
+
+    // Bulk add of ascending ids, the common case when loading from the database
+    public synchronized void addAll(long[] sortedIds, int length) {
+        if (tailSize == 0 && length > 0 && (encodedCount == 0 || sortedIds[0] > lastEncoded)) {
+            for (int i = 0; i < length; i++) {
+                if (i == 0 || sortedIds[i] != sortedIds[i - 1]) {
+                    append(sortedIds[i]);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            add(sortedIds[i]);
+        }
+    }
+
+    public synchronized long[] toArray() {
+        long[] sealed = decode();
+        if (tailSize == 0) {
+            return sealed;
+        }
+        return mergeUnique(sealed, sealed.length, tail, tailSize);
+    }
+
+    // The ids present now, newest first. Appends only write past what the cursor sees and a rebuild
+    // swaps in new arrays, so it reads without the lock.
+    public synchronized Cursor descending() {
+        return new ListCursor(encoded, encodedCount, blockOffsets, blockPrevious, Arrays.copyOf(tail, tailSize));
+    }
+
+    public synchronized int size() {
+        return encodedCount + tailSize;
+    }
+
+    public synchronized int memoryBytes() {
+        return encoded.length + tail.length * Long.BYTES + blockOffsets.length * (Integer.BYTES + Long.BYTES);
+    }
+
+    private void compact() {
+        if (tail[0] > lastEncoded || encodedCount == 0) {
+            for (int i = 0; i < tailSize; i++) {
+                append(tail[i]);
+            }
+        } else {
+            long[] all = toArray();
+            encoded = new byte[Math.max(8, all.length * 2)];
+            encodedLength = 0;
+            encodedCount = 0;
+            lastEncoded = 0;
+            blockOffsets = new int[Math.max(1, all.length / BLOCK_SIZE + 1)];
+            blockPrevious = new long[blockOffsets.length];
+            for (long id : all) {
+                append(id);
+            }
+        }
+        tailSize = 0;
+    }
+
+    private void append(long id) {
+        if (encodedCount % BLOCK_SIZE == 0) {
+            int block = encodedCount / BLOCK_SIZE;
+            if (block == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                blockPrevious = Arrays.copyOf(blockPrevious, block * 2);
+            }
+            blockOffsets[block] = encodedLength;
+            blockPrevious[block] = lastEncoded;
+        }
+        long delta = id - lastEncoded;
+        if (encodedLength + 10 > encoded.length) {
+            encoded = Arrays.copyOf(encoded, Math.max(encoded.length * 2, encodedLength + 10));
+        }
+        while ((delta & ~0x7FL) != 0) {
+            encoded[encodedLength++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        encoded[encodedLength++] = (byte) delta;
+        lastEncoded = id;
+        encodedCount++;
+    }
+
+    private long[] decode() {
+        long[] ids = new long[encodedCount];
+        decodeInto(encoded, 0, 0, ids, encodedCount);
+        return ids;
+    }
+
+    private static void decodeInto(byte[] encoded, int position, long previous, long[] ids, int count) {
+        long current = previous;
+        for (int i = 0; i < count; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[position++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            current += delta;
+            ids[i] = current;
+        }
+    }
+
+    public static long[] mergeUnique(long[] a, int aLength, long[] b, int bLength) {
+        long[] merged = new long[aLength + bLength];
+        int i = 0, j = 0, k = 0;
+        while (i < aLength || j < bLength) {
+            long next;
+            if (j >= bLength || (i < aLength && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    // Ids in every one of the cursors
+    public static Cursor intersection(List<Cursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new Intersection(cursors.toArray(new Cursor[0]));
+    }
+
+    // Ids in any of the cursors, each once
+    public static Cursor union(List<Cursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new Union(cursors);
+    }
+
+    public static Cursor empty() {
+        return new ListCursor(new byte[0], 0, new int[1], new long[1], new long[0]);
+    }
+
+    // Walks ids from the largest down. current() is NONE once the cursor has run out.
+    public interface Cursor {
+        long current();
+
+        void advance();
+
+        // Moves to the largest remaining id not above the target
+        void seek(long target);
+    }
+
+    private static final class ListCursor implements Cursor {
+        private final byte[] encoded;
+        private final int count;
+        private final int[] blockOffsets;
+        private final long[] blockPrevious;
+        private final long[] tail;
+        private final long[] decoded = new long[BLOCK_SIZE];
+        private int tailIndex;
+        // Next block to decode is block - 1; decoded[0..decodedIndex] are still to come
+        private int block;
+        private int decodedIndex = -1;
+        private long current;
+
+        ListCursor(byte[] encoded, int count, int[] blockOffsets, long[] blockPrevious, long[] tail) {
+            this.encoded = encoded;
+            this.count = count;
+            this.blockOffsets = blockOffsets;
+            this.blockPrevious = blockPrevious;
+            this.tail = tail;
+            this.tailIndex = tail.length - 1;
+            this.block = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            advance();
+        }
+
+        @Override
+        public long current() {
+            return current;
+        }
+
+        @Override
+        public void advance() {
+            long fromBlocks = peekEncoded();
+            long fromTail = tailIndex >= 0 ? tail[tailIndex] : NONE;
+            if (fromBlocks >= fromTail) {
+                decodedIndex -= fromBlocks != NONE ? 1 : 0;
+                tailIndex -= fromBlocks == fromTail && fromTail != NONE ? 1 : 0;
+                current = fromBlocks;
+            } else {
+                tailIndex--;
+                current = fromTail;
+            }
+        }
+
+        @Override
+        public void seek(long target) {
+            while (tailIndex >= 0 && tail[tailIndex] > target) {
+                tailIndex--;
+            }
+            while (current > target) {
+                // Every id of a block is above the one before it
+                if (decodedIndex < 0) {
+                    while (block > 0 && blockPrevious[block - 1] >= target) {
+                        block--;
+                    }
+                }
+                advance();
+            }
+        }
+
+        private long peekEncoded() {
+            if (decodedIndex < 0) {
+                if (block == 0) {
+                    return NONE;
+                }
+                block--;
+                int size = Math.min(BLOCK_SIZE, count - block * BLOCK_SIZE);
+                decodeInto(encoded, blockOffsets[block], blockPrevious[block], decoded, size);
+                decodedIndex = size - 1;
+            }
+            return decoded[decodedIndex];
+        }
+    }
+
+    private static final class Intersection implements Cursor {
+        private final Cursor[] cursors;
+        private long current;
+
+        Intersection(Cursor[] cursors) {
+            this.cursors = cursors;
+            align();
+        }
+
+        @Override
+        public long current() {
+            return current;
+        }
+
+        @Override
+        public void advance() {
+            cursors[0].advance();
+            align();
+        }
+
+        @Override
+        public void seek(long target) {
+            cursors[0].seek(target);
+            align();
+        }
+
+        // Leapfrogs the cursors down to the next id they all hold
+        private void align() {
+            long candidate = cursors[0].current();
+            int i = 1;
+            while (candidate != NONE && i < cursors.length) {
+                cursors[i].seek(candidate);
+                long id = cursors[i].current();
+                if (id == candidate) {
+                    i++;
+                } else if (id == NONE) {
+                    candidate = NONE;
+                } else {
+                    cursors[0].seek(id);
+                    candidate = cursors[0].current();
+                    i = 1;
+                }
+            }
+            current = candidate;
+        }
+    }
+
+    private static final class Union implements Cursor {
+        private final PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> Long.compare(b.current(), a.current()));
+
+        Union(List<Cursor> cursors) {
+            for (Cursor cursor : cursors) {
+                if (cursor.current() != NONE) {
+                    heads.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public long current() {
+            return heads.isEmpty() ? NONE : heads.peek().current();
+        }
+
+        @Override
+        public void advance() {
+            long id = current();
+            while (!heads.isEmpty() && heads.peek().current() == id) {
+                Cursor head = heads.poll();
+                head.advance();
+                if (head.current() != NONE) {
+                    heads.add(head);
+                }
+            }
+        }
+
+        @Override
+        public void seek(long target) {
+            while (!heads.isEmpty() && heads.peek().current() > target) {
+                Cursor head = heads.poll();
+                head.seek(target);
+                if (head.current() != NONE) {
+                    heads.add(head);
+                }
+            }
+        }
+    }
+}
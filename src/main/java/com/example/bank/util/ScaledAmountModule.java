@@ -0,0 +1,117 @@
+package com.example.bank.util;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Encodes money as a long number of cents instead of a decimal, for the binary formats only
+public class ScaledAmountModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int SCALE = 2;
+
+    public ScaledAmountModule() {
+        super("ScaledAmountModule");
+        addSerializer(BigDecimal.class, new ScaledAmountSerializer());
+        addDeserializer(BigDecimal.class, new ScaledAmountDeserializer());
+        addSerializer(Money.class, new MoneySerializer());
+        addDeserializer(Money.class, new MoneyDeserializer());
+    }
+
+    static class ScaledAmountSerializer extends StdScalarSerializer<BigDecimal> {
+        private static final long serialVersionUID = 1L;
+
+        ScaledAmountSerializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+        }
+    }
+
+    static class ScaledAmountDeserializer extends StdScalarDeserializer<BigDecimal> {
+        private static final long serialVersionUID = 1L;
+
+        ScaledAmountDeserializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return BigDecimal.valueOf(p.getLongValue(), SCALE);
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return withinScale(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                try {
+                    return withinScale(new BigDecimal(p.getText().trim()));
+                } catch (NumberFormatException e) {
+                    throw new ApiException("Invalid amount: " + p.getText());
+                }
+            }
+            return (BigDecimal) ctxt.handleUnexpectedToken(BigDecimal.class, p);
+        }
+    }
+
+    // Decimal input is taken as is, so more places than cents hold would be rounded away on the way out
+    private static BigDecimal withinScale(BigDecimal amount) {
+        if (amount.stripTrailingZeros().scale() > SCALE) {
+            throw new ApiException("Amounts have at most " + SCALE + " decimal places");
+        }
+        return amount;
+    }
+
+    // Money already holds cents, so neither direction goes through BigDecimal for integer input
+    static class MoneySerializer extends StdScalarSerializer<Money> {
+        private static final long serialVersionUID = 1L;
+
+        MoneySerializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.getCents());
+        }
+    }
+
+    static class MoneyDeserializer extends StdScalarDeserializer<Money> {
+        private static final long serialVersionUID = 1L;
+
+        MoneyDeserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return Money.ofCents(p.getLongValue());
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.valueOf(p.getText());
+            }
+            return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.bank.util;
+
+import java.util.Arrays;
+
+// Ring of time buckets holding a count and a cents total each; the sum of the live
+// buckets approximates a sliding window at bucket granularity. Not thread-safe.
+public class SlidingWindowCounter {
+
+    private final long bucketSeconds;
+    private final long[] bucketIndex;
+    private final int[] counts;
+    private final long[] cents;
+
+    public SlidingWindowCounter(int buckets, long bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+        this.bucketIndex = new long[buckets];
+        this.counts = new int[buckets];
+        this.cents = new long[buckets];
+        Arrays.fill(bucketIndex, Long.MIN_VALUE);
+    }
+
+    public void add(long epochSecond, long amountCents) {
+        long index = Math.floorDiv(epochSecond, bucketSeconds);
+        int slot = (int) Math.floorMod(index, (long) bucketIndex.length);
+        if (bucketIndex[slot] != index) {
+            if (bucketIndex[slot] > index) {
+                // Older than the window this slot now covers
+                return;
+            }
+            bucketIndex[slot] = index;
+            counts[slot] = 0;
+            cents[slot] = 0;
+        }
+        counts[slot]++;
+        cents[slot] += amountCents;
+    }
+
+    // Takes back an earlier add at the same second; nothing to do once its bucket has been reused
+    public void remove(long epochSecond, long amountCents) {
+        long index = Math.floorDiv(epochSecond, bucketSeconds);
+        int slot = (int) Math.floorMod(index, (long) bucketIndex.length);
+        if (bucketIndex[slot] == index && counts[slot] > 0) {
+            counts[slot]--;
+            cents[slot] -= amountCents;
+        }
+    }
+
+    public int count(long nowEpochSecond) {
+        long oldest = oldestLiveIndex(nowEpochSecond);
+        int total = 0;
+        for (int i = 0; i < bucketIndex.length; i++) {
+            if (bucketIndex[i] >= oldest) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    public long cents(long nowEpochSecond) {
+        long oldest = oldestLiveIndex(nowEpochSecond);
+        long total = 0;
+        for (int i = 0; i < bucketIndex.length; i++) {
+            if (bucketIndex[i] >= oldest) {
+                total += cents[i];
+            }
+        }
+        return total;
+    }
+
+    public boolean isEmpty(long nowEpochSecond) {
+        long oldest = oldestLiveIndex(nowEpochSecond);
+        for (long index : bucketIndex) {
+            if (index >= oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long oldestLiveIndex(long nowEpochSecond) {
+        return Math.floorDiv(nowEpochSecond, bucketSeconds) - bucketIndex.length + 1;
+    }
+}
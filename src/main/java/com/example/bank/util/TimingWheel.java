@@ -0,0 +1,121 @@
+package com.example.bank.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel: level 0 has one slot per tick, each higher level one slot per full
+// rotation of the level below. Entries are cascaded down as their slot comes up, so scheduling
+// and expiry are O(1) regardless of how many timers are pending. Deadlines beyond the top level
+// wait in an overflow list that is re-examined once per top-level slot. Not thread-safe.
+public class TimingWheel<T> {
+
+    private static final class Entry<T> {
+        final long deadline;
+        final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+
+    private final long tickMillis;
+    private final int[] wheelSizes;
+    private final long[] slotSpans;
+    // Slots per level as lists rather than a List<Entry<T>>[] per level: a generic array needs an unchecked cast
+    private final List<List<List<Entry<T>>>> levels = new ArrayList<>();
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    // e.g. new TimingWheel<>(1000, now, 60, 60, 24): seconds, minutes and hours
+    public TimingWheel(long tickMillis, long startMillis, int... wheelSizes) {
+        if (tickMillis <= 0 || wheelSizes.length == 0) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and at least one level");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSizes = wheelSizes.clone();
+        this.slotSpans = new long[wheelSizes.length + 1];
+        slotSpans[0] = tickMillis;
+        for (int i = 0; i < wheelSizes.length; i++) {
+            slotSpans[i + 1] = slotSpans[i] * wheelSizes[i];
+            List<List<Entry<T>>> slots = new ArrayList<>(wheelSizes[i]);
+            for (int s = 0; s < wheelSizes[i]; s++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+        this.currentTime = Math.floorDiv(startMillis, tickMillis) * tickMillis;
+    }
+
+    // Returns false when the deadline is not in the future; the caller should run the item now
+    public boolean schedule(long deadlineMillis, T item) {
+        // Round up to the tick so nothing fires before its deadline
+        long deadline = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis) * tickMillis;
+        if (deadline <= currentTime) {
+            return false;
+        }
+        place(new Entry<>(deadline, item));
+        size++;
+        return true;
+    }
+
+    // Moves the wheel forward to nowMillis, handing every expired item to the consumer
+    public void advance(long nowMillis, Consumer<T> expired) {
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+            if (currentTime % slotSpans[wheelSizes.length - 1] == 0 && !overflow.isEmpty()) {
+                List<Entry<T>> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(entry -> reinsert(entry, expired));
+            }
+            // Highest level first so cascaded entries are seen by the lower slot for this tick
+            for (int level = wheelSizes.length - 1; level >= 0; level--) {
+                if (currentTime % slotSpans[level] != 0) {
+                    continue;
+                }
+                List<Entry<T>> slot = levels.get(level).get(slotIndex(currentTime, level));
+                if (slot.isEmpty()) {
+                    continue;
+                }
+                List<Entry<T>> due = new ArrayList<>(slot);
+                slot.clear();
+                due.forEach(entry -> reinsert(entry, expired));
+            }
+        }
+    }
+
+    public long getCurrentTime() { return currentTime; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Latest deadline the wheel can hold without using the overflow list
+    public long horizon() {
+        return currentTime + slotSpans[wheelSizes.length] - tickMillis;
+    }
+
+    private void reinsert(Entry<T> entry, Consumer<T> expired) {
+        if (entry.deadline <= currentTime) {
+            size--;
+            expired.accept(entry.item);
+        } else {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < wheelSizes.length; level++) {
+            long distance = entry.deadline / slotSpans[level] - currentTime / slotSpans[level];
+            if (distance <= wheelSizes[level]) {
+                levels.get(level).get(slotIndex(entry.deadline, level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private int slotIndex(long time, int level) {
+        return (int) ((time / slotSpans[level]) % wheelSizes[level]);
+    }
+}
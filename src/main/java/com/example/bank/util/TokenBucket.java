@@ -0,0 +1,41 @@
+package com.example.bank.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket in its GCRA form: the whole bucket state is one "theoretical
+// arrival time", so taking a token is a single CAS with no refill thread.
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket needs a capacity >= 1 and a positive refill rate");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = current - nowNanos > 0 ? current : nowNanos;
+            long waitNanos = arrival - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // Nanoseconds until the bucket is full again; a full bucket carries no state worth keeping
+    public long debtNanos(long nowNanos) {
+        return Math.max(0L, theoreticalArrival.get() - nowNanos);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bank.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Lock-free holder of the N highest-scoring entries offered within a time window. Slots are
+// replaced with a CAS: an offer takes an empty or expired slot, otherwise the lowest-scoring one
+// if it beats it. While the buffer is full an offer below the floor costs one volatile read.
+public class TopNBuffer<T> {
+
+    private final AtomicReferenceArray<Entry<T>> slots;
+    private final long windowMillis;
+    // Lowest score held and until when it holds (the oldest held entry's expiry), published together;
+    // only ever conservative, and a floor computed before a clear() is never published after it
+    private final AtomicReference<Floor> floor = new AtomicReference<>(Floor.NONE);
+
+    public TopNBuffer(int capacity, long windowMillis) {
+        if (capacity < 1 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Top-N buffer needs a capacity >= 1 and a positive window");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.windowMillis = windowMillis;
+    }
+
+    public void offer(long score, long nowMillis, T value) {
+        Floor current = floor.get();
+        if (score <= current.score && nowMillis < current.validUntil) {
+            return;
+        }
+        Entry<T> entry = new Entry<>(score, nowMillis, value);
+        while (true) {
+            int victim = -1;
+            Entry<T> victimEntry = null;
+            boolean full = true;
+            long oldestExpiry = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry<T> held = slots.get(i);
+                if (held == null || held.timestampMillis + windowMillis <= nowMillis) {
+                    victim = i;
+                    victimEntry = held;
+                    full = false;
+                    break;
+                }
+                oldestExpiry = Math.min(oldestExpiry, held.timestampMillis + windowMillis);
+                if (victimEntry == null || held.score < victimEntry.score) {
+                    victim = i;
+                    victimEntry = held;
+                }
+            }
+            if (full && victimEntry.score >= score) {
+                floor.compareAndSet(current, new Floor(victimEntry.score, oldestExpiry));
+                return;
+            }
+            if (slots.compareAndSet(victim, victimEntry, entry)) {
+                return;
+            }
+        }
+    }
+
+    // Entries still inside the window, highest score first
+    public List<T> snapshot(long nowMillis) {
+        List<Entry<T>> live = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<T> held = slots.get(i);
+            if (held != null && held.timestampMillis + windowMillis > nowMillis) {
+                live.add(held);
+            }
+        }
+        live.sort(Comparator.comparingLong((Entry<T> held) -> held.score).reversed());
+        List<T> values = new ArrayList<>(live.size());
+        for (Entry<T> held : live) {
+            values.add(held.value);
+        }
+        return values;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        // After the slots and a new instance, so an offer that saw the old entries holds a floor
+        // other than this one and cannot replace it
+        floor.set(new Floor(Long.MIN_VALUE, 0));
+    }
+
+    private record Entry<T>(long score, long timestampMillis, T value) {
+    }
+
+    private record Floor(long score, long validUntil) {
+        static final Floor NONE = new Floor(Long.MIN_VALUE, 0);
+    }
+}
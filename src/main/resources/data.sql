@@ -76,6 +76,11 @@ INSERT INTO transactions (from_account_id, to_account_id, amount, transaction_ty
 (3, 2, 200.00, 'TRANSFER', 'Dinner payment', DATEADD('DAY', -3, CURRENT_TIMESTAMP), 'COMPLETED'),
 (2, 5, 100.00, 'TRANSFER', 'Birthday gift', DATEADD('DAY', -1, CURRENT_TIMESTAMP), 'COMPLETED');
 
+-- The seeded balances hold money no posting explains; record it as each account's opening balance
+UPDATE accounts SET opening_balance = balance
+    - COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.to_account_id = accounts.id), 0)
+    + COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.from_account_id = accounts.id), 0);
+
 -- Reset sequences
 ALTER TABLE users ALTER COLUMN id RESTART WITH 6;
 ALTER TABLE accounts ALTER COLUMN id RESTART WITH 11;
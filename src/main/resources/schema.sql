@@ -22,12 +22,25 @@ CREATE TABLE accounts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     account_number VARCHAR(20) UNIQUE NOT NULL,
     balance DECIMAL(15,2) DEFAULT 0.00,
+    -- Money the account was loaded with that no posting explains (seeded or imported balances)
+    opening_balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
     account_type VARCHAR(20) NOT NULL,
     user_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    striped BOOLEAN NOT NULL DEFAULT FALSE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Credit buckets of striped (hot) accounts; folded back into accounts.balance by compaction
+CREATE TABLE account_balance_buckets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    bucket_no INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    UNIQUE (account_id, bucket_no),
+    FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
 -- Transactions Table
 CREATE TABLE transactions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -38,14 +51,205 @@ CREATE TABLE transactions (
     description TEXT,
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) DEFAULT 'COMPLETED',
+    payout_id BIGINT NULL,
+    commit_seq BIGINT NULL,
+    posting_batch BIGINT NULL,
     FOREIGN KEY (from_account_id) REFERENCES accounts(id) ON DELETE SET NULL,
     FOREIGN KEY (to_account_id) REFERENCES accounts(id) ON DELETE SET NULL
 );
 
+-- Per-user activity feed, written in the same database transaction as each posting
+CREATE TABLE user_activity (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    activity_date TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (transaction_id) REFERENCES transactions(id) ON DELETE CASCADE
+);
+
+-- Daily inflow/outflow rollups, maintained incrementally behind stats_rollup_state.last_transaction_id
+-- (a commit_seq for 'daily_stats')
+CREATE TABLE account_daily_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    inflow DECIMAL(19,2) NOT NULL,
+    outflow DECIMAL(19,2) NOT NULL,
+    txn_count BIGINT NOT NULL,
+    UNIQUE (account_id, stat_date)
+);
+
+CREATE TABLE user_daily_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    inflow DECIMAL(19,2) NOT NULL,
+    outflow DECIMAL(19,2) NOT NULL,
+    txn_count BIGINT NOT NULL,
+    UNIQUE (user_id, stat_date)
+);
+
+CREATE TABLE stats_rollup_state (
+    name VARCHAR(50) PRIMARY KEY,
+    last_transaction_id BIGINT NOT NULL
+);
+
+-- Point-in-time balance checkpoints, cut from the running heads behind stats_rollup_state 'balance_checkpoints'
+CREATE TABLE balance_checkpoints (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    replay_to_id BIGINT NOT NULL,
+    balance DECIMAL(19,2) NOT NULL
+);
+
+CREATE TABLE balance_checkpoint_heads (
+    account_id BIGINT PRIMARY KEY,
+    balance DECIMAL(19,2) NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    last_posted_at TIMESTAMP NOT NULL,
+    postings INT NOT NULL,
+    checkpoint_at TIMESTAMP
+);
+
+-- Recurring transfers; the scheduler reads only the rows due within its loading window
+CREATE TABLE standing_orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    from_account_id BIGINT NOT NULL,
+    to_account_id BIGINT NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    description VARCHAR(255),
+    frequency VARCHAR(20) NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_at TIMESTAMP NULL,
+    next_execution_at TIMESTAMP NULL,
+    execution_count INT NOT NULL DEFAULT 0,
+    failure_count INT NOT NULL DEFAULT 0,
+    last_executed_at TIMESTAMP NULL,
+    last_error VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (from_account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    FOREIGN KEY (to_account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
+-- Daily interest runs and their per-chunk checkpoints; a RUNNING run resumes after the last committed chunk.
+-- claim_token/heartbeat_at are the lease of the runner working on it; chunks commit only while it holds the lease
+CREATE TABLE interest_runs (
+    run_date DATE PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NULL,
+    accounts_credited BIGINT NOT NULL DEFAULT 0,
+    total_interest DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    claim_token VARCHAR(36) NULL,
+    heartbeat_at TIMESTAMP NULL
+);
+
+CREATE TABLE interest_run_chunks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_date DATE NOT NULL,
+    first_account_id BIGINT NOT NULL,
+    last_account_id BIGINT NOT NULL,
+    accounts_credited INT NOT NULL,
+    total_interest DECIMAL(15,2) NOT NULL,
+    completed_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    transaction_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    from_account_id BIGINT NULL,
+    to_account_id BIGINT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    transaction_type VARCHAR(255) NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    delivery_seq BIGINT NULL
+);
+
+-- One row per payout (one source account, many credited accounts); its legs carry payout_id
+CREATE TABLE payouts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_account_id BIGINT NOT NULL,
+    description VARCHAR(255),
+    leg_count INT NOT NULL,
+    total_amount DECIMAL(15,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    legs_posted INT NOT NULL DEFAULT 0,
+    failure_reason VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NULL
+);
+
+-- Cross-shard transfer in progress or finished, kept on the source account's shard
+CREATE TABLE transfer_sagas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_account_id BIGINT NOT NULL,
+    target_account_id BIGINT NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    description VARCHAR(255),
+    debit_transaction_id BIGINT NOT NULL,
+    credit_transaction_id BIGINT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Credit side of a cross-shard transfer, kept on the target account's shard
+CREATE TABLE transfer_saga_credits (
+    saga_id BIGINT PRIMARY KEY,
+    credit_transaction_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Funds reserved ahead of settlement; ACTIVE holds lower the available balance
+CREATE TABLE holds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    captured_amount DECIMAL(15, 2),
+    transaction_id BIGINT,
+    description VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    FOREIGN KEY (account_id) REFERENCES accounts(id)
+);
+
+-- Delivery position of each outbox consumer; the '_sequencer' row holds the last commit_seq stamped
+CREATE TABLE outbox_offsets (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
 -- Create Indexes for Performance
 CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_accounts_user_id ON accounts(user_id);
 CREATE INDEX idx_accounts_number ON accounts(account_number);
+CREATE INDEX idx_user_activity_feed ON user_activity(user_id, activity_date, id);
+CREATE INDEX idx_user_activity_transaction ON user_activity(transaction_id);
+CREATE INDEX idx_standing_orders_due ON standing_orders(status, next_execution_at);
+CREATE UNIQUE INDEX idx_interest_run_chunks_run_date ON interest_run_chunks(run_date, first_account_id);
 CREATE INDEX idx_transactions_from_account ON transactions(from_account_id);
 CREATE INDEX idx_transactions_to_account ON transactions(to_account_id);
-CREATE INDEX idx_transactions_date ON transactions(transaction_date);
\ No newline at end of file
+CREATE INDEX idx_transactions_from_commit ON transactions(from_account_id, commit_seq);
+CREATE INDEX idx_transactions_to_commit ON transactions(to_account_id, commit_seq);
+CREATE INDEX idx_transactions_commit_seq ON transactions(commit_seq);
+CREATE INDEX idx_transactions_date ON transactions(transaction_date);
+CREATE INDEX idx_transactions_payout ON transactions(payout_id);
+CREATE INDEX idx_transactions_posting_batch ON transactions(posting_batch);
+CREATE INDEX idx_transfer_sagas_status ON transfer_sagas(status, updated_at);
+CREATE INDEX idx_holds_status_expiry ON holds(status, expires_at);
+CREATE INDEX idx_holds_account ON holds(account_id, status);
+CREATE INDEX idx_balance_checkpoints_account_time ON balance_checkpoints(account_id, checkpoint_at);
+CREATE UNIQUE INDEX idx_outbox_events_transaction ON outbox_events(transaction_id);
+CREATE INDEX idx_outbox_events_created ON outbox_events(created_at);
+CREATE INDEX idx_outbox_events_delivery ON outbox_events(delivery_seq);
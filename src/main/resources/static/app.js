@@ -2,6 +2,8 @@
 let currentUser = null;
 let userAccounts = [];
 let userTransactions = [];
+// Per-account history: postings by id plus the token for the next delta from /changes
+let transactionCache = {};
 
 // API Base URL
 const API_BASE = 'http://localhost:8080/api';
@@ -172,6 +174,7 @@ function logout() {
     currentUser = null;
     userAccounts = [];
     userTransactions = [];
+    transactionCache = {};
     localStorage.removeItem('currentUser');
     showNotification('Logged out successfully', 'success');
     showSection('home');
@@ -351,11 +354,29 @@ function displayFilteredTransactions(transactions) {
 
 async function loadTransactions(accountId) {
     try {
-        const response = await fetch(`${API_BASE}/transactions/account/${accountId}`);
-        if (response.ok) {
-            userTransactions = await response.json();
-            displayTransactions();
+        const cache = transactionCache[accountId] || (transactionCache[accountId] = { token: null, byId: new Map() });
+        // Only postings after the cached token come back; a posting sent again replaces the cached copy
+        let hasMore = true;
+        while (hasMore) {
+            const since = cache.token !== null ? `?since=${cache.token}` : '';
+            const response = await fetch(`${API_BASE}/transactions/account/${accountId}/changes${since}`);
+            if (!response.ok) {
+                return;
+            }
+            const delta = await response.json();
+            delta.transactions.forEach(transaction => cache.byId.set(transaction.id, transaction));
+            cache.token = delta.token;
+            hasMore = delta.hasMore;
+
+            const account = userAccounts.find(acc => acc.id == accountId);
+            if (account) {
+                account.balance = delta.balance;
+                account.availableBalance = delta.availableBalance;
+            }
         }
+        userTransactions = Array.from(cache.byId.values()).sort((a, b) =>
+            new Date(b.transactionDate) - new Date(a.transactionDate) || b.id - a.id);
+        displayTransactions();
     } catch (error) {
         console.error('Error loading transactions:', error);
         showNotification('Error loading transactions', 'error');
@@ -523,10 +544,15 @@ async function handleTransfer(event) {
         
         const transferData = {
             fromAccountId: parseInt(fromAccountId),
-            toAccountId: toAccountNumber, // This should be the account ID
             amount: amount,
             description: description
         };
+        // Account numbers (ACC##########) are resolved by the server; plain digits are taken as an id
+        if (/^\s*acc/i.test(toAccountNumber)) {
+            transferData.toAccountNumber = toAccountNumber.trim();
+        } else {
+            transferData.toAccountId = parseInt(toAccountNumber);
+        }
 
         const response = await fetch(`${API_BASE}/transactions/transfer`, {
             method: 'POST',
@@ -0,0 +1,35 @@
+package com.example.bank.config;
+
+import com.example.bank.service.RequestProfiler;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingDataSourceTest {
+
+    // The wrapper stands in for the pool bean, so the container's close must reach the pool
+    @Test
+    void closingTheWrapperClosesThePool() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:profiling_close;DB_CLOSE_DELAY=-1");
+        RequestProfiler profiler = new RequestProfiler(true, 10, 1, 10);
+        try (ProfilingDataSource dataSource = new ProfilingDataSource(pool, profiler)) {
+            RequestProfiler.Profile profile = profiler.begin("GET", "/test");
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                statement.executeQuery().close();
+            } finally {
+                profiler.end(profile, 200);
+            }
+            assertSame(pool, dataSource.unwrap(HikariDataSource.class));
+            assertFalse(pool.isClosed());
+        }
+        assertTrue(pool.isClosed());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bank.controller;
+
+import com.example.bank.support.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class AccountControllerStatementBudgetTest extends StatementBudgetTestSupport {
+
+    @Test
+    void userAccounts() throws Exception {
+        assertBudget("GET /api/accounts/user/{id}", 2, 1 + ACCOUNTS_PER_USER, get("/api/accounts/user/{id}", userId(2)));
+    }
+
+    @Test
+    void account() throws Exception {
+        assertBudget("GET /api/accounts/{id}", 1, 1, get("/api/accounts/{id}", accountId(6)));
+    }
+
+    @Test
+    void accountStats() throws Exception {
+        assertBudget("GET /api/accounts/{id}/stats", 5, 4 + HISTORY_DAYS, get("/api/accounts/{id}/stats", accountId(7))
+                .param("granularity", "week"));
+    }
+
+    @Test
+    void balanceAsOf() throws Exception {
+        assertBudget("GET /api/accounts/{id}/balance", 4, 3, get("/api/accounts/{id}/balance", accountId(8))
+                .param("asOf", LocalDateTime.now().minusDays(1).toString()));
+    }
+
+    @Test
+    void userStats() throws Exception {
+        assertBudget("GET /api/accounts/user/{id}/stats", 6, 6 + ACCOUNTS_PER_USER + HISTORY_DAYS, get("/api/accounts/user/{id}/stats", userId(3))
+                .param("granularity", "month"));
+    }
+
+    @Test
+    void createAccount() throws Exception {
+        assertBudget("POST /api/accounts/create", 6, 1, post("/api/accounts/create").param("userId", userId(4).toString()));
+    }
+
+    @Test
+    void deposit() throws Exception {
+        assertBudget("POST /api/accounts/{id}/deposit", 6, 2, post("/api/accounts/{id}/deposit", accountId(9))
+                .param("amount", "25.00"));
+    }
+
+    @Test
+    void withdraw() throws Exception {
+        assertBudget("POST /api/accounts/{id}/withdraw", 6, 2, post("/api/accounts/{id}/withdraw", accountId(10))
+                .param("amount", "15.00"));
+    }
+
+    @Test
+    void transfer() throws Exception {
+        assertBudget("POST /api/accounts/transfer", 8, 3, post("/api/accounts/transfer")
+                .param("fromAccountId", accountId(11).toString())
+                .param("toAccountId", accountId(12).toString())
+                .param("amount", "30.00"));
+    }
+
+    @Test
+    void addDemoMoney() throws Exception {
+        assertBudget("POST /api/accounts/user/{id}/add-demo-money", 5, 1,
+                post("/api/accounts/user/{id}/add-demo-money", userId(5)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bank.controller;
+
+import com.example.bank.support.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class AuthControllerStatementBudgetTest extends StatementBudgetTestSupport {
+
+    @Test
+    void register() throws Exception {
+        assertBudget("POST /api/auth/register", 2, 0, post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"New\",\"lastName\":\"Customer\",\"email\":\"new.customer@example.com\","
+                        + "\"password\":\"secret\",\"phone\":\"5551234\"}"));
+    }
+
+    @Test
+    void login() throws Exception {
+        assertBudget("POST /api/auth/login", 1, 1, post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"budget0@example.com\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bank.controller;
+
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// CBOR bodies carry amounts as integer cents; a decimal with more places than cents is refused, not rounded
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class BinaryAmountTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Test
+    void integerCentsTransferThePostedAmount() throws Exception {
+        Long from = fixtures.openAccount("100.00");
+        Long to = fixtures.openAccount("0");
+        ObjectNode body = transfer(from, to);
+        body.put("amount", 1234);
+
+        mockMvc.perform(post("/api/transactions/transfer").contentType(CBOR).content(cborMapper.writeValueAsBytes(body)))
+                .andExpect(status().isOk());
+
+        assertEquals(Money.valueOf("87.66"), fixtures.balance(from));
+        assertEquals(Money.valueOf("12.34"), fixtures.balance(to));
+    }
+
+    @Test
+    void excessScaleIsABadRequest() throws Exception {
+        Long from = fixtures.openAccount("100.00");
+        Long to = fixtures.openAccount("0");
+        ObjectNode body = transfer(from, to);
+        body.put("amount", new BigDecimal("12.345"));
+
+        mockMvc.perform(post("/api/transactions/transfer").contentType(CBOR).content(cborMapper.writeValueAsBytes(body)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Amounts must fit in 2 decimal places and 64 bits"));
+
+        assertEquals(Money.valueOf("100.00"), fixtures.balance(from));
+        assertEquals(Money.ZERO, fixtures.balance(to));
+    }
+
+    private ObjectNode transfer(Long from, Long to) {
+        ObjectNode body = cborMapper.createObjectNode();
+        body.put("fromAccountId", from);
+        body.put("toAccountId", to);
+        body.put("description", "Binary transfer");
+        return body;
+    }
+}
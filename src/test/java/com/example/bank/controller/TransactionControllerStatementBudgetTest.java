@@ -0,0 +1,113 @@
+package com.example.bank.controller;
+
+import com.example.bank.service.AccountService;
+import com.example.bank.support.StatementBudgetTestSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class TransactionControllerStatementBudgetTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void transfer() throws Exception {
+        assertBudget("POST /api/transactions/transfer", 8, 3, post("/api/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":" + accountId(0) + ",\"toAccountId\":" + accountId(4)
+                        + ",\"amount\":12.50,\"description\":\"Budget transfer\"}"));
+    }
+
+    // Same budget as by id: the number resolves through the in-memory account directory
+    @Test
+    void transferByAccountNumber() throws Exception {
+        String toAccountNumber = accountService.createAccount(userId(5)).getAccountNumber();
+        assertBudget("POST /api/transactions/transfer", 8, 3, post("/api/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":" + accountId(6) + ",\"toAccountNumber\":\"" + toAccountNumber
+                        + "\",\"amount\":7.25,\"description\":\"Budget transfer by number\"}"));
+    }
+
+    @Test
+    void deposit() throws Exception {
+        assertBudget("POST /api/transactions/deposit", 6, 2, post("/api/transactions/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"toAccountId\":" + accountId(1) + ",\"amount\":20.00,\"description\":\"Budget deposit\"}"));
+    }
+
+    @Test
+    void withdraw() throws Exception {
+        assertBudget("POST /api/transactions/withdraw", 6, 2, post("/api/transactions/withdraw")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":" + accountId(2) + ",\"amount\":5.00,\"description\":\"Budget withdrawal\"}"));
+    }
+
+    @Test
+    void accountTransactions() throws Exception {
+        assertBudget("GET /api/transactions/account/{id}", 2, 1 + 2 * TRANSACTIONS_PER_ACCOUNT, get("/api/transactions/account/{id}", accountId(3)));
+    }
+
+    // A refresh with the latest token reads no postings, however long the history is
+    @Test
+    void accountChangesSinceLatestToken() throws Exception {
+        MvcResult full = mockMvc.perform(get("/api/transactions/account/{id}/changes", accountId(8))).andReturn();
+        long token = objectMapper.readTree(full.getResponse().getContentAsString()).get("token").asLong();
+        assertBudget("GET /api/transactions/account/{id}/changes", 3, 1,
+                get("/api/transactions/account/{id}/changes", accountId(8)).param("since", String.valueOf(token)));
+    }
+
+    @Test
+    void userTransactions() throws Exception {
+        assertBudget("GET /api/transactions/user/{id}", 1, 50, get("/api/transactions/user/{id}", userId(1)));
+    }
+
+    @Test
+    void recentTransactions() throws Exception {
+        assertBudget("GET /api/transactions/recent", 1, 10, get("/api/transactions/recent").param("count", "10"));
+    }
+
+    @Test
+    void transactionsByType() throws Exception {
+        long withdrawals = transactionRepository.findByTransactionTypeOrderByTransactionDateDesc("WITHDRAWAL").size();
+        assertBudget("GET /api/transactions/type/{type}", 1, withdrawals, get("/api/transactions/type/{type}", "WITHDRAWAL"));
+    }
+
+    @Test
+    void transactionsByDateRange() throws Exception {
+        LocalDateTime end = LocalDateTime.now().minusDays(HISTORY_DAYS / 2);
+        LocalDateTime start = end.minusDays(7);
+        long matching = transactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(start, end).size();
+        assertBudget("GET /api/transactions/date-range", 1, matching, get("/api/transactions/date-range")
+                .param("startDate", start.toString())
+                .param("endDate", end.toString()));
+    }
+
+    @Test
+    void search() throws Exception {
+        assertBudget("GET /api/transactions/search", 1, 20, get("/api/transactions/search")
+                .param("q", "grocery")
+                .param("limit", "20"));
+    }
+
+    @Test
+    void transactionById() throws Exception {
+        Long id = transactionRepository.findAll().get(0).getId();
+        assertBudget("GET /api/transactions/{id}", 1, 1, get("/api/transactions/{id}", id));
+    }
+
+    @Test
+    void allTransactions() throws Exception {
+        assertBudget("GET /api/transactions/all", 1, transactionRepository.count(), get("/api/transactions/all"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class AccountChangesTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A posting with a lower id that commits after the client has paged past higher ids still reaches it
+    @Test
+    void lateCommitIsReturnedAfterTheTokenPassedHigherIds() throws Exception {
+        Long accountId = fixtures.openAccount("100.00");
+        long token = changesUntil(accountId, 0, 1).token();
+
+        AtomicLong lateId = new AtomicLong();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            lateId.set(insertDeposit(accountId));
+            inserted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                accountService.depositMoney(accountId, Money.valueOf("1.00"));
+            }
+            Changes later = changesUntil(accountId, token, 3);
+            assertTrue(later.transactions().stream().allMatch(change -> change.getId() > lateId.get()));
+            token = later.token();
+        } finally {
+            release.countDown();
+        }
+        late.get(10, TimeUnit.SECONDS);
+
+        Changes afterCommit = changesUntil(accountId, token, 1);
+        assertEquals(lateId.get(), afterCommit.transactions().get(0).getId());
+        assertTrue(afterCommit.token() > token);
+    }
+
+    // Polls until the feed has the expected number of postings after the token; sequencing is asynchronous
+    @SuppressWarnings("unchecked")
+    private Changes changesUntil(Long accountId, long since, int expected) throws InterruptedException {
+        Map<String, Object> changes = transactionService.getAccountChanges(accountId, since);
+        for (int i = 0; i < 200 && ((List<Transaction>) changes.get("transactions")).size() < expected; i++) {
+            Thread.sleep(50);
+            changes = transactionService.getAccountChanges(accountId, since);
+        }
+        List<Transaction> transactions = (List<Transaction>) changes.get("transactions");
+        assertEquals(expected, transactions.size(), "changes after " + since);
+        return new Changes(transactions, ((Number) changes.get("token")).longValue());
+    }
+
+    private long insertDeposit(Long accountId) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO transactions (to_account_id, amount, transaction_type, description, transaction_date, status) " +
+                    "VALUES (?, 1.00, 'DEPOSIT', 'Late deposit', ?, 'COMPLETED')", new String[] { "id" });
+            statement.setLong(1, accountId);
+            statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    private record Changes(List<Transaction> transactions, long token) {}
+}
@@ -0,0 +1,75 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Account;
+import com.example.bank.model.User;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.UserRepository;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class AccountDirectoryTest {
+
+    @Autowired
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // An account opened in a transaction that rolls back is never mapped
+    @Test
+    void rolledBackAccountIsNotMapped() {
+        User user = userRepository.save(new User("Directory", "User",
+                "directory-" + System.nanoTime() + "@example.com", "x", "5550100"));
+        AtomicReference<String> number = new AtomicReference<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            number.set(accountService.createAccount(user.getId()).getAccountNumber());
+            assertFalse(accountDirectory.contains(number.get()));
+            status.setRollbackOnly();
+        });
+        assertFalse(accountDirectory.contains(number.get()));
+        assertThrows(ApiException.class, () -> accountDirectory.idOf(number.get()));
+
+        Account committed = accountService.createAccount(user.getId());
+        assertEquals(committed.getId(), accountDirectory.idOf(committed.getAccountNumber()));
+    }
+
+    // A number no shard had is answered from memory until it is mapped
+    @Test
+    void missIsRememberedUntilTheAccountIsMapped() {
+        User user = userRepository.save(new User("Directory", "Miss",
+                "directory-miss-" + System.nanoTime() + "@example.com", "x", "5550101"));
+        String number = String.format("ACC%010d", System.nanoTime() % 10_000_000_000L);
+        assertThrows(ApiException.class, () -> accountDirectory.idOf(number));
+
+        // Written behind the directory's back, as another instance would
+        Account account = accountRepository.save(new Account(number, "SAVINGS", user));
+        assertThrows(ApiException.class, () -> accountDirectory.idOf(number));
+
+        accountDirectory.add(number, account.getId());
+        assertEquals(account.getId(), accountDirectory.idOf(number));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class AccountStatsLateCommitTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountStatsServiceImpl accountStatsService;
+
+    @Autowired
+    private PostingSequencer postingSequencer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A deposit that commits after the rollup has passed higher ids is still folded into the daily row
+    @Test
+    void lateCommitIsRolledUp() throws Exception {
+        Long accountId = fixtures.openAccount("100.00");
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO transactions (to_account_id, amount, transaction_type, description, transaction_date, status) " +
+                    "VALUES (?, 7.00, 'DEPOSIT', 'Late deposit', ?, 'COMPLETED')", accountId, Timestamp.valueOf(LocalDateTime.now()));
+            inserted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            accountService.depositMoney(accountId, Money.valueOf("1.00"));
+            catchUp();
+            assertEquals(new BigDecimal("101.00"), inflowToday(accountId));
+        } finally {
+            release.countDown();
+        }
+        late.get(10, TimeUnit.SECONDS);
+
+        catchUp();
+        assertEquals(new BigDecimal("108.00"), inflowToday(accountId));
+    }
+
+    // Sequences every committed posting, then rolls up; the relay may be sequencing at the same time
+    private void catchUp() throws InterruptedException {
+        postingSequencer.sequence();
+        for (int i = 0; i < 200 && jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE commit_seq IS NULL", Long.class) > 0; i++) {
+            Thread.sleep(50);
+            postingSequencer.sequence();
+        }
+        accountStatsService.rollUp();
+    }
+
+    private BigDecimal inflowToday(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT inflow FROM account_daily_stats WHERE account_id = ? AND stat_date = ?",
+                BigDecimal.class, accountId, Date.valueOf(LocalDate.now()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bank.service;
+
+import com.example.bank.config.RateLimitProperties;
+import com.example.bank.exception.RateLimitExceededException;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Admission control in front of the account type lookup: ids nobody has used are limited without a query
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class AdmissionControlTest {
+
+    private static final int CAPACITY = 3;
+    private static final int TRACKED = 4;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final AtomicInteger typeLookups = new AtomicInteger();
+
+    @Test
+    void unknownIdIsLimitedAfterOneLookupAtMost() {
+        AdmissionControl admissionControl = admissionControl();
+        Long unknownId = Long.MAX_VALUE - 1;
+        for (int i = 0; i < CAPACITY; i++) {
+            admissionControl.admit(unknownId).close();
+        }
+        assertThrows(RateLimitExceededException.class, () -> admissionControl.admit(unknownId));
+        assertEquals(1, typeLookups.get());
+    }
+
+    @Test
+    void manyUnknownIdsCostNoLookupAndStayBounded() {
+        AdmissionControl admissionControl = admissionControl();
+        for (long id = 1; id <= 100; id++) {
+            admissionControl.admit(Long.MAX_VALUE - 1000 - id).close();
+        }
+        assertEquals(0, typeLookups.get());
+        assertTrue(((Number) admissionControl.getMetrics().get("trackedAccounts")).intValue() <= TRACKED);
+        assertTrue(((Number) admissionControl.getMetrics().get("bucketEvictions")).longValue() >= 100 - TRACKED);
+    }
+
+    // The type's own limit replaces the default once the account comes back
+    @Test
+    void knownAccountGetsItsTypeLimit() {
+        AdmissionControl admissionControl = admissionControl();
+        Long accountId = fixtures.openAccount("0");
+        admissionControl.admit(accountId).close();
+        admissionControl.admit(accountId).close();
+        assertEquals(1, typeLookups.get());
+        for (int i = 0; i < 2; i++) {
+            admissionControl.admit(accountId).close();
+        }
+        assertThrows(RateLimitExceededException.class, () -> admissionControl.admit(accountId));
+        assertEquals(1, typeLookups.get());
+    }
+
+    private AdmissionControl admissionControl() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxTrackedAccounts(TRACKED);
+        properties.getDefaultLimit().setCapacity(CAPACITY);
+        properties.getDefaultLimit().setRefillPerSecond(0.001);
+        RateLimitProperties.Limit savings = new RateLimitProperties.Limit();
+        savings.setCapacity(2);
+        savings.setRefillPerSecond(0.001);
+        properties.getAccountTypes().put("SAVINGS", savings);
+        return new AdmissionControl(properties, countingTypeLookups(), shardRouter);
+    }
+
+    private AccountRepository countingTypeLookups() {
+        return (AccountRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { AccountRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAccountTypeById")) {
+                        typeLookups.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(accountRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
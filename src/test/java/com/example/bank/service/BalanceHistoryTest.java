@@ -0,0 +1,69 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// As-of balances on the demo seed, whose balances are not explained by its postings alone
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bank_history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.sql.init.data-locations=classpath:demo-seed.sql",
+        "bank.checkpoints.settle-seconds=0"
+})
+@ActiveProfiles("test")
+class BalanceHistoryTest {
+
+    @Autowired
+    private BalanceHistoryServiceImpl balanceHistoryService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void balanceAsOfNowMatchesTheCurrentBalance() {
+        balanceHistoryService.checkpoint();
+        assertEquals(balance(1L), balanceAsOf(1L, LocalDateTime.now()));
+        assertEquals(balance(1L), balanceAsOf(1L, LocalDateTime.of(2030, 1, 1, 0, 0)));
+        // 12500.75 today, after -500.00 on the 20th, +300.00 on the 23rd and -150.00 on the 24th
+        assertEquals(Money.valueOf("12350.75"), balanceAsOf(1L, LocalDateTime.of(2024, 1, 20, 12, 0)));
+        assertEquals(Money.valueOf("12850.75"), balanceAsOf(1L, LocalDateTime.of(2024, 1, 19, 0, 0)));
+
+        // Not folded yet, then folded
+        accountService.depositMoney(1L, Money.valueOf("100.00"));
+        assertEquals(balance(1L), balanceAsOf(1L, LocalDateTime.now().plusSeconds(1)));
+        balanceHistoryService.checkpoint();
+        assertEquals(balance(1L), balanceAsOf(1L, LocalDateTime.now().plusSeconds(1)));
+        for (long accountId = 2; accountId <= 10; accountId++) {
+            assertEquals(balance(accountId), balanceAsOf(accountId, LocalDateTime.now()), "account " + accountId);
+        }
+    }
+
+    @Test
+    void accountWithoutPostingsReportsItsBalance() {
+        jdbcTemplate.update("INSERT INTO accounts (account_number, balance, opening_balance, account_type, user_id) VALUES ('HIST0000001', 42.50, 42.50, 'SAVINGS', 1)");
+        Long accountId = jdbcTemplate.queryForObject("SELECT id FROM accounts WHERE account_number = 'HIST0000001'", Long.class);
+        assertEquals(Money.valueOf("42.50"), balanceAsOf(accountId, LocalDateTime.now()));
+    }
+
+    private Money balanceAsOf(Long accountId, LocalDateTime asOf) {
+        return (Money) balanceHistoryService.getBalanceAsOf(accountId, asOf).get("balance");
+    }
+
+    private Money balance(Long accountId) {
+        return Money.of(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId));
+    }
+}
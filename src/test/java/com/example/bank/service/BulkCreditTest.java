@@ -0,0 +1,59 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Each test credits only accounts of its own type, so the rest of the shared database is left alone
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class BulkCreditTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void excessScaleIsRefused() {
+        ApiException refused = assertThrows(ApiException.class,
+                () -> bulkOperationService.creditAllAccounts(new BigDecimal("1.005"), null, null));
+
+        assertEquals("Amounts must fit in 2 decimal places and 64 bits", refused.getMessage());
+    }
+
+    // One account at the column limit fails its chunk; nobody in the chunk is credited or posted
+    @Test
+    void creditPastTheBalanceLimitFailsTheChunk() throws Exception {
+        Long full = fixtures.seedAccount("9999999999999.00");
+        Long other = fixtures.openAccount("10.00");
+        jdbcTemplate.update("UPDATE accounts SET account_type = 'BULKLIMIT' WHERE id IN (?, ?)", full, other);
+
+        BackgroundJob job = bulkOperationService.creditAllAccounts(new BigDecimal("5.00"), "BULKLIMIT", "Limit credit");
+        for (int i = 0; i < 500 && !job.isFinished(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(BackgroundJob.Status.FAILED, job.getStatus());
+        assertEquals(0, job.getProcessed());
+        assertEquals(Money.valueOf("9999999999999.00"), fixtures.balance(full));
+        assertEquals(Money.valueOf("10.00"), fixtures.balance(other));
+        assertEquals(fixtures.balance(other), fixtures.ledger(other));
+    }
+}
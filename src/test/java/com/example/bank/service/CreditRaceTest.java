@@ -0,0 +1,72 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class CreditRaceTest {
+
+    private static final int THREADS = 4;
+    private static final int CREDITS = 25;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Deposits write the row back through JPA while set-based writers (bulk credit, interest, payouts)
+    // add to it in SQL; neither may lose the other's money
+    @Test
+    void depositsAndSetBasedCreditsAllLand() throws Exception {
+        Long accountId = fixtures.openAccount("0");
+        ExecutorService pool = Executors.newFixedThreadPool(2 * THREADS);
+        CyclicBarrier barrier = new CyclicBarrier(2 * THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < CREDITS; i++) {
+                        accountService.depositMoney(accountId, Money.valueOf("1.00"));
+                    }
+                    return null;
+                }));
+                futures.add(pool.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < CREDITS; i++) {
+                        jdbcTemplate.update("UPDATE accounts SET balance = balance + 1.00 WHERE id = ?", accountId);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(Money.valueOf(String.valueOf(2 * THREADS * CREDITS)), fixtures.balance(accountId));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.HoldRequest;
+import com.example.bank.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The admin reset job end to end on the real schema, including the tables not keyed by id
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bank_reset;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.sql.init.data-locations=classpath:demo-seed.sql"
+})
+@ActiveProfiles("test")
+class DemoDataResetTest {
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldIndex holdIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resetClearsEveryTableAndReseeds() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, password) VALUES ('Extra', 'User', 'extra@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO transfer_saga_credits (saga_id, credit_transaction_id, created_at) VALUES (77, 1, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO balance_checkpoint_heads (account_id, balance, last_transaction_id, last_posted_at, postings) " +
+                "VALUES (999, 10.00, 1, CURRENT_TIMESTAMP, 1)");
+        HoldRequest hold = new HoldRequest();
+        hold.setAccountId(1L);
+        hold.setAmount(Money.valueOf("250.00"));
+        holdService.placeHold(hold);
+
+        BackgroundJob job = bulkOperationService.resetDemoData();
+        for (int i = 0; i < 300 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        assertEquals(0, count("transfer_saga_credits"));
+        assertEquals(0, count("balance_checkpoint_heads WHERE account_id = 999"));
+        assertEquals(5, count("users"));
+        assertEquals(10, count("accounts"));
+        // The hold went with its table, so it no longer lowers the available balance
+        assertEquals(Money.ZERO, holdIndex.heldAmount(1L));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.HoldRequest;
+import com.example.bank.exception.ApiException;
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class HoldDebitRaceTest {
+
+    private static final int ROUNDS = 40;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HoldIndex holdIndex;
+
+    // 100.00 in the account covers the 60.00 hold or the 60.00 withdrawal, never both
+    @Test
+    void holdAndWithdrawalRacingForTheSameMoneyNeverBothSucceed() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long accountId = fixtures.openAccount("100.00");
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> held = pool.submit(() -> {
+                    HoldRequest request = new HoldRequest();
+                    request.setAccountId(accountId);
+                    request.setAmount(Money.valueOf("60.00"));
+                    barrier.await();
+                    return succeeded(() -> holdService.placeHold(request));
+                });
+                Future<Boolean> withdrawn = pool.submit(() -> {
+                    barrier.await();
+                    return succeeded(() -> accountService.withdrawMoney(accountId, Money.valueOf("60.00")));
+                });
+
+                boolean holdPlaced = held.get();
+                boolean withdrawalMade = withdrawn.get();
+                assertTrue(holdPlaced || withdrawalMade, "round " + round);
+                assertFalse(holdPlaced && withdrawalMade, "round " + round);
+                assertFalse(fixtures.balance(accountId).minus(holdIndex.heldAmount(accountId)).isLessThan(Money.ZERO),
+                        "round " + round);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean succeeded(Runnable operation) {
+        try {
+            operation.run();
+            return true;
+        } catch (ApiException e) {
+            return false;
+        }
+    }
+}
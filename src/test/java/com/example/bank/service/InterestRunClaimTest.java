@@ -0,0 +1,108 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class InterestRunClaimTest {
+
+    private static final int ACCOUNTS = 50;
+    private static final int STARTERS = 4;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentStartsCreditEachAccountOnce() throws Exception {
+        List<Long> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(fixtures.openAccount("10000.00"));
+        }
+        LocalDate runDate = LocalDate.of(2031, 1, 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService starters = Executors.newFixedThreadPool(STARTERS);
+        List<Future<BackgroundJob>> futures = new ArrayList<>();
+        for (int t = 0; t < STARTERS; t++) {
+            futures.add(starters.submit(() -> {
+                start.await();
+                try {
+                    return interestAccrualService.startAccrual(runDate);
+                } catch (ApiException e) {
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        starters.shutdown();
+
+        int started = 0;
+        for (Future<BackgroundJob> future : futures) {
+            BackgroundJob job = future.get();
+            if (job == null) {
+                continue;
+            }
+            started++;
+            while (!job.isFinished()) {
+                Thread.sleep(20);
+            }
+            assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        }
+        assertTrue(started >= 1);
+
+        for (Long accountId : accounts) {
+            Integer postings = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM transactions WHERE to_account_id = ? AND transaction_type = 'INTEREST' " +
+                    "AND description = ?", Integer.class, accountId, "Interest accrual " + runDate);
+            assertEquals(1, postings, "account " + accountId);
+        }
+        assertEquals("COMPLETED", interestAccrualService.getRun(runDate).getStatus());
+    }
+
+    @Test
+    void runHeldByLiveRunnerIsNotStartedAgainUntilItsLeaseLapses() throws Exception {
+        LocalDate runDate = LocalDate.of(2031, 2, 1);
+        jdbcTemplate.update("INSERT INTO interest_runs (run_date, status, started_at, accounts_credited, total_interest, " +
+                "claim_token, heartbeat_at) VALUES (?, 'RUNNING', ?, 0, 0, 'other-node', ?)",
+                runDate, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+
+        assertThrows(ApiException.class, () -> interestAccrualService.startAccrual(runDate));
+
+        jdbcTemplate.update("UPDATE interest_runs SET heartbeat_at = ? WHERE run_date = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), runDate);
+        BackgroundJob job = interestAccrualService.startAccrual(runDate);
+        while (!job.isFinished()) {
+            Thread.sleep(20);
+        }
+        assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        assertEquals("COMPLETED", interestAccrualService.getRun(runDate).getStatus());
+    }
+}
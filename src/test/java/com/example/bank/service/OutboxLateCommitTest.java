@@ -0,0 +1,130 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.model.OutboxEvent;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class OutboxLateCommitTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InProcessOutboxSink sink;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The late event takes its id first and commits seconds after later ids were delivered
+    @Test
+    void eventCommittedLongAfterLaterIdsIsStillDeliveredOnce() throws Exception {
+        Long accountId = fixtures.openAccount("1000.00");
+        AtomicLong lateTransactionId = new AtomicLong();
+        ConcurrentHashMap<Long, Integer> deliveries = new ConcurrentHashMap<>();
+        CountDownLatch lateDelivered = new CountDownLatch(1);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AutoCloseable subscription = sink.subscribe(events -> {
+            for (OutboxEvent event : events) {
+                deliveries.merge(event.getTransactionId(), 1, Integer::sum);
+                if (event.getTransactionId() == lateTransactionId.get()) {
+                    lateDelivered.countDown();
+                }
+            }
+        });
+        try (subscription) {
+            CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+                lateTransactionId.set(insertDeposit(accountId));
+                jdbcTemplate.update("INSERT INTO outbox_events (transaction_id, account_id, from_account_id, to_account_id, " +
+                        "amount, transaction_type, transaction_date, created_at) VALUES (?, ?, NULL, ?, 1.00, 'DEPOSIT', ?, ?)",
+                        lateTransactionId.get(), accountId, accountId,
+                        Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+                inserted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            try {
+                assertTrue(inserted.await(10, TimeUnit.SECONDS));
+                Long opening = jdbcTemplate.queryForObject(
+                        "SELECT MAX(id) FROM transactions WHERE to_account_id = ?", Long.class, accountId);
+
+                for (int i = 0; i < 5; i++) {
+                    accountService.depositMoney(accountId, Money.valueOf("1.00"));
+                }
+                List<Long> later = jdbcTemplate.queryForList(
+                        "SELECT id FROM transactions WHERE to_account_id = ? AND id > ?", Long.class, accountId, opening);
+                assertEquals(5, later.size());
+                waitUntil(() -> later.stream().allMatch(deliveries::containsKey));
+                // Well past any time-based gap allowance
+                Thread.sleep(2500);
+            } finally {
+                release.countDown();
+            }
+            late.get(10, TimeUnit.SECONDS);
+
+            assertTrue(lateDelivered.await(10, TimeUnit.SECONDS), "late event was never delivered");
+            Thread.sleep(500);
+            deliveries.forEach((transactionId, count) -> assertEquals(1, count, "transaction " + transactionId));
+        }
+    }
+
+    // Straight into the table, so the row stays invisible for as long as the caller's transaction is open
+    private long insertDeposit(Long accountId) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO transactions (to_account_id, amount, transaction_type, description, transaction_date, status) " +
+                    "VALUES (?, 1.00, 'DEPOSIT', 'Late deposit', ?, 'COMPLETED')", new String[] { "id" });
+            statement.setLong(1, accountId);
+            statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean(), () -> "relay " + outboxRelay.getStats());
+    }
+}
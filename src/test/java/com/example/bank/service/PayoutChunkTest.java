@@ -0,0 +1,105 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.PayoutRequest;
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Payouts committed chunk by chunk, what a failed one gives back, and what they leave behind for the velocity windows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bank_payouts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "bank.payouts.chunk-size=4"
+})
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class PayoutChunkTest {
+
+    // More legs than the per-minute count limit, over several chunks
+    private static final int LEGS = 15;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private PayoutService payoutService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private VelocityEngine velocityEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyChunkPostsAndARebuildDoesNotCountLegsAsDebits() throws Exception {
+        Long sourceId = fixtures.openAccount("1000.00");
+        List<Long> targetIds = new ArrayList<>();
+        List<PayoutRequest.Leg> legs = new ArrayList<>();
+        for (int i = 0; i < LEGS; i++) {
+            Long targetId = fixtures.openAccount("0");
+            targetIds.add(targetId);
+            legs.add(new PayoutRequest.Leg(targetId, Money.valueOf("10.00")));
+        }
+        Map<String, Object> status = payOut(sourceId, legs);
+
+        assertEquals("COMPLETED", status.get("status"), String.valueOf(status.get("failureReason")));
+        assertEquals(LEGS, ((Number) status.get("legsPosted")).intValue());
+        assertEquals(Money.valueOf("850.00"), fixtures.balance(sourceId));
+        assertEquals(fixtures.ledger(sourceId), fixtures.balance(sourceId));
+        for (Long targetId : targetIds) {
+            assertEquals(Money.valueOf("10.00"), fixtures.balance(targetId));
+        }
+
+        // As after a restart: the legs never counted towards the source's windows, so they must not now
+        velocityEngine.rebuild();
+        assertDoesNotThrow(() -> accountService.withdrawMoney(sourceId, Money.valueOf("1.00")));
+    }
+
+    // A chunk that fails keeps the legs committed before it, and the rest of the total goes back to the source
+    @Test
+    void failedChunkRefundsWhatWasNotPaidOut() throws Exception {
+        Long sourceId = fixtures.openAccount("1000.00");
+        Long fullId = fixtures.openAccount("0");
+        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE id = ?", Money.COLUMN_MAX.toBigDecimal(), fullId);
+        List<PayoutRequest.Leg> legs = new ArrayList<>();
+        for (int i = 0; i < LEGS; i++) {
+            legs.add(new PayoutRequest.Leg(i == 9 ? fullId : fixtures.openAccount("0"), Money.valueOf("10.00")));
+        }
+
+        Map<String, Object> status = payOut(sourceId, legs);
+
+        assertEquals("FAILED", status.get("status"));
+        assertEquals(8, ((Number) status.get("legsPosted")).intValue());
+        assertEquals(Money.valueOf("920.00"), fixtures.balance(sourceId));
+        assertEquals(fixtures.ledger(sourceId), fixtures.balance(sourceId));
+        assertEquals(8, payoutService.getPayoutLegs((Long) status.get("payoutId"), 0, 100).size());
+    }
+
+    private Map<String, Object> payOut(Long sourceId, List<PayoutRequest.Leg> legs) throws InterruptedException {
+        PayoutRequest request = new PayoutRequest();
+        request.setSourceAccountId(sourceId);
+        request.setLegs(legs);
+
+        Long payoutId = (Long) payoutService.submitPayout(request).get("payoutId");
+        Map<String, Object> status = payoutService.getPayoutStatus(payoutId);
+        for (int i = 0; i < 300 && !"COMPLETED".equals(status.get("status")) && !"FAILED".equals(status.get("status")); i++) {
+            Thread.sleep(50);
+            status = payoutService.getPayoutStatus(payoutId);
+        }
+        return status;
+    }
+}
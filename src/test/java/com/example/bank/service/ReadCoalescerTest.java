@@ -0,0 +1,85 @@
+package com.example.bank.service;
+
+import com.example.bank.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadCoalescerTest {
+
+    // A failed read fails every caller that waited on it with the same exception, and the next
+    // caller runs a fresh read instead of getting the failure again
+    @Test
+    void failureReachesEveryWaiterAndIsNotKept() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(new NoOpTransactionManager(), true);
+        ApiException failure = new ApiException("Account not found");
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> coalescer.read("getAccount", List.of(1L), () -> {
+            reads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw failure;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> coalescer.read("getAccount", List.of(1L), () -> {
+            reads.incrementAndGet();
+            return "fresh";
+        }));
+        for (int i = 0; i < 100 && coalesced(coalescer) == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1L, coalesced(coalescer));
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS)).getCause());
+        assertEquals(1, reads.get());
+
+        assertEquals("fresh", coalescer.read("getAccount", List.of(1L), () -> "fresh"));
+        assertEquals(0, coalescer.getStats().get("inFlight"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long coalesced(ReadCoalescer coalescer) {
+        Map<String, Object> methods = (Map<String, Object>) coalescer.getStats().get("methods");
+        Map<String, Object> method = (Map<String, Object>) methods.get("getAccount");
+        return method != null ? (Long) method.get("coalesced") : 0;
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class ReconciliationRepairTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final int DEPOSITORS = 4;
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repairFixesRealDriftAndLeavesConcurrentPostingsAlone() throws Exception {
+        List<Long> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(fixtures.openAccount("1000.00"));
+        }
+        Long drifted = accounts.get(0);
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 123.45 WHERE id = ?", drifted);
+
+        // Postings keep committing between the transactions scan and the balance scan
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService depositors = Executors.newFixedThreadPool(DEPOSITORS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < DEPOSITORS; t++) {
+            int offset = t;
+            futures.add(depositors.submit(() -> {
+                for (int i = offset; running.get(); i += DEPOSITORS) {
+                    accountService.depositMoney(accounts.get(i % ACCOUNTS), Money.valueOf("1.00"));
+                }
+            }));
+        }
+        try {
+            for (int run = 0; run < 5; run++) {
+                BackgroundJob job = reconciliationService.startReconciliation(true);
+                while (!job.isFinished()) {
+                    Thread.sleep(20);
+                }
+                assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+            }
+        } finally {
+            running.set(false);
+            depositors.shutdown();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        for (Long accountId : accounts) {
+            assertEquals(fixtures.ledger(accountId), fixtures.balance(accountId), "account " + accountId);
+        }
+    }
+
+    // Seeded money is not drift: the report leaves such an account out and a repair leaves it alone,
+    // while one that drifted from its opening balance is brought back to it
+    @Test
+    void openingBalancesAreNotDrift() throws Exception {
+        Long seeded = fixtures.seedAccount("12500.75");
+        accountService.depositMoney(seeded, Money.valueOf("10.00"));
+        Long drifted = fixtures.seedAccount("300.00");
+        jdbcTemplate.update("UPDATE accounts SET balance = balance - 50.00 WHERE id = ?", drifted);
+
+        BackgroundJob job = reconciliationService.startReconciliation(true);
+        while (!job.isFinished()) {
+            Thread.sleep(20);
+        }
+        assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+
+        List<Long> reported = ((ReconciliationReport) job.getResult()).getDiscrepancies().stream()
+                .map(ReconciliationReport.Discrepancy::getAccountId).toList();
+        assertFalse(reported.contains(seeded));
+        assertTrue(reported.contains(drifted));
+        assertEquals(Money.valueOf("12510.75"), fixtures.balance(seeded));
+        assertEquals(Money.valueOf("300.00"), fixtures.balance(drifted));
+    }
+}
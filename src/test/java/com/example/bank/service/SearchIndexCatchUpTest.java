@@ -0,0 +1,103 @@
+package com.example.bank.service;
+
+import com.example.bank.support.BankFixtures;
+import com.example.bank.util.PostingList;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class SearchIndexCatchUpTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private PostingSequencer postingSequencer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A row written outside JPA that commits after a higher id was caught up is still indexed
+    @Test
+    void lateCommitOutsideJpaIsIndexed() throws Exception {
+        Long accountId = fixtures.openAccount("0");
+        String lateWord = "latecommit" + System.nanoTime();
+        String earlyWord = "earlycommit" + System.nanoTime();
+
+        AtomicLong lateId = new AtomicLong();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            lateId.set(insertDeposit(accountId, lateWord));
+            inserted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            long earlyId = insertDeposit(accountId, earlyWord);
+            catchUp();
+            assertEquals(earlyId, searchIndex.search(earlyWord).current());
+            assertEquals(PostingList.NONE, searchIndex.search(lateWord).current());
+        } finally {
+            release.countDown();
+        }
+        late.get(10, TimeUnit.SECONDS);
+
+        catchUp();
+        assertEquals(lateId.get(), searchIndex.search(lateWord).current());
+    }
+
+    private void catchUp() throws InterruptedException {
+        postingSequencer.sequence();
+        for (int i = 0; i < 200 && jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE commit_seq IS NULL", Long.class) > 0; i++) {
+            Thread.sleep(50);
+            postingSequencer.sequence();
+        }
+        searchIndex.catchUp();
+    }
+
+    private long insertDeposit(Long accountId, String description) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO transactions (to_account_id, amount, transaction_type, description, transaction_date, status) " +
+                    "VALUES (?, 1.00, 'DEPOSIT', ?, ?, 'COMPLETED')", new String[] { "id" });
+            statement.setLong(1, accountId);
+            statement.setString(2, description);
+            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+}
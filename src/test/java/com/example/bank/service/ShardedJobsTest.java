@@ -0,0 +1,159 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Money;
+import com.example.bank.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The background jobs and the outbox relay over the same two shards as ShardedTransferTest; work on
+// shard 1 must be picked up as well as work on shard 0
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bank_shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.open-in-view=false",
+        "bank.sharding.enabled=true",
+        "bank.sharding.shards[0].url=jdbc:h2:mem:bank_shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "bank.sharding.shards[0].username=sa",
+        "bank.sharding.shards[0].password="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShardedJobsTest {
+
+    private static final AtomicInteger EMAILS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InProcessOutboxSink sink;
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void outboxDeliversEventsFromEveryShard() throws Exception {
+        long first = createAccount(register(0));
+        long second = createAccount(register(1));
+        CountDownLatch delivered = new CountDownLatch(2);
+
+        AutoCloseable subscription = sink.subscribe(events -> {
+            for (OutboxEvent event : events) {
+                if ("DEPOSIT".equals(event.getTransactionType())
+                        && (first == event.getAccountId() || second == event.getAccountId())) {
+                    delivered.countDown();
+                }
+            }
+        });
+        try (subscription) {
+            deposit(first, "1.00");
+            deposit(second, "1.00");
+
+            assertTrue(delivered.await(10, TimeUnit.SECONDS), "a shard's deposit was never delivered");
+        }
+    }
+
+    @Test
+    void bulkCreditReachesEveryShard() throws Exception {
+        long first = createAccount(register(0));
+        long second = createAccount(register(1));
+        // Its own account type, so the credit leaves the other tests' accounts alone
+        for (long accountId : new long[] { first, second }) {
+            shardRouter.inShard(shardRouter.shardOfId(accountId), false, () ->
+                    jdbcTemplate.update("UPDATE accounts SET account_type = 'BULKSHARD' WHERE id = ?", accountId));
+        }
+
+        BackgroundJob job = bulkOperationService.creditAllAccounts(new BigDecimal("2.50"), "BULKSHARD", "Sharded credit");
+        await(job);
+
+        assertEquals(Money.valueOf("5002.50"), balance(first));
+        assertEquals(Money.valueOf("5002.50"), balance(second));
+        assertEquals(2, job.getProcessed());
+    }
+
+    @Test
+    void reconciliationChecksEveryShard() throws Exception {
+        long drifted = createAccount(register(1));
+        shardRouter.inShard(1, false, () ->
+                jdbcTemplate.update("UPDATE accounts SET balance = balance + 7.00 WHERE id = ?", drifted));
+
+        // Report only: other tests on these shards leave accounts off their ledger on purpose
+        BackgroundJob job = reconciliationService.startReconciliation(false);
+        await(job);
+
+        List<Long> reported = ((ReconciliationReport) job.getResult()).getDiscrepancies().stream()
+                .map(ReconciliationReport.Discrepancy::getAccountId).toList();
+        assertTrue(reported.contains(drifted));
+    }
+
+    private void deposit(long accountId, String amount) {
+        ShardRouter.Scope scope = shardRouter.forId(accountId);
+        try (scope) {
+            accountService.depositMoney(accountId, Money.valueOf(amount));
+        }
+    }
+
+    private Money balance(long accountId) {
+        return Money.of(shardRouter.inShard(shardRouter.shardOfId(accountId), true, () ->
+                jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId)));
+    }
+
+    private void await(BackgroundJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && !job.isFinished(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+    }
+
+    private long register(int shard) throws Exception {
+        String email;
+        do {
+            email = "shard.jobs" + EMAILS.incrementAndGet() + "@example.com";
+        } while (shardRouter.shardOfEmail(email) != shard);
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Shard\",\"lastName\":\"Jobs\",\"email\":\"" + email + "\","
+                                + "\"password\":\"secret\",\"phone\":\"5551234\"}"))
+                .andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("userId").asLong();
+    }
+
+    private long createAccount(long userId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/accounts/create").param("userId", String.valueOf(userId)))
+                .andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
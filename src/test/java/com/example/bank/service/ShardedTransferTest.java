@@ -0,0 +1,184 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two in-memory H2 databases as shards; users, accounts and transfers go through the HTTP API
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bank_shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.open-in-view=false",
+        "bank.sharding.enabled=true",
+        "bank.sharding.shards[0].url=jdbc:h2:mem:bank_shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "bank.sharding.shards[0].username=sa",
+        "bank.sharding.shards[0].password="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShardedTransferTest {
+
+    private static final AtomicInteger EMAILS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void usersAccountsAndPostingsStayOnTheirShard() throws Exception {
+        long userId = register(1);
+        long accountId = createAccount(userId);
+
+        assertEquals(1, shardRouter.shardOfId(userId));
+        assertEquals(1, shardRouter.shardOfId(accountId));
+        assertEquals(Money.ofCents(500_000), balance(accountId));
+        assertTrue(shardRouter.inShard(0, true, () -> accountRepository.findById(accountId)).isEmpty());
+    }
+
+    @Test
+    void sameShardTransferIsLocal() throws Exception {
+        long from = createAccount(register(0));
+        long to = createAccount(register(0));
+
+        transfer(from, to, "12.50").andExpect(status().isOk());
+
+        assertEquals(Money.valueOf("4987.50"), balance(from));
+        assertEquals(Money.valueOf("5012.50"), balance(to));
+        assertEquals("COMPLETED", newestPosting(from).getStatus());
+    }
+
+    @Test
+    void crossShardTransferCompletesOnBothShards() throws Exception {
+        long from = createAccount(register(0));
+        long to = createAccount(register(1));
+
+        transfer(from, to, "100").andExpect(status().isOk());
+
+        assertEquals(Money.valueOf("4900.00"), balance(from));
+        assertEquals(Money.valueOf("5100.00"), balance(to));
+        assertEquals("COMPLETED", newestPosting(from).getStatus());
+        Transaction credit = newestPosting(to);
+        assertEquals("TRANSFER", credit.getTransactionType());
+        assertEquals(Money.valueOf("100.00"), credit.getAmount());
+    }
+
+    @Test
+    void crossShardTransferToUnknownAccountIsRejectedBeforeTheDebit() throws Exception {
+        long from = createAccount(register(1));
+
+        transfer(from, shardRouter.firstId(0) + 999_999, "10").andExpect(status().isBadRequest());
+
+        assertEquals(Money.ofCents(500_000), balance(from));
+    }
+
+    @Test
+    void refusedCreditIsCompensated() throws Exception {
+        long from = createAccount(register(0));
+        long to = createAccount(register(1));
+        // The target is at the column limit, so the credit step on shard 1 fails
+        shardRouter.inShard(1, false, () -> {
+            Account account = accountRepository.findById(to).orElseThrow();
+            account.setBalance(Money.valueOf("9999999999999.99"));
+            return account;
+        });
+
+        transfer(from, to, "50").andExpect(status().isOk());
+
+        assertEquals(Money.ofCents(500_000), balance(from));
+        assertEquals(Money.valueOf("9999999999999.99"), balance(to));
+        List<Transaction> postings = shardRouter.inShard(0, true,
+                () -> transactionRepository.findTransactionsByAccountWithDetails(from));
+        assertTrue(postings.stream().anyMatch(posting -> "REVERSED".equals(posting.getStatus())));
+        assertTrue(postings.stream().anyMatch(posting -> posting.getDescription().startsWith("Reversal of transfer")));
+    }
+
+    @Test
+    void recentTransactionsMergeAllShards() throws Exception {
+        long from = createAccount(register(1));
+        long to = createAccount(register(0));
+        transfer(from, to, "1").andExpect(status().isOk());
+
+        JsonNode recent = json(mockMvc.perform(get("/api/transactions/recent").param("count", "100"))
+                .andExpect(status().isOk()).andReturn());
+        boolean sawShard0 = false;
+        boolean sawShard1 = false;
+        for (JsonNode posting : recent) {
+            int shard = shardRouter.shardOfId(posting.get("id").asLong());
+            sawShard0 |= shard == 0;
+            sawShard1 |= shard == 1;
+        }
+        assertTrue(sawShard0 && sawShard1);
+    }
+
+    private long register(int shard) throws Exception {
+        String email;
+        do {
+            email = "shard.user" + EMAILS.incrementAndGet() + "@example.com";
+        } while (shardRouter.shardOfEmail(email) != shard);
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Shard\",\"lastName\":\"User\",\"email\":\"" + email + "\","
+                                + "\"password\":\"secret\",\"phone\":\"5551234\"}"))
+                .andExpect(status().isOk()).andReturn();
+        return json(result).get("userId").asLong();
+    }
+
+    private long createAccount(long userId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/accounts/create").param("userId", String.valueOf(userId)))
+                .andExpect(status().isOk()).andReturn();
+        return json(result).get("id").asLong();
+    }
+
+    private Money balance(long accountId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/accounts/" + accountId)).andExpect(status().isOk()).andReturn();
+        return Money.of(json(result).get("balance").decimalValue());
+    }
+
+    private ResultActions transfer(long from, long to, String amount) throws Exception {
+        return mockMvc.perform(post("/api/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":" + from + ",\"toAccountId\":" + to + ",\"amount\":" + amount + "}"));
+    }
+
+    private Transaction newestPosting(long accountId) {
+        List<Transaction> postings = shardRouter.inShard(shardRouter.shardOfId(accountId), true,
+                () -> transactionRepository.findTransactionsByAccountWithDetails(accountId));
+        return postings.stream().max((a, b) -> Long.compare(a.getId(), b.getId())).orElseThrow();
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.StandingOrderRequest;
+import com.example.bank.event.StandingOrderChangedEvent;
+import com.example.bank.model.Money;
+import com.example.bank.model.StandingOrder;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Orders go through the real scheduler: created due now, picked up by the wheel within a tick or two
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class StandingOrderRunTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private StandingOrderScheduler scheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dueOrderRunsOnceAndCompletes() throws Exception {
+        Long from = fixtures.openAccount("100.00");
+        Long to = fixtures.openAccount("0");
+
+        StandingOrder order = standingOrderService.createStandingOrder(request(from, to, "ONCE"));
+        waitUntil(() -> !"ACTIVE".equals(standingOrderService.getStandingOrderById(order.getId()).getStatus()));
+
+        StandingOrder done = standingOrderService.getStandingOrderById(order.getId());
+        assertEquals("COMPLETED", done.getStatus());
+        assertEquals(1, done.getExecutionCount());
+        assertNull(done.getNextExecutionAt());
+        assertEquals(Money.valueOf("87.50"), fixtures.balance(from));
+        assertEquals(Money.valueOf("12.50"), fixtures.balance(to));
+        assertEquals(1, postings(order.getId()));
+    }
+
+    // Once an occurrence has run the order is advanced in the same transaction, so a stale wheel
+    // entry for it finds the order no longer due when it claims it and posts nothing
+    @Test
+    void staleRunAfterTheAdvanceDoesNotPostAgain() throws Exception {
+        Long from = fixtures.openAccount("100.00");
+        Long to = fixtures.openAccount("0");
+
+        StandingOrder order = standingOrderService.createStandingOrder(request(from, to, "DAILY"));
+        waitUntil(() -> standingOrderService.getStandingOrderById(order.getId()).getExecutionCount() == 1);
+        StandingOrder advanced = standingOrderService.getStandingOrderById(order.getId());
+        assertEquals("ACTIVE", advanced.getStatus());
+        assertEquals(advanced.getStartAt().plusDays(1), advanced.getNextExecutionAt());
+
+        long executed = (Long) scheduler.getStats().get("executed");
+        scheduler.onStandingOrderChanged(new StandingOrderChangedEvent(order.getId(), "ACTIVE", LocalDateTime.now()));
+        assertEquals(1, scheduler.getStats().get("scheduled"));
+        waitUntil(() -> scheduler.getStats().get("scheduled").equals(0) && scheduler.getStats().get("inFlight").equals(0));
+
+        assertEquals(executed, scheduler.getStats().get("executed"));
+        assertEquals(1, standingOrderService.getStandingOrderById(order.getId()).getExecutionCount());
+        assertEquals(Money.valueOf("87.50"), fixtures.balance(from));
+        assertEquals(1, postings(order.getId()));
+    }
+
+    private static StandingOrderRequest request(Long from, Long to, String frequency) {
+        StandingOrderRequest request = new StandingOrderRequest();
+        request.setFromAccountId(from);
+        request.setToAccountId(to);
+        request.setAmount(Money.valueOf("12.50"));
+        request.setFrequency(frequency);
+        request.setStartAt(LocalDateTime.now());
+        return request;
+    }
+
+    private int postings(Long orderId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE description = ?",
+                Integer.class, "Standing order #" + orderId);
+        return count != null ? count : 0;
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean(), () -> "scheduler " + scheduler.getStats());
+    }
+}
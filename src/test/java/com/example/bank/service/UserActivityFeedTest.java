@@ -0,0 +1,101 @@
+package com.example.bank.service;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.User;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.UserRepository;
+import com.example.bank.support.BankFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BankFixtures.class)
+class UserActivityFeedTest {
+
+    @Autowired
+    private BankFixtures fixtures;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Set-based deposits get one feed row and one outbox event per posting, while a posting of
+    // another transaction that is still open gets its own from its listeners and nothing from them
+    @Test
+    void setBasedDepositsFeedExactlyTheirOwnPostings() throws Exception {
+        User user = userRepository.save(new User("Feed", "User",
+                "feed-" + System.nanoTime() + "@example.com", "x", "5550200"));
+        String accountType = "FEED" + System.nanoTime() % 100_000;
+        Long first = accountRepository.save(new Account(String.format("FED%010d", System.nanoTime() % 10_000_000_000L),
+                accountType, user)).getId();
+        Long second = accountRepository.save(new Account(String.format("FED%010d", System.nanoTime() % 10_000_000_000L),
+                accountType, user)).getId();
+        Long other = fixtures.openAccount("0");
+
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> open = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            accountService.depositMoney(other, Money.valueOf("3.00"));
+            posted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(posted.await(10, TimeUnit.SECONDS));
+            assertEquals(2, accountService.depositToAllUserAccounts(user.getId(), Money.valueOf("5.00"), null));
+            BackgroundJob job = bulkOperationService.creditAllAccounts(new BigDecimal("1.00"), accountType, null);
+            for (int i = 0; i < 300 && !job.isFinished(); i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(BackgroundJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        } finally {
+            release.countDown();
+        }
+        open.get(10, TimeUnit.SECONDS);
+
+        for (Long accountId : new Long[] { first, second, other }) {
+            assertEquals(0L, count("SELECT COUNT(*) FROM transactions t WHERE t.to_account_id = ? " +
+                    "AND (SELECT COUNT(*) FROM user_activity f WHERE f.transaction_id = t.id) <> 1", accountId));
+            assertEquals(0L, count("SELECT COUNT(*) FROM transactions t WHERE t.to_account_id = ? " +
+                    "AND (SELECT COUNT(*) FROM outbox_events o WHERE o.transaction_id = t.id) <> 1", accountId));
+        }
+        assertEquals(4L, count("SELECT COUNT(*) FROM user_activity WHERE user_id = ?", user.getId()));
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bank.service;
+
+import com.example.bank.config.VelocityProperties;
+import com.example.bank.exception.VelocityLimitExceededException;
+import com.example.bank.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VelocityEngineTest {
+
+    private static final int MAX_PER_MINUTE = 5;
+
+    // Debits racing on one account never pass on the same totals
+    @Test
+    void concurrentReservationsStayWithinTheLimit() throws Exception {
+        VelocityEngine engine = new VelocityEngine(properties(), null, null);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        engine.reserve(1L, Money.valueOf("1.00"));
+                        return true;
+                    } catch (VelocityLimitExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int passed = 0;
+            for (Future<Boolean> result : results) {
+                passed += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(MAX_PER_MINUTE, passed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // A reservation whose transaction rolls back no longer counts; a committed one does
+    @Test
+    void rollbackReleasesTheReservation() {
+        VelocityEngine engine = new VelocityEngine(properties(), null, null);
+        for (int i = 0; i < MAX_PER_MINUTE; i++) {
+            inTransaction(() -> engine.reserve(2L, Money.valueOf("1.00")), TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        for (int i = 0; i < MAX_PER_MINUTE; i++) {
+            inTransaction(() -> engine.reserve(2L, Money.valueOf("1.00")), TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertThrows(VelocityLimitExceededException.class, () -> engine.reserve(2L, Money.valueOf("1.00")));
+    }
+
+    private static void inTransaction(Runnable work, int outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(outcome);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static VelocityProperties properties() {
+        VelocityProperties properties = new VelocityProperties();
+        properties.getPerMinute().setMaxCount(MAX_PER_MINUTE);
+        return properties;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bank.support;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.User;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.UserRepository;
+import com.example.bank.service.AccountService;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Users and accounts for the service-level behaviour tests. openAccount posts its opening money as a
+// deposit, so the balance starts equal to its ledger; seedAccount loads it the way the seed scripts do,
+// as an opening balance no posting explains
+@TestComponent
+public class BankFixtures {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BankFixtures(UserRepository userRepository, AccountRepository accountRepository,
+                        AccountService accountService, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long openAccount(String openingBalance) {
+        int n = SEQUENCE.incrementAndGet();
+        User user = userRepository.save(new User("Fixture", "User" + n,
+                "fixture" + n + "-" + System.nanoTime() + "@example.com", "x", "555" + n));
+        Account account = accountRepository.save(new Account(String.format("FIX%010d", System.nanoTime() % 10_000_000_000L),
+                "SAVINGS", user));
+        Money opening = Money.valueOf(openingBalance);
+        if (opening.isPositive()) {
+            accountService.depositMoney(account.getId(), opening);
+        }
+        return account.getId();
+    }
+
+    public Long seedAccount(String openingBalance) {
+        Long accountId = openAccount("0");
+        jdbcTemplate.update("UPDATE accounts SET balance = ?, opening_balance = ? WHERE id = ?",
+                new BigDecimal(openingBalance), new BigDecimal(openingBalance), accountId);
+        return accountId;
+    }
+
+    public Money balance(Long accountId) {
+        return Money.of(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId));
+    }
+
+    // Sum of every posting into the account minus every posting out of it
+    public Money ledger(Long accountId) {
+        return Money.of(jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT SUM(amount) FROM transactions WHERE to_account_id = ?), 0) - " +
+                "COALESCE((SELECT SUM(amount) FROM transactions WHERE from_account_id = ?), 0)",
+                BigDecimal.class, accountId, accountId));
+    }
+}
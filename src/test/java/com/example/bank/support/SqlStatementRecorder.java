@@ -0,0 +1,83 @@
+package com.example.bank.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Statements and fetched rows seen on the current thread while a recording is open. Statements
+// from other threads (schedulers, the outbox relay) are never attributed to the request under test.
+public final class SqlStatementRecorder {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementRecorder() {
+    }
+
+    public static Recording start() {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    static RecordedStatement record(String sql, int batchSize) {
+        Recording recording = CURRENT.get();
+        if (recording == null || recording.stopped) {
+            return null;
+        }
+        RecordedStatement statement = new RecordedStatement(sql, batchSize);
+        recording.statements.add(statement);
+        return statement;
+    }
+
+    public static final class Recording implements AutoCloseable {
+        private final List<RecordedStatement> statements = new ArrayList<>();
+        private boolean stopped;
+
+        public List<RecordedStatement> getStatements() { return statements; }
+
+        public int statementCount() {
+            return statements.size();
+        }
+
+        public long rowsFetched() {
+            return statements.stream().mapToLong(RecordedStatement::getRowsFetched).sum();
+        }
+
+        public String describe() {
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < statements.size(); i++) {
+                RecordedStatement statement = statements.get(i);
+                out.append(String.format("%n  %3d. [%d rows%s] %s", i + 1, statement.getRowsFetched(),
+                        statement.getBatchSize() > 1 ? ", batch of " + statement.getBatchSize() : "",
+                        statement.getSql().replaceAll("\\s+", " ").trim()));
+            }
+            return out.toString();
+        }
+
+        @Override
+        public void close() {
+            stopped = true;
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static final class RecordedStatement {
+        private final String sql;
+        private final int batchSize;
+        private long rowsFetched;
+
+        RecordedStatement(String sql, int batchSize) {
+            this.sql = sql;
+            this.batchSize = batchSize;
+        }
+
+        void addRow() {
+            rowsFetched++;
+        }
+
+        public String getSql() { return sql; }
+        public int getBatchSize() { return batchSize; }
+        public long getRowsFetched() { return rowsFetched; }
+    }
+}
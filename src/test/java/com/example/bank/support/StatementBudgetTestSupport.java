@@ -0,0 +1,180 @@
+package com.example.bank.support;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.Money;
+import com.example.bank.model.Transaction;
+import com.example.bank.model.User;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.TransactionRepository;
+import com.example.bank.repository.UserRepository;
+import com.example.bank.service.AccountStatsServiceImpl;
+import com.example.bank.service.PostingSequencer;
+import com.example.bank.service.TransactionSearchIndex;
+import com.example.bank.service.UserActivityFeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Runs endpoints against an in-memory H2 database holding a realistic data set and fails when a
+// request issues more SQL statements or reads more rows than its budget. Budgets sit just above
+// what each endpoint needs today, so an N+1 or an unbounded read shows up as a test failure that
+// lists every statement the request ran. All budget test classes share one context and data set.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementBudgetTestConfiguration.class)
+public abstract class StatementBudgetTestSupport {
+
+    protected static final int USERS = 20;
+    protected static final int ACCOUNTS_PER_USER = 3;
+    protected static final int TRANSACTIONS_PER_ACCOUNT = 40;
+    protected static final int HISTORY_DAYS = 60;
+    protected static final String PASSWORD = "budget-password";
+
+    private static final String[] ACCOUNT_TYPES = { "SAVINGS", "CHECKING", "SAVINGS" };
+    private static final String[] DESCRIPTIONS = {
+            "Salary payment", "Rent for apartment", "Grocery store", "Electricity bill",
+            "Coffee shop", "Gym membership", "Insurance premium", "Dinner with friends" };
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected AccountRepository accountRepository;
+
+    @Autowired
+    protected TransactionRepository transactionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserActivityFeed userActivityFeed;
+
+    @Autowired
+    private TransactionSearchIndex transactionSearchIndex;
+
+    @Autowired
+    private AccountStatsServiceImpl accountStatsService;
+
+    @Autowired
+    private PostingSequencer postingSequencer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected static List<Long> userIds = new ArrayList<>();
+    protected static List<Long> accountIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedOnce() throws InterruptedException {
+        synchronized (StatementBudgetTestSupport.class) {
+            if (userIds.isEmpty()) {
+                seed();
+            }
+        }
+    }
+
+    // Every account starts with a deposit, then alternates transfers, deposits and withdrawals
+    // spread over the last HISTORY_DAYS days
+    private void seed() throws InterruptedException {
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("Budget", "User" + i, "budget" + i + "@example.com", passwordHash, "555000" + i);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        List<Account> accounts = new ArrayList<>();
+        for (User user : users) {
+            for (int i = 0; i < ACCOUNT_TYPES.length; i++) {
+                Account account = new Account(String.format("BGT%06d%d", user.getId(), i), ACCOUNT_TYPES[i], user);
+                account.setBalance(Money.ofCents(1_000_000_00L));
+                accounts.add(account);
+            }
+        }
+        accounts = accountRepository.saveAll(accounts);
+
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(HISTORY_DAYS);
+        for (int a = 0; a < accounts.size(); a++) {
+            Account account = accounts.get(a);
+            Account counterparty = accounts.get((a + 1) % accounts.size());
+            for (int i = 0; i < TRANSACTIONS_PER_ACCOUNT; i++) {
+                Money amount = Money.ofCents(100 + (a * 37L + i * 101L) % 50_000);
+                String description = DESCRIPTIONS[(a + i) % DESCRIPTIONS.length];
+                Transaction transaction = switch (i % 3) {
+                    case 0 -> new Transaction(null, account, amount, "DEPOSIT", description);
+                    case 1 -> new Transaction(account, null, amount, "WITHDRAWAL", description);
+                    default -> new Transaction(account, counterparty, amount, "TRANSFER", description);
+                };
+                transaction.setTransactionDate(start.plusMinutes(a * 11L + i * 2160L));
+                transactions.add(transaction);
+            }
+        }
+        transactionRepository.saveAll(transactions);
+
+        // Rows saved through the repositories raise no posting events
+        userActivityFeed.backfill();
+        transactionSearchIndex.catchUp();
+        accountStatsService.rollUp();
+        // The change feed only shows sequenced postings; the relay may be mid-pass, so wait for it
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE commit_seq IS NULL", Long.class) > 0) {
+            postingSequencer.sequence();
+            Thread.sleep(10);
+        }
+
+        users.forEach(user -> userIds.add(user.getId()));
+        accounts.forEach(account -> accountIds.add(account.getId()));
+    }
+
+    protected Long userId(int index) {
+        return userIds.get(index);
+    }
+
+    protected Long accountId(int index) {
+        return accountIds.get(index);
+    }
+
+    // Performs the request on this thread with recording on; the request must succeed and stay
+    // within both budgets
+    protected MvcResult assertBudget(String endpoint, int maxStatements, long maxRows, RequestBuilder request) throws Exception {
+        MvcResult result;
+        SqlStatementRecorder.Recording recording = SqlStatementRecorder.start();
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            recording.close();
+        }
+
+        int status = result.getResponse().getStatus();
+        if (status >= 300) {
+            fail(endpoint + " returned " + status + ": " + result.getResponse().getContentAsString()
+                    + "\nStatements:" + recording.describe());
+        }
+        if (recording.statementCount() > maxStatements || recording.rowsFetched() > maxRows) {
+            fail(String.format("%s ran %d SQL statements (budget %d) and fetched %d rows (budget %d):%s",
+                    endpoint, recording.statementCount(), maxStatements, recording.rowsFetched(), maxRows,
+                    recording.describe()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.bank.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// JDBC proxy around the pool: every statement execution and every row read through next() is reported
+// to SqlStatementRecorder. Covers Hibernate, JdbcTemplate and native queries alike.
+public final class StatementCountingDataSource {
+
+    private StatementCountingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, new Handler(target) {
+            @Override
+            Object after(Method method, Object[] args, Object result) {
+                if (result instanceof Connection connection) {
+                    return proxy(Connection.class, connection, new ConnectionHandler(connection));
+                }
+                return result;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+        final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            before(method, args);
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return after(method, args, result);
+        }
+
+        void before(Method method, Object[] args) {
+        }
+
+        abstract Object after(Method method, Object[] args, Object result);
+    }
+
+    private static final class ConnectionHandler extends Handler {
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object after(Method method, Object[] args, Object result) {
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return proxy(CallableStatement.class, statement, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends Handler {
+        private final String preparedSql;
+        private final StringBuilder batchSql = new StringBuilder();
+        private int pendingBatch;
+        private SqlStatementRecorder.RecordedStatement last;
+
+        StatementHandler(Statement target, String preparedSql) {
+            super(target);
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        void before(Method method, Object[] args) {
+            String name = method.getName();
+            if (name.equals("addBatch")) {
+                pendingBatch++;
+                if (args != null && args.length == 1 && batchSql.length() == 0) {
+                    batchSql.append(args[0]);
+                }
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                last = SqlStatementRecorder.record(preparedSql != null ? preparedSql : batchSql.toString(), pendingBatch);
+                pendingBatch = 0;
+                batchSql.setLength(0);
+            } else if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                last = SqlStatementRecorder.record(sql, 1);
+            }
+        }
+
+        @Override
+        Object after(Method method, Object[] args, Object result) {
+            if (result instanceof ResultSet resultSet
+                    && (method.getName().equals("executeQuery") || method.getName().equals("getResultSet"))
+                    && last != null) {
+                SqlStatementRecorder.RecordedStatement statement = last;
+                return proxy(ResultSet.class, resultSet, new Handler(resultSet) {
+                    @Override
+                    Object after(Method method, Object[] args, Object result) {
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                            statement.addRow();
+                        }
+                        return result;
+                    }
+                });
+            }
+            return result;
+        }
+    }
+}
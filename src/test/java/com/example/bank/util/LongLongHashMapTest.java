@@ -0,0 +1,53 @@
+package com.example.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTest {
+
+    // Puts, additions and the zero key through several growths agree with a HashMap
+    @Test
+    void matchesAHashMapThroughGrowth() {
+        Random random = new Random(3);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(40_000) - 100;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                map.addTo(key, i);
+                expected.merge(key, (long) i, Long::sum);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, -1)));
+        assertFalse(map.containsKey(1_000_000));
+        assertEquals(-1, map.get(1_000_000, -1));
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    // Presized the way AccountDirectory does it: under 20 bytes an entry
+    @Test
+    void presizedMapStaysNearSixteenBytesAnEntry() {
+        int accounts = 1_000_000;
+        LongLongHashMap map = new LongLongHashMap(accounts);
+        for (long number = 1; number <= accounts; number++) {
+            map.put(1_000_000_000L + number * 7919, number);
+        }
+
+        assertEquals(accounts, map.size());
+        assertTrue(map.memoryBytes() < 20L * accounts, map.memoryBytes() / accounts + " bytes an entry");
+    }
+}
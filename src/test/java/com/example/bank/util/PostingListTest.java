@@ -0,0 +1,80 @@
+package com.example.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostingListTest {
+
+    // Cursors over lists with several blocks and out-of-order tails agree with plain set arithmetic
+    @Test
+    void cursorsMatchTheSets() {
+        Random random = new Random(7);
+        List<TreeSet<Long>> sets = new ArrayList<>();
+        List<PostingList> lists = new ArrayList<>();
+        for (int n = 0; n < 3; n++) {
+            TreeSet<Long> set = new TreeSet<>();
+            PostingList list = new PostingList();
+            for (int i = 0; i < 2_000; i++) {
+                long id = 1 + random.nextInt(6_000);
+                set.add(id);
+                list.add(id);
+            }
+            sets.add(set);
+            lists.add(list);
+        }
+
+        for (int n = 0; n < 3; n++) {
+            assertArrayEquals(descending(sets.get(n)), drain(lists.get(n).descending()));
+        }
+
+        TreeSet<Long> both = new TreeSet<>(sets.get(0));
+        both.retainAll(sets.get(1));
+        both.retainAll(sets.get(2));
+        assertArrayEquals(descending(both), drain(PostingList.intersection(cursors(lists))));
+
+        TreeSet<Long> any = new TreeSet<>(sets.get(0));
+        any.addAll(sets.get(1));
+        any.addAll(sets.get(2));
+        assertArrayEquals(descending(any), drain(PostingList.union(cursors(lists))));
+    }
+
+    @Test
+    void seekLandsOnTheLargestIdNotAboveTheTarget() {
+        PostingList list = new PostingList();
+        for (long id = 10; id <= 10_000; id += 10) {
+            list.add(id);
+        }
+        PostingList.Cursor cursor = list.descending();
+        cursor.seek(5_005);
+        assertEquals(5_000, cursor.current());
+        cursor.seek(5);
+        assertEquals(PostingList.NONE, cursor.current());
+    }
+
+    private static List<PostingList.Cursor> cursors(List<PostingList> lists) {
+        List<PostingList.Cursor> cursors = new ArrayList<>();
+        for (PostingList list : lists) {
+            cursors.add(list.descending());
+        }
+        return cursors;
+    }
+
+    private static long[] drain(PostingList.Cursor cursor) {
+        List<Long> ids = new ArrayList<>();
+        for (; cursor.current() != PostingList.NONE; cursor.advance()) {
+            ids.add(cursor.current());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] descending(TreeSet<Long> set) {
+        return set.descendingSet().stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Small wheels (4 one-second slots under 4 four-second slots, 16 s in all) so every path is reached
+// in a few dozen ticks. Each test records the wheel time at which an item came out.
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    // Entries beyond the first level wait a level up and are cascaded down to fire on their own tick
+    @Test
+    void cascadedEntriesFireOnTheirTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0, 4, 4);
+        for (long deadline = TICK; deadline <= wheel.horizon(); deadline += TICK) {
+            assertTrue(wheel.schedule(deadline, deadline));
+        }
+
+        List<long[]> fired = tickTo(wheel, 20 * TICK);
+
+        assertEquals(15, fired.size());
+        for (long[] run : fired) {
+            assertEquals(run[0], run[1], "deadline " + run[0]);
+        }
+        assertTrue(wheel.isEmpty());
+    }
+
+    // Past the top level an entry sits in the overflow list and is brought back in once it fits
+    @Test
+    void overflowEntriesFireOnTheirTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0, 4, 4);
+        long far = 37 * TICK;
+        assertTrue(far > wheel.horizon());
+        assertTrue(wheel.schedule(far, far));
+        assertTrue(wheel.schedule(100 * TICK, 100 * TICK));
+
+        List<long[]> fired = tickTo(wheel, 60 * TICK);
+
+        assertEquals(1, fired.size());
+        assertEquals(far, fired.get(0)[1]);
+        assertEquals(1, wheel.size());
+
+        fired = tickTo(wheel, 120 * TICK);
+        assertEquals(1, fired.size());
+        assertEquals(100 * TICK, fired.get(0)[1]);
+    }
+
+    // A deadline inside the current tick rounds up to the next one; at or before the tick it is refused
+    @Test
+    void deadlinesRoundUpAndPastOnesAreRefused() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 5_500, 4, 4);
+        assertEquals(5_000, wheel.getCurrentTime());
+
+        assertFalse(wheel.schedule(5_000, 1L));
+        assertFalse(wheel.schedule(4_200, 2L));
+        assertTrue(wheel.schedule(5_200, 3L));
+        assertTrue(wheel.schedule(6_001, 4L));
+
+        List<Long> early = new ArrayList<>();
+        wheel.advance(5_999, early::add);
+        assertTrue(early.isEmpty());
+
+        List<long[]> fired = tickTo(wheel, 10_000);
+        assertEquals(2, fired.size());
+        assertEquals(6_000, fired.get(0)[1]);
+        assertEquals(7_000, fired.get(1)[1]);
+    }
+
+    // One advance over many ticks still hands out everything due, and nothing that is not
+    @Test
+    void largeAdvanceMatchesTickByTick() {
+        Random random = new Random(11);
+        TimingWheel<Long> stepped = new TimingWheel<>(TICK, 0, 4, 4);
+        TimingWheel<Long> jumped = new TimingWheel<>(TICK, 0, 4, 4);
+        for (int i = 0; i < 500; i++) {
+            long deadline = 1 + random.nextInt(80_000);
+            stepped.schedule(deadline, (long) i);
+            jumped.schedule(deadline, (long) i);
+        }
+
+        List<Long> steppedOut = new ArrayList<>();
+        for (long now = TICK; now <= 50_000; now += TICK) {
+            stepped.advance(now, steppedOut::add);
+        }
+        List<Long> jumpedOut = new ArrayList<>();
+        jumped.advance(50_000, jumpedOut::add);
+
+        assertEquals(steppedOut.stream().sorted().toList(), jumpedOut.stream().sorted().toList());
+        assertEquals(stepped.size(), jumped.size());
+    }
+
+    // Pairs of (deadline, wheel time it fired at), advancing one tick at a time
+    private static List<long[]> tickTo(TimingWheel<Long> wheel, long until) {
+        List<long[]> fired = new ArrayList<>();
+        while (wheel.getCurrentTime() < until) {
+            long now = wheel.getCurrentTime() + TICK;
+            wheel.advance(now, deadline -> fired.add(new long[] { deadline, now }));
+        }
+        return fired;
+    }
+}